@@ -3,6 +3,8 @@
 # Parallel Load Testing Script - Faster execution
 # Generates 15,000+ requests using parallel processing
 
+# These scripts reuse a handful of driver/rider ids, so start the app with
+# --rate-limit.enabled=false or most requests are answered with 429
 API_BASE="http://localhost:8080/v1"
 CONCURRENT_REQUESTS=50  # Number of parallel requests
 TOTAL_REQUESTS=15000
@@ -0,0 +1,65 @@
+#!/bin/bash
+
+# Virtual vs platform thread benchmark
+# Starts the application once per execution mode and drives the same GET workload with wrk
+# at increasing connection counts, reporting throughput and p99 latency.
+# Requires: wrk, Java 21, and a file descriptor limit above the largest connection count.
+
+set -e
+
+API_BASE="http://localhost:8080/v1"
+CONNECTIONS=${CONNECTIONS:-"1000 2500 5000 10000"}
+DURATION=${DURATION:-30s}
+THREADS=${THREADS:-8}
+
+if ! command -v wrk > /dev/null; then
+    echo "wrk is required (https://github.com/wg/wrk)"
+    exit 1
+fi
+ulimit -n 65535 2>/dev/null || echo "⚠️  Could not raise the file descriptor limit; large runs may fail"
+
+echo "📦 Building application jar..."
+./gradlew -q bootJar
+JAR=$(ls build/libs/*.jar | grep -v plain | head -1)
+
+run_mode() {
+    local virtual=$1
+    java -jar "$JAR" \
+        --spring.threads.virtual.enabled=$virtual \
+        --rate-limit.enabled=false \
+        --logging.level.com.interview.gocomet=WARN > "build/load-test-virtual-$virtual.log" 2>&1 &
+    local pid=$!
+    trap "kill $pid 2>/dev/null" EXIT
+    
+    until curl -s "$API_BASE/rides/active" > /dev/null; do
+        sleep 1
+    done
+    
+    # One ride to poll, the way rider.js does
+    local ride_id
+    ride_id=$(curl -s -X POST "$API_BASE/rides" \
+        -H "Content-Type: application/json" \
+        -d '{"riderId":"RIDER-LOAD","pickupLatitude":28.7041,"pickupLongitude":77.1025,
+             "destinationLatitude":28.5355,"destinationLongitude":77.3910,
+             "tier":"ECONOMY","paymentMethod":"CARD"}' | sed -E 's/.*"rideId":"([^"]+)".*/\1/')
+    
+    for connections in $CONNECTIONS; do
+        for endpoint in "/rides/$ride_id" "/rides/active"; do
+            local result
+            result=$(wrk -t"$THREADS" -c"$connections" -d"$DURATION" --latency "$API_BASE$endpoint")
+            local rps p99
+            rps=$(echo "$result" | awk '/Requests\/sec/ {print $2}')
+            p99=$(echo "$result" | awk '$1 == "99%" {print $2}')
+            printf "%-9s %-22s %8s %12s %10s\n" "$([ "$virtual" = true ] && echo virtual || echo platform)" \
+                "$endpoint" "$connections" "$rps" "$p99"
+        done
+    done
+    
+    kill $pid
+    wait $pid 2>/dev/null || true
+    trap - EXIT
+}
+
+printf "%-9s %-22s %8s %12s %10s\n" "mode" "endpoint" "conns" "req/s" "p99"
+run_mode false
+run_mode true
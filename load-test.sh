@@ -3,6 +3,8 @@
 # Load Testing Script for GoComet DAW APIs
 # Generates 15,000+ requests across all endpoints
 
+# These scripts reuse a handful of driver/rider ids, so start the app with
+# --rate-limit.enabled=false or most requests are answered with 429
 API_BASE="http://localhost:8080/v1"
 TOTAL_REQUESTS=0
 SUCCESS=0
@@ -0,0 +1,73 @@
+package com.interview.gocomet.GoComet.DAW;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Prints the score change of every benchmark between two JMH JSON result files, flagging
+ * changes larger than the combined error margin. For time-per-operation modes a positive
+ * change is a slowdown.
+ * Run with: gradle jmhCompare -Pbaseline=old.json [-Pcurrent=new.json]
+ */
+public class JmhResultComparison {
+    
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args[0].isBlank()) {
+            System.err.println("Usage: JmhResultComparison <baseline.json> <current.json>");
+            System.exit(2);
+        }
+        Map<String, JsonNode> baseline = read(new File(args[0]));
+        Map<String, JsonNode> current = read(new File(args[1]));
+        
+        System.out.printf("%-80s %14s %14s %9s %s%n", "benchmark", "baseline", "current", "change", "unit");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode now = entry.getValue().get("primaryMetric");
+            JsonNode before = baseline.containsKey(entry.getKey()) ? baseline.get(entry.getKey()).get("primaryMetric") : null;
+            if (before == null) {
+                System.out.printf("%-80s %14s %14.3f %9s %s%n", entry.getKey(), "-", now.get("score").asDouble(),
+                    "new", now.get("scoreUnit").asText());
+                continue;
+            }
+            double was = before.get("score").asDouble();
+            double is = now.get("score").asDouble();
+            double change = (is - was) / was * 100;
+            boolean significant = Math.abs(is - was) > error(before) + error(now);
+            System.out.printf("%-80s %14.3f %14.3f %+8.1f%% %s%s%n", entry.getKey(), was, is, change,
+                now.get("scoreUnit").asText(), significant ? "  *" : "");
+        }
+        baseline.keySet().stream()
+            .filter(key -> !current.containsKey(key))
+            .forEach(key -> System.out.printf("%-80s %14s%n", key, "removed"));
+    }
+    
+    private static double error(JsonNode metric) {
+        double error = metric.path("scoreError").asDouble(0);
+        return Double.isNaN(error) ? 0 : error;
+    }
+    
+    /**
+     * Results keyed by benchmark and parameters, e.g. "...rankByDistance candidates=50"
+     */
+    private static Map<String, JsonNode> read(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(result.get("benchmark").asText()
+                .replace("com.interview.gocomet.GoComet.DAW.", ""));
+            JsonNode params = result.get("params");
+            if (params != null) {
+                for (Iterator<Map.Entry<String, JsonNode>> it = params.fields(); it.hasNext(); ) {
+                    Map.Entry<String, JsonNode> param = it.next();
+                    key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+                }
+            }
+            results.put(key.toString(), result);
+        }
+        return results;
+    }
+}
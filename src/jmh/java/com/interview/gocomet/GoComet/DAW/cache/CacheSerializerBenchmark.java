@@ -0,0 +1,98 @@
+package com.interview.gocomet.GoComet.DAW.cache;
+
+import com.interview.gocomet.GoComet.DAW.config.RedisConfig;
+import com.interview.gocomet.GoComet.DAW.dto.PaymentResponse;
+import com.interview.gocomet.GoComet.DAW.dto.RideResponse;
+import com.interview.gocomet.GoComet.DAW.model.Driver;
+import com.interview.gocomet.GoComet.DAW.model.DriverStatus;
+import com.interview.gocomet.GoComet.DAW.model.PaymentStatus;
+import com.interview.gocomet.GoComet.DAW.model.RideStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis value serializers on the hot cached types. Run with -prof gc for allocation per
+ * operation; gradle compareCacheSerializers also reports payload sizes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CacheSerializerBenchmark {
+    
+    @Param({"Driver", "RideResponse", "PaymentResponse", "DriverList"})
+    public String type;
+    
+    @Param({"json", "binary"})
+    public String format;
+    
+    private RedisSerializer<Object> serializer;
+    private Object value;
+    private byte[] bytes;
+    
+    @Setup
+    public void setUp() {
+        serializer = "json".equals(format)
+            ? RedisConfig.jsonValueSerializer()
+            : new CompactRedisSerializer(CacheCodecs.defaults(), RedisConfig.jsonValueSerializer());
+        value = switch (type) {
+            case "Driver" -> driver();
+            case "RideResponse" -> RideResponse.builder()
+                .rideId("RIDE-6f1c2a7e-2b0f-4a4e-9d1e-3f3c1b2a9d10").riderId("RIDER-7").status(RideStatus.MATCHED)
+                .driverId("DRIVER-42").createdAt(LocalDateTime.of(2024, 5, 1, 10, 0))
+                .matchedAt(LocalDateTime.of(2024, 5, 1, 10, 0, 2)).version(3L).build();
+            case "PaymentResponse" -> PaymentResponse.builder()
+                .paymentId("PAY-0b7d9c1e-5d0a-4a44-8a8e-0f6b8f1e2c3d").tripId(1234L).amount(245.75)
+                .status(PaymentStatus.SUCCESS).pspTransactionId("PSP-7c1d2e3f-4a5b-4c6d-8e9f-0a1b2c3d4e5f")
+                .createdAt(LocalDateTime.of(2024, 5, 1, 10, 30)).build();
+            case "DriverList" -> new ArrayList<>(Collections.nCopies(20, driver()));
+            default -> throw new IllegalArgumentException("Unknown type " + type);
+        };
+        bytes = serializer.serialize(value);
+    }
+    
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(value);
+    }
+    
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(bytes);
+    }
+    
+    private static Driver driver() {
+        return Driver.builder()
+            .id(42L)
+            .driverId("DRIVER-42")
+            .name("Driver 42")
+            .phoneNumber("+919876543210")
+            .vehicleNumber("KA01AB1234")
+            .vehicleType("SEDAN")
+            .status(DriverStatus.AVAILABLE)
+            .latitude(12.9715987)
+            .longitude(77.5945627)
+            .lastLocationUpdate(LocalDateTime.of(2024, 5, 1, 10, 15, 30, 123_000_000))
+            .createdAt(LocalDateTime.of(2024, 1, 1, 0, 0))
+            .updatedAt(LocalDateTime.of(2024, 5, 1, 10, 15, 30))
+            .version(17L)
+            .build();
+    }
+}
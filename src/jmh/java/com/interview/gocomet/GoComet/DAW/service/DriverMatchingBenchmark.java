@@ -0,0 +1,63 @@
+package com.interview.gocomet.GoComet.DAW.service;
+
+import com.interview.gocomet.GoComet.DAW.model.Driver;
+import com.interview.gocomet.GoComet.DAW.model.DriverStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ranking the candidates of one match by distance from the pickup.
+ * The nearby query returns at most 50 drivers; 500 shows how ranking scales if that cap is raised.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DriverMatchingBenchmark {
+    
+    private static final double PICKUP_LATITUDE = 28.7041;
+    private static final double PICKUP_LONGITUDE = 77.1025;
+    
+    @Param({"5", "50", "500"})
+    public int candidates;
+    
+    private final DriverMatchingService driverMatchingService = new DriverMatchingService(null, null, null, null);
+    private List<Driver> drivers;
+    
+    @Setup
+    public void setUp() {
+        // Spread over the 10 km search box, same seed every run
+        Random random = new Random(42);
+        drivers = new ArrayList<>(candidates);
+        for (int i = 0; i < candidates; i++) {
+            drivers.add(Driver.builder()
+                .id((long) i)
+                .driverId("DRIVER-" + i)
+                .status(DriverStatus.AVAILABLE)
+                .latitude(PICKUP_LATITUDE + (random.nextDouble() - 0.5) * 0.18)
+                .longitude(PICKUP_LONGITUDE + (random.nextDouble() - 0.5) * 0.2)
+                .build());
+        }
+    }
+    
+    @Benchmark
+    public List<Driver> rankByDistance() {
+        return driverMatchingService.rankByDistance(PICKUP_LATITUDE, PICKUP_LONGITUDE, drivers);
+    }
+}
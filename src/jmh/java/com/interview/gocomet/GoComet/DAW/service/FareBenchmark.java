@@ -0,0 +1,51 @@
+package com.interview.gocomet.GoComet.DAW.service;
+
+import com.interview.gocomet.GoComet.DAW.model.Trip;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fare and Haversine distance computed when a trip ends
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FareBenchmark {
+    
+    private final TripService tripService = new TripService(null, null, null, null, null, null, null, null);
+    
+    private final Trip trip = Trip.builder()
+        .distanceKm(12.4)
+        .durationMinutes(31.5)
+        .surgeMultiplier(1.3)
+        .build();
+    
+    // Fields, not constants, so the JIT cannot fold the computation away
+    private double startLatitude = 28.7041;
+    private double startLongitude = 77.1025;
+    private double endLatitude = 28.5355;
+    private double endLongitude = 77.3910;
+    
+    @Benchmark
+    public double calculateFare() {
+        tripService.calculateFare(trip);
+        return trip.getTotalFare();
+    }
+    
+    @Benchmark
+    public double calculateDistance() {
+        return tripService.calculateDistance(startLatitude, startLongitude, endLatitude, endLongitude);
+    }
+}
@@ -0,0 +1,79 @@
+package com.interview.gocomet.GoComet.DAW.service;
+
+import com.interview.gocomet.GoComet.DAW.dto.RideResponse;
+import com.interview.gocomet.GoComet.DAW.model.Driver;
+import com.interview.gocomet.GoComet.DAW.model.Ride;
+import com.interview.gocomet.GoComet.DAW.model.RideStatus;
+import com.interview.gocomet.GoComet.DAW.repository.DriverRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping a ride to its API response. The driver lookup is answered in memory, so this
+ * measures the mapping itself; in production each matched ride adds a primary-key read.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RideResponseBenchmark {
+    
+    private final RideService rideService;
+    
+    private final Ride matched = Ride.builder()
+        .id(7L)
+        .rideId("RIDE-6f1c2a7e-2b0f-4a4e-9d1e-3f3c1b2a9d10")
+        .riderId("RIDER-7")
+        .status(RideStatus.MATCHED)
+        .driverId(42L)
+        .createdAt(LocalDateTime.of(2024, 5, 1, 10, 0))
+        .matchedAt(LocalDateTime.of(2024, 5, 1, 10, 0, 2))
+        .version(3L)
+        .build();
+    
+    private final Ride pending = Ride.builder()
+        .id(8L)
+        .rideId("RIDE-0b7d9c1e-5d0a-4a44-8a8e-0f6b8f1e2c3d")
+        .riderId("RIDER-8")
+        .status(RideStatus.PENDING)
+        .createdAt(LocalDateTime.of(2024, 5, 1, 10, 5))
+        .version(0L)
+        .build();
+    
+    public RideResponseBenchmark() {
+        Optional<Driver> driver = Optional.of(Driver.builder().id(42L).driverId("DRIVER-42").build());
+        DriverRepository drivers = (DriverRepository) Proxy.newProxyInstance(DriverRepository.class.getClassLoader(),
+            new Class<?>[] {DriverRepository.class}, (proxy, method, args) -> {
+                if (method.getName().equals("findById")) {
+                    return driver;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+        DriverService driverService = new DriverService(drivers, null, null, null, null, null);
+        rideService = new RideService(null, null, driverService, null, null, null, null);
+    }
+    
+    @Benchmark
+    public RideResponse mapMatchedRide() {
+        return rideService.mapToResponse(matched);
+    }
+    
+    @Benchmark
+    public RideResponse mapPendingRide() {
+        return rideService.mapToResponse(pending);
+    }
+}
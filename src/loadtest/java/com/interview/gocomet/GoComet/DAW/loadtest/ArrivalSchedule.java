@@ -0,0 +1,61 @@
+package com.interview.gocomet.GoComet.DAW.loadtest;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * When each arrival is due, as an offset in nanos from the start of the run. The schedule is
+ * fixed up front and never waits for responses, so a slow server gets the same offered load
+ * as a fast one (an open model).
+ */
+public interface ArrivalSchedule {
+    
+    /**
+     * Offset of the next arrival, or -1 once the run is over
+     */
+    long next();
+    
+    /**
+     * Arrivals at the given rate for the run's duration, with optional periodic bursts
+     */
+    static ArrivalSchedule rate(LoadOptions options) {
+        long end = options.duration().toNanos();
+        long burstEvery = options.burstEvery().toNanos();
+        long burstLength = options.burstLength().toNanos();
+        boolean poisson = "poisson".equals(options.arrivals());
+        SplittableRandom random = new SplittableRandom(42);
+        return new ArrivalSchedule() {
+            private long offset;
+            
+            @Override
+            public long next() {
+                if (offset >= end) {
+                    return -1;
+                }
+                long due = offset;
+                boolean bursting = options.burstRate() > 0 && burstEvery > 0 && due % burstEvery < burstLength;
+                double rate = bursting ? options.burstRate() : options.rate();
+                double gap = poisson ? -Math.log(1 - random.nextDouble()) / rate : 1 / rate;
+                offset = due + (long) (gap * 1_000_000_000L);
+                return due;
+            }
+        };
+    }
+    
+    /**
+     * Offsets recorded with the traffic, replayed speed times faster
+     */
+    static ArrivalSchedule recorded(List<Long> offsetsMillis, double speed) {
+        return new ArrivalSchedule() {
+            private int index;
+            
+            @Override
+            public long next() {
+                if (index == offsetsMillis.size()) {
+                    return -1;
+                }
+                return (long) (offsetsMillis.get(index++) * 1_000_000L / speed);
+            }
+        };
+    }
+}
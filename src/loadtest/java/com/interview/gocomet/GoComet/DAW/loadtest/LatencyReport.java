@@ -0,0 +1,152 @@
+package com.interview.gocomet.GoComet.DAW.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies per endpoint, in microseconds.
+ * Response time runs from when the request was due to be sent, so time a request spent
+ * waiting behind a stalled server (or a stalled generator) counts against the server: this
+ * is the coordinated-omission correction. Service time runs from when it was actually sent,
+ * which is what a closed-loop tool would report; the gap between the two shows the queueing.
+ */
+public class LatencyReport {
+    
+    private static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(10);
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    
+    private final ConcurrentMap<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> dropped = new ConcurrentHashMap<>();
+    private final long recordFromNanos;
+    
+    /**
+     * @param recordFromNanos requests due before this (the warm-up) are not recorded
+     */
+    public LatencyReport(long recordFromNanos) {
+        this.recordFromNanos = recordFromNanos;
+    }
+    
+    /**
+     * @param status HTTP status, 0 if no response came back
+     */
+    public void record(String endpoint, long dueNanos, long sentNanos, long doneNanos, int status) {
+        if (dueNanos < recordFromNanos) {
+            return;
+        }
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, name -> new Endpoint());
+        stats.responseTime.recordValue(Math.min(MAX_MICROS, Math.max(0, (doneNanos - dueNanos) / 1000)));
+        stats.serviceTime.recordValue(Math.min(MAX_MICROS, Math.max(0, (doneNanos - sentNanos) / 1000)));
+        if (status >= 200 && status < 400) {
+            stats.ok.increment();
+        } else if (status >= 400 && status < 500) {
+            stats.clientErrors.increment();
+        } else if (status >= 500) {
+            stats.serverErrors.increment();
+        } else {
+            stats.failed.increment();
+        }
+    }
+    
+    /**
+     * An arrival that was not started because max-in-flight arrivals were still running
+     */
+    public void dropped(String scenario, long dueNanos) {
+        if (dueNanos >= recordFromNanos) {
+            dropped.computeIfAbsent(scenario, name -> new LongAdder()).increment();
+        }
+    }
+    
+    public void print(PrintStream out, double seconds) {
+        out.printf("%-36s %8s %8s %6s %6s %6s %9s %9s %9s %9s %9s %9s%n", "endpoint", "count", "req/s",
+            "4xx", "5xx", "fail", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "svc p99");
+        new TreeMap<>(endpoints).forEach((name, stats) -> {
+            Histogram response = stats.responseTime;
+            out.printf("%-36s %8d %8.1f %6d %6d %6d %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n", name,
+                response.getTotalCount(), response.getTotalCount() / seconds, stats.clientErrors.sum(),
+                stats.serverErrors.sum(), stats.failed.sum(),
+                millis(response, 50), millis(response, 90), millis(response, 99), millis(response, 99.9),
+                response.getMaxValue() / 1000.0, millis(stats.serviceTime, 99));
+        });
+        dropped.forEach((scenario, count) ->
+            out.printf("%d %s arrivals dropped: max-in-flight reached, the target is saturated%n", count.sum(), scenario));
+    }
+    
+    /**
+     * report.json with the percentiles of every endpoint, plus one .hgrm percentile
+     * distribution per endpoint (plottable with HdrHistogram's plotter)
+     */
+    public void write(Path directory, LoadOptions options, double seconds) throws IOException {
+        Files.createDirectories(directory);
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("scenario", options.scenario());
+        report.put("rate", options.rate());
+        report.put("arrivals", options.arrivals());
+        report.put("seconds", seconds);
+        Map<String, Object> byEndpoint = new LinkedHashMap<>();
+        for (Map.Entry<String, Endpoint> entry : new TreeMap<>(endpoints).entrySet()) {
+            Endpoint stats = entry.getValue();
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("count", stats.responseTime.getTotalCount());
+            json.put("throughput", stats.responseTime.getTotalCount() / seconds);
+            json.put("ok", stats.ok.sum());
+            json.put("clientErrors", stats.clientErrors.sum());
+            json.put("serverErrors", stats.serverErrors.sum());
+            json.put("failed", stats.failed.sum());
+            json.put("responseTimeMs", percentiles(stats.responseTime));
+            json.put("serviceTimeMs", percentiles(stats.serviceTime));
+            byEndpoint.put(entry.getKey(), json);
+            
+            try (PrintStream hgrm = new PrintStream(Files.newOutputStream(
+                    directory.resolve(options.scenario() + "-" + fileName(entry.getKey()) + ".hgrm")))) {
+                stats.responseTime.outputPercentileDistribution(hgrm, 1000.0);
+            }
+        }
+        report.put("endpoints", byEndpoint);
+        Map<String, Long> drops = new TreeMap<>();
+        dropped.forEach((scenario, count) -> drops.put(scenario, count.sum()));
+        report.put("dropped", drops);
+        new ObjectMapper().writerWithDefaultPrettyPrinter()
+            .writeValue(directory.resolve(options.scenario() + "-report.json").toFile(), report);
+    }
+    
+    private static Map<String, Double> percentiles(Histogram histogram) {
+        Map<String, Double> values = new LinkedHashMap<>();
+        for (double percentile : PERCENTILES) {
+            values.put("p" + (percentile == Math.rint(percentile) ? String.valueOf((int) percentile) : String.valueOf(percentile)),
+                millis(histogram, percentile));
+        }
+        values.put("max", histogram.getMaxValue() / 1000.0);
+        values.put("mean", histogram.getMean() / 1000.0);
+        return values;
+    }
+    
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+    
+    private static String fileName(String endpoint) {
+        return endpoint.replaceAll("[^A-Za-z0-9]+", "_").replaceAll("^_|_$", "");
+    }
+    
+    private static final class Endpoint {
+        final Histogram responseTime = new ConcurrentHistogram(MAX_MICROS, 3);
+        final Histogram serviceTime = new ConcurrentHistogram(MAX_MICROS, 3);
+        final LongAdder ok = new LongAdder();
+        final LongAdder clientErrors = new LongAdder();
+        final LongAdder serverErrors = new LongAdder();
+        final LongAdder failed = new LongAdder();
+    }
+}
@@ -0,0 +1,108 @@
+package com.interview.gocomet.GoComet.DAW.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator. Arrivals are scheduled up front at the configured rate and sent
+ * when due whether or not earlier requests have answered, so a slow server faces the same
+ * offered load instead of throttling its own test. Latency is recorded from the due time
+ * (see {@link LatencyReport}); per-endpoint p50/p90/p99/p99.9 are printed and written to
+ * the report directory as JSON and HdrHistogram .hgrm files.
+ * <p>
+ * Run with: gradle loadTest --args='--scenario=lifecycle --rate=20 --duration=60s'
+ * Scenarios: ping-storm, ride-burst, lifecycle, replay (--replay-file=recorded.jsonl).
+ * Start the application with --rate-limit.enabled=false: the scenarios reuse a few drivers.
+ */
+public class LoadGenerator {
+    
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = LoadOptions.parse(args);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        HttpClient client = HttpClient.newBuilder()
+            .executor(executor)
+            .connectTimeout(Duration.ofSeconds(5))
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+        
+        // Arrivals are scheduled from start; give the scheduler a moment so the first is not late
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        LatencyReport report = new LatencyReport(start + options.warmup().toNanos());
+        Traffic traffic = new Traffic(client, options.baseUrl(), options.timeout(), report);
+        
+        ArrivalSchedule schedule = ArrivalSchedule.rate(options);
+        Scenario scenario = switch (options.scenario()) {
+            case "ping-storm" -> new PingStormScenario(traffic, options);
+            case "ride-burst" -> new RideBurstScenario(traffic);
+            case "lifecycle" -> new RideLifecycleScenario(traffic, report, executor);
+            default -> {
+                ReplayScenario replay = new ReplayScenario(traffic, options.replayFile());
+                List<Long> offsets = replay.offsets();
+                if (offsets != null) {
+                    schedule = ArrivalSchedule.recorded(offsets, options.speed());
+                }
+                System.out.printf("Replaying %d requests from %s%s (%d lines skipped)%n", replay.size(),
+                    options.replayFile(), offsets != null ? " at their recorded times" : "", replay.skipped());
+                yield replay;
+            }
+        };
+        
+        System.out.printf("%s against %s: %s arrivals at %s/s%s for %ss, warm-up %ss%n", scenario.name(),
+            options.baseUrl(), options.arrivals(), options.rate(),
+            options.burstRate() > 0 ? ", bursts of " + options.burstRate() + "/s" : "",
+            options.duration().toSeconds(), options.warmup().toSeconds());
+        long arrivals = run(scenario, schedule, start, options, report);
+        long end = System.nanoTime();
+        
+        double seconds = Math.max(1e-9, (end - start - options.warmup().toNanos()) / 1e9);
+        System.out.printf("%n%d arrivals in %.1fs (recorded after warm-up: %.1fs)%n",
+            arrivals, (end - start) / 1e9, seconds);
+        report.print(System.out, seconds);
+        try {
+            report.write(options.reportDir(), options, seconds);
+            System.out.println("Report written to " + options.reportDir().toAbsolutePath());
+        } catch (IOException e) {
+            System.err.println("Could not write report: " + e.getMessage());
+        }
+        executor.shutdownNow();
+    }
+    
+    /**
+     * Sends every arrival when due, then waits for what is still running. Returns the number of arrivals.
+     */
+    private static long run(Scenario scenario, ArrivalSchedule schedule, long start, LoadOptions options,
+                            LatencyReport report) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(options.maxInFlight());
+        long arrival = 0;
+        for (long offset = schedule.next(); offset >= 0; offset = schedule.next()) {
+            long due = start + offset;
+            long wait;
+            while ((wait = due - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (!inFlight.tryAcquire()) {
+                report.dropped(scenario.name(), due);
+            } else {
+                try {
+                    scenario.start(arrival, due).whenComplete((result, error) -> inFlight.release());
+                } catch (RuntimeException e) {
+                    inFlight.release();
+                    throw e;
+                }
+            }
+            arrival++;
+        }
+        // Let the stragglers finish (each request times out on its own)
+        if (!inFlight.tryAcquire(options.maxInFlight(), options.timeout().toMillis() * 5 + 1000, TimeUnit.MILLISECONDS)) {
+            System.out.printf("%d arrivals still running at the end%n", options.maxInFlight() - inFlight.availablePermits());
+        }
+        return arrival;
+    }
+}
@@ -0,0 +1,93 @@
+package com.interview.gocomet.GoComet.DAW.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Command-line options, given as --name=value
+ *
+ * @param rate          arrivals per second (open model: independent of how fast responses come back)
+ * @param arrivals      "constant" spacing or "poisson" (exponential gaps around the same mean rate)
+ * @param burstRate     arrivals per second during a burst; 0 disables bursts
+ * @param batchSize     driver pings per request; above 1 they go to the batched endpoint
+ * @param speed         replay speed-up for recorded timestamps
+ * @param maxInFlight   arrivals still running beyond this are dropped and counted, not queued
+ */
+public record LoadOptions(
+        String baseUrl,
+        String scenario,
+        double rate,
+        Duration duration,
+        Duration warmup,
+        String arrivals,
+        int drivers,
+        int batchSize,
+        double burstRate,
+        Duration burstEvery,
+        Duration burstLength,
+        Path replayFile,
+        double speed,
+        int maxInFlight,
+        Duration timeout,
+        Path reportDir) {
+
+    static final Set<String> SCENARIOS = Set.of("ping-storm", "ride-burst", "lifecycle", "replay");
+
+    public static LoadOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            values.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        String scenario = values.getOrDefault("scenario", "lifecycle");
+        if (!SCENARIOS.contains(scenario)) {
+            throw new IllegalArgumentException("Unknown scenario " + scenario + ", expected one of " + SCENARIOS);
+        }
+        boolean burst = "ride-burst".equals(scenario);
+        LoadOptions options = new LoadOptions(
+            values.getOrDefault("base-url", "http://localhost:8080"),
+            scenario,
+            Double.parseDouble(values.getOrDefault("rate", burst ? "5" : "50")),
+            duration(values.getOrDefault("duration", "60s")),
+            duration(values.getOrDefault("warmup", "10s")),
+            values.getOrDefault("arrivals", "poisson"),
+            Integer.parseInt(values.getOrDefault("drivers", "5")),
+            Integer.parseInt(values.getOrDefault("batch-size", "1")),
+            Double.parseDouble(values.getOrDefault("burst-rate", burst ? "100" : "0")),
+            duration(values.getOrDefault("burst-every", "15s")),
+            duration(values.getOrDefault("burst-length", "2s")),
+            values.containsKey("replay-file") ? Path.of(values.get("replay-file")) : null,
+            Double.parseDouble(values.getOrDefault("speed", "1")),
+            Integer.parseInt(values.getOrDefault("max-in-flight", "2000")),
+            duration(values.getOrDefault("timeout", "10s")),
+            Path.of(values.getOrDefault("report-dir", "build/reports/loadtest")));
+        if ("replay".equals(scenario) && options.replayFile() == null) {
+            throw new IllegalArgumentException("--replay-file is required for the replay scenario");
+        }
+        if (!"constant".equals(options.arrivals()) && !"poisson".equals(options.arrivals())) {
+            throw new IllegalArgumentException("--arrivals must be constant or poisson");
+        }
+        return options;
+    }
+
+    /**
+     * 500ms, 30s, 2m
+     */
+    static Duration duration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            default -> throw new IllegalArgumentException("Expected a duration like 500ms, 30s or 2m, got " + value);
+        };
+    }
+}
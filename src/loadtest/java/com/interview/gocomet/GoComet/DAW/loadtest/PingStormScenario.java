@@ -0,0 +1,58 @@
+package com.interview.gocomet.GoComet.DAW.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Drivers DRIVER-1..DRIVER-n reporting their position around Delhi in turn, one ping per
+ * request or batch-size pings per request to the batched endpoint
+ */
+class PingStormScenario implements Scenario {
+    
+    private final Traffic traffic;
+    private final int drivers;
+    private final int batchSize;
+    
+    PingStormScenario(Traffic traffic, LoadOptions options) {
+        this.traffic = traffic;
+        this.drivers = options.drivers();
+        this.batchSize = options.batchSize();
+    }
+    
+    @Override
+    public String name() {
+        return "ping-storm";
+    }
+    
+    @Override
+    public CompletableFuture<?> start(long arrival, long dueNanos) {
+        if (batchSize <= 1) {
+            return traffic.send("POST /v1/drivers/{id}/location", "POST",
+                "/v1/drivers/" + driver(arrival) + "/location", position(), dueNanos);
+        }
+        List<Map<String, Object>> pings = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            Map<String, Object> ping = position();
+            ping.put("driverId", driver(arrival * batchSize + i));
+            pings.add(ping);
+        }
+        return traffic.send("POST /v1/drivers/locations", "POST", "/v1/drivers/locations", pings, dueNanos);
+    }
+    
+    private String driver(long index) {
+        return "DRIVER-" + (index % drivers + 1);
+    }
+    
+    static Map<String, Object> position() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Map<String, Object> position = new java.util.LinkedHashMap<>();
+        position.put("latitude", 28.7041 + random.nextDouble(-0.05, 0.05));
+        position.put("longitude", 77.1025 + random.nextDouble(-0.05, 0.05));
+        // Lets the server's driver.location.lag meter see how long pings queue
+        position.put("recordedAt", System.currentTimeMillis());
+        return position;
+    }
+}
@@ -0,0 +1,138 @@
+package com.interview.gocomet.GoComet.DAW.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
+
+/**
+ * Recorded requests, one JSON object per line:
+ * {"method": "POST", "path": "/v1/rides", "body": {...}, "headers": {...}, "atMs": 1200}.
+ * method defaults to GET; "url" may stand in for path; body may be an object or a string.
+ * When every line has atMs (milliseconds since the recording started) the requests are sent
+ * at their recorded times, --speed times faster; otherwise at --rate, cycling through the file.
+ * Lines that are not requests are skipped.
+ */
+class ReplayScenario implements Scenario {
+    
+    /**
+     * Path segments that are ids: numbers, UUIDs and prefixed business ids like RIDE-BLR-… or DRIVER-7
+     */
+    private static final Pattern ID_SEGMENT = Pattern.compile(
+        "\\d+|[0-9a-fA-F]{8}-[0-9a-fA-F-]{27}|[A-Z]+-[A-Za-z0-9-]+");
+    
+    record Recorded(String method, String path, String body, Map<String, String> headers, Long atMs) {
+    }
+    
+    private final Traffic traffic;
+    private final List<Recorded> requests;
+    private final int skipped;
+    
+    ReplayScenario(Traffic traffic, Path file) throws IOException {
+        this.traffic = traffic;
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<Recorded> parsed = new ArrayList<>();
+        int unusable = 0;
+        for (String line : Files.readAllLines(file)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            Recorded recorded;
+            try {
+                recorded = parse(objectMapper, objectMapper.readTree(line));
+            } catch (IOException e) {
+                recorded = null;
+            }
+            if (recorded == null) {
+                unusable++;
+            } else {
+                parsed.add(recorded);
+            }
+        }
+        if (parsed.isEmpty()) {
+            throw new IllegalArgumentException(file + " has no requests (lines need a path or url)");
+        }
+        if (parsed.stream().allMatch(recorded -> recorded.atMs() != null)) {
+            parsed.sort(Comparator.comparing(Recorded::atMs));
+        }
+        this.requests = Collections.unmodifiableList(parsed);
+        this.skipped = unusable;
+    }
+    
+    @Override
+    public String name() {
+        return "replay";
+    }
+    
+    @Override
+    public CompletableFuture<?> start(long arrival, long dueNanos) {
+        Recorded recorded = requests.get((int) (arrival % requests.size()));
+        return traffic.send(recorded.method() + " " + template(recorded.path()), recorded.method(), recorded.path(),
+            recorded.body(), recorded.headers(), dueNanos);
+    }
+    
+    /**
+     * Recorded offsets, relative to the first request, or null if any request has none
+     */
+    List<Long> offsets() {
+        if (requests.stream().anyMatch(recorded -> recorded.atMs() == null)) {
+            return null;
+        }
+        long first = requests.get(0).atMs();
+        return requests.stream().map(recorded -> recorded.atMs() - first).toList();
+    }
+    
+    int size() {
+        return requests.size();
+    }
+    
+    int skipped() {
+        return skipped;
+    }
+    
+    /**
+     * Endpoint label: the path without its query, ids replaced by {id}
+     */
+    static String template(String path) {
+        int query = path.indexOf('?');
+        String[] segments = (query < 0 ? path : path.substring(0, query)).split("/", -1);
+        for (int i = 0; i < segments.length; i++) {
+            if (ID_SEGMENT.matcher(segments[i]).matches()) {
+                segments[i] = "{id}";
+            }
+        }
+        return String.join("/", segments);
+    }
+    
+    private static Recorded parse(ObjectMapper objectMapper, JsonNode line) throws IOException {
+        String path = line.path("path").asText(null);
+        if (path == null && line.hasNonNull("url")) {
+            URI url = URI.create(line.get("url").asText());
+            path = url.getRawPath() + (url.getRawQuery() != null ? "?" + url.getRawQuery() : "");
+        }
+        if (path == null || !path.startsWith("/")) {
+            return null;
+        }
+        JsonNode body = line.get("body");
+        String text = body == null || body.isNull() ? null
+            : body.isTextual() ? body.asText() : objectMapper.writeValueAsString(body);
+        Map<String, String> headers = new LinkedHashMap<>();
+        line.path("headers").fields().forEachRemaining(header -> headers.put(header.getKey(), header.getValue().asText()));
+        // The client sets these itself
+        headers.keySet().removeIf(name -> name.equalsIgnoreCase("content-length") || name.equalsIgnoreCase("host")
+            || name.equalsIgnoreCase("connection") || (text != null && name.equalsIgnoreCase("content-type")));
+        return new Recorded(line.path("method").asText("GET").toUpperCase(), path, text, headers,
+            line.hasNonNull("atMs") ? line.get("atMs").asLong() : null);
+    }
+}
@@ -0,0 +1,44 @@
+package com.interview.gocomet.GoComet.DAW.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * New ride requests from distinct riders; with --burst-rate the arrival rate jumps for
+ * --burst-length every --burst-every, like demand after a concert lets out
+ */
+class RideBurstScenario implements Scenario {
+    
+    private final Traffic traffic;
+    
+    RideBurstScenario(Traffic traffic) {
+        this.traffic = traffic;
+    }
+    
+    @Override
+    public String name() {
+        return "ride-burst";
+    }
+    
+    @Override
+    public CompletableFuture<?> start(long arrival, long dueNanos) {
+        return traffic.send("POST /v1/rides", "POST", "/v1/rides", rideRequest(arrival), dueNanos);
+    }
+    
+    static Map<String, Object> rideRequest(long arrival) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Map<String, Object> request = new LinkedHashMap<>();
+        request.put("riderId", "RIDER-LOAD-" + arrival);
+        request.put("pickupLatitude", 28.7041 + random.nextDouble(-0.02, 0.02));
+        request.put("pickupLongitude", 77.1025 + random.nextDouble(-0.02, 0.02));
+        request.put("destinationLatitude", 28.5355 + random.nextDouble(-0.02, 0.02));
+        request.put("destinationLongitude", 77.3910 + random.nextDouble(-0.02, 0.02));
+        request.put("tier", "ECONOMY");
+        request.put("paymentMethod", "CARD");
+        request.put("idempotencyKey", "load-" + UUID.randomUUID());
+        return request;
+    }
+}
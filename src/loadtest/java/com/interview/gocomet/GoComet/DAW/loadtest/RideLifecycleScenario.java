@@ -0,0 +1,77 @@
+package com.interview.gocomet.GoComet.DAW.loadtest;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * The whole ride: request → driver accepts (which starts the trip) → read the ride for its
+ * trip → end the trip → pay. Each step is sent as soon as the previous one answers, and is
+ * timed from then; "ride lifecycle" is timed from when the arrival was due to the payment.
+ * An arrival that finds no driver, or whose step fails, stops there.
+ */
+class RideLifecycleScenario implements Scenario {
+    
+    static final String END_TO_END = "ride lifecycle (end to end)";
+    
+    private final Traffic traffic;
+    private final LatencyReport report;
+    private final Executor executor;
+    
+    /**
+     * @param executor runs each arrival's chain; virtual threads, so a blocked chain costs little
+     */
+    RideLifecycleScenario(Traffic traffic, LatencyReport report, Executor executor) {
+        this.traffic = traffic;
+        this.report = report;
+        this.executor = executor;
+    }
+    
+    @Override
+    public String name() {
+        return "lifecycle";
+    }
+    
+    @Override
+    public CompletableFuture<?> start(long arrival, long dueNanos) {
+        return CompletableFuture.runAsync(() -> {
+            Traffic.Reply last = run(arrival, dueNanos);
+            report.record(END_TO_END, dueNanos, dueNanos, System.nanoTime(), last.status());
+        }, executor);
+    }
+    
+    /**
+     * Returns the reply of the last step that ran
+     */
+    private Traffic.Reply run(long arrival, long dueNanos) {
+        Traffic.Reply ride = traffic.send("POST /v1/rides", "POST", "/v1/rides",
+            RideBurstScenario.rideRequest(arrival), dueNanos).join();
+        String rideId = ride.body().path("rideId").asText(null);
+        String driverId = ride.body().path("driverId").asText(null);
+        if (!ride.ok() || rideId == null || driverId == null) {
+            return ride;
+        }
+        
+        Traffic.Reply accepted = traffic.send("POST /v1/drivers/{id}/accept", "POST",
+            "/v1/drivers/" + driverId + "/accept?rideIdString=" + rideId, null, System.nanoTime()).join();
+        if (!accepted.ok()) {
+            return accepted;
+        }
+        
+        Traffic.Reply read = traffic.send("GET /v1/rides/{id}", "GET", "/v1/rides/" + rideId, null, System.nanoTime()).join();
+        String tripId = read.body().path("tripId").asText(null);
+        if (!read.ok() || tripId == null) {
+            return read;
+        }
+        
+        Traffic.Reply ended = traffic.send("POST /v1/trips/{id}/end", "POST",
+            "/v1/trips/" + tripId + "/end?endLatitude=28.5355&endLongitude=77.3910", null, System.nanoTime()).join();
+        if (!ended.ok()) {
+            return ended;
+        }
+        
+        return traffic.send("POST /v1/payments", "POST", "/v1/payments",
+            Map.of("tripId", Long.parseLong(tripId), "idempotencyKey", "load-" + UUID.randomUUID()), System.nanoTime()).join();
+    }
+}
@@ -0,0 +1,17 @@
+package com.interview.gocomet.GoComet.DAW.loadtest;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * What one arrival does: a single request, or a chain of them
+ */
+public interface Scenario {
+    
+    String name();
+    
+    /**
+     * Start arrival number {@code arrival}, due at {@code dueNanos}. The future completes
+     * when its last request has.
+     */
+    CompletableFuture<?> start(long arrival, long dueNanos);
+}
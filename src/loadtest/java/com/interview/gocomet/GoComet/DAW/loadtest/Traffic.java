@@ -0,0 +1,84 @@
+package com.interview.gocomet.GoComet.DAW.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends requests asynchronously and records each one under its endpoint label
+ */
+public class Traffic {
+    
+    /**
+     * The response; body is MissingNode unless it was JSON
+     */
+    public record Reply(int status, JsonNode body) {
+        
+        boolean ok() {
+            return status >= 200 && status < 300;
+        }
+    }
+    
+    private final HttpClient client;
+    private final String baseUrl;
+    private final Duration timeout;
+    private final LatencyReport report;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    public Traffic(HttpClient client, String baseUrl, Duration timeout, LatencyReport report) {
+        this.client = client;
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.timeout = timeout;
+        this.report = report;
+    }
+    
+    /**
+     * @param dueNanos when the request was due to be sent; latency is measured from here
+     * @param body     JSON text, or null for none
+     */
+    public CompletableFuture<Reply> send(String endpoint, String method, String path, String body,
+                                         Map<String, String> headers, long dueNanos) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .timeout(timeout)
+            .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+        if (body != null) {
+            request.header("Content-Type", "application/json");
+        }
+        headers.forEach(request::header);
+        long sent = System.nanoTime();
+        return client.sendAsync(request.build(), HttpResponse.BodyHandlers.ofString())
+            .handle((response, error) -> {
+                long done = System.nanoTime();
+                int status = error == null ? response.statusCode() : 0;
+                report.record(endpoint, dueNanos, sent, done, status);
+                return new Reply(status, error == null ? parse(response.body()) : MissingNode.getInstance());
+            });
+    }
+    
+    public CompletableFuture<Reply> send(String endpoint, String method, String path, Object body, long dueNanos) {
+        try {
+            return send(endpoint, method, path, body == null ? null : objectMapper.writeValueAsString(body), Map.of(), dueNanos);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    private JsonNode parse(String body) {
+        if (body == null || body.isEmpty() || (body.charAt(0) != '{' && body.charAt(0) != '[')) {
+            return MissingNode.getInstance();
+        }
+        try {
+            return objectMapper.readTree(body);
+        } catch (Exception e) {
+            return MissingNode.getInstance();
+        }
+    }
+}
@@ -2,8 +2,10 @@ package com.interview.gocomet.GoComet.DAW;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class GoCometDawApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,20 @@
+package com.interview.gocomet.GoComet.DAW.cache;
+
+/**
+ * Schema-aware binary layout for one cached type.
+ * Every value is written with the codec's current {@link #version()}; {@link #read} receives the
+ * version the bytes were written with, so a codec can keep reading older layouts after a change.
+ * Type ids are part of the wire format and must never be reused.
+ */
+public interface BinaryCodec<T> {
+    
+    int typeId();
+    
+    int version();
+    
+    Class<T> type();
+    
+    void write(T value, BinaryOutput out);
+    
+    T read(BinaryInput in, int version);
+}
@@ -0,0 +1,229 @@
+package com.interview.gocomet.GoComet.DAW.cache;
+
+import com.interview.gocomet.GoComet.DAW.dto.PaymentResponse;
+import com.interview.gocomet.GoComet.DAW.dto.RideResponse;
+import com.interview.gocomet.GoComet.DAW.model.Driver;
+import com.interview.gocomet.GoComet.DAW.model.DriverStatus;
+import com.interview.gocomet.GoComet.DAW.model.PaymentStatus;
+import com.interview.gocomet.GoComet.DAW.model.RideStatus;
+
+import java.util.List;
+
+/**
+ * Binary layouts for the hot cached types.
+ * Each layout starts with a presence bitmask (one bit per nullable field, in declaration order)
+ * followed by the present fields. Enums are stored by ordinal, so new constants may only be
+ * appended; reordering or removing one requires a new layout version.
+ * Appending a field is a new version too: readers of the new layout still accept the old one
+ * (its bit is simply absent), but older nodes must not read entries they would truncate.
+ * Each codec lists the fields of every layout version it has written; a read checks the mask
+ * against the version the entry carries and rejects versions and fields it does not know.
+ */
+public final class CacheCodecs {
+    
+    public static final int DRIVER = 16;
+    public static final int RIDE_RESPONSE = 17;
+    public static final int PAYMENT_RESPONSE = 18;
+    
+    private static final DriverStatus[] DRIVER_STATUSES = DriverStatus.values();
+    private static final RideStatus[] RIDE_STATUSES = RideStatus.values();
+    private static final PaymentStatus[] PAYMENT_STATUSES = PaymentStatus.values();
+    
+    private CacheCodecs() {
+    }
+    
+    public static List<BinaryCodec<?>> defaults() {
+        return List.of(new DriverCodec(), new RideResponseCodec(), new PaymentResponseCodec());
+    }
+    
+    private static long bit(Object field, int index) {
+        return field != null ? 1L << index : 0;
+    }
+    
+    private static boolean has(long mask, int index) {
+        return (mask & (1L << index)) != 0;
+    }
+    
+    /**
+     * The presence mask, checked against the fields the given layout version had
+     *
+     * @param fieldsByVersion for layout version n, at index n - 1, the mask of every field it defines
+     */
+    private static long readMask(BinaryInput in, int version, long[] fieldsByVersion, int typeId) {
+        if (version < 1 || version > fieldsByVersion.length) {
+            throw new IllegalStateException("Unknown layout version " + version + " for type id " + typeId);
+        }
+        long mask = in.readVarLong();
+        if ((mask & ~fieldsByVersion[version - 1]) != 0) {
+            throw new IllegalStateException("Fields " + Long.toBinaryString(mask) + " not in layout version "
+                + version + " of type id " + typeId);
+        }
+        return mask;
+    }
+    
+    static final class DriverCodec implements BinaryCodec<Driver> {
+        
+        // 1: id .. updatedAt; 2: + version
+        private static final long[] FIELDS = {0x1FFFL, 0x3FFFL};
+        
+        @Override
+        public int typeId() {
+            return DRIVER;
+        }
+        
+        @Override
+        public int version() {
+            return FIELDS.length;
+        }
+        
+        @Override
+        public Class<Driver> type() {
+            return Driver.class;
+        }
+        
+        @Override
+        public void write(Driver d, BinaryOutput out) {
+            long mask = bit(d.getId(), 0) | bit(d.getDriverId(), 1) | bit(d.getName(), 2)
+                | bit(d.getPhoneNumber(), 3) | bit(d.getVehicleNumber(), 4) | bit(d.getVehicleType(), 5)
+                | bit(d.getStatus(), 6) | bit(d.getLatitude(), 7) | bit(d.getLongitude(), 8)
+                | bit(d.getLastLocationUpdate(), 9) | bit(d.getCurrentRideId(), 10)
+                | bit(d.getCreatedAt(), 11) | bit(d.getUpdatedAt(), 12) | bit(d.getVersion(), 13);
+            out.writeVarLong(mask);
+            if (has(mask, 0)) out.writeSignedVarLong(d.getId());
+            if (has(mask, 1)) out.writeString(d.getDriverId());
+            if (has(mask, 2)) out.writeString(d.getName());
+            if (has(mask, 3)) out.writeString(d.getPhoneNumber());
+            if (has(mask, 4)) out.writeString(d.getVehicleNumber());
+            if (has(mask, 5)) out.writeString(d.getVehicleType());
+            if (has(mask, 6)) out.writeVarInt(d.getStatus().ordinal());
+            if (has(mask, 7)) out.writeDouble(d.getLatitude());
+            if (has(mask, 8)) out.writeDouble(d.getLongitude());
+            if (has(mask, 9)) out.writeDateTime(d.getLastLocationUpdate());
+            if (has(mask, 10)) out.writeSignedVarLong(d.getCurrentRideId());
+            if (has(mask, 11)) out.writeDateTime(d.getCreatedAt());
+            if (has(mask, 12)) out.writeDateTime(d.getUpdatedAt());
+            if (has(mask, 13)) out.writeVarLong(d.getVersion());
+        }
+        
+        @Override
+        public Driver read(BinaryInput in, int version) {
+            long mask = readMask(in, version, FIELDS, DRIVER);
+            Driver d = new Driver();
+            if (has(mask, 0)) d.setId(in.readSignedVarLong());
+            if (has(mask, 1)) d.setDriverId(in.readString());
+            if (has(mask, 2)) d.setName(in.readString());
+            if (has(mask, 3)) d.setPhoneNumber(in.readString());
+            if (has(mask, 4)) d.setVehicleNumber(in.readString());
+            if (has(mask, 5)) d.setVehicleType(in.readString());
+            if (has(mask, 6)) d.setStatus(DRIVER_STATUSES[in.readVarInt()]);
+            if (has(mask, 7)) d.setLatitude(in.readDouble());
+            if (has(mask, 8)) d.setLongitude(in.readDouble());
+            if (has(mask, 9)) d.setLastLocationUpdate(in.readDateTime());
+            if (has(mask, 10)) d.setCurrentRideId(in.readSignedVarLong());
+            if (has(mask, 11)) d.setCreatedAt(in.readDateTime());
+            if (has(mask, 12)) d.setUpdatedAt(in.readDateTime());
+            if (has(mask, 13)) d.setVersion(in.readVarLong());
+            return d;
+        }
+    }
+    
+    static final class RideResponseCodec implements BinaryCodec<RideResponse> {
+        
+        // 1: rideId .. acceptedAt; 2: + version
+        private static final long[] FIELDS = {0xFFL, 0x1FFL};
+        
+        @Override
+        public int typeId() {
+            return RIDE_RESPONSE;
+        }
+        
+        @Override
+        public int version() {
+            return FIELDS.length;
+        }
+        
+        @Override
+        public Class<RideResponse> type() {
+            return RideResponse.class;
+        }
+        
+        @Override
+        public void write(RideResponse r, BinaryOutput out) {
+            long mask = bit(r.getRideId(), 0) | bit(r.getRiderId(), 1) | bit(r.getStatus(), 2)
+                | bit(r.getDriverId(), 3) | bit(r.getTripId(), 4) | bit(r.getCreatedAt(), 5)
+                | bit(r.getMatchedAt(), 6) | bit(r.getAcceptedAt(), 7) | bit(r.getVersion(), 8);
+            out.writeVarLong(mask);
+            if (has(mask, 0)) out.writeString(r.getRideId());
+            if (has(mask, 1)) out.writeString(r.getRiderId());
+            if (has(mask, 2)) out.writeVarInt(r.getStatus().ordinal());
+            if (has(mask, 3)) out.writeString(r.getDriverId());
+            if (has(mask, 4)) out.writeSignedVarLong(r.getTripId());
+            if (has(mask, 5)) out.writeDateTime(r.getCreatedAt());
+            if (has(mask, 6)) out.writeDateTime(r.getMatchedAt());
+            if (has(mask, 7)) out.writeDateTime(r.getAcceptedAt());
+            if (has(mask, 8)) out.writeVarLong(r.getVersion());
+        }
+        
+        @Override
+        public RideResponse read(BinaryInput in, int version) {
+            long mask = readMask(in, version, FIELDS, RIDE_RESPONSE);
+            RideResponse r = new RideResponse();
+            if (has(mask, 0)) r.setRideId(in.readString());
+            if (has(mask, 1)) r.setRiderId(in.readString());
+            if (has(mask, 2)) r.setStatus(RIDE_STATUSES[in.readVarInt()]);
+            if (has(mask, 3)) r.setDriverId(in.readString());
+            if (has(mask, 4)) r.setTripId(in.readSignedVarLong());
+            if (has(mask, 5)) r.setCreatedAt(in.readDateTime());
+            if (has(mask, 6)) r.setMatchedAt(in.readDateTime());
+            if (has(mask, 7)) r.setAcceptedAt(in.readDateTime());
+            if (has(mask, 8)) r.setVersion(in.readVarLong());
+            return r;
+        }
+    }
+    
+    static final class PaymentResponseCodec implements BinaryCodec<PaymentResponse> {
+        
+        private static final long[] FIELDS = {0x3FL};
+        
+        @Override
+        public int typeId() {
+            return PAYMENT_RESPONSE;
+        }
+        
+        @Override
+        public int version() {
+            return FIELDS.length;
+        }
+        
+        @Override
+        public Class<PaymentResponse> type() {
+            return PaymentResponse.class;
+        }
+        
+        @Override
+        public void write(PaymentResponse p, BinaryOutput out) {
+            long mask = bit(p.getPaymentId(), 0) | bit(p.getTripId(), 1) | bit(p.getAmount(), 2)
+                | bit(p.getStatus(), 3) | bit(p.getPspTransactionId(), 4) | bit(p.getCreatedAt(), 5);
+            out.writeVarLong(mask);
+            if (has(mask, 0)) out.writeString(p.getPaymentId());
+            if (has(mask, 1)) out.writeSignedVarLong(p.getTripId());
+            if (has(mask, 2)) out.writeDouble(p.getAmount());
+            if (has(mask, 3)) out.writeVarInt(p.getStatus().ordinal());
+            if (has(mask, 4)) out.writeString(p.getPspTransactionId());
+            if (has(mask, 5)) out.writeDateTime(p.getCreatedAt());
+        }
+        
+        @Override
+        public PaymentResponse read(BinaryInput in, int version) {
+            long mask = readMask(in, version, FIELDS, PAYMENT_RESPONSE);
+            PaymentResponse p = new PaymentResponse();
+            if (has(mask, 0)) p.setPaymentId(in.readString());
+            if (has(mask, 1)) p.setTripId(in.readSignedVarLong());
+            if (has(mask, 2)) p.setAmount(in.readDouble());
+            if (has(mask, 3)) p.setStatus(PAYMENT_STATUSES[in.readVarInt()]);
+            if (has(mask, 4)) p.setPspTransactionId(in.readString());
+            if (has(mask, 5)) p.setCreatedAt(in.readDateTime());
+            return p;
+        }
+    }
+}
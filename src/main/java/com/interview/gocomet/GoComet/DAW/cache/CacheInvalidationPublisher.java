@@ -0,0 +1,53 @@
+package com.interview.gocomet.GoComet.DAW.cache;
+
+import com.interview.gocomet.GoComet.DAW.resilience.RedisGuard;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Broadcasts L1 invalidations to the other nodes over Redis pub/sub.
+ * Message format: {nodeId}|{E|C}|{cacheName}|{key}; "E" evicts one key, "C" clears the cache.
+ */
+@Slf4j
+public class CacheInvalidationPublisher {
+    
+    static final String EVICT = "E";
+    static final String CLEAR = "C";
+    
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisGuard redisGuard;
+    private final String channel;
+    private final String nodeId;
+    
+    public CacheInvalidationPublisher(StringRedisTemplate stringRedisTemplate, RedisGuard redisGuard,
+                                      String channel, String nodeId) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.redisGuard = redisGuard;
+        this.channel = channel;
+        this.nodeId = nodeId;
+    }
+    
+    public void publishEvict(String cacheName, Object key) {
+        if (key instanceof String) {
+            send(EVICT, cacheName, (String) key);
+        } else {
+            // Only String keys can be addressed remotely; anything else drops the whole L1 cache
+            send(CLEAR, cacheName, "");
+        }
+    }
+    
+    public void publishClear(String cacheName) {
+        send(CLEAR, cacheName, "");
+    }
+    
+    private void send(String op, String cacheName, String key) {
+        // Redis down means other nodes cannot read L2 either; their L1 entries expire by TTL
+        if (!redisGuard.tryRun(() -> stringRedisTemplate.convertAndSend(channel, nodeId + "|" + op + "|" + cacheName + "|" + key))) {
+            log.debug("Cache invalidation for {} not published, Redis unavailable", cacheName);
+        }
+    }
+    
+    public String getNodeId() {
+        return nodeId;
+    }
+}
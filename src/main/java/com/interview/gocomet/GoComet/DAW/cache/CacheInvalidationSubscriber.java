@@ -0,0 +1,37 @@
+package com.interview.gocomet.GoComet.DAW.cache;
+
+import com.interview.gocomet.GoComet.DAW.resilience.RedisGuard;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Starts the invalidation listener container outside the application startup path.
+ * The container fails hard on start when Redis is unreachable, and the application
+ * must keep working without Redis, so the subscription is (re)attempted on a schedule.
+ */
+@Component
+@ConditionalOnProperty(name = "cache.two-level.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class CacheInvalidationSubscriber {
+    
+    private final RedisMessageListenerContainer cacheInvalidationListenerContainer;
+    private final RedisGuard redisGuard;
+    
+    @Scheduled(fixedDelayString = "${cache.two-level.subscribe-retry-ms:30000}")
+    public void ensureSubscribed() {
+        if (cacheInvalidationListenerContainer.isRunning() || !redisGuard.isAvailable()) {
+            return;
+        }
+        try {
+            cacheInvalidationListenerContainer.start();
+            log.info("Subscribed to cache invalidation channel");
+        } catch (RuntimeException e) {
+            log.debug("Cache invalidation subscribe failed (Redis may be unavailable): {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.interview.gocomet.GoComet.DAW.cache;
+
+import com.interview.gocomet.GoComet.DAW.resilience.RedisGuard;
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Redis cache decorator that skips Redis entirely while the {@link RedisGuard} breaker is open:
+ * reads become misses and writes are dropped. Dropped writes and evictions are reported so the
+ * whole cache can be cleared on recovery instead of serving entries that missed an eviction.
+ */
+public class CircuitBreakingCache implements Cache {
+    
+    private final Cache delegate;
+    private final RedisGuard redisGuard;
+    private final Runnable onSkippedWrite;
+    
+    public CircuitBreakingCache(Cache delegate, RedisGuard redisGuard, Runnable onSkippedWrite) {
+        this.delegate = delegate;
+        this.redisGuard = redisGuard;
+        this.onSkippedWrite = onSkippedWrite;
+    }
+    
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+    
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+    
+    @Override
+    public ValueWrapper get(Object key) {
+        if (!redisGuard.isAvailable()) {
+            return null;
+        }
+        return redisGuard.execute(() -> delegate.get(key));
+    }
+    
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        if (!redisGuard.isAvailable()) {
+            return null;
+        }
+        return redisGuard.execute(() -> delegate.get(key, type));
+    }
+    
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        if (!redisGuard.isAvailable()) {
+            try {
+                return valueLoader.call();
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+        }
+        return redisGuard.execute(() -> delegate.get(key, valueLoader));
+    }
+    
+    @Override
+    public void put(Object key, Object value) {
+        if (!redisGuard.tryRun(() -> delegate.put(key, value))) {
+            onSkippedWrite.run();
+        }
+    }
+    
+    @Override
+    public void evict(Object key) {
+        if (!redisGuard.tryRun(() -> delegate.evict(key))) {
+            onSkippedWrite.run();
+        }
+    }
+    
+    @Override
+    public void clear() {
+        if (!redisGuard.tryRun(delegate::clear)) {
+            onSkippedWrite.run();
+        }
+    }
+    
+    /**
+     * Clear the Redis cache directly, bypassing the breaker; used by the recovery probe
+     */
+    void clearDirect() {
+        delegate.clear();
+    }
+}
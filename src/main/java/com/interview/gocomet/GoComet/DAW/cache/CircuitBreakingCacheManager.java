@@ -0,0 +1,51 @@
+package com.interview.gocomet.GoComet.DAW.cache;
+
+import com.interview.gocomet.GoComet.DAW.resilience.RedisGuard;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wraps the Redis cache manager so every cache goes through the {@link RedisGuard}.
+ * Caches that dropped a write or eviction during an outage are cleared when Redis recovers.
+ */
+@Slf4j
+public class CircuitBreakingCacheManager implements CacheManager {
+    
+    private final CacheManager delegate;
+    private final RedisGuard redisGuard;
+    private final Map<String, CircuitBreakingCache> caches = new ConcurrentHashMap<>();
+    private final Set<String> dirtyCaches = ConcurrentHashMap.newKeySet();
+    
+    public CircuitBreakingCacheManager(CacheManager delegate, RedisGuard redisGuard) {
+        this.delegate = delegate;
+        this.redisGuard = redisGuard;
+        redisGuard.onRecovery(this::clearDirtyCaches);
+    }
+    
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, cacheName -> {
+            Cache cache = delegate.getCache(cacheName);
+            return cache == null ? null : new CircuitBreakingCache(cache, redisGuard, () -> dirtyCaches.add(cacheName));
+        });
+    }
+    
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+    
+    private void clearDirtyCaches() {
+        for (String name : Set.copyOf(dirtyCaches)) {
+            caches.get(name).clearDirect();
+            dirtyCaches.remove(name);
+            log.info("Cleared Redis cache '{}' after it missed writes during an outage", name);
+        }
+    }
+}
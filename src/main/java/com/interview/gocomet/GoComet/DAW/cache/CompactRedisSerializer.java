@@ -0,0 +1,147 @@
+package com.interview.gocomet.GoComet.DAW.cache;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Redis value serializer that writes registered types with their {@link BinaryCodec}
+ * and everything else with a fallback serializer (JSON).
+ * Binary values start with a magic byte, then the type id and layout version as varints.
+ * Lists whose elements all share one registered type are written as a single typed array.
+ * Values without the magic byte are handed to the fallback, so entries written by nodes
+ * still on the JSON serializer remain readable during a rolling deploy.
+ */
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+    
+    static final int MAGIC = 0xC7;
+    static final int LIST_TYPE_ID = 1;
+    
+    private static final int INITIAL_BUFFER_BYTES = 256;
+    // Don't keep a per-thread buffer that grew for one unusually large value
+    private static final int MAX_RETAINED_BUFFER_BYTES = 64 * 1024;
+    
+    private final Map<Class<?>, BinaryCodec<?>> codecsByType = new HashMap<>();
+    private final Map<Integer, BinaryCodec<?>> codecsById = new HashMap<>();
+    private final RedisSerializer<Object> fallback;
+    private final ThreadLocal<BinaryOutput> buffers = ThreadLocal.withInitial(() -> new BinaryOutput(INITIAL_BUFFER_BYTES));
+    
+    public CompactRedisSerializer(List<BinaryCodec<?>> codecs, RedisSerializer<Object> fallback) {
+        for (BinaryCodec<?> codec : codecs) {
+            if (codec.typeId() <= LIST_TYPE_ID || codecsById.put(codec.typeId(), codec) != null) {
+                throw new IllegalArgumentException("Invalid or duplicate codec type id " + codec.typeId());
+            }
+            codecsByType.put(codec.type(), codec);
+        }
+        this.fallback = fallback;
+    }
+    
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return null;
+        }
+        BinaryCodec<Object> codec = codecFor(value);
+        if (codec == null) {
+            return fallback.serialize(value);
+        }
+        
+        // Virtual threads are short-lived, so a per-thread buffer would never be reused
+        BinaryOutput out = Thread.currentThread().isVirtual() ? new BinaryOutput(INITIAL_BUFFER_BYTES) : buffers.get();
+        out.reset();
+        out.writeByte(MAGIC);
+        if (value instanceof List<?> list) {
+            out.writeVarInt(LIST_TYPE_ID);
+            out.writeVarInt(codec.typeId());
+            out.writeVarInt(codec.version());
+            out.writeVarInt(list.size());
+            for (Object element : list) {
+                codec.write(element, out);
+            }
+        } else {
+            out.writeVarInt(codec.typeId());
+            out.writeVarInt(codec.version());
+            codec.write(value, out);
+        }
+        byte[] bytes = out.toByteArray();
+        if (out.capacity() > MAX_RETAINED_BUFFER_BYTES) {
+            buffers.remove();
+        }
+        return bytes;
+    }
+    
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if ((bytes[0] & 0xFF) != MAGIC) {
+            return fallback.deserialize(bytes);
+        }
+        
+        try {
+            BinaryInput in = new BinaryInput(bytes, 1);
+            int typeId = in.readVarInt();
+            if (typeId == LIST_TYPE_ID) {
+                BinaryCodec<?> codec = codecById(in.readVarInt());
+                int version = checkVersion(codec, in.readVarInt());
+                int size = in.readVarInt();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(codec.read(in, version));
+                }
+                return list;
+            }
+            BinaryCodec<?> codec = codecById(typeId);
+            return codec.read(in, checkVersion(codec, in.readVarInt()));
+        } catch (RuntimeException e) {
+            throw new SerializationException("Could not read binary cache value", e);
+        }
+    }
+    
+    /**
+     * The codec for a registered type, or for a non-empty list whose elements all share one
+     */
+    @SuppressWarnings("unchecked")
+    private BinaryCodec<Object> codecFor(Object value) {
+        if (!(value instanceof List<?> list)) {
+            return (BinaryCodec<Object>) codecsByType.get(value.getClass());
+        }
+        if (list.isEmpty() || list.get(0) == null) {
+            return null;
+        }
+        Class<?> elementType = list.get(0).getClass();
+        BinaryCodec<?> codec = codecsByType.get(elementType);
+        if (codec == null) {
+            return null;
+        }
+        for (Object element : list) {
+            if (element == null || element.getClass() != elementType) {
+                return null;
+            }
+        }
+        return (BinaryCodec<Object>) codec;
+    }
+    
+    /**
+     * A layout newer than this node knows about was written by a newer deploy; treat it as unreadable
+     */
+    private static int checkVersion(BinaryCodec<?> codec, int version) {
+        if (version > codec.version()) {
+            throw new IllegalStateException("Unsupported layout version " + version + " for type id " + codec.typeId());
+        }
+        return version;
+    }
+    
+    private BinaryCodec<?> codecById(int typeId) {
+        BinaryCodec<?> codec = codecsById.get(typeId);
+        if (codec == null) {
+            throw new IllegalStateException("No codec registered for type id " + typeId);
+        }
+        return codec;
+    }
+}
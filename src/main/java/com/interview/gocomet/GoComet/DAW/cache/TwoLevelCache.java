@@ -0,0 +1,342 @@
+package com.interview.gocomet.GoComet.DAW.cache;
+
+import com.interview.gocomet.GoComet.DAW.sharding.ShardContext;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-heap Caffeine L1 (W-TinyLFU admission, size and TTL bounded) in front of a Redis L2.
+ * L1 is always touched before L2, so when Redis is down reads still hit L1 and writes
+ * still populate it before the L2 error reaches the CacheErrorHandler.
+ * Local writes and evictions are broadcast so other nodes drop their L1 copy and re-read L2.
+ * <p>
+ * Loads through {@link #get(Object, Callable)} (i.e. {@code @Cacheable(sync = true)}) are
+ * single-flighted per key, so an eviction of a hot key costs one load instead of one per caller.
+ * With refresh-ahead enabled, the first hit on an L1 entry older than the refresh-ahead age
+ * submits a reload to the refresh executor; that caller and every other one keep getting the
+ * current value until the reload lands. When the executor is saturated the refresh is skipped
+ * and the entry simply expires and loads as a miss.
+ * <p>
+ * A load or reload that read its value before an eviction of the same key must not write
+ * that value back after it: evictions bump a generation (striped by key hash, plus one for
+ * clears) and a fill is dropped when the generation moved while the loader ran. Evictions
+ * made inside a transaction run again after it commits, so a load that read the row between
+ * the first eviction and the commit is dropped as well.
+ */
+@Slf4j
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+    
+    private static final int GENERATION_STRIPES = 256;
+    
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Object> l1;
+    private final Cache l2;
+    private final CacheInvalidationPublisher publisher;
+    private final long refreshAheadNanos;
+    private final Executor refreshExecutor;
+    private final SingleFlight<Object, Object> loads = new SingleFlight<>();
+    private final Set<Object> refreshing = ConcurrentHashMap.newKeySet();
+    private final AtomicLongArray evictions = new AtomicLongArray(GENERATION_STRIPES);
+    private final AtomicLong clears = new AtomicLong();
+    
+    private final LongAdder l1Hits = new LongAdder();
+    private final LongAdder l1Misses = new LongAdder();
+    private final LongAdder l2Hits = new LongAdder();
+    private final LongAdder l2Misses = new LongAdder();
+    private final LongAdder remoteInvalidations = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder staleFills = new LongAdder();
+    
+    public TwoLevelCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> l1,
+                         Cache l2, CacheInvalidationPublisher publisher) {
+        this(name, l1, l2, publisher, Duration.ZERO, Runnable::run);
+    }
+    
+    /**
+     * @param refreshAheadAfter L1 entry age after which a hit triggers a reload; zero disables refresh-ahead
+     * @param refreshExecutor   runs the reloads, off the caller's thread
+     */
+    public TwoLevelCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> l1,
+                         Cache l2, CacheInvalidationPublisher publisher, Duration refreshAheadAfter,
+                         Executor refreshExecutor) {
+        super(false);
+        this.name = name;
+        this.l1 = l1;
+        this.l2 = l2;
+        this.publisher = publisher;
+        this.refreshAheadNanos = refreshAheadAfter.toNanos();
+        this.refreshExecutor = refreshExecutor;
+    }
+    
+    @Override
+    public String getName() {
+        return name;
+    }
+    
+    @Override
+    public Object getNativeCache() {
+        return l1;
+    }
+    
+    @Override
+    protected Object lookup(Object key) {
+        Object value = l1.getIfPresent(key);
+        if (value != null) {
+            l1Hits.increment();
+            return value;
+        }
+        l1Misses.increment();
+        
+        ValueWrapper wrapper = l2.get(key);
+        if (wrapper == null || wrapper.get() == null) {
+            l2Misses.increment();
+            return null;
+        }
+        l2Hits.increment();
+        l1.put(key, wrapper.get());
+        return wrapper.get();
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object cached = lookup(key);
+        if (cached != null) {
+            refreshAheadIfDue(key, valueLoader);
+            return (T) cached;
+        }
+        try {
+            return (T) loads.load(key, () -> {
+                // A load that finished just before this one started has already filled L1
+                Object loaded = l1.getIfPresent(key);
+                if (loaded != null) {
+                    return loaded;
+                }
+                long generation = generation(key);
+                T value = valueLoader.call();
+                fill(key, value, generation);
+                return value;
+            });
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+    
+    private void refreshAheadIfDue(Object key, Callable<?> valueLoader) {
+        if (refreshAheadNanos <= 0) {
+            return;
+        }
+        long age = l1.policy().expireAfterWrite()
+            .map(expiration -> expiration.ageOf(key, TimeUnit.NANOSECONDS).orElse(0L))
+            .orElse(0L);
+        if (age < refreshAheadNanos || !refreshing.add(key)) {
+            return;
+        }
+        try {
+            // The loader reads through the caller's region
+            refreshExecutor.execute(ShardContext.wrap(() -> reload(key, valueLoader)));
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+        }
+    }
+    
+    private void reload(Object key, Callable<?> valueLoader) {
+        try {
+            long generation = generation(key);
+            if (fill(key, valueLoader.call(), generation)) {
+                refreshes.increment();
+            }
+        } catch (Exception e) {
+            // The current value is still valid until it expires
+            log.debug("Refresh-ahead of {} in cache '{}' failed: {}", key, name, e.getMessage());
+        } finally {
+            refreshing.remove(key);
+        }
+    }
+    
+    /**
+     * Put a loaded value unless the key was evicted since {@code generation} was read.
+     * An eviction can still land between the check and the write, so the generation is
+     * read again afterwards and the value dropped if it moved.
+     */
+    private boolean fill(Object key, Object value, long generation) {
+        if (value == null) {
+            return false;
+        }
+        if (generation(key) == generation) {
+            put(key, value);
+            if (generation(key) == generation) {
+                return true;
+            }
+            drop(key);
+        }
+        staleFills.increment();
+        return false;
+    }
+    
+    private long generation(Object key) {
+        return evictions.get(stripe(key)) + clears.get();
+    }
+    
+    private static int stripe(Object key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (GENERATION_STRIPES - 1);
+    }
+    
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            return;
+        }
+        l1.put(key, value);
+        l2.put(key, value);
+        publisher.publishEvict(name, key);
+    }
+    
+    @Override
+    public void evict(Object key) {
+        evictNow(key);
+        afterCommit(() -> evictNow(key));
+    }
+    
+    @Override
+    public void clear() {
+        clearNow();
+        afterCommit(this::clearNow);
+    }
+    
+    private void evictNow(Object key) {
+        evictions.incrementAndGet(stripe(key));
+        drop(key);
+    }
+    
+    private void drop(Object key) {
+        l1.invalidate(key);
+        l2.evict(key);
+        publisher.publishEvict(name, key);
+    }
+    
+    private void clearNow() {
+        clears.incrementAndGet();
+        l1.invalidateAll();
+        l2.clear();
+        publisher.publishClear(name);
+    }
+    
+    /**
+     * The cache is not enlisted in the transaction, so until the writer commits other callers
+     * still read the old row and can fill it back in; evicting again once committed drops those
+     */
+    private static void afterCommit(Runnable eviction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eviction.run();
+            }
+        });
+    }
+    
+    /**
+     * Drop a key from L1 only, on behalf of another node that changed it in L2
+     */
+    void invalidateLocal(Object key) {
+        remoteInvalidations.increment();
+        evictions.incrementAndGet(stripe(key));
+        l1.invalidate(key);
+    }
+    
+    void clearLocal() {
+        remoteInvalidations.increment();
+        clears.incrementAndGet();
+        l1.invalidateAll();
+    }
+    
+    /**
+     * Meters read from the counters above at scrape time, so gets pay nothing extra.
+     * Hit ratio per level is rate(cache_gets_total{result="hit"}) over all results, or the
+     * cache.hit.ratio gauge for the ratio since start.
+     */
+    void bindTo(MeterRegistry registry) {
+        gets(registry, "l1", "hit", l1Hits);
+        gets(registry, "l1", "miss", l1Misses);
+        gets(registry, "l2", "hit", l2Hits);
+        gets(registry, "l2", "miss", l2Misses);
+        ratio(registry, "l1", l1Hits, l1Misses);
+        ratio(registry, "l2", l2Hits, l2Misses);
+        Gauge.builder("cache.size", l1, com.github.benmanes.caffeine.cache.Cache::estimatedSize)
+            .description("Entries in this node's L1")
+            .tag("cache", name)
+            .register(registry);
+        FunctionCounter.builder("cache.evictions", l1, l1 -> l1.stats().evictionCount())
+            .description("L1 entries evicted for size")
+            .tag("cache", name)
+            .register(registry);
+        FunctionCounter.builder("cache.remote.invalidations", remoteInvalidations, LongAdder::sum)
+            .description("L1 invalidations received from other nodes")
+            .tag("cache", name)
+            .register(registry);
+        FunctionCounter.builder("cache.loads.coalesced", loads, SingleFlight::getCoalescedCount)
+            .description("Loads that waited for another caller's load of the same key")
+            .tag("cache", name)
+            .register(registry);
+        FunctionCounter.builder("cache.fills.stale", staleFills, LongAdder::sum)
+            .description("Loaded values dropped because the key was evicted while loading")
+            .tag("cache", name)
+            .register(registry);
+    }
+    
+    private void gets(MeterRegistry registry, String level, String result, LongAdder count) {
+        FunctionCounter.builder("cache.gets", count, LongAdder::sum)
+            .description("Cache lookups per level; an L1 miss is followed by an L2 lookup")
+            .tags("cache", name, "level", level, "result", result)
+            .register(registry);
+    }
+    
+    private void ratio(MeterRegistry registry, String level, LongAdder hits, LongAdder misses) {
+        Gauge.builder("cache.hit.ratio", () -> {
+                long hit = hits.sum();
+                long total = hit + misses.sum();
+                return total == 0 ? Double.NaN : (double) hit / total;
+            })
+            .description("Hits over lookups at this level since start")
+            .tags("cache", name, "level", level)
+            .register(registry);
+    }
+    
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("l1Hits", l1Hits.sum());
+        stats.put("l1Misses", l1Misses.sum());
+        stats.put("l2Hits", l2Hits.sum());
+        stats.put("l2Misses", l2Misses.sum());
+        stats.put("l1Size", l1.estimatedSize());
+        stats.put("l1Evictions", l1.stats().evictionCount());
+        stats.put("remoteInvalidations", remoteInvalidations.sum());
+        stats.put("coalescedLoads", loads.getCoalescedCount());
+        stats.put("refreshAheads", refreshes.sum());
+        stats.put("staleFills", staleFills.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,119 @@
+package com.interview.gocomet.GoComet.DAW.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.interview.gocomet.GoComet.DAW.config.TwoLevelCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds a {@link TwoLevelCache} per cache name on top of the Redis L2 cache manager
+ * and applies invalidations published by other nodes to the local L1 copies.
+ * Once bound to a meter registry, every cache (including ones created later) publishes its meters.
+ * Refresh-ahead reloads of all caches share one small bounded pool (cache.two-level.refresh-threads).
+ */
+@Slf4j
+public class TwoLevelCacheManager implements CacheManager, MessageListener, MeterBinder, DisposableBean {
+    
+    private final CacheManager l2CacheManager;
+    private final TwoLevelCacheProperties properties;
+    private final CacheInvalidationPublisher publisher;
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor refreshExecutor;
+    private volatile MeterRegistry meterRegistry;
+    
+    public TwoLevelCacheManager(CacheManager l2CacheManager, TwoLevelCacheProperties properties,
+                                CacheInvalidationPublisher publisher) {
+        this.l2CacheManager = l2CacheManager;
+        this.properties = properties;
+        this.publisher = publisher;
+        AtomicInteger counter = new AtomicInteger();
+        int threads = Math.max(1, properties.getRefreshThreads());
+        this.refreshExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(properties.getRefreshQueueSize()), runnable -> {
+                Thread thread = new Thread(runnable, "cache-refresh-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+    }
+    
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+    
+    private TwoLevelCache createCache(String name) {
+        TwoLevelCacheProperties.Spec spec = properties.specFor(name);
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> l1 = Caffeine.newBuilder()
+            .maximumSize(spec.getL1MaxSize())
+            .expireAfterWrite(spec.getL1Ttl())
+            .recordStats()
+            .build();
+        Duration refreshAheadAfter = Duration.ofNanos((long) (spec.getL1Ttl().toNanos() * spec.getRefreshAheadRatio()));
+        log.info("Cache '{}': L1 max {} entries, L1 TTL {}, L2 TTL {}, refresh-ahead after {}",
+            name, spec.getL1MaxSize(), spec.getL1Ttl(), spec.getL2Ttl(), refreshAheadAfter);
+        TwoLevelCache cache = new TwoLevelCache(name, l1, l2CacheManager.getCache(name), publisher, refreshAheadAfter,
+            refreshExecutor);
+        if (meterRegistry != null) {
+            cache.bindTo(meterRegistry);
+        }
+        return cache;
+    }
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        meterRegistry = registry;
+        caches.values().forEach(cache -> cache.bindTo(registry));
+    }
+    
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+    
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 4);
+        if (parts.length < 4 || parts[0].equals(publisher.getNodeId())) {
+            return;
+        }
+        // Caches this node has never touched have no L1 to invalidate
+        TwoLevelCache cache = caches.get(parts[2]);
+        if (cache == null) {
+            return;
+        }
+        if (CacheInvalidationPublisher.EVICT.equals(parts[1])) {
+            cache.invalidateLocal(parts[3]);
+        } else {
+            cache.clearLocal();
+        }
+    }
+    
+    @Override
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
+    
+    public Map<String, Map<String, Object>> getStats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        caches.forEach((name, cache) -> stats.put(name, cache.getStats()));
+        return stats;
+    }
+}
@@ -0,0 +1,43 @@
+package com.interview.gocomet.GoComet.DAW.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Endpoint classes for adaptive admission control. Each class gets its own concurrency limit;
+ * a lower priority number is more important, and less important classes are scaled down while
+ * a more important one is slowing down.
+ */
+@Data
+@ConfigurationProperties(prefix = "admission")
+public class AdmissionProperties {
+    
+    private boolean enabled = true;
+    
+    private int retryAfterSeconds = 1;
+    
+    private Duration window = Duration.ofMillis(500);
+    
+    private int minWindowSamples = 10;
+    
+    // Short RTT may reach this multiple of the baseline before the limit starts shrinking
+    private double rttTolerance = 1.5;
+    
+    private Map<String, EndpointClass> classes = new LinkedHashMap<>();
+    
+    @Data
+    public static class EndpointClass {
+        private int priority;
+        // "METHOD /ant/path/pattern" entries
+        private List<String> endpoints = new ArrayList<>();
+        private int initialLimit = 20;
+        private int minLimit = 2;
+        private int maxLimit = 200;
+    }
+}
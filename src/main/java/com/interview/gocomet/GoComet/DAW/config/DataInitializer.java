@@ -3,6 +3,10 @@ package com.interview.gocomet.GoComet.DAW.config;
 import com.interview.gocomet.GoComet.DAW.model.Driver;
 import com.interview.gocomet.GoComet.DAW.model.DriverStatus;
 import com.interview.gocomet.GoComet.DAW.repository.DriverRepository;
+import com.interview.gocomet.GoComet.DAW.service.BulkWriter;
+import com.interview.gocomet.GoComet.DAW.sharding.Region;
+import com.interview.gocomet.GoComet.DAW.sharding.RegionDirectory;
+import com.interview.gocomet.GoComet.DAW.sharding.ShardContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
@@ -10,11 +14,15 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Data initializer for development/testing.
  * Creates sample drivers when application starts.
  * Only runs in 'dev' or 'default' profile.
+ * With region shards, every other region with a bounding box gets drivers of its own
+ * ("DRIVER-BLR-1", ...) around its centre.
  */
 @Component
 @Profile({"dev", "default"})
@@ -23,23 +31,37 @@ import java.time.LocalDateTime;
 public class DataInitializer implements CommandLineRunner {
     
     private final DriverRepository driverRepository;
+    private final RegionDirectory regionDirectory;
+    private final BulkWriter bulkWriter;
     
     @Override
     public void run(String... args) {
+        ShardContext.runIn(regionDirectory.getDefaultRegion(), this::initializeDefaultRegion);
+        for (Region region : regionDirectory.getRegions()) {
+            if (region != regionDirectory.getDefaultRegion() && region.minLatitude() != null
+                    && region.maxLatitude() != null && region.minLongitude() != null && region.maxLongitude() != null) {
+                ShardContext.runIn(region, () -> initializeRegion(region));
+            }
+        }
+    }
+    
+    private void initializeDefaultRegion() {
         // Only initialize if no drivers exist
         if (driverRepository.count() == 0) {
             log.info("Initializing sample drivers...");
             
-            createDriver("DRIVER-1", "John Doe", "1234567890", "DL-01-AB-1234", "SEDAN", 
-                        28.7041, 77.1025);
-            createDriver("DRIVER-2", "Jane Smith", "1234567891", "DL-02-CD-5678", "SUV", 
-                        28.7050, 77.1030);
-            createDriver("DRIVER-3", "Bob Johnson", "1234567892", "DL-03-EF-9012", "HATCHBACK", 
-                        28.7060, 77.1040);
-            createDriver("DRIVER-4", "Alice Williams", "1234567893", "DL-04-GH-3456", "SEDAN", 
-                        28.7070, 77.1050);
-            createDriver("DRIVER-5", "Charlie Brown", "1234567894", "DL-05-IJ-7890", "SUV", 
-                        28.7080, 77.1060);
+            List<Driver> drivers = new ArrayList<>();
+            drivers.add(createDriver("DRIVER-1", "John Doe", "1234567890", "DL-01-AB-1234", "SEDAN", 
+                        28.7041, 77.1025));
+            drivers.add(createDriver("DRIVER-2", "Jane Smith", "1234567891", "DL-02-CD-5678", "SUV", 
+                        28.7050, 77.1030));
+            drivers.add(createDriver("DRIVER-3", "Bob Johnson", "1234567892", "DL-03-EF-9012", "HATCHBACK", 
+                        28.7060, 77.1040));
+            drivers.add(createDriver("DRIVER-4", "Alice Williams", "1234567893", "DL-04-GH-3456", "SEDAN", 
+                        28.7070, 77.1050));
+            drivers.add(createDriver("DRIVER-5", "Charlie Brown", "1234567894", "DL-05-IJ-7890", "SUV", 
+                        28.7080, 77.1060));
+            bulkWriter.insertAll(drivers);
             
             log.info("Sample drivers initialized successfully!");
         } else {
@@ -47,9 +69,27 @@ public class DataInitializer implements CommandLineRunner {
         }
     }
     
-    private void createDriver(String driverId, String name, String phoneNumber, 
-                              String vehicleNumber, String vehicleType,
-                              Double latitude, Double longitude) {
+    private void initializeRegion(Region region) {
+        if (driverRepository.count() > 0) {
+            log.info("Region {} already has drivers. Skipping initialization.", region.code());
+            return;
+        }
+        double latitude = (region.minLatitude() + region.maxLatitude()) / 2;
+        double longitude = (region.minLongitude() + region.maxLongitude()) / 2;
+        String[] vehicleTypes = {"SEDAN", "SUV", "HATCHBACK", "SEDAN", "SUV"};
+        List<Driver> drivers = new ArrayList<>();
+        for (int i = 1; i <= vehicleTypes.length; i++) {
+            drivers.add(createDriver("DRIVER-" + region.code() + "-" + i, "Driver " + region.code() + " " + i,
+                String.format("9%02d00000%02d", region.index(), i), region.code() + "-0" + i + "-AB-" + (1000 + i),
+                vehicleTypes[i - 1], latitude + i * 0.001, longitude + i * 0.001));
+        }
+        bulkWriter.insertAll(drivers);
+        log.info("Sample drivers initialized for region {}", region.code());
+    }
+    
+    private Driver createDriver(String driverId, String name, String phoneNumber, 
+                                String vehicleNumber, String vehicleType,
+                                Double latitude, Double longitude) {
         Driver driver = Driver.builder()
             .driverId(driverId)
             .name(name)
@@ -62,8 +102,8 @@ public class DataInitializer implements CommandLineRunner {
             .lastLocationUpdate(LocalDateTime.now())
             .build();
         
-        driverRepository.save(driver);
         log.debug("Created driver: {}", driverId);
+        return driver;
     }
 }
 
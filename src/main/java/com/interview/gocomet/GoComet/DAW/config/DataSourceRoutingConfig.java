@@ -0,0 +1,72 @@
+package com.interview.gocomet.GoComet.DAW.config;
+
+import com.interview.gocomet.GoComet.DAW.datasource.ReadWriteRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Primary/replica datasource routing, on when datasource.replica.enabled=true.
+ * The primary pool is built from spring.datasource.* as usual; the replica pool from
+ * datasource.replica.url/username/password, tuned with datasource.replica.hikari.*.
+ * Without it the application runs on the single auto-configured pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replica.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+    
+    @Bean(destroyMethod = "close")
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(DataSourceProperties primaryProperties,
+                                                                 Environment environment,
+                                                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        Binder binder = Binder.get(environment);
+        
+        HikariDataSource primary = primaryProperties.initializeDataSourceBuilder()
+            .type(HikariDataSource.class)
+            .build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+        MetricsConfig.track(primary, meterRegistry);
+        
+        String url = binder.bind("datasource.replica.url", String.class)
+            .orElseThrow(() -> new IllegalStateException(
+                "datasource.replica.url is required when datasource.replica.enabled=true"));
+        HikariDataSource replica = DataSourceBuilder.create()
+            .type(HikariDataSource.class)
+            .driverClassName(primaryProperties.determineDriverClassName())
+            .url(url)
+            .username(binder.bind("datasource.replica.username", String.class)
+                .orElse(primaryProperties.determineUsername()))
+            .password(binder.bind("datasource.replica.password", String.class)
+                .orElse(primaryProperties.determinePassword()))
+            .build();
+        binder.bind("datasource.replica.hikari", Bindable.ofInstance(replica));
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+        MetricsConfig.track(replica, meterRegistry);
+        
+        return new ReadWriteRoutingDataSource(primary, replica);
+    }
+    
+    /**
+     * What JPA and everything else use. Lazy, so a transaction takes its connection on the
+     * first statement, after its read-only flag is known.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readWriteRoutingDataSource);
+    }
+}
@@ -0,0 +1,29 @@
+package com.interview.gocomet.GoComet.DAW.config;
+
+import com.interview.gocomet.GoComet.DAW.service.LedgerService;
+import com.interview.gocomet.GoComet.DAW.sharding.ScatterGather;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Replay tool: rebuilds driver balance aggregates from the ledger on startup.
+ * Run with --ledger.replay-on-startup=true. Each region rebuilds from its own ledger.
+ */
+@Component
+@ConditionalOnProperty(name = "ledger.replay-on-startup", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class LedgerReplayRunner implements CommandLineRunner {
+    
+    private final LedgerService ledgerService;
+    private final ScatterGather scatterGather;
+    
+    @Override
+    public void run(String... args) {
+        log.info("Replaying ledger into driver balance aggregates...");
+        scatterGather.forEachRegion(ledgerService::rebuildAggregates);
+    }
+}
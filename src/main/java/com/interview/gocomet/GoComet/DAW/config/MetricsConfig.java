@@ -0,0 +1,60 @@
+package com.interview.gocomet.GoComet.DAW.config;
+
+import com.interview.gocomet.GoComet.DAW.cache.TwoLevelCacheManager;
+import com.interview.gocomet.GoComet.DAW.resilience.AdmissionControlFilter;
+import com.interview.gocomet.GoComet.DAW.resilience.RedisGuard;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Meters Spring Boot cannot find on its own. Hot-path timers live in HotPathMetrics; HTTP,
+ * JVM and the auto-configured connection pool are bound by Actuator. Served at
+ * /actuator/prometheus and /actuator/metrics.
+ */
+@Configuration
+public class MetricsConfig {
+    
+    /**
+     * Hit/miss counters per cache and level. The two-level caches are created on first use,
+     * so the manager binds each one as it appears.
+     */
+    @Bean
+    public MeterBinder twoLevelCacheMetrics(CacheManager cacheManager) {
+        return registry -> {
+            if (cacheManager instanceof TwoLevelCacheManager twoLevelCacheManager) {
+                twoLevelCacheManager.bindTo(registry);
+            }
+        };
+    }
+    
+    /**
+     * Admission limits, in-flight counts and shed requests per endpoint class, when admission control is on
+     */
+    @Bean
+    public MeterBinder admissionMetrics(ObjectProvider<AdmissionControlFilter> admissionControlFilter) {
+        return registry -> admissionControlFilter.ifAvailable(filter -> filter.bindTo(registry));
+    }
+    
+    /**
+     * Whether Redis calls are being skipped, and how often the breaker trips and recovers
+     */
+    @Bean
+    public MeterBinder redisGuardMetrics(RedisGuard redisGuard) {
+        return redisGuard::bindTo;
+    }
+    
+    /**
+     * Pools built inside the routing datasources (replica, shards) are not beans, so Actuator
+     * does not see them; this gives them the same hikaricp.* meters, connection acquire time
+     * (the pool wait) included. Must run before the pool's first connection.
+     */
+    public static void track(HikariDataSource pool, ObjectProvider<MeterRegistry> meterRegistry) {
+        meterRegistry.ifAvailable(registry -> pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+    }
+}
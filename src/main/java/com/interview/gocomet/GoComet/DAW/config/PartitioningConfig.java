@@ -0,0 +1,47 @@
+package com.interview.gocomet.GoComet.DAW.config;
+
+import com.interview.gocomet.GoComet.DAW.partitioning.PartitionMaintenance;
+import com.interview.gocomet.GoComet.DAW.partitioning.PartitionManager;
+import com.interview.gocomet.GoComet.DAW.sharding.ScatterGather;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Time-partitioned rides and trips, on when partitioning.enabled=true. Needs PostgreSQL;
+ * with region shards every region database is partitioned the same way.
+ */
+@Configuration
+@EnableConfigurationProperties(PartitioningProperties.class)
+public class PartitioningConfig {
+    
+    @Configuration
+    @ConditionalOnProperty(name = "partitioning.enabled", havingValue = "true")
+    static class Partitioned {
+        
+        @Bean
+        public PartitionManager partitionManager(PartitioningProperties properties) {
+            return new PartitionManager(properties.getInterval(), properties.getArchiveSchema());
+        }
+        
+        @Bean
+        public PartitionMaintenance partitionMaintenance(DataSource dataSource,
+                                                         EntityManagerFactory entityManagerFactory,
+                                                         ScatterGather scatterGather,
+                                                         PartitionManager partitionManager,
+                                                         PartitioningProperties properties) {
+            if (!(entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices().getDialect() instanceof PostgreSQLDialect)) {
+                throw new IllegalStateException("partitioning.enabled needs PostgreSQL");
+            }
+            return new PartitionMaintenance(dataSource, scatterGather, partitionManager,
+                properties.getPrecreateDays(), properties.getRetention());
+        }
+    }
+}
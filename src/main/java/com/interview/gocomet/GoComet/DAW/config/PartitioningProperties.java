@@ -0,0 +1,29 @@
+package com.interview.gocomet.GoComet.DAW.config;
+
+import com.interview.gocomet.GoComet.DAW.partitioning.PartitionInterval;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Range partitions on created_at for rides and trips (PostgreSQL only), kept up by
+ * PartitionMaintenance in every region
+ */
+@Data
+@ConfigurationProperties(prefix = "partitioning")
+public class PartitioningProperties {
+    
+    private boolean enabled = false;
+    
+    private PartitionInterval interval = PartitionInterval.DAILY;
+    
+    // Partitions exist from today through today + precreate-days; startup fails otherwise
+    private int precreateDays = 7;
+    
+    // Partitions that ended longer ago are detached; zero keeps everything
+    private Duration retention = Duration.ZERO;
+    
+    // Where detached partitions go; blank drops them
+    private String archiveSchema = "archive";
+}
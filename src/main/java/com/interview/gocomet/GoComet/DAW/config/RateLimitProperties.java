@@ -0,0 +1,51 @@
+package com.interview.gocomet.GoComet.DAW.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Token-bucket policies for the rate-limit filter, one per endpoint.
+ * A policy's key says where the caller id comes from: "path:{variable}" from the endpoint
+ * pattern, "header:{name}", or "body:{field}" for a top-level field of the JSON body.
+ */
+@Data
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+    
+    public enum Mode {
+        // Buckets in this node's heap; each node enforces the limit on its own
+        LOCAL,
+        // Buckets in Redis, shared by all nodes; falls back to LOCAL while Redis is unavailable
+        REDIS
+    }
+    
+    private boolean enabled = true;
+    
+    private Mode mode = Mode.LOCAL;
+    
+    // Upper bound on local buckets; idle buckets are evicted first
+    private long maxBuckets = 100_000;
+    
+    // A bucket untouched this long has refilled completely and is dropped
+    private Duration idleTimeout = Duration.ofMinutes(2);
+    
+    // Largest body a body-keyed policy buffers to find the caller; longer bodies get 413
+    private DataSize maxBodySize = DataSize.ofKilobytes(64);
+    
+    private Map<String, Policy> policies = new LinkedHashMap<>();
+    
+    @Data
+    public static class Policy {
+        // "METHOD /path/{variable}/pattern"
+        private String endpoint;
+        private String key;
+        private double ratePerSecond = 1.0;
+        private int burst = 5;
+    }
+}
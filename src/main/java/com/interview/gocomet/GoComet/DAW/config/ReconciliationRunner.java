@@ -0,0 +1,45 @@
+package com.interview.gocomet.GoComet.DAW.config;
+
+import com.interview.gocomet.GoComet.DAW.dto.ReconciliationReport;
+import com.interview.gocomet.GoComet.DAW.service.PaymentReconciliationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * Runs payment reconciliation against a PSP settlement file on startup.
+ * Run with --reconciliation.settlement-file=/path/settlement.csv; re-running after an
+ * interruption resumes from the checkpoint file.
+ */
+@Component
+@ConditionalOnProperty(name = "reconciliation.settlement-file")
+@Slf4j
+public class ReconciliationRunner implements CommandLineRunner {
+    
+    private final PaymentReconciliationService reconciliationService;
+    private final Path settlementFile;
+    private final Path mismatchFile;
+    private final Path checkpointFile;
+    
+    public ReconciliationRunner(
+            PaymentReconciliationService reconciliationService,
+            @Value("${reconciliation.settlement-file}") Path settlementFile,
+            @Value("${reconciliation.mismatch-file:reconciliation-mismatches.csv}") Path mismatchFile,
+            @Value("${reconciliation.checkpoint-file:reconciliation.checkpoint}") Path checkpointFile) {
+        this.reconciliationService = reconciliationService;
+        this.settlementFile = settlementFile;
+        this.mismatchFile = mismatchFile;
+        this.checkpointFile = checkpointFile;
+    }
+    
+    @Override
+    public void run(String... args) {
+        log.info("Reconciling payments against {}", settlementFile);
+        ReconciliationReport report = reconciliationService.reconcile(settlementFile, mismatchFile, checkpointFile);
+        log.info("Reconciliation report: {} mismatches written to {}", report.getTotalMismatches(), mismatchFile);
+    }
+}
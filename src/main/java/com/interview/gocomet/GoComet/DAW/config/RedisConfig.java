@@ -1,6 +1,16 @@
 package com.interview.gocomet.GoComet.DAW.config;
 
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.interview.gocomet.GoComet.DAW.cache.CacheCodecs;
+import com.interview.gocomet.GoComet.DAW.cache.CacheInvalidationPublisher;
+import com.interview.gocomet.GoComet.DAW.cache.CircuitBreakingCacheManager;
+import com.interview.gocomet.GoComet.DAW.cache.CompactRedisSerializer;
+import com.interview.gocomet.GoComet.DAW.cache.TwoLevelCacheManager;
+import com.interview.gocomet.GoComet.DAW.resilience.RedisGuard;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CachingConfigurerSupport;
@@ -13,40 +23,119 @@ import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
-import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
 
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(TwoLevelCacheProperties.class)
 @Slf4j
 public class RedisConfig extends CachingConfigurerSupport {
     
+    /**
+     * Value serializer shared by the template and the cache: compact binary layouts for the hot
+     * types (Driver, RideResponse, PaymentResponse) with JSON for everything else, or plain JSON
+     * when cache.serializer=json
+     */
     @Bean
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
+    public RedisSerializer<Object> redisValueSerializer(@Value("${cache.serializer:binary}") String format) {
+        GenericJackson2JsonRedisSerializer json = jsonValueSerializer();
+        if ("json".equalsIgnoreCase(format)) {
+            return json;
+        }
+        return new CompactRedisSerializer(CacheCodecs.defaults(), json);
+    }
+    
+    /**
+     * Typed JSON with java.time support; without the module every value holding a LocalDateTime fails to serialize
+     */
+    public static GenericJackson2JsonRedisSerializer jsonValueSerializer() {
+        return new GenericJackson2JsonRedisSerializer().configure(mapper -> mapper.registerModule(new JavaTimeModule()));
+    }
+    
+    @Bean
+    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory,
+                                                       RedisSerializer<Object> redisValueSerializer) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
         template.setKeySerializer(new StringRedisSerializer());
-        template.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+        template.setValueSerializer(redisValueSerializer);
         template.setHashKeySerializer(new StringRedisSerializer());
-        template.setHashValueSerializer(new GenericJackson2JsonRedisSerializer());
+        template.setHashValueSerializer(jsonValueSerializer());
         return template;
     }
     
+    /**
+     * Redis-backed cache manager, fronted by a per-node in-heap L1 unless cache.two-level.enabled=false.
+     * Redis access goes through the RedisGuard breaker, so an outage costs a few timeouts, not one per call.
+     */
     @Bean
     @Primary
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
-        RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
-            .entryTtl(Duration.ofMinutes(5))
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                     StringRedisTemplate stringRedisTemplate,
+                                     RedisSerializer<Object> redisValueSerializer,
+                                     RedisGuard redisGuard,
+                                     TwoLevelCacheProperties properties) {
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
+            .cacheDefaults(redisCacheConfiguration(properties.getDefaults(), redisValueSerializer))
+            .withInitialCacheConfigurations(perCacheRedisConfigurations(properties, redisValueSerializer))
+            .build();
+        redisCacheManager.initializeCaches();
+        CacheManager guardedCacheManager = new CircuitBreakingCacheManager(redisCacheManager, redisGuard);
+        
+        if (!properties.isEnabled()) {
+            return guardedCacheManager;
+        }
+        CacheInvalidationPublisher publisher = new CacheInvalidationPublisher(
+            stringRedisTemplate, redisGuard, properties.getInvalidationChannel(), UUID.randomUUID().toString());
+        return new TwoLevelCacheManager(guardedCacheManager, properties, publisher);
+    }
+    
+    /**
+     * Subscribes this node's L1 caches to invalidations published by the other nodes
+     */
+    @Bean
+    @ConditionalOnProperty(name = "cache.two-level.enabled", havingValue = "true", matchIfMissing = true)
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            CacheManager cacheManager,
+                                                                            TwoLevelCacheProperties properties) {
+        // Started by CacheInvalidationSubscriber so a missing Redis does not fail startup
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer() {
+            @Override
+            public boolean isAutoStartup() {
+                return false;
+            }
+        };
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((TwoLevelCacheManager) cacheManager, new ChannelTopic(properties.getInvalidationChannel()));
+        return container;
+    }
+    
+    private Map<String, RedisCacheConfiguration> perCacheRedisConfigurations(TwoLevelCacheProperties properties,
+                                                                             RedisSerializer<Object> valueSerializer) {
+        Map<String, RedisCacheConfiguration> configurations = new HashMap<>();
+        for (String cacheName : properties.getCaches().keySet()) {
+            configurations.put(cacheName, redisCacheConfiguration(properties.specFor(cacheName), valueSerializer));
+        }
+        return configurations;
+    }
+    
+    private RedisCacheConfiguration redisCacheConfiguration(TwoLevelCacheProperties.Spec spec,
+                                                            RedisSerializer<Object> valueSerializer) {
+        return RedisCacheConfiguration.defaultCacheConfig()
+            .entryTtl(spec.getL2Ttl())
             .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-            .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer()))
+            .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(valueSerializer))
             .disableCachingNullValues();
-        
-        return RedisCacheManager.builder(connectionFactory)
-            .cacheDefaults(config)
-            .build();
     }
     
     @Override
@@ -0,0 +1,41 @@
+package com.interview.gocomet.GoComet.DAW.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+/**
+ * Dedicated scheduler for @Scheduled jobs (outbox relay, payment sweep, Redis probe, ...).
+ * Without it they would run on the STOMP broker's messageBrokerTaskScheduler bean, which is
+ * the only TaskScheduler in the context once the WebSocket message broker is enabled.
+ */
+@Configuration
+public class SchedulingConfig implements SchedulingConfigurer {
+    
+    @Value("${scheduling.pool-size:4}")
+    private int poolSize;
+    
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+    
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        if (virtualThreads) {
+            SimpleAsyncTaskScheduler scheduler = new SimpleAsyncTaskScheduler();
+            scheduler.setVirtualThreads(true);
+            scheduler.setThreadNamePrefix("scheduling-");
+            scheduler.setDaemon(true);
+            taskRegistrar.setTaskScheduler(scheduler);
+            return;
+        }
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("scheduling-");
+        scheduler.setDaemon(true);
+        scheduler.initialize();
+        taskRegistrar.setTaskScheduler(scheduler);
+    }
+}
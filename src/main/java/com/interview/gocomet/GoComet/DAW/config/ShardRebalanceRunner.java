@@ -0,0 +1,54 @@
+package com.interview.gocomet.GoComet.DAW.config;
+
+import com.interview.gocomet.GoComet.DAW.sharding.Region;
+import com.interview.gocomet.GoComet.DAW.sharding.RegionDirectory;
+import com.interview.gocomet.GoComet.DAW.sharding.ShardRebalancer;
+import com.interview.gocomet.GoComet.DAW.sharding.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Rebalance tool: copies one region to a new database on startup.
+ * Drain the region first (no instance serving it), then run with
+ * --sharding.rebalance.region=BLR --sharding.rebalance.target-url=jdbc:postgresql://...
+ * and afterwards point sharding.regions.BLR.url at the target on every instance.
+ */
+@Component
+@ConditionalOnProperty(name = {"sharding.enabled", "sharding.rebalance.region"})
+@RequiredArgsConstructor
+@Slf4j
+public class ShardRebalanceRunner implements CommandLineRunner {
+    
+    private final ShardingProperties properties;
+    private final RegionDirectory regionDirectory;
+    private final ShardRoutingDataSource routingDataSource;
+    private final ShardRebalancer rebalancer;
+    
+    @Override
+    public void run(String... args) {
+        ShardingProperties.Rebalance rebalance = properties.getRebalance();
+        Region region = regionDirectory.byCode(rebalance.getRegion());
+        if (rebalance.getTargetUrl() == null) {
+            throw new IllegalStateException("sharding.rebalance.target-url is required");
+        }
+        log.info("Rebalancing region {} to {}", region.code(), rebalance.getTargetUrl());
+        try (HikariDataSource target = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(rebalance.getTargetUrl())
+                .username(rebalance.getTargetUsername())
+                .password(rebalance.getTargetPassword())
+                .build()) {
+            target.setPoolName("rebalance-" + region.code());
+            Map<String, Long> copied = rebalancer.copy(region, routingDataSource.getPool(region.code()), target);
+            log.info("Region {} copied: {}. Set sharding.regions.{}.url={} and restart the instances serving it.",
+                region.code(), copied, region.code(), rebalance.getTargetUrl());
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.interview.gocomet.GoComet.DAW.config;
+
+import com.interview.gocomet.GoComet.DAW.datasource.IdSequences;
+import com.interview.gocomet.GoComet.DAW.sharding.MetadataCapture;
+import com.interview.gocomet.GoComet.DAW.sharding.Region;
+import com.interview.gocomet.GoComet.DAW.sharding.RegionDirectory;
+import com.interview.gocomet.GoComet.DAW.sharding.ShardRebalancer;
+import com.interview.gocomet.GoComet.DAW.sharding.ShardRoutingDataSource;
+import com.interview.gocomet.GoComet.DAW.sharding.ShardSchemaManager;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Region shards, on when sharding.enabled=true. The default region runs on the pool built
+ * from spring.datasource.*, every other region on its own pool from sharding.regions.CODE.*.
+ * Not combinable with datasource.replica.enabled; give each region database its own
+ * replicas behind its url instead.
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+    
+    @Configuration
+    @ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+    static class Sharded {
+        
+        @Bean(destroyMethod = "close")
+        public ShardRoutingDataSource shardRoutingDataSource(ShardingProperties properties,
+                                                             RegionDirectory regionDirectory,
+                                                             DataSourceProperties defaultProperties,
+                                                             Environment environment,
+                                                             ObjectProvider<MeterRegistry> meterRegistry) {
+            Binder binder = Binder.get(environment);
+            if (binder.bind("datasource.replica.enabled", Boolean.class).orElse(false)) {
+                throw new IllegalStateException("sharding.enabled and datasource.replica.enabled cannot be combined");
+            }
+            
+            Map<String, HikariDataSource> pools = new LinkedHashMap<>();
+            for (Region region : regionDirectory.getRegions()) {
+                HikariDataSource pool;
+                if (region == regionDirectory.getDefaultRegion()) {
+                    pool = defaultProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+                    binder.bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+                } else {
+                    ShardingProperties.Region spec = properties.getRegions().entrySet().stream()
+                        .filter(entry -> entry.getKey().equalsIgnoreCase(region.code()))
+                        .map(Map.Entry::getValue)
+                        .findFirst()
+                        .orElseThrow();
+                    if (spec.getUrl() == null) {
+                        throw new IllegalStateException("sharding.regions." + region.code() + ".url is required");
+                    }
+                    pool = DataSourceBuilder.create()
+                        .type(HikariDataSource.class)
+                        .url(spec.getUrl())
+                        .username(spec.getUsername() != null ? spec.getUsername() : defaultProperties.determineUsername())
+                        .password(spec.getPassword() != null ? spec.getPassword() : defaultProperties.determinePassword())
+                        .build();
+                    pool.setMaximumPoolSize(spec.getMaximumPoolSize());
+                }
+                pool.setPoolName("shard-" + region.code());
+                MetricsConfig.track(pool, meterRegistry);
+                pools.put(region.code(), pool);
+            }
+            return new ShardRoutingDataSource(regionDirectory.getDefaultRegion(), pools);
+        }
+        
+        /**
+         * What JPA and everything else use. Lazy, so a transaction opened before the region
+         * was set (e.g. by a proxy further out) still gets a connection from the right pool.
+         */
+        @Bean
+        @Primary
+        public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+            return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+        }
+        
+        @Bean
+        public MetadataCapture metadataCapture() {
+            return new MetadataCapture();
+        }
+        
+        @Bean
+        public HibernatePropertiesCustomizer metadataCaptureCustomizer(MetadataCapture metadataCapture) {
+            return hibernateProperties -> hibernateProperties.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER,
+                (IntegratorProvider) () -> List.of(metadataCapture));
+        }
+        
+        @Bean
+        public ShardSchemaManager shardSchemaManager(EntityManagerFactory entityManagerFactory,
+                                                     MetadataCapture metadataCapture,
+                                                     ShardRoutingDataSource shardRoutingDataSource,
+                                                     RegionDirectory regionDirectory) {
+            return new ShardSchemaManager(entityManagerFactory, metadataCapture, shardRoutingDataSource, regionDirectory);
+        }
+        
+        @Bean
+        public ShardRebalancer shardRebalancer(ShardSchemaManager shardSchemaManager, IdSequences idSequences) {
+            return new ShardRebalancer(shardSchemaManager, idSequences);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.interview.gocomet.GoComet.DAW.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Region shards. Each region (keyed by its code, e.g. BLR) owns a complete copy of the schema
+ * in its own database and holds the rides, trips, drivers, payments and outbox of that region.
+ * The default region lives in spring.datasource and also takes legacy ids without a region tag
+ * and pickups outside every configured bounding box.
+ */
+@Data
+@ConfigurationProperties(prefix = "sharding")
+public class ShardingProperties {
+    
+    private boolean enabled = false;
+    
+    private String defaultRegion = "DEFAULT";
+    
+    private Map<String, Region> regions = new LinkedHashMap<>();
+    
+    private Rebalance rebalance = new Rebalance();
+    
+    @Data
+    public static class Region {
+        // Stable and never reused: the high bits of every numeric id created in this region
+        private int index;
+        // Pickup bounding box; a region without one only receives what is routed to it by id
+        private Double minLatitude;
+        private Double maxLatitude;
+        private Double minLongitude;
+        private Double maxLongitude;
+        // Region database; ignored for the default region, which uses spring.datasource
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+    
+    /**
+     * Offline copy of one region to a new database, see ShardRebalanceRunner
+     */
+    @Data
+    public static class Rebalance {
+        private String region;
+        private String targetUrl;
+        private String targetUsername;
+        private String targetPassword;
+    }
+}
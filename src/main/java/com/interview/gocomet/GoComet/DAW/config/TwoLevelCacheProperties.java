@@ -0,0 +1,54 @@
+package com.interview.gocomet.GoComet.DAW.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-cache settings for the in-heap L1 / Redis L2 cache manager.
+ * Caches without an entry under cache.two-level.caches use the defaults.
+ */
+@Data
+@ConfigurationProperties(prefix = "cache.two-level")
+public class TwoLevelCacheProperties {
+    
+    private boolean enabled = true;
+    
+    private String invalidationChannel = "cache:invalidation";
+    
+    /**
+     * Threads and queued reloads for refresh-ahead, shared by all caches; a full queue skips the refresh
+     */
+    private int refreshThreads = 2;
+    
+    private int refreshQueueSize = 1000;
+    
+    private Spec defaults = new Spec();
+    
+    private Map<String, Spec> caches = new HashMap<>();
+    
+    public Spec specFor(String cacheName) {
+        Spec spec = caches.get(cacheName);
+        if (spec == null) {
+            return defaults;
+        }
+        Spec merged = new Spec();
+        merged.setL1MaxSize(spec.getL1MaxSize() != null ? spec.getL1MaxSize() : defaults.getL1MaxSize());
+        merged.setL1Ttl(spec.getL1Ttl() != null ? spec.getL1Ttl() : defaults.getL1Ttl());
+        merged.setL2Ttl(spec.getL2Ttl() != null ? spec.getL2Ttl() : defaults.getL2Ttl());
+        merged.setRefreshAheadRatio(spec.getRefreshAheadRatio() != null ? spec.getRefreshAheadRatio() : defaults.getRefreshAheadRatio());
+        return merged;
+    }
+    
+    @Data
+    public static class Spec {
+        private Long l1MaxSize = 10_000L;
+        private Duration l1Ttl = Duration.ofSeconds(30);
+        private Duration l2Ttl = Duration.ofMinutes(5);
+        // Fraction of the L1 TTL after which a sync load reloads the entry early; 0 disables
+        private Double refreshAheadRatio = 0.0;
+    }
+}
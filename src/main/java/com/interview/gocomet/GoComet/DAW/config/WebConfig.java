@@ -1,11 +1,13 @@
 package com.interview.gocomet.GoComet.DAW.config;
 
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
+@EnableConfigurationProperties({AdmissionProperties.class, RateLimitProperties.class})
 public class WebConfig implements WebMvcConfigurer {
     
     @Override
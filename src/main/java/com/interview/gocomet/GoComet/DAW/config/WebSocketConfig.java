@@ -0,0 +1,68 @@
+package com.interview.gocomet.GoComet.DAW.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+
+/**
+ * STOMP over WebSocket push channel for ride, trip and payment state changes.
+ * Clients connect to /ws and subscribe to /topic/... destinations (see StompPushPublisher).
+ * The in-memory broker only reaches clients connected to this node; with push.broker-relay.enabled
+ * subscriptions are relayed to an external STOMP broker (RabbitMQ, ActiveMQ) for multi-node fan-out.
+ */
+@Configuration
+@EnableWebSocketMessageBroker
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+    
+    @Value("${push.broker-relay.enabled:false}")
+    private boolean brokerRelayEnabled;
+    
+    @Value("${push.broker-relay.host:localhost}")
+    private String relayHost;
+    
+    @Value("${push.broker-relay.port:61613}")
+    private int relayPort;
+    
+    @Value("${push.broker-relay.login:guest}")
+    private String relayLogin;
+    
+    @Value("${push.broker-relay.passcode:guest}")
+    private String relayPasscode;
+    
+    @Value("${push.heartbeat-ms:10000}")
+    private long heartbeatMs;
+    
+    @Override
+    public void registerStompEndpoints(StompEndpointRegistry registry) {
+        registry.addEndpoint("/ws").setAllowedOriginPatterns("*");
+    }
+    
+    @Override
+    public void configureMessageBroker(MessageBrokerRegistry registry) {
+        registry.setApplicationDestinationPrefixes("/app");
+        if (brokerRelayEnabled) {
+            registry.enableStompBrokerRelay("/topic")
+                .setRelayHost(relayHost)
+                .setRelayPort(relayPort)
+                .setClientLogin(relayLogin)
+                .setClientPasscode(relayPasscode)
+                .setSystemLogin(relayLogin)
+                .setSystemPasscode(relayPasscode);
+            return;
+        }
+        // Heartbeats let clients notice a dead connection and fall back to polling.
+        // The scheduler is deliberately not a bean so @Scheduled keeps its own.
+        ThreadPoolTaskScheduler heartbeatScheduler = new ThreadPoolTaskScheduler();
+        heartbeatScheduler.setPoolSize(1);
+        heartbeatScheduler.setThreadNamePrefix("stomp-heartbeat-");
+        heartbeatScheduler.setDaemon(true);
+        heartbeatScheduler.initialize();
+        registry.enableSimpleBroker("/topic")
+            .setHeartbeatValue(new long[] {heartbeatMs, heartbeatMs})
+            .setTaskScheduler(heartbeatScheduler);
+    }
+}
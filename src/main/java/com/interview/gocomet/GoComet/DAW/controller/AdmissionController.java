@@ -0,0 +1,45 @@
+package com.interview.gocomet.GoComet.DAW.controller;
+
+import com.interview.gocomet.GoComet.DAW.resilience.AdmissionControlFilter;
+import com.interview.gocomet.GoComet.DAW.resilience.RateLimitFilter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/v1/admission")
+@RequiredArgsConstructor
+public class AdmissionController {
+    
+    private final ObjectProvider<AdmissionControlFilter> admissionControlFilter;
+    private final ObjectProvider<RateLimitFilter> rateLimitFilter;
+    
+    /**
+     * Current adaptive limit, in-flight count, latency baseline and admitted/rejected counters per endpoint class
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<?> getStats() {
+        AdmissionControlFilter filter = admissionControlFilter.getIfAvailable();
+        if (filter == null) {
+            return ResponseEntity.ok(Map.of("message", "Admission control is disabled"));
+        }
+        return ResponseEntity.ok(filter.getStats());
+    }
+    
+    /**
+     * Allowed/limited counters per rate-limit policy and the number of live local buckets
+     */
+    @GetMapping("/rate-limits")
+    public ResponseEntity<?> getRateLimitStats() {
+        RateLimitFilter filter = rateLimitFilter.getIfAvailable();
+        if (filter == null) {
+            return ResponseEntity.ok(Map.of("message", "Rate limiting is disabled"));
+        }
+        return ResponseEntity.ok(filter.getStats());
+    }
+}
@@ -0,0 +1,37 @@
+package com.interview.gocomet.GoComet.DAW.controller;
+
+import com.interview.gocomet.GoComet.DAW.cache.TwoLevelCacheManager;
+import com.interview.gocomet.GoComet.DAW.resilience.RedisGuard;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/v1/cache")
+@RequiredArgsConstructor
+public class CacheController {
+    
+    private final CacheManager cacheManager;
+    private final RedisGuard redisGuard;
+    
+    /**
+     * Per-cache, per-level hit/miss counters of the two-level cache and the Redis breaker state
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<?> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("redisCircuitBreaker", redisGuard.getState());
+        if (cacheManager instanceof TwoLevelCacheManager twoLevelCacheManager) {
+            stats.put("caches", twoLevelCacheManager.getStats());
+        } else {
+            stats.put("message", "Two-level cache is disabled");
+        }
+        return ResponseEntity.ok(stats);
+    }
+}
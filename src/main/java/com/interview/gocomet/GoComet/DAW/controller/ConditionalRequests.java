@@ -0,0 +1,131 @@
+package com.interview.gocomet.GoComet.DAW.controller;
+
+import com.interview.gocomet.GoComet.DAW.service.ResourceVersionService;
+import com.interview.gocomet.GoComet.DAW.sharding.ShardContext;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET and long-poll support for versioned resources.
+ * ETags are the resource version in quotes. When If-None-Match carries the version held by
+ * {@link ResourceVersionService} the 304 is built from that alone: no database read, no body.
+ */
+@Component
+public class ConditionalRequests {
+    
+    private final ResourceVersionService resourceVersions;
+    private final long maxWaitMs;
+    private final ExecutorService reloadExecutor;
+    
+    public ConditionalRequests(
+            ResourceVersionService resourceVersions,
+            @Value("${http.long-poll.max-wait-ms:30000}") long maxWaitMs,
+            @Value("${http.long-poll.reload-threads:4}") int reloadThreads) {
+        this.resourceVersions = resourceVersions;
+        this.maxWaitMs = maxWaitMs;
+        AtomicInteger counter = new AtomicInteger();
+        this.reloadExecutor = Executors.newFixedThreadPool(reloadThreads, runnable -> {
+            Thread thread = new Thread(runnable, "long-poll-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * 304 when the client already has the current version, otherwise null
+     */
+    public ResponseEntity<?> notModified(String key, String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return null;
+        }
+        Optional<Long> version = resourceVersions.current(key);
+        if (version.isPresent() && matches(ifNoneMatch, etag(version.get()))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag(version.get())).build();
+        }
+        return null;
+    }
+    
+    /**
+     * 200 with the body and its ETag. Spring still answers 304 if the freshly loaded
+     * version matches If-None-Match, it just had to load it first.
+     */
+    public <T> ResponseEntity<T> ok(String key, T body, Long version) {
+        if (version == null) {
+            return ResponseEntity.ok(body);
+        }
+        resourceVersions.observed(key, version);
+        return ResponseEntity.ok().eTag(etag(version)).body(body);
+    }
+    
+    /**
+     * Long-poll: hold the request while If-None-Match is still the current version, for at most
+     * waitForChangeMs (capped by http.long-poll.max-wait-ms). Completes with the fresh response as
+     * soon as the version moves, or with 304 on timeout. No thread is parked while waiting.
+     */
+    public DeferredResult<ResponseEntity<?>> awaitChange(String key, String ifNoneMatch, long waitForChangeMs,
+                                                         Supplier<ResponseEntity<?>> response) {
+        long timeoutMs = Math.min(Math.max(waitForChangeMs, 0), maxWaitMs);
+        if (ifNoneMatch == null || timeoutMs == 0) {
+            return completed(response.get());
+        }
+        Optional<Long> known = resourceVersions.current(key);
+        if (known.isEmpty()) {
+            // Loading the resource records its version, after which the client's ETag can be checked
+            ResponseEntity<?> loaded = response.get();
+            known = resourceVersions.current(key);
+            if (known.isEmpty() || !matches(ifNoneMatch, etag(known.get()))) {
+                return completed(loaded);
+            }
+        } else if (!matches(ifNoneMatch, etag(known.get()))) {
+            return completed(response.get());
+        }
+        
+        ResponseEntity<?> unchanged = ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag(known.get())).build();
+        DeferredResult<ResponseEntity<?>> result = new DeferredResult<>(timeoutMs, unchanged);
+        CompletableFuture<Long> change = resourceVersions.awaitChange(key, known.get());
+        // The reload runs on a pool thread, on the request's region
+        Supplier<ResponseEntity<?>> reload = ShardContext.wrap(response);
+        change.thenRunAsync(() -> result.setResult(reload.get()), reloadExecutor);
+        result.onCompletion(() -> change.cancel(false));
+        return result;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        reloadExecutor.shutdownNow();
+    }
+    
+    static String etag(long version) {
+        return "\"" + version + "\"";
+    }
+    
+    static boolean matches(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static DeferredResult<ResponseEntity<?>> completed(ResponseEntity<?> response) {
+        DeferredResult<ResponseEntity<?>> result = new DeferredResult<>();
+        result.setResult(response);
+        return result;
+    }
+}
@@ -0,0 +1,59 @@
+package com.interview.gocomet.GoComet.DAW.controller;
+
+import com.interview.gocomet.GoComet.DAW.datasource.ReadWriteRoutingDataSource;
+import com.interview.gocomet.GoComet.DAW.datasource.ReadYourWrites;
+import com.interview.gocomet.GoComet.DAW.partitioning.PartitionMaintenance;
+import com.interview.gocomet.GoComet.DAW.sharding.ShardRoutingDataSource;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/v1/datasource")
+@RequiredArgsConstructor
+public class DataSourceController {
+    
+    private final ObjectProvider<ReadWriteRoutingDataSource> routingDataSource;
+    private final ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource;
+    private final ObjectProvider<PartitionMaintenance> partitionMaintenance;
+    private final ReadYourWrites readYourWrites;
+    
+    /**
+     * Per-route pool state, connections routed to each pool and read-your-writes pins;
+     * per-region pool state when region sharding is on
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<?> getStats() {
+        ShardRoutingDataSource shards = shardRoutingDataSource.getIfAvailable();
+        if (shards != null) {
+            return ResponseEntity.ok(Map.of("shards", shards.getStats()));
+        }
+        ReadWriteRoutingDataSource dataSource = routingDataSource.getIfAvailable();
+        if (dataSource == null) {
+            return ResponseEntity.ok(Map.of("message", "Replica routing is disabled"));
+        }
+        Map<String, Object> stats = dataSource.getStats();
+        stats.put("readsPinnedToPrimary", readYourWrites.getPinnedTransactionCount());
+        stats.put("recentWriteSubjects", readYourWrites.getTrackedSubjectCount());
+        return ResponseEntity.ok(stats);
+    }
+    
+    /**
+     * Attached rides and trips partitions per region, and any day in the pre-created window without one
+     */
+    @GetMapping("/partitions")
+    public ResponseEntity<?> getPartitions() {
+        PartitionMaintenance maintenance = partitionMaintenance.getIfAvailable();
+        if (maintenance == null) {
+            return ResponseEntity.ok(Map.of("message", "Partitioning is disabled"));
+        }
+        return ResponseEntity.ok(Map.of(
+            "partitions", maintenance.getPartitions(),
+            "missing", maintenance.missingPartitions()));
+    }
+}
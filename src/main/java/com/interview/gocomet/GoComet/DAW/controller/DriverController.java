@@ -1,18 +1,33 @@
 package com.interview.gocomet.GoComet.DAW.controller;
 
+import com.interview.gocomet.GoComet.DAW.dto.DriverLocationUpdate;
 import com.interview.gocomet.GoComet.DAW.dto.LocationUpdateRequest;
 import com.interview.gocomet.GoComet.DAW.model.Driver;
+import com.interview.gocomet.GoComet.DAW.model.Trip;
 import com.interview.gocomet.GoComet.DAW.service.DriverService;
+import com.interview.gocomet.GoComet.DAW.service.LedgerService;
+import com.interview.gocomet.GoComet.DAW.service.ResourceVersionService;
 import com.interview.gocomet.GoComet.DAW.service.RideService;
 import com.interview.gocomet.GoComet.DAW.service.TripService;
+import com.interview.gocomet.GoComet.DAW.sharding.Region;
+import com.interview.gocomet.GoComet.DAW.sharding.RegionDirectory;
+import com.interview.gocomet.GoComet.DAW.sharding.ShardContext;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -21,9 +36,15 @@ import java.util.Map;
 @Slf4j
 public class DriverController {
     
+    static final int MAX_LOCATION_BATCH = 1000;
+    
     private final DriverService driverService;
     private final RideService rideService;
     private final TripService tripService;
+    private final LedgerService ledgerService;
+    private final ConditionalRequests conditionalRequests;
+    private final StreamingResponses streamingResponses;
+    private final RegionDirectory regionDirectory;
     
     @PostMapping("/{id}/location")
     public ResponseEntity<Driver> updateLocation(
@@ -34,7 +55,8 @@ public class DriverController {
             Driver driver = driverService.updateLocation(
                 id,
                 request.getLatitude(),
-                request.getLongitude()
+                request.getLongitude(),
+                request.getRecordedAt()
             );
             return ResponseEntity.ok(driver);
         } catch (RuntimeException e) {
@@ -46,6 +68,48 @@ public class DriverController {
         }
     }
     
+    /**
+     * Many drivers' pings in one request, e.g. from a gateway that buffers them. Each region's
+     * drivers are updated in one transaction; ids that match no driver are returned, not failed.
+     */
+    @PostMapping("/locations")
+    public ResponseEntity<?> updateLocations(@RequestBody List<DriverLocationUpdate> updates) {
+        String invalid = null;
+        if (updates == null || updates.isEmpty()) {
+            invalid = "At least one location update is required";
+        } else if (updates.size() > MAX_LOCATION_BATCH) {
+            invalid = "At most " + MAX_LOCATION_BATCH + " location updates per request";
+        } else if (updates.stream().anyMatch(update -> update == null || update.getDriverId() == null
+                || update.getLatitude() == null || update.getLongitude() == null)) {
+            invalid = "Every update needs driverId, latitude and longitude";
+        }
+        if (invalid != null) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", invalid);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+        
+        Map<Region, List<DriverLocationUpdate>> byRegion = new LinkedHashMap<>();
+        for (DriverLocationUpdate update : updates) {
+            byRegion.computeIfAbsent(regionDirectory.ofBusinessId(update.getDriverId()), region -> new ArrayList<>())
+                .add(update);
+        }
+        try {
+            List<String> unknown = new ArrayList<>();
+            byRegion.forEach((region, group) ->
+                unknown.addAll(ShardContext.callIn(region, () -> driverService.updateLocations(group))));
+            Map<String, Object> result = new HashMap<>();
+            result.put("updated", updates.stream().map(DriverLocationUpdate::getDriverId).distinct().count() - unknown.size());
+            result.put("unknown", unknown);
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            log.error("Error updating driver locations: {}", e.getMessage(), e);
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage() != null ? e.getMessage() : "Failed to update driver locations");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+    
     @PostMapping("/{id}/accept")
     public ResponseEntity<?> acceptRide(
             @PathVariable String id,
@@ -134,12 +198,20 @@ public class DriverController {
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<?> getDriver(@PathVariable String id) {
+    public ResponseEntity<?> getDriver(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String versionKey = ResourceVersionService.driverKey(id);
+        ResponseEntity<?> notModified = conditionalRequests.notModified(versionKey, ifNoneMatch);
+        if (notModified != null) {
+            return notModified;
+        }
+        
         log.info("Getting driver: {}", id);
         try {
             var driver = driverService.getDriver(id);
             if (driver.isPresent()) {
-                return ResponseEntity.ok(driver.get());
+                return conditionalRequests.ok(versionKey, driver.get(), driver.get().getVersion());
             } else {
                 Map<String, String> error = new HashMap<>();
                 error.put("error", "Driver not found");
@@ -152,5 +224,51 @@ public class DriverController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
         }
     }
+    
+    @GetMapping(value = "/{id}", params = "waitForChangeMs")
+    public DeferredResult<ResponseEntity<?>> waitForDriverChange(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestParam long waitForChangeMs) {
+        return conditionalRequests.awaitChange(ResourceVersionService.driverKey(id), ifNoneMatch, waitForChangeMs,
+            () -> getDriver(id, null));
+    }
+    
+    /**
+     * The driver's trips, newest first, read in keyset pages and streamed; NDJSON on request
+     */
+    @GetMapping("/{id}/trips")
+    public ResponseEntity<StreamingResponseBody> getTrips(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        log.debug("Getting trips for driver: {}", id);
+        var driver = driverService.getDriver(id);
+        if (driver.isEmpty()) {
+            return streamingResponses.error(HttpStatus.NOT_FOUND, "Driver not found");
+        }
+        Long driverId = driver.get().getId();
+        return streamingResponses.<Trip>stream(accept, sink -> tripService.forEachTripOfDriver(driverId, sink));
+    }
+    
+    @GetMapping("/{id}/earnings")
+    public ResponseEntity<?> getEarnings(
+            @PathVariable String id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        log.debug("Getting earnings for driver: {}", id);
+        try {
+            var driver = driverService.getDriver(id);
+            if (driver.isEmpty()) {
+                Map<String, String> error = new HashMap<>();
+                error.put("error", "Driver not found");
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+            }
+            return ResponseEntity.ok(ledgerService.getDriverEarnings(
+                driver.get().getId(), id, date != null ? date : LocalDate.now()));
+        } catch (Exception e) {
+            log.error("Error getting driver earnings: {}", e.getMessage(), e);
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage() != null ? e.getMessage() : "Failed to get driver earnings");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
 }
-
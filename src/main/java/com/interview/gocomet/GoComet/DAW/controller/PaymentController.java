@@ -2,6 +2,7 @@ package com.interview.gocomet.GoComet.DAW.controller;
 
 import com.interview.gocomet.GoComet.DAW.dto.PaymentRequest;
 import com.interview.gocomet.GoComet.DAW.dto.PaymentResponse;
+import com.interview.gocomet.GoComet.DAW.model.PaymentStatus;
 import com.interview.gocomet.GoComet.DAW.service.PaymentService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -26,7 +27,11 @@ public class PaymentController {
         log.info("Processing payment for trip: {}", request.getTripId());
         try {
             PaymentResponse response = paymentService.processPayment(request);
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            // PSP call runs asynchronously; poll GET /v1/payments/{id} for the final status
+            HttpStatus status = response.getStatus() == PaymentStatus.PENDING || response.getStatus() == PaymentStatus.PROCESSING
+                ? HttpStatus.ACCEPTED
+                : HttpStatus.CREATED;
+            return ResponseEntity.status(status).body(response);
         } catch (IllegalStateException e) {
             log.error("Error processing payment: {}", e.getMessage());
             Map<String, String> error = new HashMap<>();
@@ -2,13 +2,21 @@ package com.interview.gocomet.GoComet.DAW.controller;
 
 import com.interview.gocomet.GoComet.DAW.dto.RideRequest;
 import com.interview.gocomet.GoComet.DAW.dto.RideResponse;
+import com.interview.gocomet.GoComet.DAW.event.ActiveRideStream;
+import com.interview.gocomet.GoComet.DAW.service.ResourceVersionService;
 import com.interview.gocomet.GoComet.DAW.service.RideService;
+import com.interview.gocomet.GoComet.DAW.sharding.ScatterGather;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -20,6 +28,10 @@ import java.util.Map;
 public class RideController {
     
     private final RideService rideService;
+    private final ActiveRideStream activeRideStream;
+    private final ConditionalRequests conditionalRequests;
+    private final StreamingResponses streamingResponses;
+    private final ScatterGather scatterGather;
     
     @PostMapping
     public ResponseEntity<?> createRide(@Valid @RequestBody RideRequest request) {
@@ -36,11 +48,19 @@ public class RideController {
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<?> getRide(@PathVariable String id) {
+    public ResponseEntity<?> getRide(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String versionKey = ResourceVersionService.rideKey(id);
+        ResponseEntity<?> notModified = conditionalRequests.notModified(versionKey, ifNoneMatch);
+        if (notModified != null) {
+            return notModified;
+        }
+        
         log.info("Getting ride status: {}", id);
         try {
             RideResponse response = rideService.getRide(id);
-            return ResponseEntity.ok(response);
+            return conditionalRequests.ok(versionKey, response, response.getVersion());
         } catch (RuntimeException e) {
             log.error("Error getting ride: {}", e.getMessage());
             Map<String, String> error = new HashMap<>();
@@ -54,18 +74,55 @@ public class RideController {
         }
     }
     
+    /**
+     * Long-poll variant of GET /v1/rides/{id}: waits up to waitForChangeMs for the ride to move
+     * past the If-None-Match version, then answers 200 with the new state or 304 on timeout
+     */
+    @GetMapping(value = "/{id}", params = "waitForChangeMs")
+    public DeferredResult<ResponseEntity<?>> waitForRideChange(
+            @PathVariable String id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestParam long waitForChangeMs) {
+        return conditionalRequests.awaitChange(ResourceVersionService.rideKey(id), ifNoneMatch, waitForChangeMs,
+            () -> getRide(id, null));
+    }
+    
+    /**
+     * Active rides read in keyset pages and streamed, region after region; NDJSON when the client accepts
+     * application/x-ndjson
+     */
     @GetMapping("/active")
-    public ResponseEntity<?> getActiveRides() {
+    public ResponseEntity<StreamingResponseBody> getActiveRides(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         log.info("Getting all active rides");
-        try {
-            java.util.List<RideResponse> activeRides = rideService.getActiveRides();
-            return ResponseEntity.ok(activeRides);
-        } catch (Exception e) {
-            log.error("Error getting active rides: {}", e.getMessage(), e);
-            Map<String, String> error = new HashMap<>();
-            error.put("error", e.getMessage() != null ? e.getMessage() : "Failed to get active rides");
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
-        }
+        return streamingResponses.<RideResponse>stream(accept,
+            sink -> scatterGather.forEachRegion(() -> rideService.forEachActiveRide(sink)));
+    }
+    
+    /**
+     * A rider's ride history, newest first within each region, streamed like /active
+     */
+    @GetMapping(params = "riderId")
+    public ResponseEntity<StreamingResponseBody> getRiderRides(
+            @RequestParam String riderId,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        log.info("Getting rides for rider: {}", riderId);
+        return streamingResponses.<RideResponse>stream(accept,
+            sink -> scatterGather.forEachRegion(() -> rideService.forEachRideOfRider(riderId, sink)));
+    }
+    
+    /**
+     * Active rides as Server-Sent Events: a snapshot, then per-ride deltas.
+     * Browsers send Last-Event-ID on reconnect and get only the deltas they missed.
+     */
+    @GetMapping(path = "/active/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamActiveRides(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return activeRideStream.subscribe(lastEventId)
+            .map(ResponseEntity::ok)
+            .orElseGet(() -> {
+                log.warn("Rejecting active rides stream: subscriber limit reached");
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+            });
     }
 }
-
@@ -0,0 +1,102 @@
+package com.interview.gocomet.GoComet.DAW.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.interview.gocomet.GoComet.DAW.sharding.Region;
+import com.interview.gocomet.GoComet.DAW.sharding.ShardContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Writes list endpoints straight to the response as rows arrive, so a request never holds
+ * the whole list. One Jackson generator per response serializes every row into the servlet
+ * output buffer, which goes out in chunks as it fills. Answers a JSON array by default and
+ * newline-delimited JSON when the client accepts application/x-ndjson.
+ */
+@Component
+@Slf4j
+public class StreamingResponses {
+    
+    private final ObjectWriter writer;
+    
+    public StreamingResponses(ObjectMapper objectMapper) {
+        // Let the servlet buffer decide when to flush rather than flushing every row
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+    
+    /**
+     * @param source calls its argument once per row, typically a service method reading keyset pages
+     */
+    public <T> ResponseEntity<StreamingResponseBody> stream(String accept, Consumer<Consumer<T>> source) {
+        boolean ndjson = wantsNdjson(accept);
+        // The body is written on an async thread; the rows still come from the request's region
+        Region region = ShardContext.current();
+        StreamingResponseBody body = out -> {
+            try (ShardContext.Scope ignored = ShardContext.enter(region);
+                 JsonGenerator generator = writer.createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                if (!ndjson) {
+                    generator.writeStartArray();
+                }
+                source.accept(row -> {
+                    try {
+                        writer.writeValue(generator, row);
+                        if (ndjson) {
+                            generator.writeRaw('\n');
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                if (!ndjson) {
+                    generator.writeEndArray();
+                }
+            } catch (UncheckedIOException e) {
+                // Usually the client went away; no page transaction is open while rows are written
+                log.debug("Streaming response aborted: {}", e.getMessage());
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok()
+            .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+            .body(body);
+    }
+    
+    /**
+     * The usual {"error": message} body, for failures detected before streaming starts
+     */
+    public ResponseEntity<StreamingResponseBody> error(HttpStatus status, String message) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", message);
+        return ResponseEntity.status(status)
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(out -> writer.writeValue(out, error));
+    }
+    
+    static boolean wantsNdjson(String accept) {
+        if (accept == null) {
+            return false;
+        }
+        try {
+            return MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(type -> type.equalsTypeAndSubtype(MediaType.APPLICATION_NDJSON)
+                    || "ndjson".equals(type.getSubtype()));
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+}
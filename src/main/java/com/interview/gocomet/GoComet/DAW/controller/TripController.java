@@ -1,12 +1,15 @@
 package com.interview.gocomet.GoComet.DAW.controller;
 
 import com.interview.gocomet.GoComet.DAW.model.Trip;
+import com.interview.gocomet.GoComet.DAW.service.ResourceVersionService;
 import com.interview.gocomet.GoComet.DAW.service.TripService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -18,13 +21,22 @@ import java.util.Map;
 public class TripController {
     
     private final TripService tripService;
+    private final ConditionalRequests conditionalRequests;
     
     @GetMapping("/{id}")
-    public ResponseEntity<?> getTrip(@PathVariable Long id) {
+    public ResponseEntity<?> getTrip(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String versionKey = ResourceVersionService.tripKey(id);
+        ResponseEntity<?> notModified = conditionalRequests.notModified(versionKey, ifNoneMatch);
+        if (notModified != null) {
+            return notModified;
+        }
+        
         log.info("Getting trip: {}", id);
         try {
             Trip trip = tripService.getTrip(id);
-            return ResponseEntity.ok(trip);
+            return conditionalRequests.ok(versionKey, trip, trip.getVersion());
         } catch (RuntimeException e) {
             log.error("Error getting trip: {}", e.getMessage());
             Map<String, String> error = new HashMap<>();
@@ -38,6 +50,15 @@ public class TripController {
         }
     }
     
+    @GetMapping(value = "/{id}", params = "waitForChangeMs")
+    public DeferredResult<ResponseEntity<?>> waitForTripChange(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestParam long waitForChangeMs) {
+        return conditionalRequests.awaitChange(ResourceVersionService.tripKey(id), ifNoneMatch, waitForChangeMs,
+            () -> getTrip(id, null));
+    }
+    
     @PostMapping("/{id}/start")
     public ResponseEntity<?> startTrip(@PathVariable Long id) {
         log.info("Starting trip for ride: {}", id);
@@ -0,0 +1,111 @@
+package com.interview.gocomet.GoComet.DAW.datasource;
+
+import com.interview.gocomet.GoComet.DAW.sharding.ScatterGather;
+import com.interview.gocomet.GoComet.DAW.sharding.ShardContext;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Keeps the id sequences ahead of the ids already in their tables.
+ * Entities take ids from pooled sequences (a block of allocationSize ids per call, pooled-lo)
+ * so Hibernate can batch inserts. A sequence created next to a table that was filled through
+ * its old identity column, or by a region copy, would start inside the used range; on startup
+ * every such sequence in every region is moved past max(id) and the region's id offset.
+ */
+@Component
+@Slf4j
+public class IdSequences implements SmartInitializingSingleton {
+    
+    /**
+     * A table whose ids come from the sequence
+     */
+    public record IdSequence(String table, String idColumn, String sequence) {
+    }
+    
+    private final DataSource dataSource;
+    private final ScatterGather scatterGather;
+    private final Dialect dialect;
+    private final List<IdSequence> sequences;
+    
+    public IdSequences(DataSource dataSource, EntityManagerFactory entityManagerFactory, ScatterGather scatterGather) {
+        this.dataSource = dataSource;
+        this.scatterGather = scatterGather;
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.dialect = sessionFactory.getJdbcServices().getDialect();
+        List<IdSequence> found = new ArrayList<>();
+        sessionFactory.getMappingMetamodel().forEachEntityDescriptor(persister -> {
+            if (persister.getGenerator() instanceof SequenceStyleGenerator generator
+                    && persister instanceof AbstractEntityPersister entity) {
+                found.add(new IdSequence(entity.getTableName(), entity.getIdentifierColumnNames()[0],
+                    generator.getDatabaseStructure().getPhysicalName().render()));
+            }
+        });
+        this.sequences = Collections.unmodifiableList(found);
+    }
+    
+    /**
+     * Runs once the schema exists in every region (after Hibernate and ShardSchemaManager)
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        scatterGather.forEachRegion(() -> align(dataSource, ShardContext.current().idOffset(), false));
+    }
+    
+    /**
+     * Restart each sequence after max(existing ids, floor) if its next value is not past that
+     * already. Unforced, the check draws one value from every sequence, so each start burns a
+     * block of allocationSize ids (50) per table and region: harmless next to 2^40 ids, but
+     * visible as a gap after every restart. Forced, every sequence is restarted there: only for
+     * a database nothing else is writing to (a rebalance target), since restarting below ids
+     * another node has already taken from the sequence would hand them out twice.
+     */
+    public void align(DataSource target, long floor, boolean force) {
+        try (Connection connection = target.getConnection(); Statement statement = connection.createStatement()) {
+            for (IdSequence sequence : sequences) {
+                long maxId;
+                try (ResultSet rs = statement.executeQuery(
+                        "SELECT MAX(" + sequence.idColumn() + ") FROM " + sequence.table())) {
+                    rs.next();
+                    maxId = rs.getLong(1);
+                }
+                long next = Math.max(maxId, floor) + 1;
+                if (!force) {
+                    // Takes (and wastes) one block, see above; cheaper than reading the sequence state portably
+                    long current;
+                    try (ResultSet rs = statement.executeQuery(
+                            dialect.getSequenceSupport().getSequenceNextValString(sequence.sequence()))) {
+                        rs.next();
+                        current = rs.getLong(1);
+                    }
+                    if (current >= next) {
+                        continue;
+                    }
+                }
+                statement.execute("ALTER SEQUENCE " + sequence.sequence() + " RESTART WITH " + next);
+                log.info("{} continues at {} ({}.{} reaches {})", sequence.sequence(), next,
+                    sequence.table(), sequence.idColumn(), maxId);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not align id sequences", e);
+        }
+    }
+    
+    public List<IdSequence> getSequences() {
+        return sequences;
+    }
+}
@@ -0,0 +1,77 @@
+package com.interview.gocomet.GoComet.DAW.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends read-only transactions to the replica pool and everything else to the primary.
+ * The route is picked when a connection is requested, so this must sit behind a
+ * LazyConnectionDataSourceProxy: the transaction's read-only flag and any
+ * {@link ReadYourWrites} pin are only in place after the transaction has begun.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+    
+    private final Map<Route, HikariDataSource> pools = new EnumMap<>(Route.class);
+    private final Map<Route, LongAdder> routed = new EnumMap<>(Route.class);
+    
+    public ReadWriteRoutingDataSource(HikariDataSource primary, HikariDataSource replica) {
+        pools.put(Route.PRIMARY, primary);
+        pools.put(Route.REPLICA, replica);
+        for (Route route : Route.values()) {
+            routed.put(route, new LongAdder());
+        }
+        setTargetDataSources(new LinkedHashMap<>(pools));
+        setDefaultTargetDataSource(primary);
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Route route = TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !ReadYourWrites.isPinned()
+            ? Route.REPLICA
+            : Route.PRIMARY;
+        routed.get(route).increment();
+        return route;
+    }
+    
+    /**
+     * Connections handed out per route and the live state of each pool
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (Route route : Route.values()) {
+            HikariDataSource pool = pools.get(route);
+            Map<String, Object> poolStats = new LinkedHashMap<>();
+            poolStats.put("connectionsRouted", routed.get(route).sum());
+            poolStats.put("maximumPoolSize", pool.getMaximumPoolSize());
+            HikariPoolMXBean bean = pool.getHikariPoolMXBean();
+            if (bean != null) {
+                poolStats.put("active", bean.getActiveConnections());
+                poolStats.put("idle", bean.getIdleConnections());
+                poolStats.put("total", bean.getTotalConnections());
+                poolStats.put("threadsAwaitingConnection", bean.getThreadsAwaitingConnection());
+            }
+            stats.put(route.name().toLowerCase(), poolStats);
+        }
+        return stats;
+    }
+    
+    public HikariDataSource getPool(Route route) {
+        return pools.get(route);
+    }
+    
+    public void close() {
+        pools.values().forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,120 @@
+package com.interview.gocomet.GoComet.DAW.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Replica-lag guard. Remembers riders, drivers, rides and trips written in the last
+ * datasource.replica.read-your-writes-window, and lets a read-only transaction about one of
+ * them pin itself to the primary so a client never reads its own write from a lagging replica.
+ * Reads must call {@link #pinIfRecent} before their first query; the routing datasource
+ * resolves the target lazily on the first statement.
+ * Writes are remembered on this node only; with several nodes, route a caller's requests to
+ * the same node or keep the window above the replica lag plus the load balancer's stickiness.
+ */
+@Component
+public class ReadYourWrites {
+    
+    private static final String PINNED = ReadYourWrites.class.getName() + ".PINNED";
+    
+    private final boolean enabled;
+    private final Cache<String, Boolean> recentWrites;
+    private final LongAdder pinnedTransactions = new LongAdder();
+    
+    public ReadYourWrites(
+            @Value("${datasource.replica.enabled:false}") boolean enabled,
+            @Value("${datasource.replica.read-your-writes-window:5s}") Duration window,
+            @Value("${datasource.replica.read-your-writes-max-subjects:100000}") long maxSubjects) {
+        this.enabled = enabled;
+        this.recentWrites = Caffeine.newBuilder()
+            .maximumSize(maxSubjects)
+            .expireAfterWrite(window)
+            .build();
+    }
+    
+    public static String riderKey(String riderId) {
+        return "rider:" + riderId;
+    }
+    
+    public static String driverKey(Long driverId) {
+        return "driver:" + driverId;
+    }
+    
+    public static String rideKey(Object rideId) {
+        return "ride:" + rideId;
+    }
+    
+    public static String tripKey(Long tripId) {
+        return "trip:" + tripId;
+    }
+    
+    /**
+     * Called once a transaction that wrote these subjects has committed
+     */
+    public void recordWrite(Iterable<String> keys) {
+        if (!enabled) {
+            return;
+        }
+        for (String key : keys) {
+            recentWrites.put(key, Boolean.TRUE);
+        }
+    }
+    
+    /**
+     * Send the current read-only transaction to the primary if any of these subjects was
+     * written within the window. No-op outside a transaction, which reads the primary anyway.
+     */
+    public void pinIfRecent(String... keys) {
+        if (!enabled || !TransactionSynchronizationManager.isSynchronizationActive() || isPinned()) {
+            return;
+        }
+        for (String key : keys) {
+            if (recentWrites.getIfPresent(key) != null) {
+                pin();
+                return;
+            }
+        }
+    }
+    
+    /**
+     * Send the current read-only transaction to the primary whatever was written recently.
+     * For reads that fill a shared cache: a row read from a lagging replica would be served
+     * to every caller on every node until the entry expires, not just to this one.
+     */
+    public void pinToPrimary() {
+        if (!enabled || !TransactionSynchronizationManager.isSynchronizationActive() || isPinned()) {
+            return;
+        }
+        pin();
+    }
+    
+    private void pin() {
+        TransactionSynchronizationManager.bindResource(PINNED, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(PINNED);
+            }
+        });
+        pinnedTransactions.increment();
+    }
+    
+    public static boolean isPinned() {
+        return TransactionSynchronizationManager.hasResource(PINNED);
+    }
+    
+    public long getPinnedTransactionCount() {
+        return pinnedTransactions.sum();
+    }
+    
+    public long getTrackedSubjectCount() {
+        return recentWrites.estimatedSize();
+    }
+}
@@ -0,0 +1,63 @@
+package com.interview.gocomet.GoComet.DAW.datasource;
+
+import com.interview.gocomet.GoComet.DAW.model.Driver;
+import com.interview.gocomet.GoComet.DAW.model.Ride;
+import com.interview.gocomet.GoComet.DAW.model.Trip;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JPA listener that tells {@link ReadYourWrites} which riders, drivers, rides and trips a
+ * transaction wrote, once it commits. The lag window starts at commit, when the write
+ * begins to travel to the replicas.
+ */
+@Component
+public class ReadYourWritesListener {
+    
+    private final ObjectProvider<ReadYourWrites> readYourWrites;
+    
+    public ReadYourWritesListener(ObjectProvider<ReadYourWrites> readYourWrites) {
+        this.readYourWrites = readYourWrites;
+    }
+    
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onWrite(Object entity) {
+        List<String> keys = new ArrayList<>(4);
+        if (entity instanceof Ride ride) {
+            keys.add(ReadYourWrites.rideKey(ride.getRideId()));
+            keys.add(ReadYourWrites.rideKey(ride.getId()));
+            keys.add(ReadYourWrites.riderKey(ride.getRiderId()));
+            if (ride.getDriverId() != null) {
+                keys.add(ReadYourWrites.driverKey(ride.getDriverId()));
+            }
+        } else if (entity instanceof Trip trip) {
+            keys.add(ReadYourWrites.tripKey(trip.getId()));
+            keys.add(ReadYourWrites.driverKey(trip.getDriverId()));
+        } else if (entity instanceof Driver driver) {
+            keys.add(ReadYourWrites.driverKey(driver.getId()));
+        } else {
+            return;
+        }
+        
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    readYourWrites.getObject().recordWrite(keys);
+                }
+            });
+        } else {
+            readYourWrites.getObject().recordWrite(keys);
+        }
+    }
+}
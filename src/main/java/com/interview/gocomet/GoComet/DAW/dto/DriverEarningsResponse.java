@@ -0,0 +1,21 @@
+package com.interview.gocomet.GoComet.DAW.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DriverEarningsResponse {
+    private String driverId;
+    private Double totalEarnings;
+    private Long totalTrips;
+    private LocalDate date;
+    private Double dayEarnings;
+    private Long dayTrips;
+}
@@ -0,0 +1,28 @@
+package com.interview.gocomet.GoComet.DAW.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One entry of a batched location upload (POST /v1/drivers/locations)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DriverLocationUpdate {
+    @NotNull(message = "Driver ID is required")
+    private String driverId;
+    
+    @NotNull(message = "Latitude is required")
+    private Double latitude;
+    
+    @NotNull(message = "Longitude is required")
+    private Double longitude;
+    
+    /**
+     * When the device took the fix, epoch millis; optional, feeds the ingest lag metric
+     */
+    private Long recordedAt;
+}
@@ -10,5 +10,10 @@ public class LocationUpdateRequest {
     
     @NotNull(message = "Longitude is required")
     private Double longitude;
+    
+    /**
+     * When the device took the fix, epoch millis; optional, feeds the ingest lag metric
+     */
+    private Long recordedAt;
 }
 
@@ -0,0 +1,30 @@
+package com.interview.gocomet.GoComet.DAW.dto;
+
+import com.interview.gocomet.GoComet.DAW.model.ReconciliationMismatchType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationReport {
+    private long paymentsScanned;
+    private long settlementRowsScanned;
+    private long matched;
+    @Builder.Default
+    private Map<ReconciliationMismatchType, Long> mismatches = new EnumMap<>(ReconciliationMismatchType.class);
+    private String lastKey;
+    private long outputBytes;
+    private boolean resumed;
+    private long durationMs;
+    
+    public long getTotalMismatches() {
+        return mismatches.values().stream().mapToLong(Long::longValue).sum();
+    }
+}
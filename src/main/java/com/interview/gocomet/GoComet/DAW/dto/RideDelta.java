@@ -0,0 +1,28 @@
+package com.interview.gocomet.GoComet.DAW.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One change to the active-rides list, as sent on GET /v1/rides/active/stream.
+ * ride is null for REMOVED.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RideDelta {
+    
+    public enum Type {
+        CREATED,
+        UPDATED,
+        REMOVED
+    }
+    
+    private long sequence;
+    private Type type;
+    private String rideId;
+    private RideResponse ride;
+}
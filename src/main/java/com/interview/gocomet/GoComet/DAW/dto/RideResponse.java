@@ -21,5 +21,6 @@ public class RideResponse {
     private LocalDateTime createdAt;
     private LocalDateTime matchedAt;
     private LocalDateTime acceptedAt;
+    private Long version;
 }
 
@@ -0,0 +1,379 @@
+package com.interview.gocomet.GoComet.DAW.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interview.gocomet.GoComet.DAW.dto.RideDelta;
+import com.interview.gocomet.GoComet.DAW.dto.RideResponse;
+import com.interview.gocomet.GoComet.DAW.model.OutboxEventType;
+import com.interview.gocomet.GoComet.DAW.resilience.RedisGuard;
+import com.interview.gocomet.GoComet.DAW.service.OutboxService;
+import com.interview.gocomet.GoComet.DAW.service.RideService;
+import com.interview.gocomet.GoComet.DAW.sharding.ScatterGather;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Server-Sent Events feed of the active-rides list: one "snapshot" event, then a "delta" event
+ * per ride change (CREATED, UPDATED, REMOVED), each carrying the next sequence number.
+ * <p>
+ * Event ids are "{epoch}-{sequence}" where the epoch identifies this node's run, so a
+ * Last-Event-ID from another node or an earlier run never matches the local buffer.
+ * A reconnect whose Last-Event-ID is still covered by the replay buffer gets just the missed
+ * deltas; anything older gets a fresh snapshot.
+ * <p>
+ * Subscribers are async servlet responses, so they hold no thread while idle. All sequencing,
+ * buffering and fan-out happens on one dispatcher thread, which keeps delivery order identical
+ * for every subscriber without locking. The dispatcher never writes to a socket: it queues each
+ * event for every subscriber (sse.active-rides.subscriber-queue-size), and a sender drains each
+ * queue, so one slow client cannot hold up the others. A subscriber whose queue is full is
+ * closed; it reconnects with its Last-Event-ID and resumes or gets a fresh snapshot.
+ * <p>
+ * The outbox relay hands each ride event to one node only. That node publishes the delta on a
+ * Redis channel and every other node feeds it to its own subscribers. Without Redis a node's
+ * streams carry only the changes relayed on that node.
+ */
+@Component
+@Slf4j
+public class ActiveRideStream implements MessageListener {
+    
+    static final String SNAPSHOT = "snapshot";
+    static final String DELTA = "delta";
+    
+    private final RideService rideService;
+    private final ScatterGather scatterGather;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisGuard redisGuard;
+    private final ObjectMapper objectMapper;
+    private final String channel;
+    private final int replayBufferSize;
+    private final int maxSubscribers;
+    private final long emitterTimeoutMs;
+    private final int subscriberQueueSize;
+    
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Executor dispatcher;
+    private final Executor sender;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    
+    // Owned by the dispatcher thread
+    private final ArrayDeque<RideDelta> replayBuffer = new ArrayDeque<>();
+    private long sequence;
+    
+    // Published by the dispatcher for request threads deciding between resume and snapshot
+    private volatile long lastSequence;
+    private volatile long oldestBufferedSequence = 1;
+    
+    @Autowired
+    public ActiveRideStream(
+            RideService rideService,
+            ScatterGather scatterGather,
+            StringRedisTemplate redisTemplate,
+            RedisGuard redisGuard,
+            ObjectMapper objectMapper,
+            ObjectProvider<RedisMessageListenerContainer> listenerContainer,
+            @Value("${sse.active-rides.channel:active-rides}") String channel,
+            @Value("${sse.active-rides.replay-buffer-size:1000}") int replayBufferSize,
+            @Value("${sse.active-rides.max-subscribers:10000}") int maxSubscribers,
+            @Value("${sse.active-rides.timeout-ms:1800000}") long emitterTimeoutMs,
+            @Value("${sse.active-rides.subscriber-queue-size:256}") int subscriberQueueSize) {
+        this(rideService, scatterGather, redisTemplate, redisGuard, objectMapper, channel, replayBufferSize,
+            maxSubscribers, emitterTimeoutMs, subscriberQueueSize,
+            Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "ride-stream-dispatcher");
+                thread.setDaemon(true);
+                return thread;
+            }),
+            // A sender blocks while its client's socket is full, so each gets a cheap thread
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ride-stream-sender-", 1).factory()));
+        // Subscribed along with the cache invalidations, once Redis is reachable
+        listenerContainer.ifAvailable(container -> container.addMessageListener(this, new ChannelTopic(channel)));
+    }
+    
+    ActiveRideStream(RideService rideService, ScatterGather scatterGather, StringRedisTemplate redisTemplate,
+                     RedisGuard redisGuard, ObjectMapper objectMapper, String channel, int replayBufferSize,
+                     int maxSubscribers, long emitterTimeoutMs, int subscriberQueueSize,
+                     Executor dispatcher, Executor sender) {
+        this.rideService = rideService;
+        this.scatterGather = scatterGather;
+        this.redisTemplate = redisTemplate;
+        this.redisGuard = redisGuard;
+        this.objectMapper = objectMapper;
+        this.channel = channel;
+        this.dispatcher = dispatcher;
+        this.sender = sender;
+        this.replayBufferSize = replayBufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.subscriberQueueSize = subscriberQueueSize;
+    }
+    
+    /**
+     * Open a stream, resuming after lastEventId when possible.
+     * Empty when the node already serves max-subscribers streams.
+     */
+    public Optional<SseEmitter> subscribe(String lastEventId) {
+        if (subscribers.size() >= maxSubscribers) {
+            return Optional.empty();
+        }
+        
+        SseEmitter emitter = newEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(subscriberQueueSize));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        
+        long resumeAfter = resumePoint(lastEventId);
+        if (resumeAfter >= 0) {
+            dispatcher.execute(() -> attach(subscriber, resumeAfter, null));
+        } else {
+            // Read the sequence before the snapshot: deltas after it are replayed on top,
+            // and re-applying a change the snapshot already contains is harmless
+            long snapshotSequence = lastSequence;
+            List<RideResponse> rides = scatterGather.gather(rideService::getActiveRides);
+            dispatcher.execute(() -> attach(subscriber, snapshotSequence, rides));
+        }
+        return Optional.of(emitter);
+    }
+    
+    @EventListener
+    public void onDomainEvent(DomainEvent event) {
+        if (!OutboxService.AGGREGATE_RIDE.equals(event.getAggregateType())) {
+            return;
+        }
+        
+        RideDelta delta;
+        try {
+            RideResponse ride = rideService.getRide(event.getAggregateId());
+            if (!RideService.isActive(ride.getStatus())) {
+                delta = RideDelta.builder().type(RideDelta.Type.REMOVED).rideId(ride.getRideId()).build();
+            } else {
+                RideDelta.Type type = event.getEventType() == OutboxEventType.RIDE_CREATED
+                    ? RideDelta.Type.CREATED : RideDelta.Type.UPDATED;
+                delta = RideDelta.builder().type(type).rideId(ride.getRideId()).ride(ride).build();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Skipping ride stream delta for {}: {}", event.getAggregateId(), e.getMessage());
+            return;
+        }
+        publish(delta);
+        dispatcher.execute(() -> broadcast(delta));
+    }
+    
+    /**
+     * A delta relayed on another node
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf('|');
+        if (separator < 0 || body.substring(0, separator).equals(nodeId)) {
+            return;
+        }
+        RideDelta delta;
+        try {
+            delta = objectMapper.readValue(body.substring(separator + 1), RideDelta.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Skipping unreadable ride stream delta: {}", e.getMessage());
+            return;
+        }
+        dispatcher.execute(() -> broadcast(delta));
+    }
+    
+    /**
+     * Comment lines keep idle connections open through proxies and flush out dead clients
+     */
+    @Scheduled(fixedDelayString = "${sse.active-rides.heartbeat-ms:15000}")
+    public void heartbeat() {
+        dispatcher.execute(() -> {
+            for (Subscriber subscriber : subscribers) {
+                enqueue(subscriber, SseEmitter.event().comment("heartbeat"));
+            }
+        });
+    }
+    
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        if (dispatcher instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+        if (sender instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+        subscribers.forEach(subscriber -> subscriber.emitter().complete());
+    }
+    
+    SseEmitter newEmitter(long timeoutMs) {
+        return new SseEmitter(timeoutMs);
+    }
+    
+    private long resumePoint(String lastEventId) {
+        if (lastEventId == null) {
+            return -1;
+        }
+        int separator = lastEventId.lastIndexOf('-');
+        if (separator < 0 || !epoch.equals(lastEventId.substring(0, separator))) {
+            return -1;
+        }
+        long after;
+        try {
+            after = Long.parseLong(lastEventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        // A replay that would not fit the subscriber's queue is no cheaper than a snapshot
+        return after <= lastSequence && after + 1 >= oldestBufferedSequence
+            && lastSequence - after <= subscriberQueueSize ? after : -1;
+    }
+    
+    // Dispatcher thread only
+    private void attach(Subscriber subscriber, long after, List<RideResponse> snapshot) {
+        if (after < sequence && after + 1 < oldestBufferedSequence) {
+            // The buffer moved past the resume point while this request was queued;
+            // closing makes the client reconnect with the same Last-Event-ID and get a snapshot
+            subscriber.emitter().complete();
+            return;
+        }
+        if (snapshot != null) {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("sequence", after);
+            data.put("rides", snapshot);
+            if (!enqueue(subscriber, SseEmitter.event().id(eventId(after)).name(SNAPSHOT).data(data, MediaType.APPLICATION_JSON))) {
+                return;
+            }
+        }
+        for (RideDelta delta : replayBuffer) {
+            if (delta.getSequence() > after && !enqueue(subscriber, deltaEvent(delta))) {
+                return;
+            }
+        }
+        subscribers.add(subscriber);
+    }
+    
+    // Dispatcher thread only
+    private void broadcast(RideDelta delta) {
+        delta.setSequence(++sequence);
+        replayBuffer.addLast(delta);
+        while (replayBuffer.size() > replayBufferSize) {
+            replayBuffer.removeFirst();
+        }
+        oldestBufferedSequence = replayBuffer.peekFirst().getSequence();
+        lastSequence = sequence;
+        
+        for (Subscriber subscriber : subscribers) {
+            enqueue(subscriber, deltaEvent(delta));
+        }
+    }
+    
+    private SseEmitter.SseEventBuilder deltaEvent(RideDelta delta) {
+        return SseEmitter.event()
+            .id(eventId(delta.getSequence()))
+            .name(DELTA)
+            .data(delta, MediaType.APPLICATION_JSON);
+    }
+    
+    /**
+     * Queue an event for the subscriber's sender; a subscriber too slow to keep up is closed
+     */
+    private boolean enqueue(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        if (!subscriber.queue().offer(event)) {
+            log.debug("Closing ride stream subscriber {} events behind", subscriber.queue().size());
+            subscribers.remove(subscriber);
+            subscriber.queue().clear();
+            subscriber.emitter().complete();
+            return false;
+        }
+        if (subscriber.draining().compareAndSet(false, true)) {
+            sender.execute(() -> drain(subscriber));
+        }
+        return true;
+    }
+    
+    // One sender per subscriber at a time, so its events go out in queue order
+    private void drain(Subscriber subscriber) {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while ((event = subscriber.queue().poll()) != null) {
+                if (!send(subscriber, event)) {
+                    subscriber.queue().clear();
+                    return;
+                }
+            }
+        } finally {
+            subscriber.draining().set(false);
+        }
+        // An event queued after the last poll but before the flag was cleared
+        if (!subscriber.queue().isEmpty() && subscriber.draining().compareAndSet(false, true)) {
+            sender.execute(() -> drain(subscriber));
+        }
+    }
+    
+    private boolean send(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        try {
+            subscriber.emitter().send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the container completes the emitter
+            subscribers.remove(subscriber);
+            return false;
+        }
+    }
+    
+    private void publish(RideDelta delta) {
+        String message;
+        try {
+            message = nodeId + "|" + objectMapper.writeValueAsString(delta);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize ride stream delta for {}: {}", delta.getRideId(), e.getMessage());
+            return;
+        }
+        if (!redisGuard.tryRun(() -> redisTemplate.convertAndSend(channel, message))) {
+            log.debug("Ride stream delta for {} not sent to other nodes, Redis unavailable", delta.getRideId());
+        }
+    }
+    
+    private String eventId(long eventSequence) {
+        return epoch + "-" + eventSequence;
+    }
+    
+    private record Subscriber(SseEmitter emitter, BlockingQueue<SseEmitter.SseEventBuilder> queue,
+                              AtomicBoolean draining) {
+        
+        Subscriber(SseEmitter emitter, BlockingQueue<SseEmitter.SseEventBuilder> queue) {
+            this(emitter, queue, new AtomicBoolean());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.interview.gocomet.GoComet.DAW.event;
+
+import com.interview.gocomet.GoComet.DAW.model.OutboxEvent;
+import com.interview.gocomet.GoComet.DAW.model.OutboxEventType;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Envelope delivered to outbox sinks. The eventId is the outbox row id and lets consumers
+ * de-duplicate at-least-once deliveries. It comes from pooled sequence blocks, so it is unique
+ * but not ordered; delivery order follows occurredAt (see {@link com.interview.gocomet.GoComet.DAW.service.OutboxRelay}).
+ */
+@Value
+public class DomainEvent {
+    Long eventId;
+    String aggregateType;
+    String aggregateId;
+    OutboxEventType eventType;
+    String payload;
+    LocalDateTime occurredAt;
+    
+    public static DomainEvent from(OutboxEvent outboxEvent) {
+        return new DomainEvent(
+            outboxEvent.getId(),
+            outboxEvent.getAggregateType(),
+            outboxEvent.getAggregateId(),
+            outboxEvent.getEventType(),
+            outboxEvent.getPayload(),
+            outboxEvent.getCreatedAt());
+    }
+}
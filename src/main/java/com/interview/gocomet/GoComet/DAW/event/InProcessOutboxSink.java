@@ -0,0 +1,34 @@
+package com.interview.gocomet.GoComet.DAW.event;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Publishes relayed events on the Spring application event bus.
+ * In-process consumers subscribe with {@code @EventListener(DomainEvent.class)}.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.sink.in-process.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class InProcessOutboxSink implements OutboxSink {
+    
+    private final ApplicationEventPublisher eventPublisher;
+    
+    @Override
+    public String getName() {
+        return "in-process";
+    }
+    
+    @Override
+    public void publish(List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            eventPublisher.publishEvent(event);
+        }
+    }
+}
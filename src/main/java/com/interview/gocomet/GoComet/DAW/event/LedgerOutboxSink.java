@@ -0,0 +1,90 @@
+package com.interview.gocomet.GoComet.DAW.event;
+
+import com.interview.gocomet.GoComet.DAW.service.LedgerService;
+import com.interview.gocomet.GoComet.DAW.sharding.ScatterGather;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Feeds settled payments from the outbox into the ledger. The sink is isolated, so a ledger
+ * failure does not hold up the other sinks; instead a periodic catch-up posts successful
+ * payments that are older than ledger.catch-up.grace-ms and still have no ledger lines.
+ * The unique (transactionId, entryType) index keeps a payment from being posted twice if
+ * the relay and the catch-up race on it.
+ */
+@Component
+@ConditionalOnProperty(name = "ledger.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class LedgerOutboxSink implements OutboxSink {
+    
+    private final LedgerService ledgerService;
+    private final ScatterGather scatterGather;
+    private final boolean catchUpEnabled;
+    private final long graceMillis;
+    private final long lookbackHours;
+    private final int batchSize;
+    
+    private final AtomicBoolean catchingUp = new AtomicBoolean();
+    
+    public LedgerOutboxSink(
+            LedgerService ledgerService,
+            ScatterGather scatterGather,
+            @Value("${outbox.relay.enabled:true}") boolean catchUpEnabled,
+            @Value("${ledger.catch-up.grace-ms:60000}") long graceMillis,
+            @Value("${ledger.catch-up.lookback-hours:24}") long lookbackHours,
+            @Value("${ledger.catch-up.batch-size:500}") int batchSize) {
+        this.ledgerService = ledgerService;
+        this.scatterGather = scatterGather;
+        this.catchUpEnabled = catchUpEnabled;
+        this.graceMillis = graceMillis;
+        this.lookbackHours = lookbackHours;
+        this.batchSize = batchSize;
+    }
+    
+    @Override
+    public String getName() {
+        return "ledger";
+    }
+    
+    @Override
+    public boolean isIsolated() {
+        return true;
+    }
+    
+    @Override
+    public void publish(List<DomainEvent> events) {
+        ledgerService.postSettledPayments(events);
+    }
+    
+    /**
+     * Runs on the relay node only, one batch per region per run
+     */
+    @Scheduled(fixedDelayString = "${ledger.catch-up.interval-ms:60000}")
+    public void catchUp() {
+        if (!catchUpEnabled || !catchingUp.compareAndSet(false, true)) {
+            return;
+        }
+        LocalDateTime before = LocalDateTime.now().minus(graceMillis, ChronoUnit.MILLIS);
+        LocalDateTime after = before.minusHours(lookbackHours);
+        try {
+            scatterGather.forEachRegion(() -> {
+                int posted = ledgerService.postMissedPayments(after, before, batchSize);
+                if (posted > 0) {
+                    log.warn("Ledger catch-up posted {} payments the relay had missed", posted);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Ledger catch-up failed, will retry: {}", e.getMessage());
+        } finally {
+            catchingUp.set(false);
+        }
+    }
+}
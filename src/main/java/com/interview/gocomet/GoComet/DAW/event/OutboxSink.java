@@ -0,0 +1,21 @@
+package com.interview.gocomet.GoComet.DAW.event;
+
+import java.util.List;
+
+/**
+ * Destination for relayed outbox events.
+ * A batch is delivered in outbox order; throwing stops the relay at this batch so it is
+ * redelivered (at-least-once) and no later event for the same aggregate overtakes it.
+ * An {@link #isIsolated() isolated} sink's failure is logged and the relay moves on, so
+ * it must be able to catch up on what it missed by itself.
+ */
+public interface OutboxSink {
+    
+    String getName();
+    
+    void publish(List<DomainEvent> events);
+    
+    default boolean isIsolated() {
+        return false;
+    }
+}
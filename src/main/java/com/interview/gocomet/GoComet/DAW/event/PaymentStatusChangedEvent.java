@@ -0,0 +1,13 @@
+package com.interview.gocomet.GoComet.DAW.event;
+
+import com.interview.gocomet.GoComet.DAW.dto.PaymentResponse;
+import lombok.Value;
+
+/**
+ * Published when the PSP pipeline moves a payment to a new status.
+ * Listeners use it to push the final payment state to clients.
+ */
+@Value
+public class PaymentStatusChangedEvent {
+    PaymentResponse payment;
+}
@@ -0,0 +1,12 @@
+package com.interview.gocomet.GoComet.DAW.event;
+
+import lombok.Value;
+
+/**
+ * Published when a PENDING payment has been persisted and is ready for the PSP.
+ * Consumed after commit so the PSP worker never sees an uncommitted row.
+ */
+@Value
+public class PaymentSubmittedEvent {
+    String paymentId;
+}
@@ -0,0 +1,75 @@
+package com.interview.gocomet.GoComet.DAW.event;
+
+import com.interview.gocomet.GoComet.DAW.resilience.RedisGuard;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisStreamCommands;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Appends relayed events to one Redis Stream per aggregate type ("{prefix}:RIDE", ...).
+ * The whole batch goes out in a single pipelined round trip; streams are capped with
+ * approximate MAXLEN trimming so they cannot grow without bound.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.sink.redis-stream.enabled", havingValue = "true")
+@Slf4j
+public class RedisStreamOutboxSink implements OutboxSink {
+    
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisGuard redisGuard;
+    private final String streamPrefix;
+    private final long maxLength;
+    
+    public RedisStreamOutboxSink(
+            StringRedisTemplate stringRedisTemplate,
+            RedisGuard redisGuard,
+            @Value("${outbox.sink.redis-stream.prefix:events}") String streamPrefix,
+            @Value("${outbox.sink.redis-stream.max-length:1000000}") long maxLength) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.redisGuard = redisGuard;
+        this.streamPrefix = streamPrefix;
+        this.maxLength = maxLength;
+    }
+    
+    @Override
+    public String getName() {
+        return "redis-stream";
+    }
+    
+    @Override
+    public void publish(List<DomainEvent> events) {
+        RedisStreamCommands.XAddOptions options = RedisStreamCommands.XAddOptions.maxlen(maxLength).approximateTrimming(true);
+        // Fails fast while Redis is down; the relay keeps the batch and retries on the next poll
+        redisGuard.execute(() -> stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (DomainEvent event : events) {
+                Map<byte[], byte[]> fields = new LinkedHashMap<>();
+                fields.put(bytes("eventId"), bytes(String.valueOf(event.getEventId())));
+                fields.put(bytes("aggregateId"), bytes(event.getAggregateId()));
+                fields.put(bytes("eventType"), bytes(event.getEventType().name()));
+                fields.put(bytes("occurredAt"), bytes(String.valueOf(event.getOccurredAt())));
+                fields.put(bytes("payload"), bytes(event.getPayload()));
+                MapRecord<byte[], byte[], byte[]> record = StreamRecords.newRecord()
+                    .in(bytes(streamPrefix + ":" + event.getAggregateType()))
+                    .ofMap(fields);
+                connection.streamCommands().xAdd(record, options);
+            }
+            return null;
+        }));
+        log.debug("Appended {} events to Redis streams", events.size());
+    }
+    
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
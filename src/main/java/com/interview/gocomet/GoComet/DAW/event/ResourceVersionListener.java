@@ -0,0 +1,60 @@
+package com.interview.gocomet.GoComet.DAW.event;
+
+import com.interview.gocomet.GoComet.DAW.model.Driver;
+import com.interview.gocomet.GoComet.DAW.model.Ride;
+import com.interview.gocomet.GoComet.DAW.model.Trip;
+import com.interview.gocomet.GoComet.DAW.service.ResourceVersionService;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA listener on versioned entities: publishes the new version once the transaction commits,
+ * so conditional GETs and long-polls never see a version that was rolled back.
+ * Hibernate obtains this listener from the Spring context.
+ */
+@Component
+public class ResourceVersionListener {
+    
+    private final ObjectProvider<ResourceVersionService> resourceVersions;
+    
+    public ResourceVersionListener(ObjectProvider<ResourceVersionService> resourceVersions) {
+        this.resourceVersions = resourceVersions;
+    }
+    
+    @PostPersist
+    @PostUpdate
+    public void onWrite(Object entity) {
+        String key;
+        Long version;
+        if (entity instanceof Ride ride) {
+            key = ResourceVersionService.rideKey(ride.getRideId());
+            version = ride.getVersion();
+        } else if (entity instanceof Trip trip) {
+            key = ResourceVersionService.tripKey(trip.getId());
+            version = trip.getVersion();
+        } else if (entity instanceof Driver driver) {
+            key = ResourceVersionService.driverKey(driver.getDriverId());
+            version = driver.getVersion();
+        } else {
+            return;
+        }
+        if (version == null) {
+            return;
+        }
+        
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    resourceVersions.getObject().changed(key, version);
+                }
+            });
+        } else {
+            resourceVersions.getObject().changed(key, version);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.interview.gocomet.GoComet.DAW.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interview.gocomet.GoComet.DAW.service.OutboxService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Pushes relayed outbox events to STOMP subscribers:
+ * <ul>
+ *   <li>/topic/rides/{rideId} and /topic/rides (every ride change, for active-ride lists)</li>
+ *   <li>/topic/drivers/{driverId} for rides assigned to a driver (numeric driver id)</li>
+ *   <li>/topic/trips/{id} for trip lifecycle changes (numeric trip id, as in RideResponse.tripId)</li>
+ *   <li>/topic/payments/{paymentId} for payment status changes</li>
+ * </ul>
+ * Events arrive after commit via the in-process outbox sink, so subscribers never see
+ * state that was rolled back. Delivery is best-effort; clients re-read over REST on reconnect.
+ */
+@Component
+@ConditionalOnProperty(name = "push.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class StompPushPublisher {
+    
+    private static final TypeReference<Map<String, Object>> PAYLOAD_TYPE = new TypeReference<>() {};
+    
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+    
+    @EventListener
+    public void onDomainEvent(DomainEvent event) {
+        Map<String, Object> data;
+        try {
+            data = objectMapper.readValue(event.getPayload(), PAYLOAD_TYPE);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not parse payload of outbox event {}: {}", event.getEventId(), e.getMessage());
+            return;
+        }
+        
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("eventId", event.getEventId());
+        message.put("eventType", event.getEventType());
+        message.put("aggregateId", event.getAggregateId());
+        message.put("occurredAt", event.getOccurredAt());
+        message.put("data", data);
+        
+        switch (event.getAggregateType()) {
+            case OutboxService.AGGREGATE_RIDE -> {
+                send("/topic/rides/" + event.getAggregateId(), message);
+                send("/topic/rides", message);
+                if (data.get("driverId") != null) {
+                    send("/topic/drivers/" + data.get("driverId"), message);
+                }
+            }
+            case OutboxService.AGGREGATE_TRIP -> send("/topic/trips/" + data.get("id"), message);
+            case OutboxService.AGGREGATE_PAYMENT -> send("/topic/payments/" + event.getAggregateId(), message);
+            default -> log.debug("No push topic for aggregate type {}", event.getAggregateType());
+        }
+    }
+    
+    private void send(String destination, Map<String, Object> message) {
+        try {
+            messagingTemplate.convertAndSend(destination, message);
+        } catch (MessagingException e) {
+            // Push is an optimisation over polling; never fail the outbox relay because of it
+            log.debug("Push to {} failed: {}", destination, e.getMessage());
+        }
+    }
+}
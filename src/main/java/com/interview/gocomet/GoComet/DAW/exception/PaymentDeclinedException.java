@@ -0,0 +1,12 @@
+package com.interview.gocomet.GoComet.DAW.exception;
+
+/**
+ * Raised by a payment gateway when the PSP definitively rejects a charge.
+ * Unlike timeouts or transport errors this outcome is final and must not be retried.
+ */
+public class PaymentDeclinedException extends RuntimeException {
+
+    public PaymentDeclinedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,242 @@
+package com.interview.gocomet.GoComet.DAW.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters for the request hot paths: driver matching, location ingest and the ride lifecycle.
+ * Every meter is registered once up front and recorded with primitive values, so an event
+ * costs a few atomic increments on fixed histogram buckets and allocates nothing: no tag
+ * lookups, no Timer.Sample, no client-side percentiles. Percentiles are computed from the
+ * published buckets (histogram_quantile over *_bucket in Prometheus).
+ * Ride lifecycle timers are the exception: they are recorded once the surrounding transaction
+ * commits, so a transition that rolls back (a lost race, a failed flush) is not counted.
+ */
+@Component
+public class HotPathMetrics {
+    
+    public enum MatchOutcome { MATCHED, NO_CANDIDATES, ALL_TAKEN }
+    
+    public enum Reservation { WON, TAKEN, FAILED }
+    
+    private final Timer candidateQuery;
+    private final Timer candidateFilter;
+    private final Timer reservationAttempt;
+    private final Timer matchedTotal;
+    private final Timer noCandidatesTotal;
+    private final Timer allTakenTotal;
+    private final DistributionSummary candidatesExamined;
+    private final DistributionSummary reservationAttempts;
+    private final Counter reservationWon;
+    private final Counter reservationTaken;
+    private final Counter reservationFailed;
+    
+    private final Counter singlePings;
+    private final Counter batchedPings;
+    private final Counter unknownDriverPings;
+    private final DistributionSummary pingBatchSize;
+    private final Timer pingLag;
+    
+    private final Timer createdToMatched;
+    private final Timer matchedToAccepted;
+    private final Timer acceptedToStarted;
+    private final Timer startedToCompleted;
+    private final Timer createdToCompleted;
+    
+    public HotPathMetrics(MeterRegistry registry) {
+        candidateQuery = stage(registry, "candidates");
+        candidateFilter = stage(registry, "filter");
+        reservationAttempt = stage(registry, "reserve");
+        matchedTotal = match(registry, "matched");
+        noCandidatesTotal = match(registry, "no_candidates");
+        allTakenTotal = match(registry, "all_taken");
+        candidatesExamined = DistributionSummary.builder("matching.candidates")
+            .description("Candidate drivers returned by the nearby query for one match")
+            .publishPercentileHistogram()
+            .minimumExpectedValue(1.0)
+            .maximumExpectedValue(100.0)
+            .register(registry);
+        reservationAttempts = DistributionSummary.builder("matching.reservation.attempts")
+            .description("Reservation attempts one match needed; anything above 1 is a retry after losing a driver")
+            .publishPercentileHistogram()
+            .minimumExpectedValue(1.0)
+            .maximumExpectedValue(20.0)
+            .register(registry);
+        reservationWon = reservation(registry, "won");
+        reservationTaken = reservation(registry, "taken");
+        reservationFailed = reservation(registry, "failed");
+        
+        singlePings = pings(registry, "single");
+        batchedPings = pings(registry, "batch");
+        unknownDriverPings = Counter.builder("driver.location.pings.unknown")
+            .description("Location pings for driver ids that do not exist")
+            .register(registry);
+        pingBatchSize = DistributionSummary.builder("driver.location.batch.size")
+            .description("Pings per batched location upload")
+            .publishPercentileHistogram()
+            .minimumExpectedValue(1.0)
+            .maximumExpectedValue(1000.0)
+            .register(registry);
+        pingLag = Timer.builder("driver.location.lag")
+            .description("From the device's recordedAt to the location being applied")
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofMillis(1))
+            .maximumExpectedValue(Duration.ofMinutes(5))
+            .register(registry);
+        
+        createdToMatched = lifecycle(registry, "created_to_matched");
+        matchedToAccepted = lifecycle(registry, "matched_to_accepted");
+        acceptedToStarted = lifecycle(registry, "accepted_to_started");
+        startedToCompleted = lifecycle(registry, "started_to_completed");
+        createdToCompleted = lifecycle(registry, "created_to_completed");
+    }
+    
+    private static Timer stage(MeterRegistry registry, String stage) {
+        return Timer.builder("matching.stage")
+            .description("Time spent in one stage of matchDriver")
+            .tag("stage", stage)
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofNanos(100_000))
+            .maximumExpectedValue(Duration.ofSeconds(10))
+            .register(registry);
+    }
+    
+    private static Timer match(MeterRegistry registry, String outcome) {
+        return Timer.builder("matching.duration")
+            .description("Whole matchDriver call")
+            .tag("outcome", outcome)
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofNanos(100_000))
+            .maximumExpectedValue(Duration.ofSeconds(10))
+            .register(registry);
+    }
+    
+    private static Counter reservation(MeterRegistry registry, String result) {
+        return Counter.builder("matching.reservations")
+            .description("Reservation attempts: won, taken (driver no longer available) or failed (exception)")
+            .tag("result", result)
+            .register(registry);
+    }
+    
+    private static Counter pings(MeterRegistry registry, String mode) {
+        return Counter.builder("driver.location.pings")
+            .description("Location pings received; rate() gives the ingest rate")
+            .tag("mode", mode)
+            .register(registry);
+    }
+    
+    private static Timer lifecycle(MeterRegistry registry, String transition) {
+        return Timer.builder("ride.lifecycle")
+            .description("Time between two ride lifecycle events")
+            .tag("transition", transition)
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofMillis(10))
+            .maximumExpectedValue(Duration.ofHours(3))
+            .register(registry);
+    }
+    
+    public void candidateQuery(long nanos, int candidates) {
+        candidateQuery.record(nanos, TimeUnit.NANOSECONDS);
+        candidatesExamined.record(candidates);
+    }
+    
+    public void candidateFilter(long nanos) {
+        candidateFilter.record(nanos, TimeUnit.NANOSECONDS);
+    }
+    
+    public void reservationAttempt(long nanos, Reservation result) {
+        reservationAttempt.record(nanos, TimeUnit.NANOSECONDS);
+        switch (result) {
+            case WON -> reservationWon.increment();
+            case TAKEN -> reservationTaken.increment();
+            case FAILED -> reservationFailed.increment();
+        }
+    }
+    
+    /**
+     * @param attempts reservation attempts made; 0 when there was no candidate to try
+     */
+    public void match(long nanos, MatchOutcome outcome, int attempts) {
+        Timer timer = switch (outcome) {
+            case MATCHED -> matchedTotal;
+            case NO_CANDIDATES -> noCandidatesTotal;
+            case ALL_TAKEN -> allTakenTotal;
+        };
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+        if (attempts > 0) {
+            reservationAttempts.record(attempts);
+        }
+    }
+    
+    public void singlePing(Long recordedAtMillis, long nowMillis) {
+        singlePings.increment();
+        lag(recordedAtMillis, nowMillis);
+    }
+    
+    public void pingBatch(int size, int unknown) {
+        batchedPings.increment(size);
+        pingBatchSize.record(size);
+        if (unknown > 0) {
+            unknownDriverPings.increment(unknown);
+        }
+    }
+    
+    public void unknownDriverPing() {
+        unknownDriverPings.increment();
+    }
+    
+    /**
+     * @param recordedAtMillis when the device took the fix (epoch millis), or null if it did not say
+     */
+    public void lag(Long recordedAtMillis, long nowMillis) {
+        if (recordedAtMillis != null) {
+            // Device clocks run ahead too; count that as no lag rather than dropping the sample
+            pingLag.record(Math.max(0, nowMillis - recordedAtMillis), TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    public void matched(LocalDateTime createdAt, LocalDateTime matchedAt) {
+        between(createdToMatched, createdAt, matchedAt);
+    }
+    
+    public void accepted(LocalDateTime matchedAt, LocalDateTime acceptedAt) {
+        between(matchedToAccepted, matchedAt, acceptedAt);
+    }
+    
+    public void tripStarted(LocalDateTime acceptedAt, LocalDateTime startedAt) {
+        between(acceptedToStarted, acceptedAt, startedAt);
+    }
+    
+    public void tripCompleted(LocalDateTime rideCreatedAt, LocalDateTime startedAt, LocalDateTime completedAt) {
+        between(startedToCompleted, startedAt, completedAt);
+        between(createdToCompleted, rideCreatedAt, completedAt);
+    }
+    
+    private static void between(Timer timer, LocalDateTime from, LocalDateTime to) {
+        // Rides created before a restart, or accepted without being matched, have gaps
+        if (from == null || to == null) {
+            return;
+        }
+        long millis = Math.max(0, from.until(to, ChronoUnit.MILLIS));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            timer.record(millis, TimeUnit.MILLISECONDS);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                timer.record(millis, TimeUnit.MILLISECONDS);
+            }
+        });
+    }
+}
@@ -1,14 +1,19 @@
 package com.interview.gocomet.GoComet.DAW.model;
 
+import com.interview.gocomet.GoComet.DAW.datasource.ReadYourWritesListener;
+import com.interview.gocomet.GoComet.DAW.event.ResourceVersionListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
 
 @Entity
+@DynamicUpdate
+@EntityListeners({ResourceVersionListener.class, ReadYourWritesListener.class})
 @Table(name = "drivers", indexes = {
     @Index(name = "idx_driver_status", columnList = "status"),
     @Index(name = "idx_driver_location", columnList = "latitude,longitude"),
@@ -21,7 +26,8 @@ import java.time.LocalDateTime;
 public class Driver {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "drivers_seq")
+    @SequenceGenerator(name = "drivers_seq", sequenceName = "drivers_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false, unique = true)
@@ -43,6 +49,8 @@ public class Driver {
     @Column(nullable = false)
     private DriverStatus status;
     
+    // Written by DriverService's location UPDATEs, outside the entity and its version; dynamic
+    // update keeps an assignment from writing a stale location back over a newer ping
     @Column(nullable = false)
     private Double latitude;
     
@@ -60,6 +68,11 @@ public class Driver {
     @Column(nullable = false)
     private LocalDateTime updatedAt;
     
+    // Optimistic lock and ETag source for GET /v1/drivers/{id}: moves with status and assignment,
+    // not with location pings (see above)
+    @Version
+    private Long version;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
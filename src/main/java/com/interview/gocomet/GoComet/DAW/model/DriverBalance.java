@@ -0,0 +1,42 @@
+package com.interview.gocomet.GoComet.DAW.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Running lifetime earnings per driver, folded incrementally from DRIVER_CREDIT ledger entries.
+ */
+@Entity
+@Table(name = "driver_balances")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DriverBalance {
+    
+    @Id
+    private Long driverId;
+    
+    @Column(nullable = false)
+    private Long earningsMinor;
+    
+    @Column(nullable = false)
+    private Long tripCount;
+    
+    @Version
+    private Long version;
+    
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,53 @@
+package com.interview.gocomet.GoComet.DAW.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Per-driver, per-day earnings, folded incrementally from DRIVER_CREDIT ledger entries.
+ */
+@Entity
+@Table(name = "driver_daily_balances", indexes = {
+    @Index(name = "idx_daily_balance_driver_date", columnList = "driverId,businessDate", unique = true)
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DriverDailyBalance {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "driver_daily_balances_seq")
+    @SequenceGenerator(name = "driver_daily_balances_seq", sequenceName = "driver_daily_balances_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(nullable = false)
+    private Long driverId;
+    
+    @Column(nullable = false)
+    private LocalDate businessDate;
+    
+    @Column(nullable = false)
+    private Long earningsMinor;
+    
+    @Column(nullable = false)
+    private Long tripCount;
+    
+    @Version
+    private Long version;
+    
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,6 @@
+package com.interview.gocomet.GoComet.DAW.model;
+
+public enum LedgerDirection {
+    DEBIT,
+    CREDIT
+}
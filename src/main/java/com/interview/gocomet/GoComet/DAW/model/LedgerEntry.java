@@ -0,0 +1,72 @@
+package com.interview.gocomet.GoComet.DAW.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Append-only double-entry ledger line. A settled payment produces one debit
+ * (rider charge) balanced by two credits (platform fee, driver credit).
+ * Amounts are stored in minor units (paise) to keep sums exact.
+ */
+@Entity
+@Immutable
+@Table(name = "ledger_entries", indexes = {
+    @Index(name = "idx_ledger_txn_type", columnList = "transactionId,entryType", unique = true),
+    @Index(name = "idx_ledger_driver_date", columnList = "driverId,businessDate")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerEntry {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ledger_entries_seq")
+    @SequenceGenerator(name = "ledger_entries_seq", sequenceName = "ledger_entries_seq", allocationSize = 50)
+    private Long id;
+    
+    // Payment id the entry belongs to; all lines of one payment share it
+    @Column(nullable = false, updatable = false)
+    private String transactionId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false)
+    private LedgerEntryType entryType;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false)
+    private LedgerDirection direction;
+    
+    @Column(nullable = false, updatable = false)
+    private String account;
+    
+    @Column(nullable = false, updatable = false)
+    private Long amountMinor;
+    
+    @Column(nullable = false, updatable = false)
+    private Long tripId;
+    
+    @Column(nullable = false, updatable = false)
+    private Long driverId;
+    
+    @Column(nullable = false, updatable = false)
+    private String riderId;
+    
+    @Column(nullable = false, updatable = false)
+    private LocalDate businessDate;
+    
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,7 @@
+package com.interview.gocomet.GoComet.DAW.model;
+
+public enum LedgerEntryType {
+    RIDER_CHARGE,
+    PLATFORM_FEE,
+    DRIVER_CREDIT
+}
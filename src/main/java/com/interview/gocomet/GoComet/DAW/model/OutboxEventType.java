@@ -0,0 +1,12 @@
+package com.interview.gocomet.GoComet.DAW.model;
+
+public enum OutboxEventType {
+    RIDE_CREATED,
+    RIDE_STATUS_CHANGED,
+    TRIP_STARTED,
+    TRIP_PAUSED,
+    TRIP_RESUMED,
+    TRIP_COMPLETED,
+    PAYMENT_CREATED,
+    PAYMENT_STATUS_CHANGED
+}
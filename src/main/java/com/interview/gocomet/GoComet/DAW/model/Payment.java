@@ -12,7 +12,8 @@ import java.time.LocalDateTime;
 @Table(name = "payments", indexes = {
     @Index(name = "idx_payment_trip", columnList = "tripId"),
     @Index(name = "idx_payment_status", columnList = "status"),
-    @Index(name = "idx_payment_rider", columnList = "riderId")
+    @Index(name = "idx_payment_rider", columnList = "riderId"),
+    @Index(name = "idx_payment_status_completed", columnList = "status,completedAt")
 })
 @Data
 @Builder
@@ -21,7 +22,8 @@ import java.time.LocalDateTime;
 public class Payment {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payments_seq")
+    @SequenceGenerator(name = "payments_seq", sequenceName = "payments_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false, unique = true)
@@ -48,6 +50,8 @@ public class Payment {
     
     private String pspResponse;
     
+    private Integer pspAttempts;
+    
     @Column(nullable = false)
     private LocalDateTime createdAt;
     
@@ -0,0 +1,9 @@
+package com.interview.gocomet.GoComet.DAW.model;
+
+public enum ReconciliationMismatchType {
+    MISSING_IN_SETTLEMENT,
+    UNKNOWN_PAYMENT,
+    AMOUNT_MISMATCH,
+    STATUS_MISMATCH,
+    TRANSACTION_ID_MISMATCH
+}
@@ -1,5 +1,7 @@
 package com.interview.gocomet.GoComet.DAW.model;
 
+import com.interview.gocomet.GoComet.DAW.datasource.ReadYourWritesListener;
+import com.interview.gocomet.GoComet.DAW.event.ResourceVersionListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -9,6 +11,7 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
+@EntityListeners({ResourceVersionListener.class, ReadYourWritesListener.class})
 @Table(name = "rides", indexes = {
     @Index(name = "idx_ride_status", columnList = "status"),
     @Index(name = "idx_ride_rider", columnList = "riderId"),
@@ -22,7 +25,8 @@ import java.time.LocalDateTime;
 public class Ride {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rides_seq")
+    @SequenceGenerator(name = "rides_seq", sequenceName = "rides_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false, unique = true)
@@ -76,6 +80,11 @@ public class Ride {
     @Column(unique = true)
     private String idempotencyKey;
     
+    // Optimistic lock, also exposed as the ETag: a concurrent writer on a stale copy fails with a
+    // conflict instead of overwriting the change, so a version number never names two states
+    @Version
+    private Long version;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -1,5 +1,7 @@
 package com.interview.gocomet.GoComet.DAW.model;
 
+import com.interview.gocomet.GoComet.DAW.datasource.ReadYourWritesListener;
+import com.interview.gocomet.GoComet.DAW.event.ResourceVersionListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -9,6 +11,7 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
+@EntityListeners({ResourceVersionListener.class, ReadYourWritesListener.class})
 @Table(name = "trips", indexes = {
     @Index(name = "idx_trip_ride", columnList = "rideId"),
     @Index(name = "idx_trip_status", columnList = "status"),
@@ -21,7 +24,8 @@ import java.time.LocalDateTime;
 public class Trip {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trips_seq")
+    @SequenceGenerator(name = "trips_seq", sequenceName = "trips_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false, unique = true)
@@ -80,6 +84,10 @@ public class Trip {
     @Column(nullable = false)
     private LocalDateTime updatedAt;
     
+    // ETag source for GET /v1/trips/{id}; see Ride.version
+    @Version
+    private Long version;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
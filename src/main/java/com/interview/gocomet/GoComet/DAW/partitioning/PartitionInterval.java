@@ -0,0 +1,88 @@
+package com.interview.gocomet.GoComet.DAW.partitioning;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Width of one range partition on created_at. The partition starting on a given day is
+ * named TABLE_pYYYYMMDD (daily) or TABLE_pYYYYMM (monthly).
+ */
+public enum PartitionInterval {
+    
+    DAILY(DateTimeFormatter.ofPattern("yyyyMMdd")) {
+        @Override
+        public LocalDate start(LocalDate day) {
+            return day;
+        }
+        
+        @Override
+        public LocalDate next(LocalDate start) {
+            return start.plusDays(1);
+        }
+        
+        @Override
+        LocalDate parse(String suffix) {
+            return LocalDate.parse(suffix, format);
+        }
+    },
+    
+    MONTHLY(DateTimeFormatter.ofPattern("yyyyMM")) {
+        @Override
+        public LocalDate start(LocalDate day) {
+            return day.withDayOfMonth(1);
+        }
+        
+        @Override
+        public LocalDate next(LocalDate start) {
+            return start.plusMonths(1);
+        }
+        
+        @Override
+        LocalDate parse(String suffix) {
+            return YearMonth.parse(suffix, format).atDay(1);
+        }
+    };
+    
+    final DateTimeFormatter format;
+    
+    PartitionInterval(DateTimeFormatter format) {
+        this.format = format;
+    }
+    
+    /**
+     * First day of the partition holding the day
+     */
+    public abstract LocalDate start(LocalDate day);
+    
+    /**
+     * First day of the partition after the one starting on start
+     */
+    public abstract LocalDate next(LocalDate start);
+    
+    abstract LocalDate parse(String suffix);
+    
+    public String partitionName(String table, LocalDate start) {
+        return table + "_p" + format.format(start);
+    }
+    
+    /**
+     * Start of the partition with this name, or null if the name was not made by this interval
+     */
+    public LocalDate startOf(String table, String partitionName) {
+        String prefix = table + "_p";
+        if (!partitionName.startsWith(prefix)) {
+            return null;
+        }
+        String suffix = partitionName.substring(prefix.length());
+        if (suffix.length() != (this == DAILY ? 8 : 6)) {
+            return null;
+        }
+        try {
+            return parse(suffix);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.interview.gocomet.GoComet.DAW.partitioning;
+
+import com.interview.gocomet.GoComet.DAW.sharding.ScatterGather;
+import com.interview.gocomet.GoComet.DAW.sharding.ShardContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps rides and trips partitioned in every region: partitions for the coming days are
+ * created ahead of time and partitions past retention are archived. The first run happens
+ * once all beans exist (Hibernate's schema and the region schemas are in place) and before
+ * the web server takes requests; startup fails if a partition for the coming days is missing.
+ */
+@Slf4j
+public class PartitionMaintenance implements SmartInitializingSingleton {
+    
+    private final DataSource dataSource;
+    private final ScatterGather scatterGather;
+    private final PartitionManager partitionManager;
+    private final int precreateDays;
+    private final Duration retention;
+    
+    public PartitionMaintenance(DataSource dataSource, ScatterGather scatterGather, PartitionManager partitionManager,
+                                int precreateDays, Duration retention) {
+        this.dataSource = dataSource;
+        this.scatterGather = scatterGather;
+        this.partitionManager = partitionManager;
+        this.precreateDays = precreateDays;
+        this.retention = retention;
+    }
+    
+    @Override
+    public void afterSingletonsInstantiated() {
+        maintain();
+        Map<String, List<String>> missing = missingPartitions();
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Partitions missing for the next " + precreateDays + " days: " + missing);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${partitioning.maintenance-interval-ms:3600000}",
+               initialDelayString = "${partitioning.maintenance-interval-ms:3600000}")
+    public void scheduledMaintenance() {
+        try {
+            maintain();
+            Map<String, List<String>> missing = missingPartitions();
+            if (!missing.isEmpty()) {
+                log.error("Partitions missing for the next {} days, inserts for those days will fail: {}",
+                    precreateDays, missing);
+            }
+        } catch (RuntimeException e) {
+            log.error("Partition maintenance failed: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Create the partitions for today through today + precreate-days and archive the expired ones
+     */
+    public void maintain() {
+        LocalDate today = LocalDate.now();
+        scatterGather.forEachRegion(() -> withConnection(connection -> {
+            for (PartitionedTable table : PartitionedTable.ALL) {
+                List<String> created = partitionManager.ensurePartitions(connection, table, today,
+                    today.plusDays(precreateDays));
+                if (!created.isEmpty()) {
+                    log.info("Region {}: created partitions {}", ShardContext.current().code(), created);
+                }
+                if (!retention.isZero()) {
+                    List<String> archived = partitionManager.archiveBefore(connection, table,
+                        today.minusDays(retention.toDays()));
+                    if (!archived.isEmpty()) {
+                        log.info("Region {}: archived partitions {}", ShardContext.current().code(), archived);
+                    }
+                }
+            }
+        }));
+    }
+    
+    /**
+     * "REGION" -> ["rides 2026-01-02", ...] for every day from today through today + precreate-days
+     * without a partition; empty when all are there
+     */
+    public Map<String, List<String>> missingPartitions() {
+        LocalDate today = LocalDate.now();
+        Map<String, List<String>> missing = new LinkedHashMap<>();
+        scatterGather.forEachRegion(() -> withConnection(connection -> {
+            List<String> days = new ArrayList<>();
+            for (PartitionedTable table : PartitionedTable.ALL) {
+                for (LocalDate day : partitionManager.missingDays(connection, table, today, today.plusDays(precreateDays))) {
+                    days.add(table.name() + " " + day);
+                }
+            }
+            if (!days.isEmpty()) {
+                missing.put(ShardContext.current().code(), days);
+            }
+        }));
+        return missing;
+    }
+    
+    /**
+     * Attached partitions per region and table
+     */
+    public Map<String, Map<String, List<PartitionManager.Partition>>> getPartitions() {
+        Map<String, Map<String, List<PartitionManager.Partition>>> result = new LinkedHashMap<>();
+        scatterGather.forEachRegion(() -> withConnection(connection -> {
+            Map<String, List<PartitionManager.Partition>> tables = new LinkedHashMap<>();
+            for (PartitionedTable table : PartitionedTable.ALL) {
+                tables.put(table.name(), partitionManager.partitions(connection, table));
+            }
+            result.put(ShardContext.current().code(), tables);
+        }));
+        return result;
+    }
+    
+    private void withConnection(ConnectionWork work) {
+        try (Connection connection = dataSource.getConnection()) {
+            work.run(connection);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Partition maintenance failed in region " + ShardContext.current().code(), e);
+        }
+    }
+    
+    @FunctionalInterface
+    private interface ConnectionWork {
+        void run(Connection connection) throws SQLException;
+    }
+}
@@ -0,0 +1,330 @@
+package com.interview.gocomet.GoComet.DAW.partitioning;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * PostgreSQL range partitions on created_at: the one-off conversion of a plain table,
+ * creating partitions ahead of time and archiving old ones by detaching them.
+ * Every operation runs in one transaction under an advisory lock per table, so several
+ * instances can run maintenance at the same time.
+ */
+@Slf4j
+public class PartitionManager {
+    
+    private static final String ID_COLUMN = "id";
+    
+    private final PartitionInterval interval;
+    private final String archiveSchema;
+    
+    /**
+     * @param archiveSchema where detached partitions go; blank drops them instead
+     */
+    public PartitionManager(PartitionInterval interval, String archiveSchema) {
+        this.interval = interval;
+        this.archiveSchema = archiveSchema;
+    }
+    
+    /**
+     * An attached partition holding created_at in [from, to)
+     */
+    public record Partition(String name, LocalDate from, LocalDate to) {
+        
+        boolean covers(LocalDate day) {
+            return !day.isBefore(from) && day.isBefore(to);
+        }
+        
+        boolean overlaps(LocalDate start, LocalDate end) {
+            return start.isBefore(to) && from.isBefore(end);
+        }
+    }
+    
+    /**
+     * Partition the table if it is still a plain one, then create whatever partitions are
+     * missing for the days from..until. Returns the partitions created.
+     */
+    public List<String> ensurePartitions(Connection connection, PartitionedTable table, LocalDate from,
+                                         LocalDate until) throws SQLException {
+        return inTransaction(connection, table, () -> {
+            String kind = relationKind(connection, table.name());
+            if (kind == null) {
+                throw new IllegalStateException("Table " + table.name() + " does not exist");
+            }
+            if ("r".equals(kind)) {
+                return convert(connection, table, from, until);
+            }
+            if (!"p".equals(kind)) {
+                throw new IllegalStateException(table.name() + " is neither a table nor a partitioned table");
+            }
+            // Converted before a key was claimed: claim it now from the rows already there
+            for (String column : table.claimedUnique()) {
+                if (relationKind(connection, table.claimsTable(column)) == null) {
+                    try (Statement statement = connection.createStatement()) {
+                        installClaims(statement, table, column);
+                    }
+                    log.info("Claimed {}.{} in {}", table.name(), column, table.claimsTable(column));
+                }
+            }
+            return createPartitions(connection, table, from, until);
+        });
+    }
+    
+    /**
+     * Detach every partition that ends on or before the cutoff and move it to the archive
+     * schema. Metadata only: no rows are deleted or rewritten. A partition that still holds
+     * open rides or trips is left attached.
+     */
+    public List<String> archiveBefore(Connection connection, PartitionedTable table, LocalDate cutoff) throws SQLException {
+        return inTransaction(connection, table, () -> {
+            List<String> archived = new ArrayList<>();
+            try (Statement statement = connection.createStatement()) {
+                for (Partition partition : partitions(connection, table)) {
+                    if (partition.to().isAfter(cutoff)) {
+                        continue;
+                    }
+                    if (exists(connection, "SELECT 1 FROM " + partition.name() + " WHERE " + table.openCondition())) {
+                        log.warn("Partition {} is past retention but still has open rows, keeping it", partition.name());
+                        continue;
+                    }
+                    statement.execute("ALTER TABLE " + table.name() + " DETACH PARTITION " + partition.name());
+                    if (archiveSchema == null || archiveSchema.isBlank()) {
+                        statement.execute("DROP TABLE " + partition.name());
+                    } else {
+                        statement.execute("CREATE SCHEMA IF NOT EXISTS " + archiveSchema);
+                        statement.execute("ALTER TABLE " + partition.name() + " SET SCHEMA " + archiveSchema);
+                    }
+                    for (String column : table.claimedUnique()) {
+                        try (PreparedStatement release = connection.prepareStatement(
+                                "DELETE FROM " + table.claimsTable(column) + " WHERE created_at >= ? AND created_at < ?")) {
+                            release.setTimestamp(1, Timestamp.valueOf(partition.from().atStartOfDay()));
+                            release.setTimestamp(2, Timestamp.valueOf(partition.to().atStartOfDay()));
+                            release.executeUpdate();
+                        }
+                    }
+                    archived.add(partition.name());
+                }
+            }
+            return archived;
+        });
+    }
+    
+    /**
+     * Attached partitions made by this manager (either interval), oldest first
+     */
+    public List<Partition> partitions(Connection connection, PartitionedTable table) throws SQLException {
+        List<Partition> partitions = new ArrayList<>();
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                    + "WHERE i.inhparent = to_regclass(?)")) {
+            query.setString(1, table.name());
+            try (ResultSet rs = query.executeQuery()) {
+                while (rs.next()) {
+                    String name = rs.getString(1);
+                    for (PartitionInterval candidate : PartitionInterval.values()) {
+                        LocalDate start = candidate.startOf(table.name(), name);
+                        if (start != null) {
+                            partitions.add(new Partition(name, start, candidate.next(start)));
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        partitions.sort(Comparator.comparing(Partition::from));
+        return partitions;
+    }
+    
+    /**
+     * Days from..until that no attached partition covers; inserts for them would fail
+     */
+    public List<LocalDate> missingDays(Connection connection, PartitionedTable table, LocalDate from,
+                                       LocalDate until) throws SQLException {
+        List<Partition> partitions = partitions(connection, table);
+        List<LocalDate> missing = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(until); day = day.plusDays(1)) {
+            LocalDate current = day;
+            if (partitions.stream().noneMatch(partition -> partition.covers(current))) {
+                missing.add(day);
+            }
+        }
+        return missing;
+    }
+    
+    private List<String> createPartitions(Connection connection, PartitionedTable table, LocalDate from,
+                                          LocalDate until) throws SQLException {
+        List<Partition> existing = partitions(connection, table);
+        List<String> created = new ArrayList<>();
+        try (Statement statement = connection.createStatement()) {
+            LocalDate day = from;
+            while (!day.isAfter(until)) {
+                LocalDate current = day;
+                Partition covering = existing.stream().filter(partition -> partition.covers(current)).findFirst().orElse(null);
+                if (covering != null) {
+                    day = covering.to();
+                    continue;
+                }
+                PartitionInterval width = interval;
+                LocalDate start = width.start(day);
+                LocalDate end = width.next(start);
+                if (existing.stream().anyMatch(partition -> partition.overlaps(start, end))) {
+                    // Left over from a different interval: fill the gap a day at a time
+                    width = PartitionInterval.DAILY;
+                }
+                Partition partition = new Partition(width.partitionName(table.name(), width.start(day)),
+                    width.start(day), width.next(width.start(day)));
+                statement.execute("CREATE TABLE " + partition.name() + " PARTITION OF " + table.name()
+                    + " FOR VALUES FROM ('" + partition.from() + "') TO ('" + partition.to() + "')");
+                existing.add(partition);
+                created.add(partition.name());
+                day = partition.to();
+            }
+        }
+        return created;
+    }
+    
+    /**
+     * Swap the plain table for a partitioned one with the same columns and rows. Runs once,
+     * under an exclusive lock for the duration of the copy.
+     */
+    private List<String> convert(Connection connection, PartitionedTable table, LocalDate from,
+                                 LocalDate until) throws SQLException {
+        String name = table.name();
+        String plain = name + "_unpartitioned";
+        // Non-unique indexes are recreated as is (partitioned indexes cascade to every partition)
+        List<String> indexes = new ArrayList<>();
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT pg_get_indexdef(indexrelid) FROM pg_index WHERE indrelid = to_regclass(?) AND NOT indisunique")) {
+            query.setString(1, name);
+            try (ResultSet rs = query.executeQuery()) {
+                while (rs.next()) {
+                    indexes.add(rs.getString(1));
+                }
+            }
+        }
+        
+        List<String> created;
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("LOCK TABLE " + name + " IN ACCESS EXCLUSIVE MODE");
+            statement.execute("ALTER TABLE " + name + " RENAME TO " + plain);
+            statement.execute("CREATE TABLE " + name + " (LIKE " + plain
+                + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS) PARTITION BY RANGE ("
+                + PartitionedTable.PARTITION_KEY + ")");
+            
+            LocalDate oldest = from;
+            try (ResultSet rs = statement.executeQuery("SELECT MIN(" + PartitionedTable.PARTITION_KEY + ") FROM " + plain)) {
+                rs.next();
+                Timestamp min = rs.getTimestamp(1);
+                if (min != null && min.toLocalDateTime().toLocalDate().isBefore(from)) {
+                    oldest = min.toLocalDateTime().toLocalDate();
+                }
+            }
+            created = createPartitions(connection, table, oldest, until);
+            
+            for (String column : table.claimedUnique()) {
+                installClaims(statement, table, column);
+                // Left over from an earlier conversion; rebuilt from the rows copied below
+                statement.execute("DELETE FROM " + table.claimsTable(column));
+            }
+            // Ids come from the entity sequences (IdSequences), so an identity column is not carried over
+            long rows = statement.executeUpdate("INSERT INTO " + name + " SELECT * FROM " + plain);
+            statement.execute("DROP TABLE " + plain);
+            
+            statement.execute("ALTER TABLE " + name + " ADD PRIMARY KEY (" + ID_COLUMN + ", "
+                + PartitionedTable.PARTITION_KEY + ")");
+            for (String index : indexes) {
+                statement.execute(index);
+            }
+            for (String column : table.lookupColumns()) {
+                statement.execute("CREATE INDEX IF NOT EXISTS " + name + "_" + column + "_idx ON " + name + " (" + column + ")");
+            }
+            log.info("Partitioned {} by {} ({} rows, {} partitions)", name, PartitionedTable.PARTITION_KEY, rows, created.size());
+        }
+        return created;
+    }
+    
+    /**
+     * Unique values of the column across all partitions: each insert claims its value first,
+     * a duplicate fails with a unique violation on the claims table. The rows already in the
+     * table are claimed too.
+     */
+    private static void installClaims(Statement statement, PartitionedTable table, String column) throws SQLException {
+        String claims = table.claimsTable(column);
+        statement.execute("CREATE TABLE IF NOT EXISTS " + claims
+            + " (value text PRIMARY KEY, created_at timestamp NOT NULL)");
+        List<String> duplicates = new ArrayList<>();
+        try (ResultSet rs = statement.executeQuery("SELECT " + column + " FROM " + table.name() + " WHERE " + column
+                + " IS NOT NULL GROUP BY " + column + " HAVING COUNT(*) > 1 LIMIT 10")) {
+            while (rs.next()) {
+                duplicates.add(rs.getString(1));
+            }
+        }
+        if (!duplicates.isEmpty()) {
+            // Written while nothing enforced the key; one row of each keeps the claim
+            log.warn("{}.{} already has duplicates, e.g. {}", table.name(), column, duplicates);
+        }
+        statement.execute("INSERT INTO " + claims + " (value, created_at) SELECT " + column + ", "
+            + PartitionedTable.PARTITION_KEY + " FROM " + table.name() + " WHERE " + column + " IS NOT NULL "
+            + "ON CONFLICT DO NOTHING");
+        statement.execute("CREATE OR REPLACE FUNCTION " + table.claimFunction(column) + "() RETURNS trigger "
+            + "LANGUAGE plpgsql AS $$ BEGIN "
+            + "IF NEW." + column + " IS NOT NULL THEN "
+            + "INSERT INTO " + claims + " (value, created_at) VALUES (NEW." + column + ", NEW."
+            + PartitionedTable.PARTITION_KEY + "); "
+            + "END IF; RETURN NEW; END $$");
+        statement.execute("DROP TRIGGER IF EXISTS " + table.claimFunction(column) + " ON " + table.name());
+        statement.execute("CREATE TRIGGER " + table.claimFunction(column) + " BEFORE INSERT ON " + table.name()
+            + " FOR EACH ROW EXECUTE FUNCTION " + table.claimFunction(column) + "()");
+    }
+    
+    private static String relationKind(Connection connection, String relation) throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT relkind FROM pg_class WHERE oid = to_regclass(?)")) {
+            query.setString(1, relation);
+            try (ResultSet rs = query.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+    
+    private static boolean exists(Connection connection, String query) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT EXISTS (" + query + ")")) {
+            rs.next();
+            return rs.getBoolean(1);
+        }
+    }
+    
+    private <T> T inTransaction(Connection connection, PartitionedTable table, SqlWork<T> work) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            try (PreparedStatement lock = connection.prepareStatement("SELECT pg_advisory_xact_lock(hashtext(?))")) {
+                lock.setString(1, "partitions:" + table.name());
+                lock.execute();
+            }
+            T result = work.run();
+            connection.commit();
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+    
+    @FunctionalInterface
+    private interface SqlWork<T> {
+        T run() throws SQLException;
+    }
+}
@@ -0,0 +1,63 @@
+package com.interview.gocomet.GoComet.DAW.partitioning;
+
+import com.interview.gocomet.GoComet.DAW.model.RideStatus;
+import com.interview.gocomet.GoComet.DAW.model.TripStatus;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * A table range-partitioned on created_at.
+ * PostgreSQL only enforces unique constraints that include the partition key, so the
+ * single-column unique keys Hibernate maps become plain lookup indexes. Each of them
+ * (claimedUnique) is also claimed in a small unpartitioned table by an insert trigger, which
+ * keeps duplicates failing as before.
+ *
+ * @param openCondition rows matching it are still in use, and keep their partition from being archived
+ */
+public record PartitionedTable(String name, List<String> lookupColumns, List<String> claimedUnique,
+                               String openCondition) {
+    
+    public static final String PARTITION_KEY = "created_at";
+    
+    /**
+     * Point reads by business id look this far either side of the creation time the id carries
+     * (TimeOrderedIds), which covers the partition it is in and its neighbours
+     */
+    public static final Duration ID_TIME_SLACK = Duration.ofDays(1);
+    
+    /**
+     * Point reads by numeric id try the partitions this far back first; rides and trips are
+     * read while they are open, which is well inside it
+     */
+    public static final Duration RECENT = Duration.ofDays(2);
+    
+    public static final PartitionedTable RIDES = new PartitionedTable("rides",
+        List.of("ride_id", "idempotency_key"),
+        List.of("ride_id", "idempotency_key"),
+        statusIn(EnumSet.complementOf(EnumSet.of(RideStatus.COMPLETED, RideStatus.CANCELLED, RideStatus.EXPIRED))));
+    
+    public static final PartitionedTable TRIPS = new PartitionedTable("trips",
+        List.of("trip_id"),
+        List.of("trip_id"),
+        statusIn(EnumSet.complementOf(EnumSet.of(TripStatus.COMPLETED, TripStatus.CANCELLED))));
+    
+    public static final List<PartitionedTable> ALL = List.of(RIDES, TRIPS);
+    
+    String claimsTable(String column) {
+        return name + "_" + column + "_claims";
+    }
+    
+    String claimFunction(String column) {
+        return name + "_claim_" + column;
+    }
+    
+    private static String statusIn(Set<? extends Enum<?>> statuses) {
+        return statuses.stream()
+            .map(status -> "'" + status.name() + "'")
+            .collect(Collectors.joining(", ", "status IN (", ")"));
+    }
+}
@@ -0,0 +1,54 @@
+package com.interview.gocomet.GoComet.DAW.partitioning;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Version 7 UUIDs for business ids ("RIDE-BLR-0192..."): the leading 48 bits are the creation
+ * time in milliseconds, the rest random as in UUID.randomUUID(). A point read by such an id
+ * can bound created_at, so a partitioned table is read in the partitions around that time
+ * rather than in every partition.
+ */
+public final class TimeOrderedIds {
+    
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int UUID_LENGTH = 36;
+    
+    private TimeOrderedIds() {
+    }
+    
+    public static UUID newUuid() {
+        return newUuid(System.currentTimeMillis());
+    }
+    
+    static UUID newUuid(long epochMillis) {
+        long mostSignificant = (epochMillis << 16) | 0x7000L | (RANDOM.nextLong() & 0x0FFFL);
+        long leastSignificant = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSignificant, leastSignificant);
+    }
+    
+    /**
+     * Creation time of an id ending in a version 7 UUID, in the zone created_at is written in;
+     * empty for ids made before (random UUIDs) or by hand
+     */
+    public static Optional<LocalDateTime> createdAt(String businessId) {
+        if (businessId == null || businessId.length() < UUID_LENGTH) {
+            return Optional.empty();
+        }
+        UUID uuid;
+        try {
+            uuid = UUID.fromString(businessId.substring(businessId.length() - UUID_LENGTH));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        if (uuid.version() != 7) {
+            return Optional.empty();
+        }
+        long epochMillis = uuid.getMostSignificantBits() >>> 16;
+        return Optional.of(LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault()));
+    }
+}
@@ -0,0 +1,308 @@
+package com.interview.gocomet.GoComet.DAW.profiling;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Event;
+import jdk.jfr.Name;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * In-process continuous profiling on JFR event streaming, no agent needed. Execution samples,
+ * allocation samples, this application's events and slow JDK waits are aggregated into a
+ * rolling window of fixed time slices for {@link #summary(int)}; the stream also keeps the
+ * raw events on disk, bounded by max-age and max-size, for {@link #dump(Path)}.
+ * <p>
+ * Samples carry at most 64 frames (-XX:FlightRecorderOptions:stackdepth raises it), so an
+ * application frame below a deep framework stack is not attributed.
+ */
+@Component
+@ConditionalOnProperty(name = "profiling.enabled", havingValue = "true")
+@Slf4j
+public class ContinuousProfiler {
+    
+    static final String EXECUTION_SAMPLE = "jdk.ExecutionSample";
+    static final String ALLOCATION_SAMPLE = "jdk.ObjectAllocationSample";
+    static final List<Class<? extends Event>> APPLICATION_EVENTS = List.of(RideCreatedEvent.class,
+        MatchAttemptEvent.class, ReservationConflictEvent.class, LocationFlushEvent.class, PaymentCallEvent.class);
+    /**
+     * Waits long enough to matter for tail latency; recorded above the slow-wait threshold only
+     */
+    static final List<String> SLOW_WAIT_EVENTS = List.of("jdk.JavaMonitorEnter", "jdk.ThreadPark",
+        "jdk.SocketRead", "jdk.SocketWrite", "jdk.VirtualThreadPinned");
+    static final String GC_PAUSE = "jdk.GCPhasePause";
+    
+    private final long sliceMillis;
+    private final Slice[] slices;
+    private final String appPackage;
+    private final RecordingStream stream = new RecordingStream();
+    
+    public ContinuousProfiler(@Value("${profiling.window:60s}") Duration window,
+                              @Value("${profiling.slice:10s}") Duration slice,
+                              @Value("${profiling.execution-sample-period:20ms}") Duration samplePeriod,
+                              @Value("${profiling.allocation-sample-throttle:150/s}") String allocationThrottle,
+                              @Value("${profiling.slow-wait-threshold:20ms}") Duration slowWaitThreshold,
+                              @Value("${profiling.max-age:5m}") Duration maxAge,
+                              @Value("${profiling.max-size:64MB}") DataSize maxSize,
+                              @Value("${profiling.app-package:com.interview.gocomet}") String appPackage) {
+        this.sliceMillis = slice.toMillis();
+        this.slices = new Slice[(int) Math.max(1, window.toMillis() / sliceMillis)];
+        for (int i = 0; i < slices.length; i++) {
+            slices[i] = new Slice();
+        }
+        this.appPackage = appPackage;
+        
+        stream.enable(EXECUTION_SAMPLE).withPeriod(samplePeriod);
+        stream.enable(ALLOCATION_SAMPLE).with("throttle", allocationThrottle);
+        stream.enable(GC_PAUSE);
+        SLOW_WAIT_EVENTS.forEach(name -> stream.enable(name).withThreshold(slowWaitThreshold).withStackTrace());
+        APPLICATION_EVENTS.forEach(type -> stream.enable(type).withoutThreshold());
+        stream.setMaxAge(maxAge);
+        stream.setMaxSize(maxSize.toBytes());
+        
+        stream.onEvent(EXECUTION_SAMPLE, this::onExecutionSample);
+        stream.onEvent(ALLOCATION_SAMPLE, this::onAllocationSample);
+        stream.onEvent(GC_PAUSE, this::onTimedEvent);
+        // Idle pool threads park for seconds at a time, so parks stay in the recording but out of the summary
+        SLOW_WAIT_EVENTS.stream()
+            .filter(name -> !name.equals("jdk.ThreadPark"))
+            .forEach(name -> stream.onEvent(name, this::onTimedEvent));
+        APPLICATION_EVENTS.forEach(type -> stream.onEvent(type.getAnnotation(Name.class).value(), this::onTimedEvent));
+    }
+    
+    @PostConstruct
+    public void start() {
+        stream.startAsync();
+        log.info("Continuous profiling on: {} slices of {} ms", slices.length, sliceMillis);
+    }
+    
+    @PreDestroy
+    public void stop() {
+        stream.close();
+    }
+    
+    private void onExecutionSample(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return;
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        String method = method(frames.get(0));
+        String appMethod = appMethod(frames);
+        synchronized (this) {
+            Slice slice = sliceAt(event.getEndTime());
+            if (slice != null) {
+                slice.executionSamples++;
+                add(slice.methods, method, 1);
+                if (appMethod != null) {
+                    add(slice.appMethods, appMethod, 1);
+                }
+            }
+        }
+    }
+    
+    private void onAllocationSample(RecordedEvent event) {
+        // Weight: bytes the thread allocated since its previous sample, attributed to this one
+        long bytes = event.getLong("weight");
+        String type = event.getClass("objectClass").getName();
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        String method = stackTrace == null || stackTrace.getFrames().isEmpty() ? null : method(stackTrace.getFrames().get(0));
+        String appMethod = stackTrace == null ? null : appMethod(stackTrace.getFrames());
+        synchronized (this) {
+            Slice slice = sliceAt(event.getEndTime());
+            if (slice != null) {
+                slice.allocatedBytes += bytes;
+                add(slice.allocationByType, type, bytes);
+                if (method != null) {
+                    add(slice.allocationByMethod, method, bytes);
+                }
+                if (appMethod != null) {
+                    add(slice.allocationByAppMethod, appMethod, bytes);
+                }
+            }
+        }
+    }
+    
+    private void onTimedEvent(RecordedEvent event) {
+        String name = event.getEventType().getName();
+        name = name.substring(name.lastIndexOf('.') + 1);
+        // Split by outcome so e.g. matches that found nobody do not hide slow successful ones
+        if (event.hasField("outcome") && event.getString("outcome") != null) {
+            name += "[" + event.getString("outcome") + "]";
+        } else if (event.hasField("reason") && event.getString("reason") != null) {
+            name += "[" + event.getString("reason") + "]";
+        }
+        long nanos = event.getDuration().toNanos();
+        synchronized (this) {
+            Slice slice = sliceAt(event.getEndTime());
+            if (slice != null) {
+                long[] stats = slice.events.computeIfAbsent(name, key -> new long[3]);
+                stats[0]++;
+                stats[1] += nanos;
+                stats[2] = Math.max(stats[2], nanos);
+            }
+        }
+    }
+    
+    /**
+     * The slice for this time, reset if it last held an older one; null if the time is
+     * older than what the slice now holds
+     */
+    private Slice sliceAt(Instant time) {
+        long id = time.toEpochMilli() / sliceMillis;
+        Slice slice = slices[(int) (id % slices.length)];
+        if (slice.id > id) {
+            return null;
+        }
+        if (slice.id < id) {
+            slice.reset(id);
+        }
+        return slice;
+    }
+    
+    private String appMethod(List<RecordedFrame> frames) {
+        for (RecordedFrame frame : frames) {
+            String type = frame.isJavaFrame() ? frame.getMethod().getType().getName() : "";
+            // Skip Spring's generated proxies: the frame below them is the method that does the work
+            if (type.startsWith(appPackage) && !type.contains("$$")) {
+                return method(frame);
+            }
+        }
+        return null;
+    }
+    
+    private static String method(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+    }
+    
+    private static void add(Map<String, long[]> totals, String key, long amount) {
+        totals.computeIfAbsent(key, k -> new long[1])[0] += amount;
+    }
+    
+    /**
+     * Hot methods (on-CPU samples by top frame, and by innermost application frame), allocation
+     * by type and by allocating method, and count/mean/max of the timed events, over the window
+     */
+    public synchronized Map<String, Object> summary(int top) {
+        long current = System.currentTimeMillis() / sliceMillis;
+        long samples = 0;
+        long allocated = 0;
+        int covered = 0;
+        Map<String, long[]> methods = new HashMap<>();
+        Map<String, long[]> appMethods = new HashMap<>();
+        Map<String, long[]> allocationByType = new HashMap<>();
+        Map<String, long[]> allocationByMethod = new HashMap<>();
+        Map<String, long[]> allocationByAppMethod = new HashMap<>();
+        Map<String, long[]> events = new TreeMap<>();
+        for (Slice slice : slices) {
+            if (slice.id <= current - slices.length) {
+                continue;
+            }
+            covered++;
+            samples += slice.executionSamples;
+            allocated += slice.allocatedBytes;
+            merge(methods, slice.methods);
+            merge(appMethods, slice.appMethods);
+            merge(allocationByType, slice.allocationByType);
+            merge(allocationByMethod, slice.allocationByMethod);
+            merge(allocationByAppMethod, slice.allocationByAppMethod);
+            slice.events.forEach((name, stats) -> {
+                long[] total = events.computeIfAbsent(name, key -> new long[3]);
+                total[0] += stats[0];
+                total[1] += stats[1];
+                total[2] = Math.max(total[2], stats[2]);
+            });
+        }
+        
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("windowSeconds", covered * sliceMillis / 1000.0);
+        summary.put("executionSamples", samples);
+        summary.put("hotMethods", top(methods, samples, top, "samples"));
+        summary.put("hotAppMethods", top(appMethods, samples, top, "samples"));
+        Map<String, Object> allocation = new LinkedHashMap<>();
+        allocation.put("estimatedBytes", allocated);
+        allocation.put("byType", top(allocationByType, allocated, top, "bytes"));
+        allocation.put("byMethod", top(allocationByMethod, allocated, top, "bytes"));
+        allocation.put("byAppMethod", top(allocationByAppMethod, allocated, top, "bytes"));
+        summary.put("allocation", allocation);
+        Map<String, Object> timed = new LinkedHashMap<>();
+        events.forEach((name, stats) -> {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("count", stats[0]);
+            json.put("meanMs", stats[1] / 1e6 / stats[0]);
+            json.put("maxMs", stats[2] / 1e6);
+            json.put("totalMs", stats[1] / 1e6);
+            timed.put(name, json);
+        });
+        summary.put("events", timed);
+        return summary;
+    }
+    
+    private static void merge(Map<String, long[]> into, Map<String, long[]> from) {
+        from.forEach((key, value) -> add(into, key, value[0]));
+    }
+    
+    private static List<Map<String, Object>> top(Map<String, long[]> totals, long all, int limit, String unit) {
+        List<Map<String, Object>> entries = new ArrayList<>();
+        totals.entrySet().stream()
+            .sorted((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]))
+            .limit(limit)
+            .forEach(entry -> {
+                Map<String, Object> json = new LinkedHashMap<>();
+                json.put("name", entry.getKey());
+                json.put(unit, entry.getValue()[0]);
+                json.put("percent", all == 0 ? 0.0 : Math.round(entry.getValue()[0] * 1000.0 / all) / 10.0);
+                entries.add(json);
+            });
+        return entries;
+    }
+    
+    /**
+     * Write what the stream still holds (the last max-age, at most max-size) as a .jfr file
+     */
+    public void dump(Path file) throws IOException {
+        stream.dump(file);
+    }
+    
+    private static final class Slice {
+        long id = -1;
+        long executionSamples;
+        long allocatedBytes;
+        final Map<String, long[]> methods = new HashMap<>();
+        final Map<String, long[]> appMethods = new HashMap<>();
+        final Map<String, long[]> allocationByType = new HashMap<>();
+        final Map<String, long[]> allocationByMethod = new HashMap<>();
+        final Map<String, long[]> allocationByAppMethod = new HashMap<>();
+        final Map<String, long[]> events = new HashMap<>();
+        
+        void reset(long id) {
+            this.id = id;
+            executionSamples = 0;
+            allocatedBytes = 0;
+            methods.clear();
+            appMethods.clear();
+            allocationByType.clear();
+            allocationByMethod.clear();
+            allocationByAppMethod.clear();
+            events.clear();
+        }
+    }
+}
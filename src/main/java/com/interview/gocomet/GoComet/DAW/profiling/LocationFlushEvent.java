@@ -0,0 +1,37 @@
+package com.interview.gocomet.GoComet.DAW.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import lombok.Setter;
+
+/**
+ * Writing driver locations, to Redis and then to the database on commit
+ */
+@Name("com.interview.gocomet.LocationFlush")
+@Label("Location Flush")
+@Category({"GoComet", "Drivers"})
+@Description("Applying location pings up to the commit that flushes them")
+@StackTrace(false)
+@Setter
+public class LocationFlushEvent extends Event {
+    
+    @Label("Driver ID")
+    @Description("Set for a single ping, empty for a batch")
+    private String driverId;
+    
+    @Label("Drivers")
+    private int drivers;
+    
+    @Label("Unknown Drivers")
+    private int unknown;
+    
+    @Label("Redis Written")
+    private boolean redisWritten;
+    
+    @Label("Committed")
+    private boolean committed;
+}
@@ -0,0 +1,39 @@
+package com.interview.gocomet.GoComet.DAW.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import lombok.Setter;
+
+/**
+ * One DriverMatchingService.matchDriver call
+ */
+@Name("com.interview.gocomet.MatchAttempt")
+@Label("Match Attempt")
+@Category({"GoComet", "Matching"})
+@Description("Finding and reserving a driver for a pickup")
+@StackTrace(false)
+@Setter
+public class MatchAttemptEvent extends Event {
+    
+    @Label("Pickup Latitude")
+    private double latitude;
+    
+    @Label("Pickup Longitude")
+    private double longitude;
+    
+    @Label("Candidates")
+    private int candidates;
+    
+    @Label("Reservation Attempts")
+    private int attempts;
+    
+    @Label("Outcome")
+    private String outcome;
+    
+    @Label("Driver ID")
+    private String driverId;
+}
@@ -0,0 +1,34 @@
+package com.interview.gocomet.GoComet.DAW.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import lombok.Setter;
+
+/**
+ * One PSP attempt, from submission to the bulkhead until its outcome is known
+ */
+@Name("com.interview.gocomet.PaymentCall")
+@Label("Payment Call")
+@Category({"GoComet", "Payments"})
+@Description("A payment service provider attempt, bulkhead queueing included")
+@StackTrace(false)
+@Setter
+public class PaymentCallEvent extends Event {
+    
+    @Label("Payment ID")
+    private String paymentId;
+    
+    @Label("Attempt")
+    private int attempt;
+    
+    @Label("Outcome")
+    @Description("charged, declined, timeout, circuit_open, bulkhead_full, failed or nothing_to_charge")
+    private String outcome;
+    
+    @Label("PSP Transaction ID")
+    private String pspTransactionId;
+}
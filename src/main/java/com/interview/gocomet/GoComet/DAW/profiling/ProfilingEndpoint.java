@@ -0,0 +1,90 @@
+package com.interview.gocomet.GoComet.DAW.profiling;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+/**
+ * Actuator endpoint over {@link ContinuousProfiler}, so profiles are served on the management
+ * port (management.server.port) rather than next to the public API, and only once "profiling"
+ * is added to management.endpoints.web.exposure.include.
+ * <ul>
+ *   <li>GET /actuator/profiling?top=20: hot methods, allocation hot spots and event timings over the window</li>
+ *   <li>GET /actuator/profiling/recording: the recent recording as a .jfr file</li>
+ * </ul>
+ */
+@Component
+@WebEndpoint(id = "profiling")
+@ConditionalOnProperty(name = "profiling.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class ProfilingEndpoint {
+    
+    private final ContinuousProfiler continuousProfiler;
+    
+    @ReadOperation
+    public Map<String, Object> summary(@Nullable Integer top) {
+        return continuousProfiler.summary(Math.max(1, Math.min(top != null ? top : 20, 200)));
+    }
+    
+    /**
+     * The last profiling.max-age, at most profiling.max-size, for JDK Mission Control or `jfr print`
+     */
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> recording(@Selector String name) {
+        if (!"recording".equals(name)) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        Path file = null;
+        try {
+            file = Files.createTempFile("gocomet-", ".jfr");
+            continuousProfiler.dump(file);
+            return new WebEndpointResponse<>(new DeleteOnCloseResource(file));
+        } catch (IOException | RuntimeException e) {
+            log.error("Error dumping recording: {}", e.getMessage(), e);
+            deleteQuietly(file);
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_INTERNAL_SERVER_ERROR);
+        }
+    }
+    
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}: {}", file, e.getMessage());
+        }
+    }
+    
+    /**
+     * The temp file goes away once the response has been written from it
+     */
+    static final class DeleteOnCloseResource extends FileSystemResource {
+        
+        DeleteOnCloseResource(Path file) {
+            super(file);
+        }
+        
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return Files.newInputStream(getFile().toPath(), StandardOpenOption.DELETE_ON_CLOSE);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.interview.gocomet.GoComet.DAW.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import lombok.Setter;
+
+/**
+ * A reservation attempt that did not get its driver
+ */
+@Name("com.interview.gocomet.ReservationConflict")
+@Label("Reservation Conflict")
+@Category({"GoComet", "Matching"})
+@Description("A driver picked for a ride was taken by another match, or reserving it failed")
+@StackTrace(false)
+@Setter
+public class ReservationConflictEvent extends Event {
+    
+    @Label("Driver ID")
+    private String driverId;
+    
+    @Label("Reason")
+    @Description("taken or failed")
+    private String reason;
+    
+    @Label("Error")
+    private String error;
+}
@@ -0,0 +1,37 @@
+package com.interview.gocomet.GoComet.DAW.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import lombok.Setter;
+
+/**
+ * RideService.createRide, matching and the commit included
+ */
+@Name("com.interview.gocomet.RideCreated")
+@Label("Ride Created")
+@Category({"GoComet", "Rides"})
+@Description("Creating a ride, including the driver match and the commit")
+@StackTrace(false)
+@Setter
+public class RideCreatedEvent extends Event {
+    
+    @Label("Ride ID")
+    private String rideId;
+    
+    @Label("Rider ID")
+    private String riderId;
+    
+    @Label("Status")
+    private String status;
+    
+    @Label("Idempotent Replay")
+    @Description("An existing ride was returned for a repeated idempotency key")
+    private boolean idempotentReplay;
+    
+    @Label("Committed")
+    private boolean committed;
+}
@@ -0,0 +1,37 @@
+package com.interview.gocomet.GoComet.DAW.profiling;
+
+import jdk.jfr.Event;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Ends JFR events with the transaction they were begun in, so their duration covers the
+ * Hibernate flush and the commit, which is where batched writes actually reach the database
+ */
+public final class TransactionEvents {
+    
+    private TransactionEvents() {
+    }
+    
+    /**
+     * Commit the event when the current transaction completes, or right away outside one
+     *
+     * @param committed told whether the transaction committed before the event is written
+     */
+    public static <E extends Event> void commitAfterCompletion(E event, BiConsumer<E, Boolean> committed) {
+        if (!event.isEnabled() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            committed.accept(event, true);
+            event.commit();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                committed.accept(event, status == STATUS_COMMITTED);
+                event.commit();
+            }
+        });
+    }
+}
@@ -0,0 +1,9 @@
+package com.interview.gocomet.GoComet.DAW.repository;
+
+import com.interview.gocomet.GoComet.DAW.model.DriverBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DriverBalanceRepository extends JpaRepository<DriverBalance, Long> {
+}
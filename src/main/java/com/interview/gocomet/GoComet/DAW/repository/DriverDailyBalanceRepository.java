@@ -0,0 +1,20 @@
+package com.interview.gocomet.GoComet.DAW.repository;
+
+import com.interview.gocomet.GoComet.DAW.model.DriverDailyBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DriverDailyBalanceRepository extends JpaRepository<DriverDailyBalance, Long> {
+    Optional<DriverDailyBalance> findByDriverIdAndBusinessDate(Long driverId, LocalDate businessDate);
+    
+    /**
+     * Every row for any of the drivers on any of the dates, in one query; callers pick the pairs they need
+     */
+    List<DriverDailyBalance> findByDriverIdInAndBusinessDateIn(Collection<Long> driverIds, Collection<LocalDate> businessDates);
+}
@@ -0,0 +1,107 @@
+package com.interview.gocomet.GoComet.DAW.repository;
+
+import com.interview.gocomet.GoComet.DAW.sharding.ScatterGather;
+import com.interview.gocomet.GoComet.DAW.sharding.ShardContext;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * PostGIS index behind nearby-driver search on PostgreSQL.
+ * Every region's drivers table gets a geography point generated from latitude/longitude, so
+ * each location update keeps it current without the entity knowing about it, and a GiST index
+ * over available drivers only. Until that is in place everywhere, or on any other database,
+ * DriverMatchingService keeps using the portable bounding-box query.
+ */
+@Component
+@Slf4j
+public class DriverLocationIndex {
+    
+    public static final String INDEX_NAME = "idx_driver_location_gist";
+    
+    static final String[] DDL = {
+        "ALTER TABLE drivers ADD COLUMN IF NOT EXISTS location geography(Point, 4326) "
+            + "GENERATED ALWAYS AS (CAST(ST_SetSRID(ST_MakePoint(longitude, latitude), 4326) AS geography)) STORED",
+        "CREATE INDEX IF NOT EXISTS " + INDEX_NAME + " ON drivers USING gist (location) WHERE status = 'AVAILABLE'"
+    };
+    
+    private final DataSource dataSource;
+    private final ScatterGather scatterGather;
+    private final boolean postgres;
+    private final boolean enabled;
+    
+    private volatile boolean available;
+    
+    public DriverLocationIndex(
+            DataSource dataSource,
+            EntityManagerFactory entityManagerFactory,
+            ScatterGather scatterGather,
+            @Value("${spatial.postgis.enabled:true}") boolean enabled) {
+        this.dataSource = dataSource;
+        this.scatterGather = scatterGather;
+        this.postgres = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+        this.enabled = enabled;
+    }
+    
+    /**
+     * Runs once every region has its schema (Hibernate's DDL would otherwise drop or miss the column)
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void initialize() {
+        if (available || !enabled || !postgres) {
+            return;
+        }
+        try {
+            scatterGather.forEachRegion(() -> {
+                try (Connection connection = dataSource.getConnection()) {
+                    apply(connection);
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Could not create the PostGIS driver index in region "
+                        + ShardContext.current().code(), e);
+                }
+            });
+            available = true;
+            log.info("Nearby-driver search uses the PostGIS index {}", INDEX_NAME);
+        } catch (IllegalStateException e) {
+            log.warn("Nearby-driver search stays on the bounding-box query: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Install PostGIS if needed and add the generated column and partial index; all idempotent
+     */
+    public static void apply(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            boolean installed;
+            try (ResultSet rs = statement.executeQuery("SELECT 1 FROM pg_extension WHERE extname = 'postgis'")) {
+                installed = rs.next();
+            }
+            if (!installed) {
+                // Needs a role allowed to create extensions; otherwise install it once by hand
+                statement.execute("CREATE EXTENSION IF NOT EXISTS postgis");
+            }
+            for (String ddl : DDL) {
+                statement.execute(ddl);
+            }
+        }
+    }
+    
+    /**
+     * Whether DriverRepository.findNearestAvailableDrivers can be used
+     */
+    public boolean isAvailable() {
+        return available;
+    }
+}
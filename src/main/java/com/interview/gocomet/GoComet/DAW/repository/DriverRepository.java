@@ -3,19 +3,44 @@ package com.interview.gocomet.GoComet.DAW.repository;
 import com.interview.gocomet.GoComet.DAW.model.Driver;
 import com.interview.gocomet.GoComet.DAW.model.DriverStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface DriverRepository extends JpaRepository<Driver, Long> {
+    
+    // PostgreSQL + PostGIS only (see DriverLocationIndex): radius filter and nearest-first
+    // ordering both walk the partial GiST index on available drivers
+    String NEAREST_AVAILABLE_KNN = "SELECT * FROM drivers d " +
+           "WHERE d.status = 'AVAILABLE' " +
+           "AND ST_DWithin(d.location, CAST(ST_SetSRID(ST_MakePoint(:lng, :lat), 4326) AS geography), :radiusMeters) " +
+           "ORDER BY d.location <-> CAST(ST_SetSRID(ST_MakePoint(:lng, :lat), 4326) AS geography) " +
+           "LIMIT :limit";
+    
     Optional<Driver> findByDriverId(String driverId);
     
     List<Driver> findByStatus(DriverStatus status);
     
+    List<Driver> findByDriverIdIn(Collection<String> driverIds);
+    
+    /**
+     * Move the driver to status if it is still in expected: 1 if this caller won it, 0 if another
+     * transaction got there first (the row lock makes a concurrent caller wait and re-check).
+     * Bumps the version as an entity update would, so older copies of the driver stay stale.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Driver d SET d.status = :status, d.version = COALESCE(d.version, 0) + 1, d.updatedAt = :now "
+        + "WHERE d.id = :id AND d.status = :expected")
+    int compareAndSetStatus(@Param("id") Long id, @Param("expected") DriverStatus expected,
+                            @Param("status") DriverStatus status, @Param("now") LocalDateTime now);
+    
     @Query(value = "SELECT * FROM drivers d " +
            "WHERE d.status = 'AVAILABLE' " +
            "AND d.latitude BETWEEN :minLat AND :maxLat " +
@@ -34,5 +59,13 @@ public interface DriverRepository extends JpaRepository<Driver, Long> {
         @Param("maxLng") Double maxLng,
         @Param("limit") Integer limit
     );
+    
+    @Query(value = NEAREST_AVAILABLE_KNN, nativeQuery = true)
+    List<Driver> findNearestAvailableDrivers(
+        @Param("lat") Double latitude,
+        @Param("lng") Double longitude,
+        @Param("radiusMeters") Double radiusMeters,
+        @Param("limit") Integer limit
+    );
 }
 
@@ -0,0 +1,70 @@
+package com.interview.gocomet.GoComet.DAW.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Reads a long, ordered result page by page for callers that write rows out as they go (streamed
+ * list endpoints). Each page is one short read-only transaction with a timeout, and the next page
+ * starts after the last row of the previous one (keyset paging, no OFFSET). The rows are handed
+ * on between pages, so a slow client holds neither a connection nor a transaction, and memory
+ * stays at one page however many rows there are. Rows committed behind the key while paging are
+ * not seen; no row is returned twice.
+ */
+@Component
+public class KeysetPager {
+    
+    /**
+     * Reads up to limit rows after the given row, in the order the keyset follows
+     */
+    @FunctionalInterface
+    public interface PageQuery<E> {
+        
+        /**
+         * @param after the last row of the previous page, null for the first page
+         */
+        List<E> next(E after, Limit limit);
+    }
+    
+    private final TransactionTemplate readOnly;
+    private final int pageSize;
+    
+    public KeysetPager(PlatformTransactionManager transactionManager,
+                       @Value("${streaming.page-size:256}") int pageSize,
+                       @Value("${streaming.page-timeout-seconds:10}") int pageTimeoutSeconds) {
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.readOnly.setTimeout(pageTimeoutSeconds);
+        this.pageSize = Math.max(1, pageSize);
+    }
+    
+    /**
+     * Hand every row to the sink, converted by mapper inside the page's transaction
+     */
+    public <E, R> void forEach(PageQuery<E> query, Function<? super E, ? extends R> mapper, Consumer<? super R> sink) {
+        E after = null;
+        while (true) {
+            E last = after;
+            Page<E, R> page = readOnly.execute(status -> {
+                List<E> rows = query.next(last, Limit.of(pageSize));
+                return new Page<E, R>(rows.isEmpty() ? null : rows.get(rows.size() - 1),
+                    rows.stream().<R>map(mapper).toList());
+            });
+            page.rows().forEach(sink);
+            if (page.rows().size() < pageSize) {
+                return;
+            }
+            after = page.last();
+        }
+    }
+    
+    private record Page<E, R>(E last, List<R> rows) {
+    }
+}
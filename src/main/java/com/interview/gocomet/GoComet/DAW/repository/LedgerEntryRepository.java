@@ -0,0 +1,34 @@
+package com.interview.gocomet.GoComet.DAW.repository;
+
+import com.interview.gocomet.GoComet.DAW.model.LedgerEntry;
+import com.interview.gocomet.GoComet.DAW.model.LedgerEntryType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+    
+    List<LedgerEntry> findByTransactionId(String transactionId);
+    
+    @Query("SELECT DISTINCT e.transactionId FROM LedgerEntry e WHERE e.transactionId IN :transactionIds")
+    List<String> findExistingTransactionIds(@Param("transactionIds") Collection<String> transactionIds);
+    
+    /**
+     * Rows of [driverId, sum(amountMinor), count] for rebuilding lifetime balances
+     */
+    @Query("SELECT e.driverId, SUM(e.amountMinor), COUNT(e) FROM LedgerEntry e " +
+           "WHERE e.entryType = :entryType GROUP BY e.driverId")
+    List<Object[]> sumByDriver(@Param("entryType") LedgerEntryType entryType);
+    
+    /**
+     * Rows of [driverId, businessDate, sum(amountMinor), count] for rebuilding daily balances
+     */
+    @Query("SELECT e.driverId, e.businessDate, SUM(e.amountMinor), COUNT(e) FROM LedgerEntry e " +
+           "WHERE e.entryType = :entryType GROUP BY e.driverId, e.businessDate")
+    List<Object[]> sumByDriverAndDay(@Param("entryType") LedgerEntryType entryType);
+}
@@ -2,9 +2,14 @@ package com.interview.gocomet.GoComet.DAW.repository;
 
 import com.interview.gocomet.GoComet.DAW.model.Payment;
 import com.interview.gocomet.GoComet.DAW.model.PaymentStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,5 +22,17 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     List<Payment> findByRiderId(String riderId);
     
     List<Payment> findByStatus(PaymentStatus status);
+    
+    List<Payment> findTop100ByStatusInAndUpdatedAtBefore(Collection<PaymentStatus> statuses, LocalDateTime before);
+    
+    /**
+     * Payments in the given status, completed in [after, before), that have no ledger lines yet
+     */
+    @Query("SELECT p FROM Payment p WHERE p.status = :status AND p.completedAt >= :after AND p.completedAt < :before "
+        + "AND NOT EXISTS (SELECT e.id FROM LedgerEntry e WHERE e.transactionId = p.paymentId) ORDER BY p.completedAt")
+    List<Payment> findCompletedWithoutLedgerEntries(@Param("status") PaymentStatus status,
+                                                    @Param("after") LocalDateTime after,
+                                                    @Param("before") LocalDateTime before,
+                                                    Pageable pageable);
 }
 
@@ -2,15 +2,46 @@ package com.interview.gocomet.GoComet.DAW.repository;
 
 import com.interview.gocomet.GoComet.DAW.model.Ride;
 import com.interview.gocomet.GoComet.DAW.model.RideStatus;
+import com.interview.gocomet.GoComet.DAW.partitioning.PartitionedTable;
+import com.interview.gocomet.GoComet.DAW.partitioning.TimeOrderedIds;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RideRepository extends JpaRepository<Ride, Long> {
-    Optional<Ride> findByRideId(String rideId);
+    
+    /**
+     * Bounded by the creation time a time-ordered ride id carries, so a partitioned rides table
+     * is read in the partitions around it; older ids read every partition
+     */
+    default Optional<Ride> findByRideId(String rideId) {
+        return TimeOrderedIds.createdAt(rideId)
+            .map(createdAt -> findByRideIdAndCreatedAtBetween(rideId,
+                createdAt.minus(PartitionedTable.ID_TIME_SLACK), createdAt.plus(PartitionedTable.ID_TIME_SLACK)))
+            .orElseGet(() -> findAnyByRideId(rideId));
+    }
+    
+    /**
+     * findById over the recent partitions first, then all of them
+     */
+    default Optional<Ride> findRecentById(Long id) {
+        return findByIdAndCreatedAtAfter(id, LocalDateTime.now().minus(PartitionedTable.RECENT))
+            .or(() -> findById(id));
+    }
+    
+    Optional<Ride> findByRideIdAndCreatedAtBetween(String rideId, LocalDateTime from, LocalDateTime to);
+    
+    Optional<Ride> findAnyByRideId(String rideId);
+    
+    Optional<Ride> findByIdAndCreatedAtAfter(Long id, LocalDateTime after);
     
     List<Ride> findByRiderId(String riderId);
     
@@ -18,6 +49,19 @@ public interface RideRepository extends JpaRepository<Ride, Long> {
     
     List<Ride> findByStatus(RideStatus status);
     
+    List<Ride> findByStatusNotIn(Collection<RideStatus> statuses);
+    
+    // Keyset pages for KeysetPager
+    List<Ride> findByStatusNotInAndIdGreaterThanOrderByIdAsc(Collection<RideStatus> statuses, Long afterId, Limit limit);
+    
+    List<Ride> findByRiderIdOrderByCreatedAtDescIdDesc(String riderId, Limit limit);
+    
+    @Query("SELECT r FROM Ride r WHERE r.riderId = :riderId "
+           + "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) "
+           + "ORDER BY r.createdAt DESC, r.id DESC")
+    List<Ride> findByRiderIdBefore(@Param("riderId") String riderId, @Param("createdAt") LocalDateTime createdAt,
+                                   @Param("id") Long id, Limit limit);
+    
     Optional<Ride> findByIdempotencyKey(String idempotencyKey);
 }
 
@@ -2,20 +2,50 @@ package com.interview.gocomet.GoComet.DAW.repository;
 
 import com.interview.gocomet.GoComet.DAW.model.Trip;
 import com.interview.gocomet.GoComet.DAW.model.TripStatus;
+import com.interview.gocomet.GoComet.DAW.partitioning.PartitionedTable;
+import com.interview.gocomet.GoComet.DAW.partitioning.TimeOrderedIds;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TripRepository extends JpaRepository<Trip, Long> {
-    Optional<Trip> findByTripId(String tripId);
+    
+    /**
+     * Bounded by the creation time a time-ordered trip id carries, as RideRepository.findByRideId
+     */
+    default Optional<Trip> findByTripId(String tripId) {
+        return TimeOrderedIds.createdAt(tripId)
+            .map(createdAt -> findByTripIdAndCreatedAtBetween(tripId,
+                createdAt.minus(PartitionedTable.ID_TIME_SLACK), createdAt.plus(PartitionedTable.ID_TIME_SLACK)))
+            .orElseGet(() -> findAnyByTripId(tripId));
+    }
+    
+    /**
+     * findById over the recent partitions first, then all of them
+     */
+    default Optional<Trip> findRecentById(Long id) {
+        return findByIdAndCreatedAtAfter(id, LocalDateTime.now().minus(PartitionedTable.RECENT))
+            .or(() -> findById(id));
+    }
+    
+    Optional<Trip> findByTripIdAndCreatedAtBetween(String tripId, LocalDateTime from, LocalDateTime to);
+    
+    Optional<Trip> findAnyByTripId(String tripId);
+    
+    Optional<Trip> findByIdAndCreatedAtAfter(Long id, LocalDateTime after);
     
     List<Trip> findByRideId(Long rideId);
     
     List<Trip> findByDriverId(Long driverId);
     
     List<Trip> findByStatus(TripStatus status);
+    
+    // Keyset pages for KeysetPager
+    List<Trip> findByDriverIdAndIdLessThanOrderByIdDesc(Long driverId, Long beforeId, Limit limit);
 }
 
@@ -0,0 +1,200 @@
+package com.interview.gocomet.GoComet.DAW.resilience;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Concurrency limit that adapts to observed latency, after the gradient algorithm of
+ * Netflix concurrency-limits. Latencies are averaged per window (short RTT) and folded into a
+ * slow moving baseline (long RTT). While short RTT stays within tolerance x long RTT the limit
+ * grows by about sqrt(limit) per window; once requests start queueing behind a saturated
+ * resource (DB pool, CPU) the gradient long/short drops below 1 and the limit shrinks with it.
+ * <p>
+ * The gradient is also exposed as a health signal, so lower-priority traffic can give way
+ * as soon as higher-priority traffic starts to slow down.
+ * <p>
+ * Releases never take a lock: a sample is added to the current window's striped counters, and
+ * the one release that finds the window due swaps in a fresh window by CAS and recomputes the
+ * limit from the retired one. A sample that races the swap can land in the retired window after
+ * it was read and is dropped; one sample more or less does not move a window's average.
+ */
+public class AdaptiveConcurrencyLimiter {
+    
+    private static final double SMOOTHING = 0.2;
+    private static final double LONG_RTT_ALPHA = 0.05;
+    
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final long windowNanos;
+    private final int minWindowSamples;
+    private final LongSupplier nanoClock;
+    
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final AtomicReference<Window> window;
+    private final AtomicBoolean recomputing = new AtomicBoolean();
+    private volatile int limit;
+    private volatile double gradient = 1.0;
+    
+    // Written only while holding recomputing
+    private double estimatedLimit;
+    private volatile double longRttNanos;
+    private volatile double shortRttNanos;
+    
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                                      double rttTolerance, long windowNanos, int minWindowSamples) {
+        this(name, initialLimit, minLimit, maxLimit, rttTolerance, windowNanos, minWindowSamples, System::nanoTime);
+    }
+    
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                                      double rttTolerance, long windowNanos, int minWindowSamples,
+                                      LongSupplier nanoClock) {
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.windowNanos = windowNanos;
+        this.minWindowSamples = minWindowSamples;
+        this.nanoClock = nanoClock;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+        this.window = new AtomicReference<>(new Window(nanoClock.getAsLong()));
+    }
+    
+    /**
+     * Take a slot if fewer than limit x limitScale requests are in flight.
+     * Returns the start timestamp to pass to {@link #release(long)}, or -1 when rejected.
+     */
+    public long tryAcquire(double limitScale) {
+        int effectiveLimit = Math.max(1, (int) (limit * limitScale));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= effectiveLimit) {
+                rejected.increment();
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                admitted.increment();
+                return nanoClock.getAsLong();
+            }
+        }
+    }
+    
+    public void release(long startNanos) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        long now = nanoClock.getAsLong();
+        onSample(now, now - startNanos, inFlightAtCompletion);
+    }
+    
+    private void onSample(long now, long rttNanos, int inFlightAtCompletion) {
+        Window current = window.get();
+        current.record(rttNanos, inFlightAtCompletion);
+        if (now - current.startNanos < windowNanos || current.samples.sum() < minWindowSamples) {
+            return;
+        }
+        // One release retires the window; the others carry on instead of waiting for it
+        if (!recomputing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            if (window.compareAndSet(current, new Window(now))) {
+                recompute(current);
+            }
+        } finally {
+            recomputing.set(false);
+        }
+    }
+    
+    private void recompute(Window retired) {
+        long samples = retired.samples.sum();
+        double shortRtt = (double) retired.rttSumNanos.sum() / samples;
+        long maxInFlight = retired.maxInFlight.get();
+        shortRttNanos = shortRtt;
+        
+        double longRtt = longRttNanos == 0 ? shortRtt : longRttNanos + (shortRtt - longRttNanos) * LONG_RTT_ALPHA;
+        // Latency fell well below the baseline (load went away): let the baseline catch up faster
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+        longRttNanos = longRtt;
+        
+        gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRtt / shortRtt));
+        if (gradient >= 1.0 && maxInFlight < estimatedLimit / 2) {
+            // Traffic never came close to the limit, so this window says nothing about a higher one
+            return;
+        }
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        newLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public int getLimit() {
+        return limit;
+    }
+    
+    public int getInFlight() {
+        return inFlight.get();
+    }
+    
+    /**
+     * long RTT / short RTT within tolerance, between 0.5 (heavily queued) and 1.0 (healthy)
+     */
+    public double getGradient() {
+        return gradient;
+    }
+    
+    public long getAdmittedCount() {
+        return admitted.sum();
+    }
+    
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+    
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("limit", limit);
+        stats.put("inFlight", inFlight.get());
+        stats.put("gradient", gradient);
+        stats.put("shortRttMs", shortRttNanos / 1_000_000);
+        stats.put("longRttMs", longRttNanos / 1_000_000);
+        stats.put("admitted", admitted.sum());
+        stats.put("rejected", rejected.sum());
+        return stats;
+    }
+    
+    /**
+     * Samples of one window, striped so concurrent releases do not contend on a single counter
+     */
+    private static final class Window {
+        
+        private final long startNanos;
+        private final LongAdder rttSumNanos = new LongAdder();
+        private final LongAdder samples = new LongAdder();
+        private final LongAccumulator maxInFlight = new LongAccumulator(Math::max, 0);
+        
+        private Window(long startNanos) {
+            this.startNanos = startNanos;
+        }
+        
+        private void record(long rttNanos, int inFlightAtCompletion) {
+            rttSumNanos.add(rttNanos);
+            samples.increment();
+            maxInFlight.accumulate(inFlightAtCompletion);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.interview.gocomet.GoComet.DAW.resilience;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interview.gocomet.GoComet.DAW.config.AdmissionProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Adaptive admission control in front of the write endpoints. Each endpoint class from
+ * admission.classes has its own {@link AdaptiveConcurrencyLimiter}; requests over the limit are
+ * shed with 503 and Retry-After before the body is even read.
+ * A class's limit is multiplied by the lowest gradient of all more important classes, so when
+ * driver location updates start queueing, ride creation backs off first.
+ */
+@Component
+@ConditionalOnProperty(name = "admission.enabled", havingValue = "true", matchIfMissing = true)
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@Slf4j
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    
+    private final ObjectMapper objectMapper;
+    private final int retryAfterSeconds;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<EndpointClass> endpointClasses = new ArrayList<>();
+    
+    public AdmissionControlFilter(AdmissionProperties properties, ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.retryAfterSeconds = properties.getRetryAfterSeconds();
+        properties.getClasses().forEach((name, spec) -> {
+            AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(name,
+                spec.getInitialLimit(), spec.getMinLimit(), spec.getMaxLimit(), properties.getRttTolerance(),
+                properties.getWindow().toNanos(), properties.getMinWindowSamples());
+            List<String[]> endpoints = spec.getEndpoints().stream()
+                .map(endpoint -> endpoint.trim().split("\\s+", 2))
+                .toList();
+            endpointClasses.add(new EndpointClass(name, spec.getPriority(), endpoints, limiter));
+        });
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        EndpointClass endpointClass = classify(request);
+        if (endpointClass == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        
+        long start = endpointClass.limiter().tryAcquire(limitScale(endpointClass));
+        if (start < 0) {
+            shed(response, endpointClass);
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            endpointClass.limiter().release(start);
+        }
+    }
+    
+    private EndpointClass classify(HttpServletRequest request) {
+        String method = request.getMethod();
+        String path = request.getRequestURI();
+        for (EndpointClass endpointClass : endpointClasses) {
+            for (String[] endpoint : endpointClass.endpoints()) {
+                if (endpoint[0].equalsIgnoreCase(method) && pathMatcher.match(endpoint[1], path)) {
+                    return endpointClass;
+                }
+            }
+        }
+        return null;
+    }
+    
+    private double limitScale(EndpointClass endpointClass) {
+        double scale = 1.0;
+        for (EndpointClass other : endpointClasses) {
+            if (other.priority() < endpointClass.priority()) {
+                scale = Math.min(scale, other.limiter().getGradient());
+            }
+        }
+        return scale;
+    }
+    
+    private void shed(HttpServletResponse response, EndpointClass endpointClass) throws IOException {
+        log.debug("Shedding {} request: {} in flight, limit {}", endpointClass.name(),
+            endpointClass.limiter().getInFlight(), endpointClass.limiter().getLimit());
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        Map<String, String> error = new LinkedHashMap<>();
+        error.put("error", "Server is at capacity, retry after " + retryAfterSeconds + "s");
+        error.put("endpointClass", endpointClass.name());
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+    
+    public List<AdaptiveConcurrencyLimiter> getLimiters() {
+        return endpointClasses.stream().map(EndpointClass::limiter).toList();
+    }
+    
+    /**
+     * Limit, in-flight and gradient gauges plus admitted/shed counters per endpoint class,
+     * read from the limiters at scrape time. Shed requests are admission_requests_total{result="rejected"}.
+     */
+    public void bindTo(MeterRegistry registry) {
+        for (EndpointClass endpointClass : endpointClasses) {
+            AdaptiveConcurrencyLimiter limiter = endpointClass.limiter();
+            Gauge.builder("admission.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit, before scaling by more important classes")
+                .tag("class", endpointClass.name())
+                .register(registry);
+            Gauge.builder("admission.limit.effective", () -> Math.max(1, (int) (limiter.getLimit() * limitScale(endpointClass))))
+                .description("Limit after scaling by the lowest gradient of more important classes")
+                .tag("class", endpointClass.name())
+                .register(registry);
+            Gauge.builder("admission.in.flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Requests of this class currently admitted")
+                .tag("class", endpointClass.name())
+                .register(registry);
+            Gauge.builder("admission.gradient", limiter, AdaptiveConcurrencyLimiter::getGradient)
+                .description("Long RTT over short RTT; below 1.0 means requests are queueing")
+                .tag("class", endpointClass.name())
+                .register(registry);
+            FunctionCounter.builder("admission.requests", limiter, AdaptiveConcurrencyLimiter::getAdmittedCount)
+                .description("Requests admitted or shed with 503 by admission control")
+                .tags("class", endpointClass.name(), "result", "admitted")
+                .register(registry);
+            FunctionCounter.builder("admission.requests", limiter, AdaptiveConcurrencyLimiter::getRejectedCount)
+                .description("Requests admitted or shed with 503 by admission control")
+                .tags("class", endpointClass.name(), "result", "rejected")
+                .register(registry);
+        }
+    }
+    
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (EndpointClass endpointClass : endpointClasses) {
+            Map<String, Object> classStats = new LinkedHashMap<>();
+            classStats.put("priority", endpointClass.priority());
+            classStats.put("effectiveLimitScale", limitScale(endpointClass));
+            classStats.putAll(endpointClass.limiter().getStats());
+            stats.put(endpointClass.name(), classStats);
+        }
+        return stats;
+    }
+    
+    private record EndpointClass(String name, int priority, List<String[]> endpoints,
+                                 AdaptiveConcurrencyLimiter limiter) {
+    }
+}
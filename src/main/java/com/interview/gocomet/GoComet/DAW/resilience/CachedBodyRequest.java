@@ -0,0 +1,134 @@
+package com.interview.gocomet.GoComet.DAW.resilience;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A request whose body has been read into memory by a filter, so it can be inspected before
+ * the controller reads it again. Filters further down reuse the buffered bytes.
+ * The read is capped: a declared Content-Length over the cap is refused before reading, and a
+ * chunked body is read only up to one byte past it, so one client cannot fill the heap.
+ */
+public class CachedBodyRequest extends HttpServletRequestWrapper {
+    
+    // Ride and payment requests are a few hundred bytes
+    public static final long DEFAULT_MAX_BYTES = 64 * 1024;
+    
+    private final byte[] body;
+    
+    private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+        super(request);
+        this.body = body;
+    }
+    
+    public static CachedBodyRequest of(HttpServletRequest request) throws IOException {
+        return of(request, DEFAULT_MAX_BYTES);
+    }
+    
+    /**
+     * @throws BodyTooLargeException if the body is longer than maxBytes; the filter answers 413
+     */
+    public static CachedBodyRequest of(HttpServletRequest request, long maxBytes) throws IOException {
+        if (request instanceof CachedBodyRequest cached) {
+            return cached;
+        }
+        if (request.getContentLengthLong() > maxBytes) {
+            throw new BodyTooLargeException(maxBytes);
+        }
+        byte[] body = request.getInputStream().readNBytes((int) Math.min(maxBytes + 1, Integer.MAX_VALUE - 8));
+        if (body.length > maxBytes) {
+            throw new BodyTooLargeException(maxBytes);
+        }
+        return new CachedBodyRequest(request, body);
+    }
+    
+    /**
+     * A scalar field of the top-level JSON object, scanned with the streaming parser;
+     * null if the body is not a JSON object or has no such field
+     */
+    public String topLevelField(JsonFactory jsonFactory, String field) {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (field.equals(name) && value.isScalarValue()) {
+                    return parser.getText();
+                }
+                parser.skipChildren();
+            }
+        } catch (IOException e) {
+            // Malformed JSON is left for the controller to reject
+        }
+        return null;
+    }
+    
+    @Override
+    public ServletInputStream getInputStream() {
+        ByteArrayInputStream in = new ByteArrayInputStream(body);
+        return new ServletInputStream() {
+            @Override
+            public boolean isFinished() {
+                return in.available() == 0;
+            }
+            
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+            
+            @Override
+            public void setReadListener(ReadListener listener) {
+                throw new UnsupportedOperationException("Body is already buffered");
+            }
+            
+            @Override
+            public int read() {
+                return in.read();
+            }
+            
+            @Override
+            public int read(byte[] buffer, int offset, int length) {
+                return in.read(buffer, offset, length);
+            }
+        };
+    }
+    
+    @Override
+    public BufferedReader getReader() {
+        String encoding = getCharacterEncoding();
+        return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body),
+            encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+    }
+    
+    @Override
+    public int getContentLength() {
+        return body.length;
+    }
+    
+    @Override
+    public long getContentLengthLong() {
+        return body.length;
+    }
+    
+    public static class BodyTooLargeException extends IOException {
+        
+        public BodyTooLargeException(long maxBytes) {
+            super("Request body exceeds " + maxBytes + " bytes");
+        }
+    }
+}
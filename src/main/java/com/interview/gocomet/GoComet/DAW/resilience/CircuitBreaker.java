@@ -0,0 +1,137 @@
+package com.interview.gocomet.GoComet.DAW.resilience;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free consecutive-failure circuit breaker.
+ * CLOSED lets every call through, OPEN rejects calls until the open duration
+ * has elapsed, HALF_OPEN lets exactly one probe through to decide the next state.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private final LongSupplier nanoClock;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long openedAtNanos;
+    private final Map<State, LongAdder> transitions = new EnumMap<>(State.class);
+
+    public CircuitBreaker(String name, int failureThreshold, Duration openDuration) {
+        this(name, failureThreshold, openDuration, System::nanoTime);
+    }
+
+    public CircuitBreaker(String name, int failureThreshold, Duration openDuration, LongSupplier nanoClock) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+        this.nanoClock = nanoClock;
+        for (State to : State.values()) {
+            transitions.put(to, new LongAdder());
+        }
+    }
+
+    /**
+     * Returns true if the caller may proceed. When the open period has elapsed
+     * the first caller becomes the half-open probe and must report its outcome.
+     */
+    public boolean tryAcquire() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN
+                && nanoClock.getAsLong() - openedAtNanos >= openDurationNanos
+                && state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+            transitions.get(State.HALF_OPEN).increment();
+            log.info("Circuit breaker '{}' half-open, sending probe", name);
+            return true;
+        }
+        return false;
+    }
+
+    public void onSuccess() {
+        consecutiveFailures.set(0);
+        State previous = state.getAndSet(State.CLOSED);
+        if (previous != State.CLOSED) {
+            transitions.get(State.CLOSED).increment();
+            log.info("Circuit breaker '{}' closed", name);
+        }
+    }
+
+    public void onFailure() {
+        if (state.get() == State.HALF_OPEN) {
+            trip();
+            return;
+        }
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold && state.get() == State.CLOSED) {
+            trip();
+        }
+    }
+
+    private void trip() {
+        openedAtNanos = nanoClock.getAsLong();
+        State previous = state.getAndSet(State.OPEN);
+        if (previous != State.OPEN) {
+            transitions.get(State.OPEN).increment();
+            log.warn("Circuit breaker '{}' opened after {} consecutive failures", name, consecutiveFailures.get());
+        }
+    }
+
+    /**
+     * Times the breaker has moved into the given state since start
+     */
+    public long getTransitionCount(State to) {
+        return transitions.get(to).sum();
+    }
+
+    /**
+     * circuit.breaker.state is 1 for the current state and 0 for the others;
+     * circuit.breaker.transitions counts moves into each state (to=open is a trip).
+     */
+    public void bindTo(MeterRegistry registry) {
+        for (State candidate : State.values()) {
+            String tag = candidate.name().toLowerCase();
+            Gauge.builder("circuit.breaker.state", state, current -> current.get() == candidate ? 1 : 0)
+                .description("1 while the breaker is in this state")
+                .tags("name", name, "state", tag)
+                .register(registry);
+            FunctionCounter.builder("circuit.breaker.transitions", transitions.get(candidate), LongAdder::sum)
+                .description("Times the breaker moved into this state")
+                .tags("name", name, "to", tag)
+                .register(registry);
+        }
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Duration getOpenDuration() {
+        return Duration.ofNanos(openDurationNanos);
+    }
+}
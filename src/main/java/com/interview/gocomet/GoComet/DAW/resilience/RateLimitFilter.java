@@ -0,0 +1,177 @@
+package com.interview.gocomet.GoComet.DAW.resilience;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interview.gocomet.GoComet.DAW.config.RateLimitProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-caller token-bucket rate limiting for the endpoints listed in rate-limit.policies.
+ * Runs before admission control so a misbehaving client is turned away with 429 before it
+ * takes a concurrency slot or a DB transaction. Requests that match no policy only pay for
+ * the endpoint match; body-keyed policies scan the JSON body with the streaming parser
+ * and hand the buffered bytes on to the controller. Bodies over rate-limit.max-body-size
+ * are refused with 413 instead of being buffered.
+ */
+@Component
+@ConditionalOnProperty(name = "rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+    
+    private enum KeySource {
+        PATH,
+        HEADER,
+        BODY
+    }
+    
+    private final ObjectMapper objectMapper;
+    private final JsonFactory jsonFactory;
+    private final TokenBuckets localBuckets;
+    private final RedisTokenBuckets redisBuckets;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<Policy> policies = new ArrayList<>();
+    private final long maxBodyBytes;
+    private final LongAdder tooLarge = new LongAdder();
+    
+    public RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper,
+                           StringRedisTemplate redisTemplate, RedisGuard redisGuard) {
+        this.objectMapper = objectMapper;
+        this.jsonFactory = objectMapper.getFactory();
+        this.localBuckets = new TokenBuckets(properties.getMaxBuckets(), properties.getIdleTimeout());
+        this.redisBuckets = properties.getMode() == RateLimitProperties.Mode.REDIS
+            ? new RedisTokenBuckets(redisTemplate, redisGuard, localBuckets)
+            : null;
+        this.maxBodyBytes = properties.getMaxBodySize().toBytes();
+        properties.getPolicies().forEach((name, spec) -> policies.add(Policy.of(name, spec)));
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Policy policy = match(request);
+        if (policy == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        
+        HttpServletRequest forwarded = request;
+        String callerId;
+        try {
+            callerId = switch (policy.keySource()) {
+                case PATH -> pathMatcher.extractUriTemplateVariables(policy.pattern(), request.getRequestURI())
+                    .get(policy.keyName());
+                case HEADER -> request.getHeader(policy.keyName());
+                case BODY -> {
+                    CachedBodyRequest buffered = CachedBodyRequest.of(request, maxBodyBytes);
+                    forwarded = buffered;
+                    yield buffered.topLevelField(jsonFactory, policy.keyName());
+                }
+            };
+        } catch (CachedBodyRequest.BodyTooLargeException e) {
+            tooLarge.increment();
+            rejectTooLarge(response, policy, e);
+            return;
+        }
+        if (callerId == null || callerId.isEmpty()) {
+            // Nothing to key on; validation rejects these anyway
+            chain.doFilter(forwarded, response);
+            return;
+        }
+        
+        String bucketKey = policy.name() + ":" + callerId;
+        long waitNanos = redisBuckets != null
+            ? redisBuckets.tryConsume(bucketKey, policy.ratePerSecond(), policy.burst())
+            : localBuckets.tryConsume(bucketKey, policy.ratePerSecond(), policy.burst());
+        if (waitNanos > 0) {
+            policy.limited().increment();
+            reject(response, policy, callerId, waitNanos);
+            return;
+        }
+        policy.allowed().increment();
+        chain.doFilter(forwarded, response);
+    }
+    
+    private Policy match(HttpServletRequest request) {
+        String method = request.getMethod();
+        String path = request.getRequestURI();
+        for (Policy policy : policies) {
+            if (policy.method().equalsIgnoreCase(method) && pathMatcher.match(policy.pattern(), path)) {
+                return policy;
+            }
+        }
+        return null;
+    }
+    
+    private void reject(HttpServletResponse response, Policy policy, String callerId, long waitNanos) throws IOException {
+        long retryAfterMs = TimeUnit.NANOSECONDS.toMillis(waitNanos + 999_999);
+        log.debug("Rate limit {} exceeded by {}, retry in {} ms", policy.name(), callerId, retryAfterMs);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf((retryAfterMs + 999) / 1000));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("error", "Rate limit exceeded");
+        error.put("policy", policy.name());
+        error.put("retryAfterMs", retryAfterMs);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+    
+    private void rejectTooLarge(HttpServletResponse response, Policy policy, IOException e) throws IOException {
+        log.debug("Rate limit {} refused a body over {} bytes", policy.name(), maxBodyBytes);
+        response.setStatus(HttpStatus.PAYLOAD_TOO_LARGE.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("error", e.getMessage());
+        error.put("policy", policy.name());
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+    
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("mode", redisBuckets != null ? "redis" : "local");
+        stats.put("localBuckets", localBuckets.size());
+        stats.put("bodiesTooLarge", tooLarge.sum());
+        for (Policy policy : policies) {
+            Map<String, Object> policyStats = new LinkedHashMap<>();
+            policyStats.put("ratePerSecond", policy.ratePerSecond());
+            policyStats.put("burst", policy.burst());
+            policyStats.put("allowed", policy.allowed().sum());
+            policyStats.put("limited", policy.limited().sum());
+            stats.put(policy.name(), policyStats);
+        }
+        return stats;
+    }
+    
+    private record Policy(String name, String method, String pattern, KeySource keySource, String keyName,
+                          double ratePerSecond, int burst, LongAdder allowed, LongAdder limited) {
+        
+        static Policy of(String name, RateLimitProperties.Policy spec) {
+            String[] endpoint = spec.getEndpoint().trim().split("\\s+", 2);
+            String[] key = spec.getKey().split(":", 2);
+            return new Policy(name, endpoint[0], endpoint[1], KeySource.valueOf(key[0].toUpperCase()), key[1],
+                spec.getRatePerSecond(), spec.getBurst(), new LongAdder(), new LongAdder());
+        }
+    }
+}
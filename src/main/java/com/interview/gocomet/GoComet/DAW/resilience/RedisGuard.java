@@ -0,0 +1,124 @@
+package com.interview.gocomet.GoComet.DAW.resilience;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker in front of every Redis call the application makes.
+ * After consecutive failures the breaker opens and callers skip Redis immediately
+ * instead of each waiting for the command timeout. Request threads never probe:
+ * a background task PINGs Redis and, once it answers, runs the recovery hooks
+ * (e.g. clearing caches whose evictions were skipped) before traffic resumes.
+ */
+@Component
+@Slf4j
+public class RedisGuard {
+    
+    private final RedisConnectionFactory connectionFactory;
+    private final CircuitBreaker circuitBreaker;
+    private final List<Runnable> recoveryHooks = new CopyOnWriteArrayList<>();
+    
+    public RedisGuard(
+            RedisConnectionFactory connectionFactory,
+            @Value("${redis.circuit-breaker.failure-threshold:3}") int failureThreshold,
+            @Value("${redis.circuit-breaker.open-ms:5000}") long openMs) {
+        this.connectionFactory = connectionFactory;
+        this.circuitBreaker = new CircuitBreaker("redis", failureThreshold, Duration.ofMillis(openMs));
+    }
+    
+    /**
+     * True while calls should be sent to Redis
+     */
+    public boolean isAvailable() {
+        return circuitBreaker.getState() == CircuitBreaker.State.CLOSED;
+    }
+    
+    /**
+     * Run a Redis call, recording its outcome. Throws {@link RedisUnavailableException}
+     * without calling Redis while the breaker is open.
+     */
+    public <T> T execute(Supplier<T> call) {
+        if (!isAvailable()) {
+            throw new RedisUnavailableException();
+        }
+        try {
+            T result = call.get();
+            circuitBreaker.onSuccess();
+            return result;
+        } catch (SerializationException e) {
+            // Redis answered; the value itself is bad
+            throw e;
+        } catch (RuntimeException e) {
+            circuitBreaker.onFailure();
+            throw e;
+        }
+    }
+    
+    /**
+     * Best-effort variant for fire-and-forget writes; returns false if the call was skipped or failed
+     */
+    public boolean tryRun(Runnable call) {
+        try {
+            execute(() -> {
+                call.run();
+                return null;
+            });
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * Register work that must complete after an outage, before calls are let through again
+     */
+    public void onRecovery(Runnable hook) {
+        recoveryHooks.add(hook);
+    }
+    
+    @Scheduled(fixedDelayString = "${redis.circuit-breaker.probe-interval-ms:1000}")
+    public void probe() {
+        if (isAvailable() || !circuitBreaker.tryAcquire()) {
+            return;
+        }
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.ping();
+            recoveryHooks.forEach(Runnable::run);
+            circuitBreaker.onSuccess();
+        } catch (RuntimeException e) {
+            log.debug("Redis probe failed: {}", e.getMessage());
+            circuitBreaker.onFailure();
+        }
+    }
+    
+    /**
+     * Breaker state and transitions, tagged name=redis
+     */
+    public void bindTo(MeterRegistry registry) {
+        circuitBreaker.bindTo(registry);
+    }
+    
+    public CircuitBreaker.State getState() {
+        return circuitBreaker.getState();
+    }
+    
+    /**
+     * Thrown instead of calling Redis while the breaker is open
+     */
+    public static class RedisUnavailableException extends RuntimeException {
+        RedisUnavailableException() {
+            super("Redis circuit breaker is open", null, false, false);
+        }
+    }
+}
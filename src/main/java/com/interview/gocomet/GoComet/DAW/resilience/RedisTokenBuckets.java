@@ -0,0 +1,61 @@
+package com.interview.gocomet.GoComet.DAW.resilience;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+/**
+ * Cluster-wide token buckets: the same GCRA as {@link TokenBuckets}, run atomically in Redis
+ * by a Lua script against Redis' own clock, so every node draws from the same bucket.
+ * While the Redis breaker is open, buckets fall back to the local ones, which limits per node.
+ */
+@Slf4j
+public class RedisTokenBuckets {
+    
+    private static final String KEY_PREFIX = "ratelimit:";
+    
+    // Returns 0 when allowed, otherwise microseconds until the next token
+    private static final RedisScript<Long> CONSUME = new DefaultRedisScript<>("""
+        local interval = tonumber(ARGV[1])
+        local tolerance = tonumber(ARGV[2])
+        local time = redis.call('TIME')
+        local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+        local tat = tonumber(redis.call('GET', KEYS[1]) or now)
+        if tat < now then tat = now end
+        local nextTat = tat + interval
+        local wait = nextTat - now - tolerance
+        if wait > 0 then return wait end
+        redis.call('SET', KEYS[1], nextTat, 'PX', math.ceil((nextTat - now) / 1000) + 1)
+        return 0
+        """, Long.class);
+    
+    private final StringRedisTemplate redisTemplate;
+    private final RedisGuard redisGuard;
+    private final TokenBuckets fallback;
+    
+    public RedisTokenBuckets(StringRedisTemplate redisTemplate, RedisGuard redisGuard, TokenBuckets fallback) {
+        this.redisTemplate = redisTemplate;
+        this.redisGuard = redisGuard;
+        this.fallback = fallback;
+    }
+    
+    /**
+     * @return 0 if allowed, otherwise nanoseconds until a token is available
+     */
+    public long tryConsume(String key, double ratePerSecond, int burst) {
+        if (redisGuard.isAvailable()) {
+            long intervalMicros = (long) (1_000_000L / ratePerSecond);
+            try {
+                Long waitMicros = redisGuard.execute(() -> redisTemplate.execute(CONSUME, List.of(KEY_PREFIX + key),
+                    String.valueOf(intervalMicros), String.valueOf(intervalMicros * burst)));
+                return waitMicros == null ? 0 : waitMicros * 1_000;
+            } catch (RuntimeException e) {
+                log.debug("Redis rate limit check for {} failed, using local bucket: {}", key, e.getMessage());
+            }
+        }
+        return fallback.tryConsume(key, ratePerSecond, burst);
+    }
+}
@@ -0,0 +1,59 @@
+package com.interview.gocomet.GoComet.DAW.service;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Inserts many entities with few round trips. Ids come from pooled sequences, so Hibernate
+ * sends the inserts of a flush as JDBC batches of hibernate.jdbc.batch_size rows (order_inserts
+ * keeps each batch to one table). Flushing every batch and detaching what was written keeps
+ * the persistence context small however many rows go in.
+ * Joins the caller's transaction, or opens one.
+ */
+@Service
+@Slf4j
+public class BulkWriter {
+    
+    private final EntityManager entityManager;
+    private final int batchSize;
+    
+    public BulkWriter(EntityManager entityManager,
+                      @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
+        this.entityManager = entityManager;
+        this.batchSize = Math.max(1, batchSize);
+    }
+    
+    /**
+     * Persist new entities. They have their ids on return, and are detached.
+     */
+    @Transactional
+    public <T> int insertAll(Collection<? extends T> entities) {
+        List<T> batch = new ArrayList<>(batchSize);
+        for (T entity : entities) {
+            entityManager.persist(entity);
+            batch.add(entity);
+            if (batch.size() == batchSize) {
+                flush(batch);
+            }
+        }
+        flush(batch);
+        log.debug("Bulk inserted {} entities", entities.size());
+        return entities.size();
+    }
+    
+    private void flush(List<?> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        entityManager.flush();
+        batch.forEach(entityManager::detach);
+        batch.clear();
+    }
+}
@@ -1,8 +1,15 @@
 package com.interview.gocomet.GoComet.DAW.service;
 
+import com.interview.gocomet.GoComet.DAW.datasource.ReadYourWritesListener;
+import com.interview.gocomet.GoComet.DAW.event.ResourceVersionListener;
+import com.interview.gocomet.GoComet.DAW.metrics.HotPathMetrics;
 import com.interview.gocomet.GoComet.DAW.model.Driver;
 import com.interview.gocomet.GoComet.DAW.model.DriverStatus;
+import com.interview.gocomet.GoComet.DAW.profiling.MatchAttemptEvent;
+import com.interview.gocomet.GoComet.DAW.profiling.ReservationConflictEvent;
+import com.interview.gocomet.GoComet.DAW.repository.DriverLocationIndex;
 import com.interview.gocomet.GoComet.DAW.repository.DriverRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
@@ -11,6 +18,7 @@ import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -27,7 +35,12 @@ public class DriverMatchingService {
     private static volatile int driverRotationCounter = 0;
     
     private final DriverRepository driverRepository;
+    private final DriverLocationIndex driverLocationIndex;
     private final RedisTemplate<String, Object> redisTemplate;
+    private final HotPathMetrics metrics;
+    private final EntityManager entityManager;
+    private final ResourceVersionListener resourceVersionListener;
+    private final ReadYourWritesListener readYourWritesListener;
     
     /**
      * Find the best available driver near the pickup location
@@ -36,17 +49,30 @@ public class DriverMatchingService {
     @Cacheable(value = "availableDrivers", key = "#latitude + '_' + #longitude", unless = "#result.isEmpty()")
     @Transactional(readOnly = true)
     public List<Driver> findAvailableDrivers(Double latitude, Double longitude) {
-        // Calculate bounding box for efficient query
-        double[] bounds = calculateBoundingBox(latitude, longitude, SEARCH_RADIUS_KM);
-        
-        List<Driver> drivers = driverRepository.findNearbyAvailableDrivers(
-            latitude, longitude,
-            bounds[0], bounds[1], // minLat, maxLat
-            bounds[2], bounds[3], // minLng, maxLng
-            MAX_DRIVERS_TO_CHECK
-        );
+        List<Driver> drivers;
+        if (driverLocationIndex.isAvailable()) {
+            // PostGIS: GiST index scan in distance order
+            drivers = driverRepository.findNearestAvailableDrivers(
+                latitude, longitude, SEARCH_RADIUS_KM * 1000, MAX_DRIVERS_TO_CHECK);
+        } else {
+            // Calculate bounding box for efficient query
+            double[] bounds = calculateBoundingBox(latitude, longitude, SEARCH_RADIUS_KM);
+            
+            drivers = driverRepository.findNearbyAvailableDrivers(
+                latitude, longitude,
+                bounds[0], bounds[1], // minLat, maxLat
+                bounds[2], bounds[3], // minLng, maxLng
+                MAX_DRIVERS_TO_CHECK
+            );
+        }
         
-        // Sort by distance and return top candidates
+        return rankByDistance(latitude, longitude, drivers);
+    }
+    
+    /**
+     * Sort by distance and return top candidates
+     */
+    List<Driver> rankByDistance(double latitude, double longitude, List<Driver> drivers) {
         return drivers.stream()
             .sorted((d1, d2) -> {
                 double dist1 = calculateDistance(latitude, longitude, d1.getLatitude(), d1.getLongitude());
@@ -61,15 +87,24 @@ public class DriverMatchingService {
      * Match a driver to a ride request
      * Uses optimistic locking to prevent race conditions
      * Implements round-robin selection for fair driver distribution
+     * Each stage (candidate query, filter, every reservation attempt) is timed separately,
+     * and the call is recorded as a JFR MatchAttempt event
      */
     @Transactional
     @CacheEvict(value = "availableDrivers", allEntries = true)
     public Driver matchDriver(Double latitude, Double longitude) {
+        MatchAttemptEvent event = new MatchAttemptEvent();
+        event.begin();
+        event.setLatitude(latitude);
+        event.setLongitude(longitude);
+        long start = System.nanoTime();
         List<Driver> candidates = findAvailableDrivers(latitude, longitude);
+        long queried = System.nanoTime();
+        metrics.candidateQuery(queried - start, candidates.size());
         
         if (candidates.isEmpty()) {
             log.warn("No available drivers found near location: {}, {}", latitude, longitude);
-            return null;
+            return finish(event, start, HotPathMetrics.MatchOutcome.NO_CANDIDATES, 0, 0, null);
         }
         
         // Sort candidates by driverId for consistent ordering
@@ -97,46 +132,81 @@ public class DriverMatchingService {
             driverRotationCounter++; // Increment for next time
             log.debug("Round-robin selection: index {} of {} candidates", index, availableCandidates.size());
         }
+        metrics.candidateFilter(System.nanoTime() - queried);
         
+        int attempts = 0;
         // Try to assign the selected driver
         if (selectedDriver != null) {
-            try {
-                // Use optimistic locking - check if driver is still available
-                Driver currentDriver = driverRepository.findById(selectedDriver.getId())
-                    .orElse(null);
-                
-                if (currentDriver != null && currentDriver.getStatus() == DriverStatus.AVAILABLE) {
-                    currentDriver.setStatus(DriverStatus.ASSIGNED);
-                    currentDriver = driverRepository.save(currentDriver);
-                    log.info("Matched driver {} to ride request (round-robin: {}/{})", 
-                        currentDriver.getDriverId(), 
-                        allAvailable.indexOf(selectedDriver) + 1, 
-                        allAvailable.size());
-                    return currentDriver;
-                }
-            } catch (Exception e) {
-                log.warn("Failed to assign driver {}: {}", selectedDriver.getDriverId(), e.getMessage());
+            attempts++;
+            Driver assigned = tryReserve(selectedDriver);
+            if (assigned != null) {
+                log.info("Matched driver {} to ride request (round-robin: {}/{})", 
+                    assigned.getDriverId(), 
+                    allAvailable.indexOf(selectedDriver) + 1, 
+                    allAvailable.size());
+                return finish(event, start, HotPathMetrics.MatchOutcome.MATCHED, candidates.size(), attempts, assigned);
             }
         }
         
         // Fallback: try all candidates in order
         for (Driver driver : candidates) {
-            try {
-                Driver currentDriver = driverRepository.findById(driver.getId())
-                    .orElse(null);
-                
-                if (currentDriver != null && currentDriver.getStatus() == DriverStatus.AVAILABLE) {
-                    currentDriver.setStatus(DriverStatus.ASSIGNED);
-                    currentDriver = driverRepository.save(currentDriver);
-                    log.info("Matched driver {} to ride request (fallback)", currentDriver.getDriverId());
-                    return currentDriver;
-                }
-            } catch (Exception e) {
-                log.warn("Failed to assign driver {}: {}", driver.getDriverId(), e.getMessage());
+            attempts++;
+            Driver assigned = tryReserve(driver);
+            if (assigned != null) {
+                log.info("Matched driver {} to ride request (fallback)", assigned.getDriverId());
+                return finish(event, start, HotPathMetrics.MatchOutcome.MATCHED, candidates.size(), attempts, assigned);
             }
         }
         
         log.warn("All candidate drivers were already assigned");
+        return finish(event, start, HotPathMetrics.MatchOutcome.ALL_TAKEN, candidates.size(), attempts, null);
+    }
+    
+    private Driver finish(MatchAttemptEvent event, long start, HotPathMetrics.MatchOutcome outcome,
+                          int candidates, int attempts, Driver driver) {
+        metrics.match(System.nanoTime() - start, outcome, attempts);
+        event.end();
+        if (event.shouldCommit()) {
+            event.setCandidates(candidates);
+            event.setAttempts(attempts);
+            event.setOutcome(outcome.name());
+            event.setDriverId(driver != null ? driver.getDriverId() : null);
+            event.commit();
+        }
+        return driver;
+    }
+    
+    /**
+     * Assign the driver if it is still available; null if it was taken meanwhile or the write failed.
+     * The conditional UPDATE decides the race on the spot: a loser gets 0 rows and moves on to the
+     * next candidate, rather than a version conflict when the ride's transaction commits.
+     */
+    private Driver tryReserve(Driver candidate) {
+        ReservationConflictEvent conflict = new ReservationConflictEvent();
+        conflict.begin();
+        long start = System.nanoTime();
+        try {
+            if (driverRepository.compareAndSetStatus(candidate.getId(), DriverStatus.AVAILABLE,
+                    DriverStatus.ASSIGNED, LocalDateTime.now()) == 1) {
+                Driver reserved = driverRepository.findById(candidate.getId()).orElseThrow();
+                // The copy loaded by the candidate queries predates the UPDATE
+                entityManager.refresh(reserved);
+                // The UPDATE bypasses the entity listeners: publish the new version after commit
+                resourceVersionListener.onWrite(reserved);
+                readYourWritesListener.onWrite(reserved);
+                metrics.reservationAttempt(System.nanoTime() - start, HotPathMetrics.Reservation.WON);
+                return reserved;
+            }
+            metrics.reservationAttempt(System.nanoTime() - start, HotPathMetrics.Reservation.TAKEN);
+            conflict.setReason("taken");
+        } catch (Exception e) {
+            log.warn("Failed to assign driver {}: {}", candidate.getDriverId(), e.getMessage());
+            metrics.reservationAttempt(System.nanoTime() - start, HotPathMetrics.Reservation.FAILED);
+            conflict.setReason("failed");
+            conflict.setError(e.toString());
+        }
+        conflict.setDriverId(candidate.getDriverId());
+        conflict.commit();
         return null;
     }
     
@@ -1,16 +1,32 @@
 package com.interview.gocomet.GoComet.DAW.service;
 
+import com.interview.gocomet.GoComet.DAW.dto.DriverLocationUpdate;
+import com.interview.gocomet.GoComet.DAW.metrics.HotPathMetrics;
 import com.interview.gocomet.GoComet.DAW.model.Driver;
 import com.interview.gocomet.GoComet.DAW.model.DriverStatus;
+import com.interview.gocomet.GoComet.DAW.profiling.LocationFlushEvent;
+import com.interview.gocomet.GoComet.DAW.profiling.TransactionEvents;
 import com.interview.gocomet.GoComet.DAW.repository.DriverRepository;
+import com.interview.gocomet.GoComet.DAW.resilience.RedisGuard;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -18,37 +34,131 @@ import java.util.Optional;
 @Slf4j
 public class DriverService {
     
+    // Location is written outside the entity: pings neither check nor bump Driver.version, so they
+    // never conflict with an assignment in flight and do not wake ETag long-polls on the driver
+    private static final String UPDATE_LOCATION =
+        "UPDATE drivers SET latitude = ?, longitude = ?, last_location_update = ?, updated_at = ? WHERE driver_id = ?";
+    
     private final DriverRepository driverRepository;
     private final DriverMatchingService driverMatchingService;
     private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisGuard redisGuard;
+    private final HotPathMetrics metrics;
+    private final JdbcTemplate jdbcTemplate;
     
     /**
-     * Update driver location with caching for fast lookups
+     * Update driver location with caching for fast lookups.
+     * Nearby-driver lists are not evicted: at ping rates every list would be cleared on every
+     * node many times a second, so they age out on their short TTL instead.
+     *
+     * @param recordedAt when the device took the fix (epoch millis), or null
      */
     @Transactional
-    @CacheEvict(value = "availableDrivers", allEntries = true)
-    public Driver updateLocation(String driverId, Double latitude, Double longitude) {
+    public Driver updateLocation(String driverId, Double latitude, Double longitude, Long recordedAt) {
+        metrics.singlePing(recordedAt, System.currentTimeMillis());
+        LocationFlushEvent event = new LocationFlushEvent();
+        event.begin();
+        event.setDriverId(driverId);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        if (jdbcTemplate.update(UPDATE_LOCATION, latitude, longitude, now, now, driverId) == 0) {
+            metrics.unknownDriverPing();
+            event.setUnknown(1);
+            event.commit();
+            throw new RuntimeException("Driver not found: " + driverId);
+        }
         Driver driver = driverRepository.findByDriverId(driverId)
             .orElseThrow(() -> new RuntimeException("Driver not found: " + driverId));
         
-        driver.setLatitude(latitude);
-        driver.setLongitude(longitude);
-        driver.setLastLocationUpdate(LocalDateTime.now());
-        
-        // Cache driver location for real-time queries (if Redis is available)
-        try {
-            String cacheKey = "driver:location:" + driverId;
-            redisTemplate.opsForValue().set(cacheKey, driver, java.time.Duration.ofSeconds(5));
-        } catch (Exception e) {
+        // Cache driver location for real-time queries (skipped immediately while Redis is down)
+        String cacheKey = "driver:location:" + driverId;
+        Driver located = driver;
+        if (redisGuard.tryRun(() -> redisTemplate.opsForValue().set(cacheKey, located, java.time.Duration.ofSeconds(5)))) {
+            event.setRedisWritten(true);
+        } else {
             log.debug("Redis not available, skipping cache update for driver: {}", driverId);
         }
         
-        driver = driverRepository.save(driver);
+        event.setDrivers(1);
+        TransactionEvents.commitAfterCompletion(event, LocationFlushEvent::setCommitted);
         log.debug("Updated location for driver {}: {}, {}", driverId, latitude, longitude);
         
         return driver;
     }
     
+    /**
+     * Apply a batch of location pings (e.g. buffered by a telematics gateway) in one transaction:
+     * the updates go out as one JDBC batch, and the drivers are only loaded for the Redis copy.
+     * Returns the driver ids that were not found. Like single pings, batches leave the
+     * nearby-driver lists to their TTL.
+     */
+    @Transactional
+    public List<String> updateLocations(List<DriverLocationUpdate> updates) {
+        LocationFlushEvent event = new LocationFlushEvent();
+        event.begin();
+        // Last ping wins when a driver appears more than once
+        Map<String, DriverLocationUpdate> latest = new LinkedHashMap<>();
+        updates.forEach(update -> latest.put(update.getDriverId(), update));
+        
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        long nowMillis = System.currentTimeMillis();
+        List<DriverLocationUpdate> pings = new ArrayList<>(latest.values());
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_LOCATION, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                DriverLocationUpdate update = pings.get(i);
+                statement.setDouble(1, update.getLatitude());
+                statement.setDouble(2, update.getLongitude());
+                statement.setTimestamp(3, now);
+                statement.setTimestamp(4, now);
+                statement.setString(5, update.getDriverId());
+            }
+            
+            @Override
+            public int getBatchSize() {
+                return pings.size();
+            }
+        });
+        List<String> unknown = new ArrayList<>();
+        List<String> locatedIds = new ArrayList<>();
+        for (int i = 0; i < pings.size(); i++) {
+            DriverLocationUpdate update = pings.get(i);
+            // 0 rows: no such driver; SUCCESS_NO_INFO (-2) from JDBC drivers that do not report counts
+            if (counts[i] == 0) {
+                unknown.add(update.getDriverId());
+                continue;
+            }
+            locatedIds.add(update.getDriverId());
+            metrics.lag(update.getRecordedAt(), nowMillis);
+        }
+        metrics.pingBatch(updates.size(), unknown.size());
+        
+        // Loaded after the batch so the cached copies carry the new location
+        List<Driver> located = !locatedIds.isEmpty() && redisGuard.isAvailable()
+            ? driverRepository.findByDriverIdIn(locatedIds) : List.of();
+        
+        // One pipelined round trip for the whole batch
+        boolean redisWritten = !located.isEmpty() && redisGuard.tryRun(() -> redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> redis = (RedisOperations<String, Object>) operations;
+                for (Driver driver : located) {
+                    redis.opsForValue().set("driver:location:" + driver.getDriverId(), driver, java.time.Duration.ofSeconds(5));
+                }
+                return null;
+            }
+        }));
+        if (!locatedIds.isEmpty() && !redisWritten) {
+            log.debug("Redis not available, skipping cache update for {} drivers", locatedIds.size());
+        }
+        log.debug("Updated {} driver locations ({} unknown)", locatedIds.size(), unknown.size());
+        event.setDrivers(locatedIds.size());
+        event.setUnknown(unknown.size());
+        event.setRedisWritten(redisWritten);
+        TransactionEvents.commitAfterCompletion(event, LocationFlushEvent::setCommitted);
+        return unknown;
+    }
+    
     /**
      * Accept ride assignment
      */
@@ -0,0 +1,238 @@
+package com.interview.gocomet.GoComet.DAW.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interview.gocomet.GoComet.DAW.dto.DriverEarningsResponse;
+import com.interview.gocomet.GoComet.DAW.event.DomainEvent;
+import com.interview.gocomet.GoComet.DAW.model.DriverBalance;
+import com.interview.gocomet.GoComet.DAW.model.DriverDailyBalance;
+import com.interview.gocomet.GoComet.DAW.model.LedgerDirection;
+import com.interview.gocomet.GoComet.DAW.model.LedgerEntry;
+import com.interview.gocomet.GoComet.DAW.model.LedgerEntryType;
+import com.interview.gocomet.GoComet.DAW.model.OutboxEventType;
+import com.interview.gocomet.GoComet.DAW.model.PaymentStatus;
+import com.interview.gocomet.GoComet.DAW.model.Trip;
+import com.interview.gocomet.GoComet.DAW.repository.DriverBalanceRepository;
+import com.interview.gocomet.GoComet.DAW.repository.DriverDailyBalanceRepository;
+import com.interview.gocomet.GoComet.DAW.repository.LedgerEntryRepository;
+import com.interview.gocomet.GoComet.DAW.repository.PaymentRepository;
+import com.interview.gocomet.GoComet.DAW.repository.TripRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Posts settled payments to the double-entry ledger and serves driver earnings
+ * from the incrementally maintained balance aggregates.
+ */
+@Service
+@Slf4j
+public class LedgerService {
+    
+    private static final String PLATFORM_ACCOUNT = "platform";
+    
+    private final LedgerWriter ledgerWriter;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final DriverBalanceRepository driverBalanceRepository;
+    private final DriverDailyBalanceRepository driverDailyBalanceRepository;
+    private final TripRepository tripRepository;
+    private final PaymentRepository paymentRepository;
+    private final ObjectMapper objectMapper;
+    private final double platformFeeRate;
+    private final long postTimeoutMs;
+    
+    public LedgerService(
+            LedgerWriter ledgerWriter,
+            LedgerEntryRepository ledgerEntryRepository,
+            DriverBalanceRepository driverBalanceRepository,
+            DriverDailyBalanceRepository driverDailyBalanceRepository,
+            TripRepository tripRepository,
+            PaymentRepository paymentRepository,
+            ObjectMapper objectMapper,
+            @Value("${ledger.platform-fee-rate:0.20}") double platformFeeRate,
+            @Value("${ledger.post-timeout-ms:30000}") long postTimeoutMs) {
+        this.ledgerWriter = ledgerWriter;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.driverBalanceRepository = driverBalanceRepository;
+        this.driverDailyBalanceRepository = driverDailyBalanceRepository;
+        this.tripRepository = tripRepository;
+        this.paymentRepository = paymentRepository;
+        this.objectMapper = objectMapper;
+        this.platformFeeRate = platformFeeRate;
+        this.postTimeoutMs = postTimeoutMs;
+    }
+    
+    /**
+     * Post every successful payment in the batch and wait until the ledger has committed them
+     */
+    public void postSettledPayments(List<DomainEvent> events) {
+        List<Settlement> settled = new ArrayList<>();
+        for (DomainEvent event : events) {
+            if (event.getEventType() != OutboxEventType.PAYMENT_STATUS_CHANGED) {
+                continue;
+            }
+            JsonNode payload = readPayload(event);
+            if (PaymentStatus.SUCCESS.name().equals(payload.path("status").asText())) {
+                settled.add(new Settlement(payload.path("paymentId").asText(), payload.path("tripId").asLong(),
+                    payload.path("amount").asDouble(), event.getOccurredAt().toLocalDate()));
+            }
+        }
+        post(settled);
+    }
+    
+    /**
+     * Post successful payments completed in [after, before) that have no ledger lines, at most
+     * limit of them. The ledger sink is isolated from the outbox relay, so a batch it failed is
+     * not redelivered; this is how it catches up. Returns how many payments were posted.
+     */
+    public int postMissedPayments(LocalDateTime after, LocalDateTime before, int limit) {
+        List<Settlement> missed = paymentRepository
+            .findCompletedWithoutLedgerEntries(PaymentStatus.SUCCESS, after, before, PageRequest.of(0, limit)).stream()
+            .map(payment -> new Settlement(payment.getPaymentId(), payment.getTripId(), payment.getAmount(),
+                payment.getCompletedAt().toLocalDate()))
+            .toList();
+        post(missed);
+        return missed.size();
+    }
+    
+    private void post(List<Settlement> settled) {
+        if (settled.isEmpty()) {
+            return;
+        }
+        
+        // One round trip for the drivers of the whole batch
+        Set<Long> tripIds = settled.stream().map(Settlement::tripId).collect(Collectors.toSet());
+        Map<Long, Trip> trips = tripRepository.findAllById(tripIds).stream()
+            .collect(Collectors.toMap(Trip::getId, Function.identity()));
+        
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        for (Settlement payment : settled) {
+            Trip trip = trips.get(payment.tripId());
+            if (trip == null) {
+                log.error("Cannot post payment {} to ledger: trip {} not found", payment.paymentId(), payment.tripId());
+                continue;
+            }
+            pending.add(ledgerWriter.append(buildEntries(payment.paymentId(), trip, payment.amount(), payment.settledOn())));
+        }
+        
+        try {
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).get(postTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while posting to ledger", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Ledger posting failed: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Balanced entries for one payment: rider debit = platform fee credit + driver credit
+     */
+    List<LedgerEntry> buildEntries(String paymentId, Trip trip, double amount, LocalDate businessDate) {
+        long totalMinor = Math.round(amount * 100);
+        long feeMinor = Math.round(totalMinor * platformFeeRate);
+        long driverMinor = totalMinor - feeMinor;
+        
+        return List.of(
+            entry(paymentId, trip, businessDate, LedgerEntryType.RIDER_CHARGE, LedgerDirection.DEBIT,
+                "rider:" + trip.getRiderId(), totalMinor),
+            entry(paymentId, trip, businessDate, LedgerEntryType.PLATFORM_FEE, LedgerDirection.CREDIT,
+                PLATFORM_ACCOUNT, feeMinor),
+            entry(paymentId, trip, businessDate, LedgerEntryType.DRIVER_CREDIT, LedgerDirection.CREDIT,
+                "driver:" + trip.getDriverId(), driverMinor));
+    }
+    
+    private LedgerEntry entry(String paymentId, Trip trip, LocalDate businessDate, LedgerEntryType type,
+                              LedgerDirection direction, String account, long amountMinor) {
+        return LedgerEntry.builder()
+            .transactionId(paymentId)
+            .entryType(type)
+            .direction(direction)
+            .account(account)
+            .amountMinor(amountMinor)
+            .tripId(trip.getId())
+            .driverId(trip.getDriverId())
+            .riderId(trip.getRiderId())
+            .businessDate(businessDate)
+            .build();
+    }
+    
+    /**
+     * Driver earnings in two primary-key lookups, independent of trip history size
+     */
+    @Transactional(readOnly = true)
+    public DriverEarningsResponse getDriverEarnings(Long driverId, String driverIdString, LocalDate date) {
+        Optional<DriverBalance> balance = driverBalanceRepository.findById(driverId);
+        Optional<DriverDailyBalance> day = driverDailyBalanceRepository.findByDriverIdAndBusinessDate(driverId, date);
+        
+        return DriverEarningsResponse.builder()
+            .driverId(driverIdString)
+            .totalEarnings(balance.map(b -> b.getEarningsMinor() / 100.0).orElse(0.0))
+            .totalTrips(balance.map(DriverBalance::getTripCount).orElse(0L))
+            .date(date)
+            .dayEarnings(day.map(d -> d.getEarningsMinor() / 100.0).orElse(0.0))
+            .dayTrips(day.map(DriverDailyBalance::getTripCount).orElse(0L))
+            .build();
+    }
+    
+    /**
+     * Rebuild both aggregate tables from the ledger. The ledger is the source of truth,
+     * so this repairs any drift and is safe to run at any time writes are paused.
+     */
+    @Transactional
+    public void rebuildAggregates() {
+        driverDailyBalanceRepository.deleteAllInBatch();
+        driverBalanceRepository.deleteAllInBatch();
+        
+        List<DriverBalance> balances = new ArrayList<>();
+        for (Object[] row : ledgerEntryRepository.sumByDriver(LedgerEntryType.DRIVER_CREDIT)) {
+            balances.add(DriverBalance.builder()
+                .driverId((Long) row[0])
+                .earningsMinor(((Number) row[1]).longValue())
+                .tripCount(((Number) row[2]).longValue())
+                .build());
+        }
+        driverBalanceRepository.saveAll(balances);
+        
+        List<DriverDailyBalance> daily = new ArrayList<>();
+        for (Object[] row : ledgerEntryRepository.sumByDriverAndDay(LedgerEntryType.DRIVER_CREDIT)) {
+            daily.add(DriverDailyBalance.builder()
+                .driverId((Long) row[0])
+                .businessDate((LocalDate) row[1])
+                .earningsMinor(((Number) row[2]).longValue())
+                .tripCount(((Number) row[3]).longValue())
+                .build());
+        }
+        driverDailyBalanceRepository.saveAll(daily);
+        
+        log.info("Rebuilt ledger aggregates: {} driver balances, {} daily balances", balances.size(), daily.size());
+    }
+    
+    private record Settlement(String paymentId, Long tripId, double amount, LocalDate settledOn) {
+    }
+    
+    private JsonNode readPayload(DomainEvent event) {
+        try {
+            return objectMapper.readTree(event.getPayload());
+        } catch (IOException e) {
+            throw new IllegalStateException("Unreadable payload for outbox event " + event.getEventId(), e);
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.interview.gocomet.GoComet.DAW.service;
+
+import com.interview.gocomet.GoComet.DAW.model.DriverBalance;
+import com.interview.gocomet.GoComet.DAW.model.DriverDailyBalance;
+import com.interview.gocomet.GoComet.DAW.model.LedgerEntry;
+import com.interview.gocomet.GoComet.DAW.model.LedgerEntryType;
+import com.interview.gocomet.GoComet.DAW.repository.DriverBalanceRepository;
+import com.interview.gocomet.GoComet.DAW.repository.DriverDailyBalanceRepository;
+import com.interview.gocomet.GoComet.DAW.repository.LedgerEntryRepository;
+import com.interview.gocomet.GoComet.DAW.sharding.Region;
+import com.interview.gocomet.GoComet.DAW.sharding.ShardContext;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Group-commit writer for the ledger.
+ * Callers enqueue the entries of one ledger transaction and get a future that completes
+ * once they are durable. A single writer thread coalesces everything queued within
+ * {@code ledger.group-commit.max-wait-ms} (or up to {@code max-entries}) into one database
+ * transaction that inserts the entries and folds them into the driver balance aggregates.
+ * Ledger transactions that were already written are skipped, so redelivery is harmless.
+ * Each append is written on the region it was queued from; a group spanning regions
+ * commits once per region.
+ */
+@Service
+@Slf4j
+public class LedgerWriter {
+    
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final DriverBalanceRepository driverBalanceRepository;
+    private final DriverDailyBalanceRepository driverDailyBalanceRepository;
+    private final BulkWriter bulkWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxEntries;
+    private final long maxWaitMs;
+    
+    private final BlockingQueue<PendingAppend> queue;
+    private Thread writerThread;
+    private volatile boolean running;
+    
+    public LedgerWriter(
+            LedgerEntryRepository ledgerEntryRepository,
+            DriverBalanceRepository driverBalanceRepository,
+            DriverDailyBalanceRepository driverDailyBalanceRepository,
+            BulkWriter bulkWriter,
+            PlatformTransactionManager transactionManager,
+            @Value("${ledger.group-commit.max-entries:600}") int maxEntries,
+            @Value("${ledger.group-commit.max-wait-ms:5}") long maxWaitMs,
+            @Value("${ledger.group-commit.queue-capacity:10000}") int queueCapacity) {
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.driverBalanceRepository = driverBalanceRepository;
+        this.driverDailyBalanceRepository = driverDailyBalanceRepository;
+        this.bulkWriter = bulkWriter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxEntries = maxEntries;
+        this.maxWaitMs = maxWaitMs;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+    
+    @PostConstruct
+    public void start() {
+        running = true;
+        writerThread = new Thread(this::runLoop, "ledger-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+    
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (writerThread != null) {
+            writerThread.interrupt();
+        }
+    }
+    
+    /**
+     * Queue the entries of one ledger transaction. The future completes after commit.
+     */
+    public CompletableFuture<Void> append(List<LedgerEntry> entries) {
+        PendingAppend pending = new PendingAppend(entries, ShardContext.current(), new CompletableFuture<>());
+        if (!queue.offer(pending)) {
+            pending.future.completeExceptionally(new IllegalStateException("Ledger write queue is full"));
+        }
+        return pending.future;
+    }
+    
+    private void runLoop() {
+        List<PendingAppend> group = new ArrayList<>();
+        while (running) {
+            try {
+                PendingAppend first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                int entryCount = first.entries.size();
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+                while (entryCount < maxEntries) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingAppend next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    group.add(next);
+                    entryCount += next.entries.size();
+                }
+                commitGroup(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                group.clear();
+            }
+        }
+        PendingAppend leftover;
+        while ((leftover = queue.poll()) != null) {
+            leftover.future.completeExceptionally(new IllegalStateException("Ledger writer stopped"));
+        }
+    }
+    
+    private void commitGroup(List<PendingAppend> group) {
+        Map<Region, List<PendingAppend>> byRegion = new LinkedHashMap<>();
+        for (PendingAppend pending : group) {
+            byRegion.computeIfAbsent(pending.region, region -> new ArrayList<>()).add(pending);
+        }
+        byRegion.forEach((region, appends) -> {
+            try (ShardContext.Scope ignored = ShardContext.enter(region)) {
+                commitRegion(appends);
+            }
+        });
+    }
+    
+    private void commitRegion(List<PendingAppend> group) {
+        List<LedgerEntry> entries = group.stream()
+            .flatMap(pending -> pending.entries.stream())
+            .collect(Collectors.toList());
+        try {
+            int written = transactionTemplate.execute(status -> writeBatch(entries));
+            group.forEach(pending -> pending.future.complete(null));
+            log.debug("Ledger group commit: {} appends, {} entries written", group.size(), written);
+        } catch (Exception e) {
+            log.error("Ledger group commit of {} entries failed: {}", entries.size(), e.getMessage(), e);
+            group.forEach(pending -> pending.future.completeExceptionally(e));
+        }
+    }
+    
+    /**
+     * Insert new entries and fold their driver credits into the balances. Runs inside the group transaction.
+     */
+    int writeBatch(List<LedgerEntry> entries) {
+        Set<String> transactionIds = entries.stream().map(LedgerEntry::getTransactionId).collect(Collectors.toSet());
+        Set<String> alreadyWritten = new HashSet<>(ledgerEntryRepository.findExistingTransactionIds(transactionIds));
+        
+        // Skip whole ledger transactions that were already posted, including duplicates inside this batch
+        Set<String> seen = new HashSet<>();
+        List<LedgerEntry> fresh = new ArrayList<>();
+        for (LedgerEntry entry : entries) {
+            String key = entry.getTransactionId() + "/" + entry.getEntryType();
+            if (!alreadyWritten.contains(entry.getTransactionId()) && seen.add(key)) {
+                fresh.add(entry);
+            }
+        }
+        if (fresh.isEmpty()) {
+            return 0;
+        }
+        
+        bulkWriter.insertAll(fresh);
+        applyToBalances(fresh);
+        return fresh.size();
+    }
+    
+    private void applyToBalances(List<LedgerEntry> entries) {
+        Map<Long, long[]> lifetime = new HashMap<>();
+        Map<DailyKey, long[]> daily = new HashMap<>();
+        for (LedgerEntry entry : entries) {
+            if (entry.getEntryType() != LedgerEntryType.DRIVER_CREDIT) {
+                continue;
+            }
+            long[] total = lifetime.computeIfAbsent(entry.getDriverId(), id -> new long[2]);
+            total[0] += entry.getAmountMinor();
+            total[1]++;
+            long[] day = daily.computeIfAbsent(new DailyKey(entry.getDriverId(), entry.getBusinessDate()), key -> new long[2]);
+            day[0] += entry.getAmountMinor();
+            day[1]++;
+        }
+        if (lifetime.isEmpty()) {
+            return;
+        }
+        
+        Map<Long, DriverBalance> balances = driverBalanceRepository.findAllById(lifetime.keySet()).stream()
+            .collect(Collectors.toMap(DriverBalance::getDriverId, balance -> balance));
+        List<DriverBalance> updatedBalances = new ArrayList<>();
+        lifetime.forEach((driverId, delta) -> {
+            DriverBalance balance = balances.getOrDefault(driverId,
+                DriverBalance.builder().driverId(driverId).earningsMinor(0L).tripCount(0L).build());
+            balance.setEarningsMinor(balance.getEarningsMinor() + delta[0]);
+            balance.setTripCount(balance.getTripCount() + delta[1]);
+            updatedBalances.add(balance);
+        });
+        driverBalanceRepository.saveAll(updatedBalances);
+        
+        // One query for every (driver, day) in the group; a group usually spans a day or two
+        Set<LocalDate> dates = daily.keySet().stream().map(DailyKey::businessDate).collect(Collectors.toSet());
+        Map<DailyKey, DriverDailyBalance> existingDaily = driverDailyBalanceRepository
+            .findByDriverIdInAndBusinessDateIn(lifetime.keySet(), dates).stream()
+            .collect(Collectors.toMap(balance -> new DailyKey(balance.getDriverId(), balance.getBusinessDate()),
+                balance -> balance));
+        List<DriverDailyBalance> updatedDaily = new ArrayList<>();
+        daily.forEach((key, delta) -> {
+            DriverDailyBalance balance = existingDaily.computeIfAbsent(key, missing -> DriverDailyBalance.builder()
+                .driverId(missing.driverId)
+                .businessDate(missing.businessDate)
+                .earningsMinor(0L)
+                .tripCount(0L)
+                .build());
+            balance.setEarningsMinor(balance.getEarningsMinor() + delta[0]);
+            balance.setTripCount(balance.getTripCount() + delta[1]);
+            updatedDaily.add(balance);
+        });
+        driverDailyBalanceRepository.saveAll(updatedDaily);
+    }
+    
+    private record DailyKey(Long driverId, LocalDate businessDate) {
+    }
+    
+    private record PendingAppend(List<LedgerEntry> entries, Region region, CompletableFuture<Void> future) {
+    }
+}
@@ -0,0 +1,145 @@
+package com.interview.gocomet.GoComet.DAW.service;
+
+import com.interview.gocomet.GoComet.DAW.event.DomainEvent;
+import com.interview.gocomet.GoComet.DAW.event.OutboxSink;
+import com.interview.gocomet.GoComet.DAW.model.OutboxEvent;
+import com.interview.gocomet.GoComet.DAW.repository.OutboxEventRepository;
+import com.interview.gocomet.GoComet.DAW.sharding.ScatterGather;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the transactional outbox to the configured sinks.
+ * Each batch is read in createdAt order, delivered to every sink, then marked published.
+ * Outbox ids come from pooled sequence blocks, so they do not follow write order across nodes,
+ * and a row only becomes visible when its transaction commits. The relay therefore only claims
+ * rows older than a settle window (outbox.relay.settle-ms): a transaction that wrote an earlier
+ * row and is still committing gets that long to land before a later row is published past it.
+ * A transaction held open longer than the window after writing its row can still be overtaken.
+ * The read and the mark are separate short repository transactions, so no DB connection
+ * is held while sinks are publishing or between batches. A failing sink stops the drain
+ * at that batch, which keeps per-aggregate order intact at the cost of redelivery; an isolated
+ * sink (the ledger) is skipped instead, so it cannot hold up the others.
+ * Run the relay on a single node (outbox.relay.enabled) to keep that ordering guarantee.
+ * With region shards each region has its own outbox, drained in turn; events are published
+ * on their region, so sinks that read back (the ledger, push) stay on it.
+ */
+@Service
+@Slf4j
+public class OutboxRelay {
+    
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxSink> sinks;
+    private final ScatterGather scatterGather;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final long retentionHours;
+    private final long settleMillis;
+    
+    private final AtomicBoolean running = new AtomicBoolean();
+    
+    public OutboxRelay(
+            OutboxEventRepository outboxEventRepository,
+            List<OutboxSink> sinks,
+            ScatterGather scatterGather,
+            @Value("${outbox.relay.enabled:true}") boolean enabled,
+            @Value("${outbox.relay.batch-size:500}") int batchSize,
+            @Value("${outbox.relay.max-batches-per-run:20}") int maxBatchesPerRun,
+            @Value("${outbox.retention-hours:24}") long retentionHours,
+            @Value("${outbox.relay.settle-ms:1000}") long settleMillis) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sinks = sinks;
+        this.scatterGather = scatterGather;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.retentionHours = retentionHours;
+        this.settleMillis = settleMillis;
+    }
+    
+    /**
+     * Keep draining full batches back-to-back so bursts are cleared quickly,
+     * then back off until the next poll once the outbox is caught up.
+     */
+    @Scheduled(fixedDelayString = "${outbox.relay.poll-interval-ms:200}")
+    public void relay() {
+        if (!enabled || sinks.isEmpty() || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            scatterGather.forEachRegion(this::drainRegion);
+        } finally {
+            running.set(false);
+        }
+    }
+    
+    private void drainRegion() {
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            if (drainBatch() < batchSize) {
+                break;
+            }
+        }
+    }
+    
+    /**
+     * Relay one batch; returns the number of events published
+     */
+    int drainBatch() {
+        LocalDateTime settledBefore = LocalDateTime.now().minus(settleMillis, ChronoUnit.MILLIS);
+        List<OutboxEvent> batch = outboxEventRepository.findSettled(settledBefore, PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        
+        List<DomainEvent> events = batch.stream()
+            .map(DomainEvent::from)
+            .collect(Collectors.toList());
+        
+        for (OutboxSink sink : sinks) {
+            try {
+                sink.publish(events);
+            } catch (Exception e) {
+                if (sink.isIsolated()) {
+                    log.warn("Isolated outbox sink '{}' failed at event {}, moving on: {}",
+                        sink.getName(), events.get(0).getEventId(), e.getMessage());
+                    continue;
+                }
+                log.warn("Outbox sink '{}' failed at event {}, will retry: {}",
+                    sink.getName(), events.get(0).getEventId(), e.getMessage());
+                return 0;
+            }
+        }
+        
+        List<Long> ids = batch.stream().map(OutboxEvent::getId).collect(Collectors.toList());
+        outboxEventRepository.markPublished(ids, LocalDateTime.now());
+        log.debug("Relayed {} outbox events (up to {})", ids.size(), events.get(events.size() - 1).getOccurredAt());
+        return ids.size();
+    }
+    
+    @Scheduled(fixedDelayString = "${outbox.cleanup-interval-ms:3600000}")
+    public void purgePublished() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+        scatterGather.forEachRegion(() -> {
+            int deleted = outboxEventRepository.deletePublishedBefore(cutoff);
+            if (deleted > 0) {
+                log.info("Purged {} published outbox events", deleted);
+            }
+        });
+    }
+    
+    public long getBacklog() {
+        return scatterGather.gather(() -> List.of(outboxEventRepository.countByPublishedAtIsNull())).stream()
+            .mapToLong(Long::longValue)
+            .sum();
+    }
+}
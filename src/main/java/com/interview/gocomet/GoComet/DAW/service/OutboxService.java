@@ -0,0 +1,95 @@
+package com.interview.gocomet.GoComet.DAW.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interview.gocomet.GoComet.DAW.model.OutboxEvent;
+import com.interview.gocomet.GoComet.DAW.model.OutboxEventType;
+import com.interview.gocomet.GoComet.DAW.model.Payment;
+import com.interview.gocomet.GoComet.DAW.model.Ride;
+import com.interview.gocomet.GoComet.DAW.model.Trip;
+import com.interview.gocomet.GoComet.DAW.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Writes domain events to the transactional outbox.
+ * Every method requires an existing transaction so the event commits or rolls back
+ * together with the entity change; {@link OutboxRelay} publishes it afterwards.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxService {
+    
+    public static final String AGGREGATE_RIDE = "RIDE";
+    public static final String AGGREGATE_TRIP = "TRIP";
+    public static final String AGGREGATE_PAYMENT = "PAYMENT";
+    
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordRideEvent(Ride ride, OutboxEventType eventType) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("rideId", ride.getRideId());
+        payload.put("riderId", ride.getRiderId());
+        payload.put("status", ride.getStatus());
+        payload.put("driverId", ride.getDriverId());
+        payload.put("tripId", ride.getTripId());
+        payload.put("tier", ride.getTier());
+        payload.put("pickupLatitude", ride.getPickupLatitude());
+        payload.put("pickupLongitude", ride.getPickupLongitude());
+        record(AGGREGATE_RIDE, ride.getRideId(), eventType, payload);
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTripEvent(Trip trip, OutboxEventType eventType) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("tripId", trip.getTripId());
+        payload.put("id", trip.getId());
+        payload.put("rideId", trip.getRideId());
+        payload.put("driverId", trip.getDriverId());
+        payload.put("riderId", trip.getRiderId());
+        payload.put("status", trip.getStatus());
+        payload.put("distanceKm", trip.getDistanceKm());
+        payload.put("durationMinutes", trip.getDurationMinutes());
+        payload.put("totalFare", trip.getTotalFare());
+        record(AGGREGATE_TRIP, trip.getTripId(), eventType, payload);
+    }
+    
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordPaymentEvent(Payment payment, OutboxEventType eventType) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("paymentId", payment.getPaymentId());
+        payload.put("tripId", payment.getTripId());
+        payload.put("riderId", payment.getRiderId());
+        payload.put("amount", payment.getAmount());
+        payload.put("paymentMethod", payment.getPaymentMethod());
+        payload.put("status", payment.getStatus());
+        payload.put("pspTransactionId", payment.getPspTransactionId());
+        record(AGGREGATE_PAYMENT, payment.getPaymentId(), eventType, payload);
+    }
+    
+    private void record(String aggregateType, String aggregateId, OutboxEventType eventType, Map<String, Object> payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + eventType + " for " + aggregateId, e);
+        }
+        
+        outboxEventRepository.save(OutboxEvent.builder()
+            .aggregateType(aggregateType)
+            .aggregateId(aggregateId)
+            .eventType(eventType)
+            .payload(json)
+            .build());
+        log.debug("Recorded outbox event {} for {} {}", eventType, aggregateType, aggregateId);
+    }
+}
@@ -0,0 +1,20 @@
+package com.interview.gocomet.GoComet.DAW.service;
+
+import com.interview.gocomet.GoComet.DAW.model.Payment;
+
+/**
+ * External PSP (Payment Service Provider) integration.
+ * Implementations must treat {@link Payment#getPaymentId()} as the idempotency key,
+ * because the same payment can be submitted more than once after a timeout.
+ * A call that outlives payment.psp.timeout-ms is interrupted, so blocking I/O should be
+ * interruptible (or carry its own timeout no longer than that) to free the bulkhead worker.
+ */
+public interface PaymentGateway {
+
+    /**
+     * Charge the payment and return the PSP transaction id.
+     *
+     * @throws com.interview.gocomet.GoComet.DAW.exception.PaymentDeclinedException if the PSP rejects the charge
+     */
+    String charge(Payment payment);
+}
@@ -0,0 +1,313 @@
+package com.interview.gocomet.GoComet.DAW.service;
+
+import com.interview.gocomet.GoComet.DAW.event.PaymentSubmittedEvent;
+import com.interview.gocomet.GoComet.DAW.exception.PaymentDeclinedException;
+import com.interview.gocomet.GoComet.DAW.model.Payment;
+import com.interview.gocomet.GoComet.DAW.profiling.PaymentCallEvent;
+import com.interview.gocomet.GoComet.DAW.resilience.CircuitBreaker;
+import com.interview.gocomet.GoComet.DAW.sharding.Region;
+import com.interview.gocomet.GoComet.DAW.sharding.RegionDirectory;
+import com.interview.gocomet.GoComet.DAW.sharding.ScatterGather;
+import com.interview.gocomet.GoComet.DAW.sharding.ShardContext;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives PENDING payments through the PSP off the request thread.
+ * PSP calls run on a bounded, dedicated executor (bulkhead) with a per-attempt timeout,
+ * full-jitter exponential backoff between attempts and a circuit breaker around the gateway.
+ * The timeout starts when a worker picks the attempt up, not while it waits in the bulkhead
+ * queue. An attempt that times out is cancelled: its worker is interrupted, so a hung PSP call
+ * gives its bulkhead slot back instead of running on next to the retry. An attempt that waited
+ * in the queue longer than the queue timeout is dropped without calling the PSP; like a full
+ * bulkhead it says nothing about the PSP's health, so it neither trips the breaker nor retries.
+ * Payments that cannot be attempted right now (bulkhead full, breaker open) stay PENDING
+ * and are picked up again by the stale-payment sweep.
+ * With spring.threads.virtual.enabled the bulkhead workers are virtual threads; the pool and
+ * queue bounds still cap how many PSP calls are in flight.
+ * With region shards a payment is read and written on the region in its id, whichever
+ * thread the attempt runs on; the sweep looks for stale payments in every region.
+ */
+@Service
+@Slf4j
+public class PaymentProcessor {
+
+    private final PaymentService paymentService;
+    private final PaymentGateway paymentGateway;
+    private final RegionDirectory regionDirectory;
+    private final ScatterGather scatterGather;
+    private final CircuitBreaker circuitBreaker;
+    private final ThreadPoolExecutor pspExecutor;
+    private final ScheduledExecutorService retryScheduler;
+    // Outcomes of timed-out attempts, off the scheduler thread that noticed the timeout
+    private final ExecutorService timeoutOutcomes;
+
+    private final Duration callTimeout;
+    private final Duration queueTimeout;
+    private final int maxAttempts;
+    private final long backoffBaseMs;
+    private final long backoffMaxMs;
+    private final Duration staleAfter;
+
+    // Payments currently owned by this node, so duplicate submissions don't double-charge
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    public PaymentProcessor(
+            PaymentService paymentService,
+            PaymentGateway paymentGateway,
+            RegionDirectory regionDirectory,
+            ScatterGather scatterGather,
+            @Value("${payment.psp.bulkhead.max-concurrent:16}") int maxConcurrent,
+            @Value("${payment.psp.bulkhead.queue-capacity:200}") int queueCapacity,
+            @Value("${payment.psp.bulkhead.queue-timeout-ms:5000}") long queueTimeoutMs,
+            @Value("${payment.psp.timeout-ms:3000}") long timeoutMs,
+            @Value("${payment.psp.retry.max-attempts:4}") int maxAttempts,
+            @Value("${payment.psp.retry.backoff-base-ms:200}") long backoffBaseMs,
+            @Value("${payment.psp.retry.backoff-max-ms:5000}") long backoffMaxMs,
+            @Value("${payment.psp.circuit-breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${payment.psp.circuit-breaker.open-ms:10000}") long openMs,
+            @Value("${payment.psp.stale-after-ms:60000}") long staleAfterMs,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.paymentService = paymentService;
+        this.paymentGateway = paymentGateway;
+        this.regionDirectory = regionDirectory;
+        this.scatterGather = scatterGather;
+        this.callTimeout = Duration.ofMillis(timeoutMs);
+        this.queueTimeout = Duration.ofMillis(queueTimeoutMs);
+        this.maxAttempts = maxAttempts;
+        this.backoffBaseMs = backoffBaseMs;
+        this.backoffMaxMs = backoffMaxMs;
+        this.staleAfter = Duration.ofMillis(staleAfterMs);
+        this.circuitBreaker = new CircuitBreaker("psp", failureThreshold, Duration.ofMillis(openMs));
+        this.pspExecutor = new ThreadPoolExecutor(
+            maxConcurrent, maxConcurrent, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            virtualThreads ? Thread.ofVirtual().name("psp-worker-", 1).factory() : namedThreads("psp-worker-"),
+            new ThreadPoolExecutor.AbortPolicy());
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(namedThreads("psp-retry-"));
+        this.timeoutOutcomes = Executors.newFixedThreadPool(2, namedThreads("psp-timeout-"));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPaymentSubmitted(PaymentSubmittedEvent event) {
+        submit(event.getPaymentId());
+    }
+
+    /**
+     * Start processing a payment unless this node is already working on it
+     */
+    public void submit(String paymentId) {
+        if (!inFlight.add(paymentId)) {
+            log.debug("Payment {} already in flight", paymentId);
+            return;
+        }
+        attempt(paymentId, 1);
+    }
+
+    private void attempt(String paymentId, int attempt) {
+        Region region = regionDirectory.ofBusinessId(paymentId);
+        PaymentCallEvent event = new PaymentCallEvent();
+        event.begin();
+        event.setPaymentId(paymentId);
+        event.setAttempt(attempt);
+        CompletableFuture<String> call = new CompletableFuture<>();
+        long queuedAt = System.nanoTime();
+        Future<?> task;
+        try {
+            task = pspExecutor.submit(() -> {
+                if (System.nanoTime() - queuedAt > queueTimeout.toNanos()) {
+                    call.completeExceptionally(new QueueExpiredException());
+                    return;
+                }
+                ScheduledFuture<?> timeout = retryScheduler.schedule(
+                    () -> call.completeExceptionally(new TimeoutException()), callTimeout.toMillis(), TimeUnit.MILLISECONDS);
+                try {
+                    call.complete(ShardContext.callIn(region, () -> charge(paymentId)));
+                } catch (Throwable e) {
+                    call.completeExceptionally(e);
+                } finally {
+                    timeout.cancel(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("PSP bulkhead full, payment {} stays pending for the sweep", paymentId);
+            inFlight.remove(paymentId);
+            event.setOutcome("bulkhead_full");
+            event.commit();
+            return;
+        }
+
+        call.whenComplete((pspTransactionId, error) -> {
+            recordCall(event, pspTransactionId, error);
+            Runnable outcome = () -> ShardContext.runIn(region,
+                () -> onAttemptComplete(paymentId, attempt, pspTransactionId, error));
+            if (error instanceof TimeoutException) {
+                // Completed by the timeout on the scheduler thread, with the worker still in the call
+                task.cancel(true);
+                timeoutOutcomes.execute(outcome);
+            } else {
+                outcome.run();
+            }
+        });
+    }
+
+    private static void recordCall(PaymentCallEvent event, String pspTransactionId, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        String outcome;
+        if (cause == null) {
+            outcome = pspTransactionId != null ? "charged" : "nothing_to_charge";
+        } else if (cause instanceof CallNotPermittedException) {
+            outcome = "circuit_open";
+        } else if (cause instanceof PaymentDeclinedException) {
+            outcome = "declined";
+        } else if (cause instanceof QueueExpiredException) {
+            outcome = "queue_expired";
+        } else if (cause instanceof TimeoutException) {
+            outcome = "timeout";
+        } else {
+            outcome = "failed";
+        }
+        event.setOutcome(outcome);
+        event.setPspTransactionId(pspTransactionId);
+        event.commit();
+    }
+
+    /**
+     * Runs on the bulkhead. Returns null if there is nothing left to charge.
+     */
+    private String charge(String paymentId) {
+        if (!circuitBreaker.tryAcquire()) {
+            throw new CallNotPermittedException();
+        }
+        Optional<Payment> payment = paymentService.markProcessing(paymentId);
+        if (payment.isEmpty()) {
+            return null;
+        }
+        return paymentGateway.charge(payment.get());
+    }
+
+    private void onAttemptComplete(String paymentId, int attempt, String pspTransactionId, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        try {
+            if (cause == null) {
+                circuitBreaker.onSuccess();
+                if (pspTransactionId != null) {
+                    paymentService.completePayment(paymentId, pspTransactionId);
+                }
+                inFlight.remove(paymentId);
+            } else if (cause instanceof CallNotPermittedException) {
+                log.debug("PSP circuit open, payment {} stays pending for the sweep", paymentId);
+                inFlight.remove(paymentId);
+            } else if (cause instanceof QueueExpiredException) {
+                log.warn("Payment {} waited over {} ms for a PSP worker, stays pending for the sweep",
+                    paymentId, queueTimeout.toMillis());
+                inFlight.remove(paymentId);
+            } else if (cause instanceof PaymentDeclinedException) {
+                // The PSP answered, so it is healthy; the decline itself is final
+                circuitBreaker.onSuccess();
+                paymentService.failPayment(paymentId, cause.getMessage());
+                inFlight.remove(paymentId);
+            } else {
+                circuitBreaker.onFailure();
+                String reason = cause instanceof TimeoutException
+                    ? "PSP timed out after " + callTimeout.toMillis() + " ms"
+                    : cause.getMessage();
+                if (attempt < maxAttempts) {
+                    long delay = backoffDelayMs(attempt);
+                    log.warn("PSP attempt {}/{} for payment {} failed ({}), retrying in {} ms",
+                        attempt, maxAttempts, paymentId, reason, delay);
+                    retryScheduler.schedule(() -> attempt(paymentId, attempt + 1), delay, TimeUnit.MILLISECONDS);
+                } else {
+                    paymentService.failPayment(paymentId, "PSP unavailable after " + attempt + " attempts: " + reason);
+                    inFlight.remove(paymentId);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error recording PSP outcome for payment {}: {}", paymentId, e.getMessage(), e);
+            inFlight.remove(paymentId);
+        }
+    }
+
+    /**
+     * Full-jitter exponential backoff: uniform in [0, min(max, base * 2^(attempt-1))]
+     */
+    long backoffDelayMs(int attempt) {
+        long ceiling = Math.min(backoffMaxMs, backoffBaseMs << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * Re-submit payments that were left pending (bulkhead rejections, open breaker, node restarts)
+     */
+    @Scheduled(fixedDelayString = "${payment.psp.sweep-interval-ms:15000}")
+    public void resubmitStalePayments() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(staleAfter);
+        List<String> stale = scatterGather.gather(() -> paymentService.findStalePaymentIds(cutoff));
+        for (String paymentId : stale) {
+            submit(paymentId);
+        }
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryScheduler.shutdownNow();
+        pspExecutor.shutdown();
+        timeoutOutcomes.shutdown();
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static class CallNotPermittedException extends RuntimeException {
+        CallNotPermittedException() {
+            super("PSP circuit breaker is open", null, false, false);
+        }
+    }
+
+    private static class QueueExpiredException extends RuntimeException {
+        QueueExpiredException() {
+            super("Waited too long for a PSP worker", null, false, false);
+        }
+    }
+}
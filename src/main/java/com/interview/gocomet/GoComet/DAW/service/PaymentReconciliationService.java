@@ -0,0 +1,327 @@
+package com.interview.gocomet.GoComet.DAW.service;
+
+import com.interview.gocomet.GoComet.DAW.dto.ReconciliationReport;
+import com.interview.gocomet.GoComet.DAW.model.PaymentStatus;
+import com.interview.gocomet.GoComet.DAW.model.ReconciliationMismatchType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Properties;
+
+/**
+ * Reconciles the payments table against a PSP settlement file in constant memory.
+ * <p>
+ * Both inputs are streamed in payment id order and joined with a sort-merge: payments are
+ * read in keyset pages ({@code payment_id > ?}), the CSV line by line. Only the current row
+ * of each side and one page of payments are held at a time. Mismatches are appended to an
+ * output CSV, and every {@code checkpoint-interval} keys the job flushes the output and writes
+ * a checkpoint (last merged key plus counters) so an interrupted run resumes where it stopped.
+ * <p>
+ * Settlement file format (header optional, sorted by paymentId):
+ * {@code paymentId,pspTransactionId,amount,status} with status SETTLED or REFUNDED.
+ * The payments table must order payment_id the same way as Java string comparison
+ * (binary/"C" collation); the job fails fast if either side is out of order.
+ */
+@Service
+@Slf4j
+public class PaymentReconciliationService {
+    
+    private static final String SETTLED = "SETTLED";
+    private static final String REFUNDED = "REFUNDED";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final int pageSize;
+    private final long checkpointInterval;
+    
+    public PaymentReconciliationService(
+            JdbcTemplate jdbcTemplate,
+            @Value("${reconciliation.page-size:1000}") int pageSize,
+            @Value("${reconciliation.checkpoint-interval:10000}") long checkpointInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.pageSize = pageSize;
+        this.checkpointInterval = checkpointInterval;
+    }
+    
+    public ReconciliationReport reconcile(Path settlementFile, Path mismatchFile, Path checkpointFile) {
+        long started = System.currentTimeMillis();
+        ReconciliationReport report = loadCheckpoint(checkpointFile);
+        String resumeAfter = report.getLastKey();
+        if (report.isResumed()) {
+            log.info("Resuming reconciliation after payment {}", resumeAfter);
+            truncateOutput(mismatchFile, report.getOutputBytes());
+        }
+        
+        try (SettlementReader settlements = new SettlementReader(Files.newBufferedReader(settlementFile, StandardCharsets.UTF_8), resumeAfter);
+             Writer out = Files.newBufferedWriter(mismatchFile, StandardCharsets.UTF_8,
+                 StandardOpenOption.CREATE, report.isResumed() ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING)) {
+            if (!report.isResumed()) {
+                out.write("paymentId,type,dbStatus,dbAmount,dbPspTransactionId,settlementStatus,settlementAmount,settlementPspTransactionId\n");
+            }
+            
+            PaymentCursor payments = new PaymentCursor(resumeAfter);
+            PaymentRow payment = payments.next();
+            SettlementRow settlement = settlements.next();
+            long sinceCheckpoint = 0;
+            
+            while (payment != null || settlement != null) {
+                int cmp = payment == null ? 1 : settlement == null ? -1 : payment.paymentId.compareTo(settlement.paymentId);
+                String key;
+                if (cmp < 0) {
+                    key = payment.paymentId;
+                    report.setPaymentsScanned(report.getPaymentsScanned() + 1);
+                    if (payment.status == PaymentStatus.SUCCESS || payment.status == PaymentStatus.REFUNDED) {
+                        emit(out, report, ReconciliationMismatchType.MISSING_IN_SETTLEMENT, payment, null);
+                    }
+                    payment = payments.next();
+                } else if (cmp > 0) {
+                    key = settlement.paymentId;
+                    report.setSettlementRowsScanned(report.getSettlementRowsScanned() + 1);
+                    emit(out, report, ReconciliationMismatchType.UNKNOWN_PAYMENT, null, settlement);
+                    settlement = settlements.next();
+                } else {
+                    key = payment.paymentId;
+                    report.setPaymentsScanned(report.getPaymentsScanned() + 1);
+                    report.setSettlementRowsScanned(report.getSettlementRowsScanned() + 1);
+                    compare(out, report, payment, settlement);
+                    payment = payments.next();
+                    settlement = settlements.next();
+                }
+                
+                report.setLastKey(key);
+                if (++sinceCheckpoint >= checkpointInterval) {
+                    out.flush();
+                    report.setOutputBytes(Files.size(mismatchFile));
+                    saveCheckpoint(checkpointFile, report);
+                    sinceCheckpoint = 0;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Reconciliation failed: " + e.getMessage(), e);
+        }
+        
+        deleteCheckpoint(checkpointFile);
+        report.setDurationMs(System.currentTimeMillis() - started);
+        log.info("Reconciliation finished: {} payments, {} settlement rows, {} matched, mismatches {}",
+            report.getPaymentsScanned(), report.getSettlementRowsScanned(), report.getMatched(), report.getMismatches());
+        return report;
+    }
+    
+    private void compare(Writer out, ReconciliationReport report, PaymentRow payment, SettlementRow settlement) throws IOException {
+        boolean statusMatches = (payment.status == PaymentStatus.SUCCESS && SETTLED.equals(settlement.status))
+            || (payment.status == PaymentStatus.REFUNDED && REFUNDED.equals(settlement.status));
+        if (!statusMatches) {
+            emit(out, report, ReconciliationMismatchType.STATUS_MISMATCH, payment, settlement);
+        } else if (payment.amountMinor != settlement.amountMinor) {
+            emit(out, report, ReconciliationMismatchType.AMOUNT_MISMATCH, payment, settlement);
+        } else if (payment.pspTransactionId == null || !payment.pspTransactionId.equals(settlement.pspTransactionId)) {
+            emit(out, report, ReconciliationMismatchType.TRANSACTION_ID_MISMATCH, payment, settlement);
+        } else {
+            report.setMatched(report.getMatched() + 1);
+        }
+    }
+    
+    private void emit(Writer out, ReconciliationReport report, ReconciliationMismatchType type,
+                      PaymentRow payment, SettlementRow settlement) throws IOException {
+        report.getMismatches().merge(type, 1L, Long::sum);
+        String paymentId = payment != null ? payment.paymentId : settlement.paymentId;
+        out.write(paymentId + "," + type + ","
+            + (payment != null ? payment.status + "," + formatMinor(payment.amountMinor) + "," + nullToEmpty(payment.pspTransactionId) : ",,") + ","
+            + (settlement != null ? settlement.status + "," + formatMinor(settlement.amountMinor) + "," + nullToEmpty(settlement.pspTransactionId) : ",,")
+            + "\n");
+    }
+    
+    private ReconciliationReport loadCheckpoint(Path checkpointFile) {
+        ReconciliationReport report = ReconciliationReport.builder().build();
+        if (checkpointFile == null || !Files.exists(checkpointFile)) {
+            return report;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(checkpointFile, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unreadable reconciliation checkpoint " + checkpointFile, e);
+        }
+        report.setResumed(true);
+        report.setLastKey(properties.getProperty("lastKey"));
+        report.setPaymentsScanned(Long.parseLong(properties.getProperty("paymentsScanned", "0")));
+        report.setSettlementRowsScanned(Long.parseLong(properties.getProperty("settlementRowsScanned", "0")));
+        report.setMatched(Long.parseLong(properties.getProperty("matched", "0")));
+        report.setOutputBytes(Long.parseLong(properties.getProperty("outputBytes", "0")));
+        for (ReconciliationMismatchType type : ReconciliationMismatchType.values()) {
+            String count = properties.getProperty("mismatch." + type);
+            if (count != null) {
+                report.getMismatches().put(type, Long.parseLong(count));
+            }
+        }
+        return report;
+    }
+    
+    /**
+     * Written to a temp file and atomically moved, so a crash never leaves a torn checkpoint
+     */
+    private void saveCheckpoint(Path checkpointFile, ReconciliationReport report) throws IOException {
+        if (checkpointFile == null) {
+            return;
+        }
+        Properties properties = new Properties();
+        properties.setProperty("lastKey", report.getLastKey());
+        properties.setProperty("paymentsScanned", String.valueOf(report.getPaymentsScanned()));
+        properties.setProperty("settlementRowsScanned", String.valueOf(report.getSettlementRowsScanned()));
+        properties.setProperty("matched", String.valueOf(report.getMatched()));
+        properties.setProperty("outputBytes", String.valueOf(report.getOutputBytes()));
+        report.getMismatches().forEach((type, count) -> properties.setProperty("mismatch." + type, String.valueOf(count)));
+        
+        Path temp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            properties.store(writer, "payment reconciliation checkpoint");
+        }
+        Files.move(temp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.debug("Reconciliation checkpoint at payment {}", report.getLastKey());
+    }
+    
+    /**
+     * Drop mismatch lines written after the last checkpoint; they are re-emitted on resume
+     */
+    private void truncateOutput(Path mismatchFile, long size) {
+        if (!Files.exists(mismatchFile)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(mismatchFile, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not truncate " + mismatchFile, e);
+        }
+    }
+    
+    private void deleteCheckpoint(Path checkpointFile) {
+        if (checkpointFile == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(checkpointFile);
+        } catch (IOException e) {
+            log.warn("Could not delete reconciliation checkpoint {}: {}", checkpointFile, e.getMessage());
+        }
+    }
+    
+    private static long toMinor(BigDecimal amount) {
+        return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+    
+    private static String formatMinor(long amountMinor) {
+        return BigDecimal.valueOf(amountMinor, 2).toPlainString();
+    }
+    
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+    
+    private record PaymentRow(String paymentId, PaymentStatus status, long amountMinor, String pspTransactionId) {
+    }
+    
+    private record SettlementRow(String paymentId, String pspTransactionId, long amountMinor, String status) {
+    }
+    
+    /**
+     * Keyset-paged, forward-only view of the payments table. Each page is a separate short
+     * query, so no connection or persistence context is held across the whole run.
+     */
+    private class PaymentCursor {
+        private final Deque<PaymentRow> page = new ArrayDeque<>();
+        private String lastPaymentId;
+        private boolean exhausted;
+        
+        PaymentCursor(String resumeAfter) {
+            this.lastPaymentId = resumeAfter;
+        }
+        
+        PaymentRow next() {
+            if (page.isEmpty() && !exhausted) {
+                fetchPage();
+            }
+            return page.poll();
+        }
+        
+        private void fetchPage() {
+            String sql = lastPaymentId == null
+                ? "SELECT payment_id, status, amount, psp_transaction_id FROM payments ORDER BY payment_id LIMIT ?"
+                : "SELECT payment_id, status, amount, psp_transaction_id FROM payments WHERE payment_id > ? ORDER BY payment_id LIMIT ?";
+            Object[] args = lastPaymentId == null ? new Object[]{pageSize} : new Object[]{lastPaymentId, pageSize};
+            jdbcTemplate.query(sql, rs -> {
+                String paymentId = rs.getString(1);
+                if (lastPaymentId != null && paymentId.compareTo(lastPaymentId) <= 0) {
+                    throw new IllegalStateException("payments are not ordered by binary payment_id; use a C/binary collation");
+                }
+                page.add(new PaymentRow(
+                    paymentId,
+                    PaymentStatus.valueOf(rs.getString(2)),
+                    toMinor(rs.getBigDecimal(3)),
+                    rs.getString(4)));
+                lastPaymentId = paymentId;
+            }, args);
+            exhausted = page.size() < pageSize;
+        }
+    }
+    
+    /**
+     * Forward-only CSV reader that skips everything up to the resume key
+     */
+    private static class SettlementReader implements AutoCloseable {
+        private final BufferedReader reader;
+        private final String resumeAfter;
+        private String previousId;
+        private long lineNumber;
+        
+        SettlementReader(BufferedReader reader, String resumeAfter) {
+            this.reader = reader;
+            this.resumeAfter = resumeAfter;
+        }
+        
+        SettlementRow next() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || (lineNumber == 1 && line.startsWith("paymentId"))) {
+                    continue;
+                }
+                String[] fields = line.split(",", -1);
+                if (fields.length < 4) {
+                    throw new IllegalStateException("Malformed settlement line " + lineNumber + ": " + line);
+                }
+                String paymentId = fields[0].trim();
+                if (previousId != null && paymentId.compareTo(previousId) <= 0) {
+                    throw new IllegalStateException("Settlement file is not sorted by paymentId at line " + lineNumber);
+                }
+                previousId = paymentId;
+                if (resumeAfter != null && paymentId.compareTo(resumeAfter) <= 0) {
+                    continue;
+                }
+                return new SettlementRow(paymentId, fields[1].trim(), toMinor(new BigDecimal(fields[2].trim())),
+                    fields[3].trim().toUpperCase());
+            }
+            return null;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
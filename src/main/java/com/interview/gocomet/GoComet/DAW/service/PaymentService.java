@@ -2,6 +2,9 @@ package com.interview.gocomet.GoComet.DAW.service;
 
 import com.interview.gocomet.GoComet.DAW.dto.PaymentRequest;
 import com.interview.gocomet.GoComet.DAW.dto.PaymentResponse;
+import com.interview.gocomet.GoComet.DAW.event.PaymentStatusChangedEvent;
+import com.interview.gocomet.GoComet.DAW.event.PaymentSubmittedEvent;
+import com.interview.gocomet.GoComet.DAW.model.OutboxEventType;
 import com.interview.gocomet.GoComet.DAW.model.Payment;
 import com.interview.gocomet.GoComet.DAW.model.PaymentStatus;
 import com.interview.gocomet.GoComet.DAW.model.Ride;
@@ -9,14 +12,19 @@ import com.interview.gocomet.GoComet.DAW.model.Trip;
 import com.interview.gocomet.GoComet.DAW.repository.PaymentRepository;
 import com.interview.gocomet.GoComet.DAW.repository.RideRepository;
 import com.interview.gocomet.GoComet.DAW.repository.TripRepository;
+import com.interview.gocomet.GoComet.DAW.sharding.ShardContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -26,16 +34,20 @@ public class PaymentService {
     private final PaymentRepository paymentRepository;
     private final TripRepository tripRepository;
     private final RideRepository rideRepository;
+    private final OutboxService outboxService;
+    private final ApplicationEventPublisher eventPublisher;
     
     /**
-     * Process payment for a trip
-     * Integrates with external PSP (Payment Service Provider)
+     * Accept a payment for a trip.
+     * Persists a PENDING payment and returns immediately; the PSP call runs
+     * asynchronously in {@link PaymentProcessor} once this transaction commits.
      */
     @Transactional
     public PaymentResponse processPayment(PaymentRequest request) {
+        List<Payment> tripPayments = paymentRepository.findByTripId(request.getTripId());
+        
         // Check if payment already exists for this trip with SUCCESS status
-        Optional<Payment> existingSuccessPayment = paymentRepository.findByTripId(request.getTripId())
-            .stream()
+        Optional<Payment> existingSuccessPayment = tripPayments.stream()
             .filter(p -> p.getStatus() == PaymentStatus.SUCCESS)
             .findFirst();
         
@@ -45,25 +57,20 @@ public class PaymentService {
         }
         
         // If there's a failed payment, we can create a new one
-        // But if there's PROCESSING/PENDING, complete it first
-        Optional<Payment> existingIncompletePayment = paymentRepository.findByTripId(request.getTripId())
-            .stream()
+        // But if there's PROCESSING/PENDING, hand it back to the PSP pipeline instead of duplicating it
+        Optional<Payment> existingIncompletePayment = tripPayments.stream()
             .filter(p -> p.getStatus() == PaymentStatus.PROCESSING || p.getStatus() == PaymentStatus.PENDING)
             .findFirst();
         
         if (existingIncompletePayment.isPresent()) {
             Payment existing = existingIncompletePayment.get();
-            log.info("Completing existing payment {} for trip {}", existing.getPaymentId(), request.getTripId());
-            existing.setStatus(PaymentStatus.SUCCESS);
-            existing.setPspTransactionId("PSP-" + UUID.randomUUID().toString());
-            existing.setPspResponse("Payment successful");
-            existing.setCompletedAt(LocalDateTime.now());
-            existing = paymentRepository.save(existing);
+            log.info("Payment {} for trip {} is still in flight", existing.getPaymentId(), request.getTripId());
+            eventPublisher.publishEvent(new PaymentSubmittedEvent(existing.getPaymentId()));
             return mapToResponse(existing);
         }
         
         // Get trip details
-        Trip trip = tripRepository.findById(request.getTripId())
+        Trip trip = tripRepository.findRecentById(request.getTripId())
             .orElseThrow(() -> new RuntimeException("Trip not found: " + request.getTripId()));
         
         if (trip.getStatus() != com.interview.gocomet.GoComet.DAW.model.TripStatus.COMPLETED) {
@@ -71,40 +78,110 @@ public class PaymentService {
         }
         
         // Get ride to get payment method
-        Ride ride = rideRepository.findById(trip.getRideId())
+        Ride ride = rideRepository.findRecentById(trip.getRideId())
             .orElseThrow(() -> new RuntimeException("Ride not found: " + trip.getRideId()));
         
-        // Create payment record and process immediately
         Payment payment = Payment.builder()
-            .paymentId("PAY-" + UUID.randomUUID().toString())
+            .paymentId("PAY-" + ShardContext.idTag() + UUID.randomUUID())
             .tripId(request.getTripId())
             .riderId(trip.getRiderId())
             .amount(trip.getTotalFare())
             .paymentMethod(ride.getPaymentMethod())
-            .status(PaymentStatus.SUCCESS) // Set to SUCCESS immediately
-            .pspTransactionId("PSP-" + UUID.randomUUID().toString())
-            .pspResponse("Payment successful")
-            .completedAt(LocalDateTime.now())
+            .status(PaymentStatus.PENDING)
+            .pspAttempts(0)
             .build();
         
-        // Simulate PSP call (no delay needed, just for logging)
-        callPaymentServiceProvider(payment);
-        
         payment = paymentRepository.save(payment);
-        log.info("Payment {} successful for trip {} - amount: {}", payment.getPaymentId(), request.getTripId(), payment.getAmount());
+        outboxService.recordPaymentEvent(payment, OutboxEventType.PAYMENT_CREATED);
+        eventPublisher.publishEvent(new PaymentSubmittedEvent(payment.getPaymentId()));
+        log.info("Payment {} accepted for trip {} - amount: {}", payment.getPaymentId(), request.getTripId(), payment.getAmount());
         
         return mapToResponse(payment);
     }
     
     /**
-     * Simulate external PSP call
-     * In production, this would call actual payment gateway
+     * Move a payment to PROCESSING before a PSP attempt.
+     * Returns empty if the payment already reached a terminal status.
      */
-    private boolean callPaymentServiceProvider(Payment payment) {
-        // No delay - payment completes immediately
-        // In production, this would call actual payment gateway
-        log.debug("Processing payment {} via PSP", payment.getPaymentId());
-        return true;
+    @Transactional
+    public Optional<Payment> markProcessing(String paymentId) {
+        Payment payment = paymentRepository.findByPaymentId(paymentId)
+            .orElseThrow(() -> new RuntimeException("Payment not found: " + paymentId));
+        
+        if (isTerminal(payment.getStatus())) {
+            return Optional.empty();
+        }
+        
+        boolean statusChanged = payment.getStatus() != PaymentStatus.PROCESSING;
+        payment.setStatus(PaymentStatus.PROCESSING);
+        payment.setPspAttempts((payment.getPspAttempts() != null ? payment.getPspAttempts() : 0) + 1);
+        payment = paymentRepository.save(payment);
+        if (statusChanged) {
+            outboxService.recordPaymentEvent(payment, OutboxEventType.PAYMENT_STATUS_CHANGED);
+            eventPublisher.publishEvent(new PaymentStatusChangedEvent(mapToResponse(payment)));
+        }
+        return Optional.of(payment);
+    }
+    
+    /**
+     * Record a successful PSP charge
+     */
+    @Transactional
+    public void completePayment(String paymentId, String pspTransactionId) {
+        Payment payment = paymentRepository.findByPaymentId(paymentId)
+            .orElseThrow(() -> new RuntimeException("Payment not found: " + paymentId));
+        
+        if (isTerminal(payment.getStatus())) {
+            log.debug("Payment {} already {}, ignoring PSP success", paymentId, payment.getStatus());
+            return;
+        }
+        
+        payment.setStatus(PaymentStatus.SUCCESS);
+        payment.setPspTransactionId(pspTransactionId);
+        payment.setPspResponse("Payment successful");
+        payment.setCompletedAt(LocalDateTime.now());
+        payment = paymentRepository.save(payment);
+        outboxService.recordPaymentEvent(payment, OutboxEventType.PAYMENT_STATUS_CHANGED);
+        eventPublisher.publishEvent(new PaymentStatusChangedEvent(mapToResponse(payment)));
+        log.info("Payment {} successful for trip {} - amount: {}", paymentId, payment.getTripId(), payment.getAmount());
+    }
+    
+    /**
+     * Record a declined or exhausted PSP charge
+     */
+    @Transactional
+    public void failPayment(String paymentId, String reason) {
+        Payment payment = paymentRepository.findByPaymentId(paymentId)
+            .orElseThrow(() -> new RuntimeException("Payment not found: " + paymentId));
+        
+        if (isTerminal(payment.getStatus())) {
+            log.debug("Payment {} already {}, ignoring PSP failure", paymentId, payment.getStatus());
+            return;
+        }
+        
+        payment.setStatus(PaymentStatus.FAILED);
+        payment.setPspResponse(reason);
+        payment.setCompletedAt(LocalDateTime.now());
+        payment = paymentRepository.save(payment);
+        outboxService.recordPaymentEvent(payment, OutboxEventType.PAYMENT_STATUS_CHANGED);
+        eventPublisher.publishEvent(new PaymentStatusChangedEvent(mapToResponse(payment)));
+        log.warn("Payment {} failed for trip {}: {}", paymentId, payment.getTripId(), reason);
+    }
+    
+    /**
+     * Payments left PENDING/PROCESSING longer than the given cut-off (e.g. after a restart or a full bulkhead)
+     */
+    @Transactional(readOnly = true)
+    public List<String> findStalePaymentIds(LocalDateTime updatedBefore) {
+        return paymentRepository.findTop100ByStatusInAndUpdatedAtBefore(
+                EnumSet.of(PaymentStatus.PENDING, PaymentStatus.PROCESSING), updatedBefore)
+            .stream()
+            .map(Payment::getPaymentId)
+            .collect(Collectors.toList());
+    }
+    
+    private boolean isTerminal(PaymentStatus status) {
+        return status == PaymentStatus.SUCCESS || status == PaymentStatus.FAILED || status == PaymentStatus.REFUNDED;
     }
     
     /**
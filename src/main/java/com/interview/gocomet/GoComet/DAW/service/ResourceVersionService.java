@@ -0,0 +1,224 @@
+package com.interview.gocomet.GoComet.DAW.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.interview.gocomet.GoComet.DAW.resilience.RedisGuard;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Current version of each ride, trip and driver, so conditional GETs can be answered without
+ * loading the resource. The shared copy lives in Redis and is only ever raised, atomically, by
+ * a Lua max-set, so a late or out-of-order write can never move a version back. Each node keeps
+ * an in-heap copy for lookups, merged the same way; a change is broadcast to the other nodes,
+ * which raise their copy and wake their long-polls. A missing entry only means the next GET
+ * loads the resource. Without Redis each node only knows its own changes.
+ * <p>
+ * Long-poll waiters are completed immediately by changes committed on this node or broadcast
+ * by another one, and by a periodic re-read of Redis in case a broadcast was missed.
+ */
+@Service
+@Slf4j
+public class ResourceVersionService implements MessageListener {
+    
+    private static final String KEY_PREFIX = "version:";
+    
+    // Stores ARGV[1] unless a higher version is already there; returns the version now stored
+    private static final RedisScript<Long> MAX_SET = new DefaultRedisScript<>("""
+        local current = tonumber(redis.call('GET', KEYS[1]) or '-1')
+        local proposed = tonumber(ARGV[1])
+        if proposed > current then
+            redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+            return proposed
+        end
+        redis.call('PEXPIRE', KEYS[1], ARGV[2])
+        return current
+        """, Long.class);
+    
+    private final StringRedisTemplate redisTemplate;
+    private final RedisGuard redisGuard;
+    private final String channel;
+    private final long sharedTtlMs;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final com.github.benmanes.caffeine.cache.Cache<String, Long> localVersions;
+    private final Map<String, Set<Waiter>> waiters = new ConcurrentHashMap<>();
+    
+    public ResourceVersionService(
+            StringRedisTemplate redisTemplate,
+            RedisGuard redisGuard,
+            ObjectProvider<RedisMessageListenerContainer> listenerContainer,
+            @Value("${resource-versions.channel:resource-versions}") String channel,
+            @Value("${resource-versions.local-max-size:100000}") long localMaxSize,
+            @Value("${resource-versions.local-ttl-ms:10000}") long localTtlMs,
+            @Value("${resource-versions.shared-ttl-ms:600000}") long sharedTtlMs) {
+        this.redisTemplate = redisTemplate;
+        this.redisGuard = redisGuard;
+        this.channel = channel;
+        this.sharedTtlMs = sharedTtlMs;
+        this.localVersions = Caffeine.newBuilder()
+            .maximumSize(localMaxSize)
+            .expireAfterWrite(Duration.ofMillis(localTtlMs))
+            .build();
+        // Subscribed along with the cache invalidations, once Redis is reachable
+        listenerContainer.ifAvailable(container -> container.addMessageListener(this, new ChannelTopic(channel)));
+    }
+    
+    public static String rideKey(String rideId) {
+        return "ride:" + rideId;
+    }
+    
+    public static String tripKey(Long tripId) {
+        return "trip:" + tripId;
+    }
+    
+    public static String driverKey(String driverId) {
+        return "driver:" + driverId;
+    }
+    
+    public Optional<Long> current(String key) {
+        Long known = localVersions.getIfPresent(key);
+        if (known != null) {
+            return Optional.of(known);
+        }
+        return readShared(key).map(shared -> localVersions.asMap().merge(key, shared, Math::max));
+    }
+    
+    /**
+     * Record the version of a resource that was just read. It only ever raises the stored
+     * version, because a concurrent commit may already have stored a newer one.
+     */
+    public void observed(String key, Long version) {
+        if (version == null) {
+            return;
+        }
+        Long known = localVersions.getIfPresent(key);
+        if (known == null || known < version) {
+            raise(key, version);
+        }
+    }
+    
+    /**
+     * Record a committed change, tell the other nodes and wake up local long-polls on the resource
+     */
+    public void changed(String key, long version) {
+        long current = raise(key, version);
+        if (current == version
+                && !redisGuard.tryRun(() -> redisTemplate.convertAndSend(channel, nodeId + "|" + version + "|" + key))) {
+            log.debug("Version change of {} not broadcast, Redis unavailable", key);
+        }
+        notifyWaiters(key, current);
+    }
+    
+    /**
+     * A change broadcast by another node: raise the local copy if there is one and wake waiters
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+        if (parts.length < 3 || parts[0].equals(nodeId)) {
+            return;
+        }
+        long version;
+        try {
+            version = Long.parseLong(parts[1]);
+        } catch (NumberFormatException e) {
+            return;
+        }
+        String key = parts[2];
+        localVersions.asMap().computeIfPresent(key, (k, known) -> Math.max(known, version));
+        notifyWaiters(key, version);
+    }
+    
+    /**
+     * Completes with the new version once the resource moves past knownVersion.
+     * Cancel the future to stop waiting.
+     */
+    public CompletableFuture<Long> awaitChange(String key, long knownVersion) {
+        Waiter waiter = new Waiter(knownVersion, new CompletableFuture<>());
+        waiters.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(waiter);
+        waiter.future().whenComplete((version, error) -> waiters.computeIfPresent(key, (k, set) -> {
+            set.remove(waiter);
+            return set.isEmpty() ? null : set;
+        }));
+        // The change may have landed between the caller's version check and registration
+        current(key).ifPresent(version -> notifyWaiters(key, version));
+        return waiter.future();
+    }
+    
+    public int getWaiterCount() {
+        return waiters.values().stream().mapToInt(Set::size).sum();
+    }
+    
+    @Scheduled(fixedDelayString = "${http.long-poll.recheck-ms:1000}")
+    public void recheckWaiters() {
+        for (String key : waiters.keySet()) {
+            readShared(key).ifPresent(shared -> notifyWaiters(key, localVersions.asMap().merge(key, shared, Math::max)));
+        }
+    }
+    
+    /**
+     * Raise the shared and local versions to at least version; returns the version now current
+     */
+    private long raise(String key, long version) {
+        long stored = version;
+        if (redisGuard.isAvailable()) {
+            try {
+                Long result = redisGuard.execute(() -> redisTemplate.execute(MAX_SET, List.of(KEY_PREFIX + key),
+                    String.valueOf(version), String.valueOf(sharedTtlMs)));
+                if (result != null) {
+                    stored = result;
+                }
+            } catch (RuntimeException e) {
+                log.debug("Could not record version of {}: {}", key, e.getMessage());
+            }
+        }
+        return localVersions.asMap().merge(key, stored, Math::max);
+    }
+    
+    private Optional<Long> readShared(String key) {
+        if (!redisGuard.isAvailable()) {
+            return Optional.empty();
+        }
+        try {
+            String value = redisGuard.execute(() -> redisTemplate.opsForValue().get(KEY_PREFIX + key));
+            return value != null ? Optional.of(Long.parseLong(value)) : Optional.empty();
+        } catch (RuntimeException e) {
+            log.debug("Version lookup for {} failed: {}", key, e.getMessage());
+            return Optional.empty();
+        }
+    }
+    
+    private void notifyWaiters(String key, long version) {
+        Set<Waiter> keyWaiters = waiters.get(key);
+        if (keyWaiters == null) {
+            return;
+        }
+        for (Waiter waiter : keyWaiters) {
+            if (version > waiter.knownVersion()) {
+                waiter.future().complete(version);
+            }
+        }
+    }
+    
+    private record Waiter(long knownVersion, CompletableFuture<Long> future) {
+    }
+}
@@ -1,11 +1,19 @@
 package com.interview.gocomet.GoComet.DAW.service;
 
+import com.interview.gocomet.GoComet.DAW.datasource.ReadYourWrites;
 import com.interview.gocomet.GoComet.DAW.dto.RideRequest;
 import com.interview.gocomet.GoComet.DAW.dto.RideResponse;
+import com.interview.gocomet.GoComet.DAW.metrics.HotPathMetrics;
 import com.interview.gocomet.GoComet.DAW.model.Driver;
+import com.interview.gocomet.GoComet.DAW.model.OutboxEventType;
 import com.interview.gocomet.GoComet.DAW.model.Ride;
 import com.interview.gocomet.GoComet.DAW.model.RideStatus;
+import com.interview.gocomet.GoComet.DAW.partitioning.TimeOrderedIds;
+import com.interview.gocomet.GoComet.DAW.profiling.RideCreatedEvent;
+import com.interview.gocomet.GoComet.DAW.profiling.TransactionEvents;
+import com.interview.gocomet.GoComet.DAW.repository.KeysetPager;
 import com.interview.gocomet.GoComet.DAW.repository.RideRepository;
+import com.interview.gocomet.GoComet.DAW.sharding.ShardContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
@@ -14,9 +22,11 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,9 +34,15 @@ import java.util.stream.Collectors;
 @Slf4j
 public class RideService {
     
+    private static final Set<RideStatus> INACTIVE_STATUSES = EnumSet.of(RideStatus.COMPLETED, RideStatus.CANCELLED);
+    
     private final RideRepository rideRepository;
     private final DriverMatchingService driverMatchingService;
     private final DriverService driverService;
+    private final OutboxService outboxService;
+    private final KeysetPager keysetPager;
+    private final ReadYourWrites readYourWrites;
+    private final HotPathMetrics metrics;
     
     /**
      * Create a new ride request with idempotency support
@@ -34,18 +50,22 @@ public class RideService {
     @Transactional
     @CacheEvict(value = "rides", key = "#result.rideId")
     public RideResponse createRide(RideRequest request) {
+        RideCreatedEvent event = new RideCreatedEvent();
+        event.begin();
+        event.setRiderId(request.getRiderId());
         // Check idempotency
         if (request.getIdempotencyKey() != null) {
             Optional<Ride> existingRide = rideRepository.findByIdempotencyKey(request.getIdempotencyKey());
             if (existingRide.isPresent()) {
                 log.info("Idempotent ride request, returning existing ride: {}", existingRide.get().getRideId());
-                return mapToResponse(existingRide.get());
+                event.setIdempotentReplay(true);
+                return recordCreated(event, existingRide.get());
             }
         }
         
         // Create new ride
         Ride ride = Ride.builder()
-            .rideId("RIDE-" + UUID.randomUUID().toString())
+            .rideId("RIDE-" + ShardContext.idTag() + TimeOrderedIds.newUuid())
             .riderId(request.getRiderId())
             .pickupLatitude(request.getPickupLatitude())
             .pickupLongitude(request.getPickupLongitude())
@@ -60,6 +80,7 @@ public class RideService {
             .build();
         
         ride = rideRepository.save(ride);
+        outboxService.recordRideEvent(ride, OutboxEventType.RIDE_CREATED);
         
         // Attempt to match driver asynchronously (for now, synchronous)
         try {
@@ -73,6 +94,8 @@ public class RideService {
                 ride.setStatus(RideStatus.MATCHED);
                 ride.setMatchedAt(LocalDateTime.now());
                 ride = rideRepository.save(ride);
+                metrics.matched(ride.getCreatedAt(), ride.getMatchedAt());
+                outboxService.recordRideEvent(ride, OutboxEventType.RIDE_STATUS_CHANGED);
                 log.info("Ride {} matched with driver {}", ride.getRideId(), matchedDriver.getDriverId());
             } else {
                 log.warn("No driver available for ride {}", ride.getRideId());
@@ -81,15 +104,26 @@ public class RideService {
             log.error("Error matching driver for ride {}: {}", ride.getRideId(), e.getMessage(), e);
         }
         
+        return recordCreated(event, ride);
+    }
+    
+    private RideResponse recordCreated(RideCreatedEvent event, Ride ride) {
+        event.setRideId(ride.getRideId());
+        event.setStatus(ride.getStatus() != null ? ride.getStatus().name() : null);
+        TransactionEvents.commitAfterCompletion(event, RideCreatedEvent::setCommitted);
         return mapToResponse(ride);
     }
     
     /**
-     * Get ride status with caching
+     * Get ride status with caching. sync = true routes misses through the cache's single-flight
+     * loader, so the pollers that all miss after an eviction share one database read.
+     * The body only runs to fill the shared cache, so it reads the primary: a replica that
+     * has not yet applied the last write would put that stale ride in L2 for the whole TTL.
      */
-    @Cacheable(value = "rides", key = "#rideId")
+    @Cacheable(value = "rides", key = "#rideId", sync = true)
     @Transactional(readOnly = true)
     public RideResponse getRide(String rideId) {
+        readYourWrites.pinToPrimary();
         Ride ride = rideRepository.findByRideId(rideId)
             .orElseThrow(() -> new RuntimeException("Ride not found: " + rideId));
         
@@ -108,9 +142,11 @@ public class RideService {
         ride.setStatus(status);
         if (status == RideStatus.ACCEPTED) {
             ride.setAcceptedAt(LocalDateTime.now());
+            metrics.accepted(ride.getMatchedAt(), ride.getAcceptedAt());
         }
         
         rideRepository.save(ride);
+        outboxService.recordRideEvent(ride, OutboxEventType.RIDE_STATUS_CHANGED);
     }
     
     /**
@@ -125,6 +161,7 @@ public class RideService {
         ride.setTripId(tripId);
         ride.setStatus(RideStatus.IN_PROGRESS);
         rideRepository.save(ride);
+        outboxService.recordRideEvent(ride, OutboxEventType.RIDE_STATUS_CHANGED);
     }
     
     /**
@@ -132,7 +169,8 @@ public class RideService {
      */
     @Transactional(readOnly = true)
     public Ride getRideById(Long rideId) {
-        return rideRepository.findById(rideId)
+        readYourWrites.pinIfRecent(ReadYourWrites.rideKey(rideId));
+        return rideRepository.findRecentById(rideId)
             .orElseThrow(() -> new RuntimeException("Ride not found: " + rideId));
     }
     
@@ -141,25 +179,50 @@ public class RideService {
      */
     @Transactional(readOnly = true)
     public Ride getRideEntityByRideId(String rideId) {
+        readYourWrites.pinIfRecent(ReadYourWrites.rideKey(rideId));
         return rideRepository.findByRideId(rideId)
             .orElseThrow(() -> new RuntimeException("Ride not found: " + rideId));
     }
-
+    
     /**
      * Get all active rides (not completed or cancelled)
      */
     @Transactional(readOnly = true)
     public List<RideResponse> getActiveRides() {
-        List<Ride> activeRides = rideRepository.findAll().stream()
-            .filter(ride -> ride.getStatus() != RideStatus.COMPLETED && ride.getStatus() != RideStatus.CANCELLED)
-            .collect(Collectors.toList());
-        
-        return activeRides.stream()
+        return rideRepository.findByStatusNotIn(INACTIVE_STATUSES).stream()
             .map(this::mapToResponse)
             .collect(Collectors.toList());
     }
-
-    private RideResponse mapToResponse(Ride ride) {
+    
+    /**
+     * Active rides in id order, a page at a time, for callers that write them out as they go
+     * instead of holding the whole list
+     */
+    public void forEachActiveRide(Consumer<? super RideResponse> sink) {
+        keysetPager.forEach((after, limit) -> rideRepository.findByStatusNotInAndIdGreaterThanOrderByIdAsc(
+            INACTIVE_STATUSES, after == null ? 0L : after.getId(), limit), this::mapToResponse, sink);
+    }
+    
+    /**
+     * A rider's rides, newest first, a page at a time
+     */
+    public void forEachRideOfRider(String riderId, Consumer<? super RideResponse> sink) {
+        keysetPager.forEach((after, limit) -> {
+            readYourWrites.pinIfRecent(ReadYourWrites.riderKey(riderId));
+            return after == null
+                ? rideRepository.findByRiderIdOrderByCreatedAtDescIdDesc(riderId, limit)
+                : rideRepository.findByRiderIdBefore(riderId, after.getCreatedAt(), after.getId(), limit);
+        }, this::mapToResponse, sink);
+    }
+    
+    /**
+     * Whether a ride in this status belongs on the active rides list
+     */
+    public static boolean isActive(RideStatus status) {
+        return !INACTIVE_STATUSES.contains(status);
+    }
+    
+    RideResponse mapToResponse(Ride ride) {
         // Convert numeric driverId to driverId string (e.g., "DRIVER-1")
         String driverIdString = null;
         if (ride.getDriverId() != null) {
@@ -178,6 +241,7 @@ public class RideService {
             .createdAt(ride.getCreatedAt())
             .matchedAt(ride.getMatchedAt())
             .acceptedAt(ride.getAcceptedAt())
+            .version(ride.getVersion())
             .build();
     }
 }
@@ -0,0 +1,81 @@
+package com.interview.gocomet.GoComet.DAW.service;
+
+import com.interview.gocomet.GoComet.DAW.exception.PaymentDeclinedException;
+import com.interview.gocomet.GoComet.DAW.model.Payment;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Local PSP simulator with configurable latency and failure injection.
+ * Active unless payment.psp.mode is set to something other than "simulator".
+ * Honours the payment id as idempotency key so retried charges return the original transaction.
+ */
+@Component
+@ConditionalOnProperty(name = "payment.psp.mode", havingValue = "simulator", matchIfMissing = true)
+@Slf4j
+public class SimulatedPaymentGateway implements PaymentGateway {
+
+    private static final int MAX_REMEMBERED_CHARGES = 100_000;
+
+    private final long minLatencyMs;
+    private final long maxLatencyMs;
+    private final double failureRate;
+    private final double declineRate;
+
+    private final Map<String, String> completedCharges = Collections.synchronizedMap(
+        new LinkedHashMap<>(1024, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > MAX_REMEMBERED_CHARGES;
+            }
+        });
+
+    public SimulatedPaymentGateway(
+            @Value("${payment.psp.simulator.min-latency-ms:300}") long minLatencyMs,
+            @Value("${payment.psp.simulator.max-latency-ms:2000}") long maxLatencyMs,
+            @Value("${payment.psp.simulator.failure-rate:0.0}") double failureRate,
+            @Value("${payment.psp.simulator.decline-rate:0.0}") double declineRate) {
+        this.minLatencyMs = minLatencyMs;
+        this.maxLatencyMs = Math.max(minLatencyMs, maxLatencyMs);
+        this.failureRate = failureRate;
+        this.declineRate = declineRate;
+    }
+
+    @Override
+    public String charge(Payment payment) {
+        String existing = completedCharges.get(payment.getPaymentId());
+        if (existing != null) {
+            log.debug("PSP simulator: duplicate charge for {}, returning {}", payment.getPaymentId(), existing);
+            return existing;
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long latency = minLatencyMs == maxLatencyMs ? minLatencyMs : random.nextLong(minLatencyMs, maxLatencyMs + 1);
+        try {
+            Thread.sleep(latency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("PSP call interrupted", e);
+        }
+
+        if (random.nextDouble() < failureRate) {
+            throw new IllegalStateException("PSP simulator: gateway error");
+        }
+        if (random.nextDouble() < declineRate) {
+            throw new PaymentDeclinedException("PSP simulator: card declined");
+        }
+
+        String transactionId = "PSP-" + UUID.randomUUID();
+        completedCharges.put(payment.getPaymentId(), transactionId);
+        log.debug("PSP simulator charged {} in {} ms", payment.getPaymentId(), latency);
+        return transactionId;
+    }
+}
@@ -1,11 +1,17 @@
 package com.interview.gocomet.GoComet.DAW.service;
 
+import com.interview.gocomet.GoComet.DAW.datasource.ReadYourWrites;
+import com.interview.gocomet.GoComet.DAW.metrics.HotPathMetrics;
+import com.interview.gocomet.GoComet.DAW.model.OutboxEventType;
 import com.interview.gocomet.GoComet.DAW.model.Ride;
 import com.interview.gocomet.GoComet.DAW.model.RideStatus;
 import com.interview.gocomet.GoComet.DAW.model.Trip;
 import com.interview.gocomet.GoComet.DAW.model.TripStatus;
+import com.interview.gocomet.GoComet.DAW.partitioning.TimeOrderedIds;
+import com.interview.gocomet.GoComet.DAW.repository.KeysetPager;
 import com.interview.gocomet.GoComet.DAW.repository.RideRepository;
 import com.interview.gocomet.GoComet.DAW.repository.TripRepository;
+import com.interview.gocomet.GoComet.DAW.sharding.ShardContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -13,7 +19,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
@@ -29,13 +36,17 @@ public class TripService {
     private final RideRepository rideRepository;
     private final DriverService driverService;
     private final RideService rideService;
+    private final OutboxService outboxService;
+    private final KeysetPager keysetPager;
+    private final ReadYourWrites readYourWrites;
+    private final HotPathMetrics metrics;
     
     /**
      * Start a trip
      */
     @Transactional
     public Trip startTrip(Long rideId) {
-        Ride ride = rideRepository.findById(rideId)
+        Ride ride = rideRepository.findRecentById(rideId)
             .orElseThrow(() -> new RuntimeException("Ride not found: " + rideId));
         
         if (ride.getDriverId() == null) {
@@ -43,7 +54,7 @@ public class TripService {
         }
         
         Trip trip = Trip.builder()
-            .tripId("TRIP-" + UUID.randomUUID().toString())
+            .tripId("TRIP-" + ShardContext.idTag() + TimeOrderedIds.newUuid())
             .rideId(rideId)
             .driverId(ride.getDriverId())
             .riderId(ride.getRiderId())
@@ -57,6 +68,8 @@ public class TripService {
             .build();
         
         trip = tripRepository.save(trip);
+        outboxService.recordTripEvent(trip, OutboxEventType.TRIP_STARTED);
+        metrics.tripStarted(ride.getAcceptedAt(), trip.getStartTime());
         rideService.linkTrip(ride.getRideId(), trip.getId());
         
         log.info("Started trip {} for ride {}", trip.getTripId(), rideId);
@@ -68,7 +81,7 @@ public class TripService {
      */
     @Transactional
     public Trip endTrip(Long tripId, Double endLatitude, Double endLongitude) {
-        Trip trip = tripRepository.findById(tripId)
+        Trip trip = tripRepository.findRecentById(tripId)
             .orElseThrow(() -> new RuntimeException("Trip not found: " + tripId));
         
         if (trip.getStatus() == TripStatus.COMPLETED) {
@@ -99,13 +112,16 @@ public class TripService {
         
         trip.setStatus(TripStatus.COMPLETED);
         trip = tripRepository.save(trip);
+        outboxService.recordTripEvent(trip, OutboxEventType.TRIP_COMPLETED);
         
         // Update ride status to COMPLETED
-        Ride ride = rideRepository.findById(trip.getRideId())
+        Ride ride = rideRepository.findRecentById(trip.getRideId())
             .orElse(null);
         if (ride != null) {
             ride.setStatus(RideStatus.COMPLETED);
             rideRepository.save(ride);
+            outboxService.recordRideEvent(ride, OutboxEventType.RIDE_STATUS_CHANGED);
+            metrics.tripCompleted(ride.getCreatedAt(), trip.getStartTime(), trip.getEndTime());
             log.info("Updated ride {} status to COMPLETED", ride.getRideId());
         }
         
@@ -121,7 +137,7 @@ public class TripService {
      */
     @Transactional
     public Trip pauseTrip(Long tripId) {
-        Trip trip = tripRepository.findById(tripId)
+        Trip trip = tripRepository.findRecentById(tripId)
             .orElseThrow(() -> new RuntimeException("Trip not found: " + tripId));
         
         if (trip.getStatus() != TripStatus.STARTED && trip.getStatus() != TripStatus.RESUMED) {
@@ -131,6 +147,7 @@ public class TripService {
         trip.setStatus(TripStatus.PAUSED);
         trip.setPauseStartTime(LocalDateTime.now());
         trip = tripRepository.save(trip);
+        outboxService.recordTripEvent(trip, OutboxEventType.TRIP_PAUSED);
         
         log.info("Paused trip {}", tripId);
         return trip;
@@ -141,7 +158,7 @@ public class TripService {
      */
     @Transactional
     public Trip resumeTrip(Long tripId) {
-        Trip trip = tripRepository.findById(tripId)
+        Trip trip = tripRepository.findRecentById(tripId)
             .orElseThrow(() -> new RuntimeException("Trip not found: " + tripId));
         
         if (trip.getStatus() != TripStatus.PAUSED) {
@@ -159,6 +176,7 @@ public class TripService {
         trip.setStatus(TripStatus.RESUMED);
         trip.setPauseStartTime(null);
         trip = tripRepository.save(trip);
+        outboxService.recordTripEvent(trip, OutboxEventType.TRIP_RESUMED);
         
         log.info("Resumed trip {}", tripId);
         return trip;
@@ -167,7 +185,7 @@ public class TripService {
     /**
      * Calculate fare based on distance, time, and surge
      */
-    private void calculateFare(Trip trip) {
+    void calculateFare(Trip trip) {
         double baseFare = BASE_FARE;
         double distanceFare = trip.getDistanceKm() * PER_KM_RATE;
         double timeFare = trip.getDurationMinutes() * PER_MINUTE_RATE;
@@ -183,7 +201,7 @@ public class TripService {
     /**
      * Calculate distance using Haversine formula
      */
-    private double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
+    double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
         final double EARTH_RADIUS_KM = 6371.0;
         
         double dLat = Math.toRadians(lat2 - lat1);
@@ -199,8 +217,19 @@ public class TripService {
     }
     
     public Trip getTrip(Long tripId) {
-        return tripRepository.findById(tripId)
+        return tripRepository.findRecentById(tripId)
             .orElseThrow(() -> new RuntimeException("Trip not found: " + tripId));
     }
+    
+    /**
+     * A driver's trips, newest first, a page at a time
+     */
+    public void forEachTripOfDriver(Long driverId, Consumer<? super Trip> sink) {
+        keysetPager.<Trip, Trip>forEach((after, limit) -> {
+            readYourWrites.pinIfRecent(ReadYourWrites.driverKey(driverId));
+            return tripRepository.findByDriverIdAndIdLessThanOrderByIdDesc(
+                driverId, after == null ? Long.MAX_VALUE : after.getId(), limit);
+        }, Function.identity(), sink);
+    }
 }
 
@@ -0,0 +1,33 @@
+package com.interview.gocomet.GoComet.DAW.sharding;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * Keeps the mapping model Hibernate built at startup, so the schema can be applied to the
+ * region databases that are not the session factory's own
+ */
+public class MetadataCapture implements Integrator {
+    
+    private volatile Metadata metadata;
+    
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        this.metadata = metadata;
+    }
+    
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        this.metadata = null;
+    }
+    
+    public Metadata getMetadata() {
+        if (metadata == null) {
+            throw new IllegalStateException("Hibernate metadata is not available yet");
+        }
+        return metadata;
+    }
+}
@@ -0,0 +1,25 @@
+package com.interview.gocomet.GoComet.DAW.sharding;
+
+/**
+ * A region shard: its code (carried in business ids), its index (carried in the high bits of
+ * numeric ids) and the pickup bounding box it serves
+ */
+public record Region(String code, int index, Double minLatitude, Double maxLatitude,
+                     Double minLongitude, Double maxLongitude) {
+    
+    // Numeric ids of region n start at n << ID_SHIFT + 1; 2^40 ids per table and region
+    public static final int ID_SHIFT = 40;
+    
+    public boolean contains(double latitude, double longitude) {
+        return minLatitude != null && maxLatitude != null && minLongitude != null && maxLongitude != null
+            && latitude >= minLatitude && latitude < maxLatitude
+            && longitude >= minLongitude && longitude < maxLongitude;
+    }
+    
+    /**
+     * Value after which this region's id sequences start
+     */
+    public long idOffset() {
+        return (long) index << ID_SHIFT;
+    }
+}
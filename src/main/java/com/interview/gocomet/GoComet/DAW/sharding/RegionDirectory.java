@@ -0,0 +1,133 @@
+package com.interview.gocomet.GoComet.DAW.sharding;
+
+import com.interview.gocomet.GoComet.DAW.config.ShardingProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Which region owns a pickup location, a business id ("RIDE-BLR-...", "DRIVER-BLR-7") or a
+ * numeric id (high bits). With sharding off there is a single default region and every
+ * lookup answers it.
+ */
+@Component
+public class RegionDirectory {
+    
+    private final boolean sharded;
+    private final Region defaultRegion;
+    private final List<Region> regions;
+    private final Map<String, Region> byCode = new HashMap<>();
+    private final Region[] byIndex;
+    
+    public RegionDirectory(ShardingProperties properties) {
+        this.sharded = properties.isEnabled();
+        String defaultCode = properties.getDefaultRegion().toUpperCase(Locale.ROOT);
+        List<Region> configured = new ArrayList<>();
+        if (sharded) {
+            properties.getRegions().forEach((code, spec) -> configured.add(new Region(code.toUpperCase(Locale.ROOT),
+                spec.getIndex(), spec.getMinLatitude(), spec.getMaxLatitude(),
+                spec.getMinLongitude(), spec.getMaxLongitude())));
+        }
+        if (configured.stream().noneMatch(region -> region.code().equals(defaultCode))) {
+            configured.add(new Region(defaultCode, 0, null, null, null, null));
+        }
+        configured.sort(Comparator.comparingInt(Region::index));
+        
+        int maxIndex = configured.get(configured.size() - 1).index();
+        this.byIndex = new Region[maxIndex + 1];
+        for (Region region : configured) {
+            if (region.index() < 0 || region.index() >= 1 << (63 - Region.ID_SHIFT)) {
+                throw new IllegalStateException("Region " + region.code() + " has index " + region.index()
+                    + ", expected 0.." + ((1 << (63 - Region.ID_SHIFT)) - 1));
+            }
+            if (byIndex[region.index()] != null) {
+                throw new IllegalStateException("Regions " + byIndex[region.index()].code() + " and "
+                    + region.code() + " share index " + region.index());
+            }
+            if (!region.code().matches("[A-Z]+")) {
+                // Upper-case letters only, so a code never collides with a UUID or a sequence number
+                throw new IllegalStateException("Region code " + region.code() + " must be letters only");
+            }
+            byIndex[region.index()] = region;
+            byCode.put(region.code(), region);
+        }
+        this.defaultRegion = byCode.get(defaultCode);
+        if (defaultRegion.index() != 0) {
+            throw new IllegalStateException("The default region " + defaultCode + " must have index 0");
+        }
+        this.regions = Collections.unmodifiableList(configured);
+    }
+    
+    /**
+     * A single default region, for tests and tools that run without sharding
+     */
+    public static RegionDirectory unsharded() {
+        return new RegionDirectory(new ShardingProperties());
+    }
+    
+    public boolean isSharded() {
+        return sharded;
+    }
+    
+    public List<Region> getRegions() {
+        return regions;
+    }
+    
+    public Region getDefaultRegion() {
+        return defaultRegion;
+    }
+    
+    public Region byCode(String code) {
+        Region region = code != null ? byCode.get(code.toUpperCase(Locale.ROOT)) : null;
+        if (region == null) {
+            throw new IllegalArgumentException("Unknown region: " + code);
+        }
+        return region;
+    }
+    
+    /**
+     * The region whose bounding box holds the pickup; the default region if none does
+     */
+    public Region locate(double latitude, double longitude) {
+        for (Region region : regions) {
+            if (region.contains(latitude, longitude)) {
+                return region;
+            }
+        }
+        return defaultRegion;
+    }
+    
+    /**
+     * Region of a business id "PREFIX-CODE-rest"; ids without a known code belong to the default region
+     */
+    public Region ofBusinessId(String id) {
+        if (!sharded || id == null) {
+            return defaultRegion;
+        }
+        int start = id.indexOf('-');
+        if (start < 0) {
+            return defaultRegion;
+        }
+        int end = id.indexOf('-', start + 1);
+        Region region = byCode.get(end < 0 ? id.substring(start + 1) : id.substring(start + 1, end));
+        return region != null ? region : defaultRegion;
+    }
+    
+    /**
+     * Region of a numeric id, from the bits above {@link Region#ID_SHIFT}
+     */
+    public Region ofNumericId(long id) {
+        int index = (int) (id >>> Region.ID_SHIFT);
+        Region region = index < byIndex.length ? byIndex[index] : null;
+        if (region == null) {
+            throw new IllegalArgumentException("Id " + id + " belongs to no configured region");
+        }
+        return region;
+    }
+}
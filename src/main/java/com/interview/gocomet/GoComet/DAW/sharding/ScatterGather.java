@@ -0,0 +1,84 @@
+package com.interview.gocomet.GoComet.DAW.sharding;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * The few reads that span regions (active rides board, a rider's history, background sweeps).
+ * Everything keyed by a ride, trip, driver or payment stays on its own region and never
+ * comes through here.
+ */
+@Component
+public class ScatterGather {
+    
+    private final RegionDirectory regionDirectory;
+    private final ExecutorService executor;
+    
+    public ScatterGather(RegionDirectory regionDirectory) {
+        this.regionDirectory = regionDirectory;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = regionDirectory.getRegions().size() > 1
+            ? Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "scatter-gather-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            })
+            : null;
+    }
+    
+    /**
+     * Run the work once per region, one region after another on the calling thread.
+     * For streaming into one sink, where the output must not interleave.
+     */
+    public void forEachRegion(Runnable work) {
+        for (Region region : regionDirectory.getRegions()) {
+            ShardContext.runIn(region, work);
+        }
+    }
+    
+    /**
+     * Run the query on every region in parallel and concatenate the results in region order
+     */
+    public <T> List<T> gather(Supplier<? extends List<? extends T>> query) {
+        List<Region> regions = regionDirectory.getRegions();
+        if (executor == null) {
+            return new ArrayList<>(ShardContext.callIn(regions.get(0), query));
+        }
+        List<CompletableFuture<? extends List<? extends T>>> parts = new ArrayList<>(regions.size());
+        for (Region region : regions) {
+            parts.add(CompletableFuture.supplyAsync(() -> ShardContext.callIn(region, query), executor));
+        }
+        List<T> result = new ArrayList<>();
+        try {
+            for (CompletableFuture<? extends List<? extends T>> part : parts) {
+                result.addAll(part.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return result;
+    }
+    
+    public List<Region> getRegions() {
+        return regionDirectory.getRegions();
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.interview.gocomet.GoComet.DAW.sharding;
+
+import java.util.function.Supplier;
+
+/**
+ * The region the current thread works on. The shard routing datasource reads it when a
+ * transaction takes its first connection, so it must be set before the first query; it has
+ * no effect on a transaction that already holds one. Unset means the default region.
+ * Work handed to another thread has to carry the region along, see {@link #wrap(Runnable)}.
+ */
+public final class ShardContext {
+    
+    private static final ThreadLocal<Region> CURRENT = new ThreadLocal<>();
+    
+    private ShardContext() {
+    }
+    
+    public static Region current() {
+        return CURRENT.get();
+    }
+    
+    /**
+     * Work on the region until the returned scope is closed, then restore the previous one
+     */
+    public static Scope enter(Region region) {
+        Region previous = CURRENT.get();
+        CURRENT.set(region);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+    
+    public static <T> T callIn(Region region, Supplier<T> work) {
+        try (Scope ignored = enter(region)) {
+            return work.get();
+        }
+    }
+    
+    public static void runIn(Region region, Runnable work) {
+        try (Scope ignored = enter(region)) {
+            work.run();
+        }
+    }
+    
+    /**
+     * The task, run on whatever region is current now
+     */
+    public static Runnable wrap(Runnable task) {
+        Region region = CURRENT.get();
+        return region == null ? task : () -> runIn(region, task);
+    }
+    
+    public static <T> Supplier<T> wrap(Supplier<T> task) {
+        Region region = CURRENT.get();
+        return region == null ? task : () -> callIn(region, task);
+    }
+    
+    /**
+     * Region tag for new business ids ("BLR-"), empty in the default region so ids created
+     * without sharding keep their old shape
+     */
+    public static String idTag() {
+        Region region = CURRENT.get();
+        return region == null || region.index() == 0 ? "" : region.code() + "-";
+    }
+    
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,128 @@
+package com.interview.gocomet.GoComet.DAW.sharding;
+
+import com.interview.gocomet.GoComet.DAW.datasource.IdSequences;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Moves a region to another database: schema, rows and id sequence positions, then checks the
+ * row counts. Offline by design: the region has to be drained (no instance writing to it)
+ * for the copy to be complete, and traffic only moves once sharding.regions.CODE.url points
+ * at the new database.
+ */
+@Slf4j
+public class ShardRebalancer {
+    
+    private static final int BATCH_SIZE = 500;
+    
+    private final ShardSchemaManager schemaManager;
+    private final IdSequences idSequences;
+    
+    public ShardRebalancer(ShardSchemaManager schemaManager, IdSequences idSequences) {
+        this.schemaManager = schemaManager;
+        this.idSequences = idSequences;
+    }
+    
+    /**
+     * Copy every mapped table of the region from source to target and return the rows copied per table
+     */
+    public Map<String, Long> copy(Region region, DataSource source, DataSource target) {
+        schemaManager.applySchema(target);
+        Map<String, Long> copied = new LinkedHashMap<>();
+        try (Connection from = source.getConnection(); Connection to = target.getConnection()) {
+            from.setReadOnly(true);
+            to.setAutoCommit(false);
+            for (String table : schemaManager.tableNames(from)) {
+                if (count(to, table) > 0) {
+                    throw new IllegalStateException("Target table " + table + " is not empty");
+                }
+                long rows = copyTable(from, to, table);
+                to.commit();
+                long sourceRows = count(from, table);
+                long targetRows = count(to, table);
+                if (sourceRows != targetRows) {
+                    throw new IllegalStateException("Table " + table + ": " + sourceRows + " rows in the source, "
+                        + targetRows + " in the target. Was the region drained?");
+                }
+                log.info("Region {}: copied {} rows of {}", region.code(), rows, table);
+                copied.put(table, rows);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Rebalancing region " + region.code() + " failed", e);
+        }
+        idSequences.align(target, region.idOffset(), true);
+        return Collections.unmodifiableMap(copied);
+    }
+    
+    private long copyTable(Connection from, Connection to, String table) throws SQLException {
+        long rows = 0;
+        try (Statement select = from.createStatement()) {
+            select.setFetchSize(BATCH_SIZE);
+            try (ResultSet rs = select.executeQuery("SELECT * FROM " + table)) {
+                ResultSetMetaData columns = rs.getMetaData();
+                // Generated columns (the drivers' PostGIS location) are computed by the target itself
+                Set<String> generated = generatedColumns(from, table);
+                List<Integer> copiedColumns = new ArrayList<>();
+                StringBuilder names = new StringBuilder();
+                StringBuilder params = new StringBuilder();
+                for (int i = 1; i <= columns.getColumnCount(); i++) {
+                    if (generated.contains(columns.getColumnName(i))) {
+                        continue;
+                    }
+                    names.append(copiedColumns.isEmpty() ? "" : ", ").append(columns.getColumnName(i));
+                    params.append(copiedColumns.isEmpty() ? "?" : ", ?");
+                    copiedColumns.add(i);
+                }
+                try (PreparedStatement insert = to.prepareStatement(
+                        "INSERT INTO " + table + " (" + names + ") VALUES (" + params + ")")) {
+                    while (rs.next()) {
+                        for (int i = 0; i < copiedColumns.size(); i++) {
+                            insert.setObject(i + 1, rs.getObject(copiedColumns.get(i)));
+                        }
+                        insert.addBatch();
+                        if (++rows % BATCH_SIZE == 0) {
+                            insert.executeBatch();
+                        }
+                    }
+                    insert.executeBatch();
+                }
+            }
+        }
+        return rows;
+    }
+    
+    private static Set<String> generatedColumns(Connection connection, String table) throws SQLException {
+        Set<String> generated = new HashSet<>();
+        try (ResultSet columns = connection.getMetaData()
+                .getColumns(connection.getCatalog(), connection.getSchema(), table, null)) {
+            while (columns.next()) {
+                if ("YES".equals(columns.getString("IS_GENERATEDCOLUMN"))) {
+                    generated.add(columns.getString("COLUMN_NAME"));
+                }
+            }
+        }
+        return generated;
+    }
+    
+    private static long count(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.interview.gocomet.GoComet.DAW.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hands out connections from the pool of the {@link ShardContext} region, the default region's
+ * pool when none is set. Sits behind a LazyConnectionDataSourceProxy so a transaction
+ * started before its region was known still lands on the right pool at its first statement.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+    
+    private final Region defaultRegion;
+    private final Map<String, HikariDataSource> pools;
+    private final Map<String, LongAdder> routed = new ConcurrentHashMap<>();
+    
+    public ShardRoutingDataSource(Region defaultRegion, Map<String, HikariDataSource> pools) {
+        this.defaultRegion = defaultRegion;
+        this.pools = new LinkedHashMap<>(pools);
+        this.pools.keySet().forEach(code -> routed.put(code, new LongAdder()));
+        setTargetDataSources(new LinkedHashMap<>(this.pools));
+        setDefaultTargetDataSource(this.pools.get(defaultRegion.code()));
+        // An unknown region is a bug, not something to quietly serve from the default pool
+        setLenientFallback(false);
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Region region = ShardContext.current();
+        String code = region != null ? region.code() : defaultRegion.code();
+        routed.get(code).increment();
+        return code;
+    }
+    
+    public HikariDataSource getPool(String code) {
+        return pools.get(code);
+    }
+    
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        pools.forEach((code, pool) -> {
+            Map<String, Object> poolStats = new LinkedHashMap<>();
+            poolStats.put("connectionsRouted", routed.get(code).sum());
+            poolStats.put("maximumPoolSize", pool.getMaximumPoolSize());
+            HikariPoolMXBean bean = pool.getHikariPoolMXBean();
+            if (bean != null) {
+                poolStats.put("active", bean.getActiveConnections());
+                poolStats.put("idle", bean.getIdleConnections());
+                poolStats.put("total", bean.getTotalConnections());
+                poolStats.put("threadsAwaitingConnection", bean.getThreadsAwaitingConnection());
+            }
+            stats.put(code, poolStats);
+        });
+        return stats;
+    }
+    
+    public void close() {
+        pools.values().forEach(HikariDataSource::close);
+    }
+}
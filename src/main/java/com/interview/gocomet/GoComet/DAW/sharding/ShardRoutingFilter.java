@@ -0,0 +1,113 @@
+package com.interview.gocomet.GoComet.DAW.sharding;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interview.gocomet.GoComet.DAW.resilience.CachedBodyRequest;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Puts each request on the region that owns what it addresses, before any transaction starts:
+ * new rides by pickup location, payments by trip, everything else by the id in the path.
+ * Requests that address no single region (active rides, a rider's history, batched driver
+ * locations) run on the default region and fan out through {@link ScatterGather} or
+ * {@link ShardContext} where they need to. Bodies read for their shard key are capped at
+ * {@link CachedBodyRequest#DEFAULT_MAX_BYTES}; longer ones get 413.
+ */
+@Component
+@ConditionalOnProperty(name = "sharding.enabled", havingValue = "true")
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class ShardRoutingFilter extends OncePerRequestFilter {
+    
+    public static final String REGION_HEADER = "X-Region";
+    
+    private final RegionDirectory regionDirectory;
+    private final JsonFactory jsonFactory;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    
+    public ShardRoutingFilter(RegionDirectory regionDirectory, ObjectMapper objectMapper) {
+        this.regionDirectory = regionDirectory;
+        this.jsonFactory = objectMapper.getFactory();
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String method = request.getMethod();
+        String path = request.getRequestURI();
+        HttpServletRequest forwarded = request;
+        Region region = null;
+        
+        try {
+            if ("POST".equals(method) && pathMatcher.match("/v1/rides", path)) {
+                CachedBodyRequest buffered = CachedBodyRequest.of(request);
+                forwarded = buffered;
+                Double latitude = parseDouble(buffered.topLevelField(jsonFactory, "pickupLatitude"));
+                Double longitude = parseDouble(buffered.topLevelField(jsonFactory, "pickupLongitude"));
+                if (latitude != null && longitude != null) {
+                    region = regionDirectory.locate(latitude, longitude);
+                }
+            } else if ("POST".equals(method) && pathMatcher.match("/v1/payments", path)) {
+                CachedBodyRequest buffered = CachedBodyRequest.of(request);
+                forwarded = buffered;
+                region = ofNumericId(buffered.topLevelField(jsonFactory, "tripId"));
+            } else if (pathMatcher.match("/v1/rides/{id}/**", path)) {
+                String id = pathVariable("/v1/rides/{id}/**", path);
+                region = "active".equals(id) ? null : regionDirectory.ofBusinessId(id);
+            } else if (pathMatcher.match("/v1/trips/{id}/**", path)) {
+                region = ofNumericId(pathVariable("/v1/trips/{id}/**", path));
+            } else if (pathMatcher.match("/v1/drivers/{id}/**", path)) {
+                String id = pathVariable("/v1/drivers/{id}/**", path);
+                region = "locations".equals(id) ? null : regionDirectory.ofBusinessId(id);
+            } else if (pathMatcher.match("/v1/payments/{id}/**", path)) {
+                region = regionDirectory.ofBusinessId(pathVariable("/v1/payments/{id}/**", path));
+            }
+        } catch (CachedBodyRequest.BodyTooLargeException e) {
+            response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value(), e.getMessage());
+            return;
+        }
+        
+        if (region == null) {
+            chain.doFilter(forwarded, response);
+            return;
+        }
+        response.setHeader(REGION_HEADER, region.code());
+        try (ShardContext.Scope ignored = ShardContext.enter(region)) {
+            chain.doFilter(forwarded, response);
+        }
+    }
+    
+    private String pathVariable(String pattern, String path) {
+        Map<String, String> variables = pathMatcher.extractUriTemplateVariables(pattern, path);
+        return variables.get("id");
+    }
+    
+    private Region ofNumericId(String id) {
+        try {
+            return id != null ? regionDirectory.ofNumericId(Long.parseLong(id)) : null;
+        } catch (IllegalArgumentException e) {
+            // Not a number, or no region has it: let the default region answer 400/404
+            return null;
+        }
+    }
+    
+    private static Double parseDouble(String value) {
+        try {
+            return value != null ? Double.valueOf(value) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.interview.gocomet.GoComet.DAW.sharding;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.engine.jdbc.connections.internal.DatasourceConnectionProviderImpl;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.mapping.Table;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Gives every region database the schema Hibernate manages on the default one
+ * (spring.jpa.hibernate.ddl-auto applies to all regions alike). IdSequences then moves each
+ * region's id sequences into its id range.
+ */
+public class ShardSchemaManager {
+    
+    private final SessionFactoryImplementor sessionFactory;
+    private final MetadataCapture metadataCapture;
+    private final ShardRoutingDataSource routingDataSource;
+    private final RegionDirectory regionDirectory;
+    
+    public ShardSchemaManager(EntityManagerFactory entityManagerFactory, MetadataCapture metadataCapture,
+                              ShardRoutingDataSource routingDataSource, RegionDirectory regionDirectory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.metadataCapture = metadataCapture;
+        this.routingDataSource = routingDataSource;
+        this.regionDirectory = regionDirectory;
+    }
+    
+    @PostConstruct
+    public void initializeRegions() {
+        for (Region region : regionDirectory.getRegions()) {
+            if (region != regionDirectory.getDefaultRegion()) {
+                // The default region's schema was handled by the session factory itself
+                applySchema(routingDataSource.getPool(region.code()));
+            }
+        }
+    }
+    
+    /**
+     * Run the configured schema action (create, update, validate, ...) against the database
+     */
+    public void applySchema(DataSource dataSource) {
+        Map<String, Object> settings = new HashMap<>(sessionFactory.getProperties());
+        // Handed over as the connection service itself, so whatever datasource the copied
+        // settings name (the default region's) is never looked up
+        DatasourceConnectionProviderImpl connections = new DatasourceConnectionProviderImpl();
+        connections.setDataSource(dataSource);
+        connections.configure(settings);
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+            .applySettings(settings)
+            .addService(ConnectionProvider.class, connections)
+            .build();
+        try {
+            SchemaManagementToolCoordinator.process(metadataCapture.getMetadata(), registry, settings, action -> { });
+        } finally {
+            StandardServiceRegistryBuilder.destroy(registry);
+        }
+    }
+    
+    /**
+     * Mapped tables, in the database's identifier case
+     */
+    public List<String> tableNames(Connection connection) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        List<String> tables = new ArrayList<>();
+        for (Table table : metadataCapture.getMetadata().collectTableMappings()) {
+            if (table.isPhysicalTable()) {
+                String name = table.getName();
+                tables.add(metaData.storesUpperCaseIdentifiers() ? name.toUpperCase(Locale.ROOT)
+                    : metaData.storesLowerCaseIdentifiers() ? name.toLowerCase(Locale.ROOT) : name);
+            }
+        }
+        return tables;
+    }
+}
@@ -2,7 +2,7 @@ const API_BASE_URL = 'http://localhost:8080/v1';
 
 let currentRideId = null;
 let currentTripId = null;
-let pollingInterval = null;
+let rideFollower = null;
 
 // Add message to activity log
 function addMessage(message, type = 'info') {
@@ -211,28 +211,22 @@ async function pollRideStatus(rideId) {
     }
 }
 
-// Start polling
+// Start tracking: pushed ride updates trigger a refresh, polling covers a lost connection
 function startPolling(rideId) {
-    if (pollingInterval) {
-        clearInterval(pollingInterval);
+    if (rideFollower) {
+        rideFollower.stop();
     }
     
-    // Poll immediately
-    pollRideStatus(rideId);
-    
-    // Then poll every 2 seconds
-    pollingInterval = setInterval(() => {
-        pollRideStatus(rideId);
-    }, 2000);
+    rideFollower = RidePush.follow(`/topic/rides/${rideId}`, () => pollRideStatus(rideId), 2000);
     
     addMessage('Started tracking ride status...', 'info');
 }
 
-// Stop polling
+// Stop tracking
 function stopPolling() {
-    if (pollingInterval) {
-        clearInterval(pollingInterval);
-        pollingInterval = null;
+    if (rideFollower) {
+        rideFollower.stop();
+        rideFollower = null;
         addMessage('Stopped tracking ride status.', 'info');
     }
 }
@@ -422,6 +416,9 @@ async function processPayment() {
             addMessage(`Payment failed. Please try again.`, 'error');
             document.getElementById('payBtn').disabled = false;
             document.getElementById('payBtn').textContent = 'Pay Now';
+        } else if (payment.status === 'PENDING' || payment.status === 'PROCESSING') {
+            addMessage(`Payment ${payment.paymentId} is processing...`, 'info');
+            pollPaymentStatus(payment.paymentId);
         } else {
             addMessage(`Payment status: ${payment.status}`, 'info');
             document.getElementById('payBtn').disabled = false;
@@ -436,6 +433,44 @@ async function processPayment() {
     }
 }
 
+// Follow payment status until the PSP reaches a final state
+function pollPaymentStatus(paymentId) {
+    let settled = false;
+    const finish = () => {
+        settled = true;
+        follower.stop();
+        clearTimeout(timeout);
+    };
+    const follower = RidePush.follow(`/topic/payments/${paymentId}`, async () => {
+        if (settled) return;
+        try {
+            const response = await fetch(`${API_BASE_URL}/payments/${paymentId}`);
+            const payment = await response.json();
+            if (settled) return;
+            if (payment.status === 'SUCCESS') {
+                finish();
+                addMessage(`Payment successful! Transaction ID: ${payment.pspTransactionId || payment.paymentId}`, 'success');
+                document.getElementById('payBtn').textContent = 'Payment Successful ✓';
+                document.getElementById('payBtn').style.background = '#28a745';
+            } else if (payment.status === 'FAILED') {
+                finish();
+                addMessage(`Payment failed. Please try again.`, 'error');
+                document.getElementById('payBtn').disabled = false;
+                document.getElementById('payBtn').textContent = 'Pay Now';
+            }
+        } catch (error) {
+            console.error('Error checking payment status:', error);
+        }
+    }, 1000);
+    const timeout = setTimeout(() => {
+        if (settled) return;
+        finish();
+        addMessage(`Payment ${paymentId} is still processing. Check again later.`, 'info');
+        document.getElementById('payBtn').disabled = false;
+        document.getElementById('payBtn').textContent = 'Pay Now';
+    }, 30000);
+}
+
 // Fetch and display active rides
 async function fetchActiveRides() {
     try {
@@ -503,17 +538,36 @@ function displayActiveRides(rides) {
     container.innerHTML = html;
 }
 
-// Auto-refresh active rides every 3 seconds
-let activeRidesInterval = null;
+// Active rides come from the SSE delta stream: a snapshot, then one event per changed ride.
+// EventSource reconnects on its own and resumes from Last-Event-ID.
+// Browsers without EventSource fall back to push-triggered refreshes with polling.
+let activeRidesFollower = null;
+const activeRides = new Map();
 
 function startActiveRidesPolling() {
-    // Fetch immediately
-    fetchActiveRides();
+    if (!('EventSource' in window)) {
+        activeRidesFollower = RidePush.follow('/topic/rides', RidePush.debounce(fetchActiveRides, 250), 3000);
+        return;
+    }
     
-    // Then fetch every 3 seconds
-    activeRidesInterval = setInterval(() => {
-        fetchActiveRides();
-    }, 3000);
+    const render = RidePush.debounce(() => displayActiveRides([...activeRides.values()]), 100);
+    const source = new EventSource(`${API_BASE_URL}/rides/active/stream`);
+    source.addEventListener('snapshot', event => {
+        const snapshot = JSON.parse(event.data);
+        activeRides.clear();
+        snapshot.rides.forEach(ride => activeRides.set(ride.rideId, ride));
+        render();
+    });
+    source.addEventListener('delta', event => {
+        const delta = JSON.parse(event.data);
+        if (delta.type === 'REMOVED') {
+            activeRides.delete(delta.rideId);
+        } else {
+            activeRides.set(delta.rideId, delta.ride);
+        }
+        render();
+    });
+    activeRidesFollower = { stop: () => source.close() };
 }
 
 // Initialize
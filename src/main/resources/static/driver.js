@@ -1,7 +1,7 @@
 const API_BASE_URL = 'http://localhost:8080/v1';
 
 let currentTripId = null;
-let pollingInterval = null;
+let tripFollower = null;
 
 // Add message to activity log
 function addMessage(message, type = 'info') {
@@ -201,26 +201,20 @@ async function pollTripStatus(rideId) {
     }
 }
 
-// Start polling trip status
+// Start tracking trip status: pushed ride updates trigger a refresh, polling covers a lost connection
 function startPollingTripStatus(rideId) {
-    if (pollingInterval) {
-        clearInterval(pollingInterval);
+    if (tripFollower) {
+        tripFollower.stop();
     }
     
-    // Poll immediately
-    pollTripStatus(rideId);
-    
-    // Then poll every 3 seconds
-    pollingInterval = setInterval(() => {
-        pollTripStatus(rideId);
-    }, 3000);
+    tripFollower = RidePush.follow(`/topic/rides/${rideId}`, () => pollTripStatus(rideId), 3000);
 }
 
-// Stop polling trip status
+// Stop tracking trip status
 function stopPollingTripStatus() {
-    if (pollingInterval) {
-        clearInterval(pollingInterval);
-        pollingInterval = null;
+    if (tripFollower) {
+        tripFollower.stop();
+        tripFollower = null;
     }
 }
 
@@ -347,17 +341,11 @@ function displayActiveRides(rides) {
     container.innerHTML = html;
 }
 
-// Auto-refresh active rides every 3 seconds
-let activeRidesInterval = null;
+// Refresh active rides on pushed ride changes (debounced), polling every 3 seconds as fallback
+let activeRidesFollower = null;
 
 function startActiveRidesPolling() {
-    // Fetch immediately
-    fetchActiveRides();
-    
-    // Then fetch every 3 seconds
-    activeRidesInterval = setInterval(() => {
-        fetchActiveRides();
-    }, 3000);
+    activeRidesFollower = RidePush.follow('/topic/rides', RidePush.debounce(fetchActiveRides, 250), 3000);
 }
 
 // Initialize
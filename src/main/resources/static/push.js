@@ -0,0 +1,147 @@
+// Server push over STOMP/WebSocket (/ws) with polling fallback.
+// Pages call RidePush.follow(destination, refresh, pollMs): refresh runs on every pushed change,
+// every pollMs while the socket is down, and every pollMs * 10 while it is up, as a safety net
+// for changes that happen between the initial fetch and the subscription becoming active.
+const RidePush = (() => {
+    const SAFETY_POLL_FACTOR = 10;
+    const HEARTBEAT_MS = 10000;
+    
+    let socket = null;
+    let connected = false;
+    let nextSubscriptionId = 0;
+    let reconnectDelay = 1000;
+    let lastFrameAt = 0;
+    const subscriptions = new Map();
+    const stateListeners = new Set();
+    
+    function socketUrl() {
+        return API_BASE_URL.replace(/^http/, 'ws').replace(/\/v1\/?$/, '') + '/ws';
+    }
+    
+    function frame(command, headers = {}, body = '') {
+        let text = command + '\n';
+        for (const [name, value] of Object.entries(headers)) {
+            text += `${name}:${value}\n`;
+        }
+        return text + '\n' + body + '\0';
+    }
+    
+    function setConnected(value) {
+        if (connected === value) return;
+        connected = value;
+        stateListeners.forEach(listener => listener(value));
+    }
+    
+    function sendSubscribe(id, destination) {
+        socket.send(frame('SUBSCRIBE', { id, destination }));
+    }
+    
+    function connect() {
+        if (socket || !('WebSocket' in window)) return;
+        socket = new WebSocket(socketUrl());
+        socket.onopen = () => {
+            socket.send(frame('CONNECT', {
+                'accept-version': '1.2',
+                'heart-beat': `0,${HEARTBEAT_MS}`,
+                host: window.location.hostname || 'localhost'
+            }));
+        };
+        socket.onmessage = event => handleData(event.data);
+        socket.onclose = () => {
+            socket = null;
+            setConnected(false);
+            setTimeout(connect, reconnectDelay);
+            reconnectDelay = Math.min(reconnectDelay * 2, 30000);
+        };
+    }
+    
+    function handleData(data) {
+        lastFrameAt = Date.now();
+        data.split('\0').forEach(raw => {
+            const text = raw.replace(/^[\r\n]+/, '');
+            if (!text) return; // heart-beat
+            const headerEnd = text.indexOf('\n\n');
+            const lines = text.substring(0, headerEnd).split('\n');
+            const headers = {};
+            lines.slice(1).forEach(line => {
+                const colon = line.indexOf(':');
+                headers[line.substring(0, colon)] = line.substring(colon + 1);
+            });
+            const body = text.substring(headerEnd + 2);
+            
+            if (lines[0] === 'CONNECTED') {
+                reconnectDelay = 1000;
+                subscriptions.forEach((subscription, id) => sendSubscribe(id, subscription.destination));
+                setConnected(true);
+            } else if (lines[0] === 'MESSAGE') {
+                const subscription = subscriptions.get(headers.subscription);
+                if (subscription) {
+                    try {
+                        subscription.handler(JSON.parse(body));
+                    } catch (e) {
+                        console.error('Error handling push message:', e);
+                    }
+                }
+            } else if (lines[0] === 'ERROR') {
+                console.warn('Push channel error:', headers.message || body);
+            }
+        });
+    }
+    
+    // Drop connections that stopped sending heart-beats so the pages fall back to polling
+    setInterval(() => {
+        if (connected && Date.now() - lastFrameAt > HEARTBEAT_MS * 3) {
+            socket.close();
+        }
+    }, HEARTBEAT_MS);
+    
+    function subscribe(destination, handler) {
+        const id = `sub-${nextSubscriptionId++}`;
+        subscriptions.set(id, { destination, handler });
+        if (connected) {
+            sendSubscribe(id, destination);
+        }
+        connect();
+        return () => {
+            subscriptions.delete(id);
+            if (connected) {
+                socket.send(frame('UNSUBSCRIBE', { id }));
+            }
+        };
+    }
+    
+    function follow(destination, refresh, pollMs) {
+        let timer = null;
+        const schedulePolling = isConnected => {
+            if (timer) clearInterval(timer);
+            timer = setInterval(refresh, isConnected ? pollMs * SAFETY_POLL_FACTOR : pollMs);
+            if (isConnected) refresh(); // catch up on anything missed while disconnected
+        };
+        const unsubscribe = subscribe(destination, () => refresh());
+        stateListeners.add(schedulePolling);
+        refresh();
+        if (timer === null) {
+            timer = setInterval(refresh, connected ? pollMs * SAFETY_POLL_FACTOR : pollMs);
+        }
+        return {
+            stop() {
+                unsubscribe();
+                stateListeners.delete(schedulePolling);
+                clearInterval(timer);
+            }
+        };
+    }
+    
+    function debounce(fn, waitMs) {
+        let pending = null;
+        return () => {
+            if (pending) return;
+            pending = setTimeout(() => {
+                pending = null;
+                fn();
+            }, waitMs);
+        };
+    }
+    
+    return { follow, subscribe, debounce, isConnected: () => connected };
+})();
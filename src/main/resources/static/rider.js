@@ -2,7 +2,7 @@ const API_BASE_URL = 'http://localhost:8080/v1';
 
 let currentRideId = null;
 let currentTripId = null;
-let pollingInterval = null;
+let rideFollower = null;
 
 // Add message to activity log
 function addMessage(message, type = 'info') {
@@ -237,28 +237,22 @@ async function pollRideStatus(rideId) {
     }
 }
 
-// Start polling
+// Start tracking: pushed ride updates trigger a refresh, polling covers a lost connection
 function startPolling(rideId) {
-    if (pollingInterval) {
-        clearInterval(pollingInterval);
+    if (rideFollower) {
+        rideFollower.stop();
     }
     
-    // Poll immediately
-    pollRideStatus(rideId);
-    
-    // Then poll every 2 seconds
-    pollingInterval = setInterval(() => {
-        pollRideStatus(rideId);
-    }, 2000);
+    rideFollower = RidePush.follow(`/topic/rides/${rideId}`, () => pollRideStatus(rideId), 2000);
     
     addMessage('Started tracking ride status...', 'info');
 }
 
-// Stop polling (internal function, no longer exposed)
+// Stop tracking (internal function, no longer exposed)
 function stopPolling() {
-    if (pollingInterval) {
-        clearInterval(pollingInterval);
-        pollingInterval = null;
+    if (rideFollower) {
+        rideFollower.stop();
+        rideFollower = null;
     }
 }
 
@@ -270,10 +264,7 @@ function clearOldRideInfo() {
         currentTripId = null;
         
         // Stop any active polling
-        if (pollingInterval) {
-            clearInterval(pollingInterval);
-            pollingInterval = null;
-        }
+        stopPolling();
         
         // Hide ride status section completely
         const rideStatusSection = document.getElementById('rideStatusSection');
@@ -379,10 +370,7 @@ async function fetchTripDetails(tripId) {
 // Handle payment success
 function handlePaymentSuccess(payment) {
     // Stop polling immediately
-    if (pollingInterval) {
-        clearInterval(pollingInterval);
-        pollingInterval = null;
-    }
+    stopPolling();
     
     // Reset current ride/trip IDs
     currentRideId = null;
@@ -455,6 +443,40 @@ function handlePaymentFailure(payment) {
     }
 }
 
+// Follow payment status until the PSP reaches a final state
+function waitForPaymentResult(payment) {
+    let settled = false;
+    const settle = (handler, result) => {
+        settled = true;
+        follower.stop();
+        clearTimeout(timeout);
+        handler(result);
+    };
+    const follower = RidePush.follow(`/topic/payments/${payment.paymentId}`, async () => {
+        if (settled) return;
+        try {
+            const checkResponse = await fetch(`${API_BASE_URL}/payments/${payment.paymentId}`);
+            if (settled) return;
+            if (!checkResponse.ok) {
+                settle(handlePaymentFailure, payment);
+                return;
+            }
+            const updatedPayment = await checkResponse.json();
+            if (settled) return;
+            if (updatedPayment.status === 'SUCCESS') {
+                settle(handlePaymentSuccess, updatedPayment);
+            } else if (updatedPayment.status === 'FAILED') {
+                settle(handlePaymentFailure, updatedPayment);
+            }
+        } catch (e) {
+            if (!settled) settle(handlePaymentFailure, payment);
+        }
+    }, 1000);
+    const timeout = setTimeout(() => {
+        if (!settled) settle(handlePaymentFailure, payment);
+    }, 30000);
+}
+
 // Process payment
 async function processPayment() {
     const payBtn = document.getElementById('payBtn');
@@ -520,31 +542,14 @@ async function processPayment() {
         
         const payment = await response.json();
         
-        // Handle payment response - payment should return SUCCESS directly
+        // PSP runs asynchronously - PENDING/PROCESSING resolve via GET /v1/payments/{id}
         if (payment.status === 'SUCCESS') {
             handlePaymentSuccess(payment);
         } else if (payment.status === 'FAILED') {
             handlePaymentFailure(payment);
-        } else if (payment.status === 'PROCESSING') {
-            // If somehow PROCESSING is returned, wait and check again
+        } else if (payment.status === 'PENDING' || payment.status === 'PROCESSING') {
             addMessage('Payment is processing, checking status...', 'info');
-            setTimeout(async () => {
-                try {
-                    const checkResponse = await fetch(`${API_BASE_URL}/payments/${payment.paymentId}`);
-                    if (checkResponse.ok) {
-                        const updatedPayment = await checkResponse.json();
-                        if (updatedPayment.status === 'SUCCESS') {
-                            handlePaymentSuccess(updatedPayment);
-                        } else {
-                            handlePaymentFailure(updatedPayment);
-                        }
-                    } else {
-                        handlePaymentFailure(payment);
-                    }
-                } catch (e) {
-                    handlePaymentFailure(payment);
-                }
-            }, 500);
+            waitForPaymentResult(payment);
         } else {
             // Handle any other status
             addMessage(`⚠️ Payment status: ${payment.status}. Please try again.`, 'warning');
@@ -629,17 +634,11 @@ function displayActiveRides(rides) {
     container.innerHTML = html;
 }
 
-// Auto-refresh active rides every 3 seconds
-let activeRidesInterval = null;
+// Refresh active rides on pushed ride changes (debounced), polling every 3 seconds as fallback
+let activeRidesFollower = null;
 
 function startActiveRidesPolling() {
-    // Fetch immediately
-    fetchActiveRides();
-    
-    // Then fetch every 3 seconds
-    activeRidesInterval = setInterval(() => {
-        fetchActiveRides();
-    }, 3000);
+    activeRidesFollower = RidePush.follow('/topic/rides', RidePush.debounce(fetchActiveRides, 250), 3000);
 }
 
 // Initialize active rides polling when page loads
@@ -0,0 +1,423 @@
+package com.interview.gocomet.GoComet.DAW.simulation;
+
+import com.interview.gocomet.GoComet.DAW.GoCometDawApplication;
+import com.interview.gocomet.GoComet.DAW.dto.DriverLocationUpdate;
+import com.interview.gocomet.GoComet.DAW.dto.RideRequest;
+import com.interview.gocomet.GoComet.DAW.dto.RideResponse;
+import com.interview.gocomet.GoComet.DAW.model.Driver;
+import com.interview.gocomet.GoComet.DAW.model.DriverStatus;
+import com.interview.gocomet.GoComet.DAW.model.PaymentMethod;
+import com.interview.gocomet.GoComet.DAW.model.RideStatus;
+import com.interview.gocomet.GoComet.DAW.model.RideTier;
+import com.interview.gocomet.GoComet.DAW.model.Trip;
+import com.interview.gocomet.GoComet.DAW.service.BulkWriter;
+import com.interview.gocomet.GoComet.DAW.service.DriverService;
+import com.interview.gocomet.GoComet.DAW.service.RideService;
+import com.interview.gocomet.GoComet.DAW.service.TripService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Discrete-event city simulator. Tens of thousands of drivers cruise a road graph and ping
+ * their position; riders arrive as a Poisson process from a demand surface; every step of a
+ * ride goes through the real DriverService, RideService and TripService in an in-process
+ * application context (no HTTP, profile "simulation", in-memory H2 unless overridden), so
+ * what is measured is the dispatch logic and its queries, not a stub.
+ * <p>
+ * Run with: gradle simulate --args='--drivers=20000 --duration=1h --demand=3000 --label=baseline'
+ * Same seed, same options, different code: compare build/reports/simulation/*.json.
+ * <p>
+ * The services stamp rides and trips with the wall clock, so in accelerated mode the fares and
+ * durations they store reflect how long the calls took, not simulated time; every figure in the
+ * report is computed here from simulated time.
+ */
+@Slf4j
+public class CitySimulator {
+    
+    private static final String[] VEHICLE_TYPES = {"SEDAN", "HATCHBACK", "SUV", "SEDAN", "HATCHBACK"};
+    private static final RideTier[] TIERS = {RideTier.ECONOMY, RideTier.ECONOMY, RideTier.ECONOMY, RideTier.PREMIUM, RideTier.LUXURY};
+    private static final PaymentMethod[] PAYMENT_METHODS = PaymentMethod.values();
+    private static final int INSERT_CHUNK = 2000;
+    private static final double PROGRESS_EVERY_SECONDS = 600;
+    
+    private final SimulationOptions options;
+    private final RoadGraph graph;
+    private final DemandSurface demand;
+    private final DriverService driverService;
+    private final RideService rideService;
+    private final TripService tripService;
+    private final BulkWriter bulkWriter;
+    private final MeterRegistry meterRegistry;
+    private final Random random;
+    private final EventQueue queue = new EventQueue();
+    private final SimulationReport report = new SimulationReport();
+    private final List<SimDriver> drivers = new ArrayList<>();
+    private final Map<String, SimDriver> driversById = new HashMap<>();
+    private final double warmup;
+    private final double end;
+    private Map<String, double[]> matchingAtWarmup = Map.of();
+    private long wallAtWarmup;
+    private long riders;
+    
+    CitySimulator(SimulationOptions options, RoadGraph graph, DemandSurface demand,
+                  ConfigurableApplicationContext context, Random random) {
+        this.options = options;
+        this.graph = graph;
+        this.demand = demand;
+        this.driverService = context.getBean(DriverService.class);
+        this.rideService = context.getBean(RideService.class);
+        this.tripService = context.getBean(TripService.class);
+        this.bulkWriter = context.getBean(BulkWriter.class);
+        this.meterRegistry = context.getBeanProvider(MeterRegistry.class).getIfAvailable();
+        this.random = random;
+        this.warmup = options.warmup().toMillis() / 1000.0;
+        this.end = warmup + options.duration().toMillis() / 1000.0;
+    }
+    
+    public static void main(String[] args) throws Exception {
+        SimulationOptions options = SimulationOptions.parse(args);
+        Random random = new Random(options.seed());
+        RoadGraph graph = "synthetic".equals(options.graph())
+            ? RoadGraph.synthetic(options.centerLatitude(), options.centerLongitude(), options.radiusKm(), options.gridSpacing(), random)
+            : RoadGraph.load(Path.of(options.graph()));
+        DemandSurface demand = new DemandSurface(options.hotspots(), options.background(),
+            options.centerLatitude(), options.centerLongitude(), options.radiusKm());
+        System.out.printf("Road graph: %d nodes (%s)%n", graph.size(), options.graph());
+        
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(GoCometDawApplication.class)
+            .profiles("simulation")
+            .web(WebApplicationType.NONE)
+            .run(options.applicationArgs().toArray(String[]::new));
+        int status = 0;
+        try {
+            CitySimulator simulator = new CitySimulator(options, graph, demand, context, random);
+            simulator.seedDrivers();
+            simulator.run();
+        } catch (RuntimeException e) {
+            log.error("Simulation failed", e);
+            status = 1;
+        } finally {
+            context.close();
+        }
+        System.exit(status);
+    }
+    
+    /**
+     * Drivers start where riders are, spread like the demand surface
+     */
+    void seedDrivers() {
+        long started = System.nanoTime();
+        List<Driver> batch = new ArrayList<>(INSERT_CHUNK);
+        List<Integer> nodes = new ArrayList<>(INSERT_CHUNK);
+        for (int i = 0; i < options.drivers(); i++) {
+            double[] start = demand.sample(random);
+            int node = graph.nearest(start[0], start[1]);
+            batch.add(Driver.builder()
+                .driverId(String.format("SIM-%06d", i + 1))
+                .name("Sim Driver " + (i + 1))
+                .phoneNumber(String.format("8%09d", i + 1))
+                .vehicleNumber(String.format("SIM-%02d-%04d", i / 10000, i % 10000))
+                .vehicleType(VEHICLE_TYPES[i % VEHICLE_TYPES.length])
+                .status(DriverStatus.AVAILABLE)
+                .latitude(graph.latitude(node))
+                .longitude(graph.longitude(node))
+                .lastLocationUpdate(LocalDateTime.now())
+                .build());
+            nodes.add(node);
+            if (batch.size() == INSERT_CHUNK || i == options.drivers() - 1) {
+                // Ids are assigned on insert
+                bulkWriter.insertAll(batch);
+                for (int j = 0; j < batch.size(); j++) {
+                    SimDriver driver = new SimDriver(batch.get(j).getDriverId(), batch.get(j).getId(),
+                        Route.stationary(graph, nodes.get(j), 0), new Random(options.seed() + drivers.size()));
+                    driver.idle(nodes.get(j), graph, 0, warmup);
+                    drivers.add(driver);
+                    driversById.put(driver.driverId, driver);
+                }
+                batch.clear();
+                nodes.clear();
+            }
+        }
+        System.out.printf("Seeded %d drivers in %.1fs%n", drivers.size(), (System.nanoTime() - started) / 1e9);
+    }
+    
+    void run() throws IOException {
+        long pingInterval = options.pingInterval().toSeconds();
+        for (long second = 0; second <= end; second++) {
+            long slot = second % pingInterval;
+            queue.at(second, () -> ping(slot, pingInterval));
+        }
+        if (options.demand() > 0) {
+            queue.at(nextArrival(0), this::requestRide);
+        }
+        queue.at(warmup, this::startRecording);
+        for (double at = PROGRESS_EVERY_SECONDS; at < end; at += PROGRESS_EVERY_SECONDS) {
+            queue.at(at, this::progress);
+        }
+        
+        System.out.printf("Simulating %s (+%s warm-up) %s%s%n", options.duration(), options.warmup(), options.mode(),
+            options.realtime() ? " at x" + options.speed() : "");
+        long started = System.nanoTime();
+        queue.run(end, options.realtime() ? options.speed() : 0);
+        double wallSeconds = (System.nanoTime() - wallAtWarmup) / 1e9;
+        System.out.printf("Done in %.1f wall s%s%n", (System.nanoTime() - started) / 1e9,
+            options.realtime() ? String.format(", events ran up to %.2fs late", queue.maxLagSeconds()) : "");
+        
+        double[] stateSeconds = new double[SimDriver.State.values().length];
+        for (SimDriver driver : drivers) {
+            double[] seconds = driver.stateSeconds(end, warmup);
+            for (int i = 0; i < seconds.length; i++) {
+                stateSeconds[i] += seconds[i];
+            }
+        }
+        report.utilisation(stateSeconds);
+        report.matchingStages(matchingSince(matchingAtWarmup));
+        double simulated = end - warmup;
+        report.print(System.out, options, simulated, wallSeconds);
+        report.write(options.reportDir(), options, simulated, wallSeconds, queue.maxLagSeconds());
+        System.out.println("Report written to " + options.reportDir().resolve(options.label() + ".json").toAbsolutePath());
+    }
+    
+    private void startRecording() {
+        wallAtWarmup = System.nanoTime();
+        matchingAtWarmup = matchingTotals();
+    }
+    
+    private boolean recording() {
+        return queue.now() >= warmup;
+    }
+    
+    /**
+     * Every driver pings once per interval; spreading them over the interval's seconds keeps
+     * each batch the same size, as real devices on independent clocks would
+     */
+    private void ping(long slot, long interval) {
+        double now = queue.now();
+        Long recordedAt = options.realtime() ? System.currentTimeMillis() : null;
+        List<DriverLocationUpdate> updates = new ArrayList<>(options.pingBatch());
+        for (int i = (int) slot; i < drivers.size(); i += (int) interval) {
+            double[] position = drivers.get(i).position(now, graph);
+            updates.add(new DriverLocationUpdate(drivers.get(i).driverId, position[0], position[1], recordedAt));
+            if (updates.size() == options.pingBatch()) {
+                flushPings(updates);
+            }
+        }
+        flushPings(updates);
+    }
+    
+    private void flushPings(List<DriverLocationUpdate> updates) {
+        if (updates.isEmpty()) {
+            return;
+        }
+        List<String> unknown = timed("updateLocations", () -> driverService.updateLocations(updates));
+        if (unknown != null && !unknown.isEmpty()) {
+            report.error("updateLocations", "pings for unknown drivers");
+        }
+        updates.clear();
+    }
+    
+    private void requestRide() {
+        double now = queue.now();
+        double next = nextArrival(now);
+        if (next < end) {
+            queue.at(next, this::requestRide);
+        }
+        double[] pickup = demand.sample(random);
+        double[] destination = demand.destination(pickup, random);
+        RideRequest request = new RideRequest();
+        request.setRiderId("SIM-RIDER-" + (++riders));
+        request.setPickupLatitude(pickup[0]);
+        request.setPickupLongitude(pickup[1]);
+        request.setDestinationLatitude(destination[0]);
+        request.setDestinationLongitude(destination[1]);
+        request.setTier(TIERS[random.nextInt(TIERS.length)]);
+        request.setPaymentMethod(PAYMENT_METHODS[random.nextInt(PAYMENT_METHODS.length)]);
+        request.setIdempotencyKey("sim-" + options.seed() + "-" + riders);
+        
+        RideResponse ride = timed("createRide", () -> rideService.createRide(request));
+        if (ride == null) {
+            return;
+        }
+        boolean matched = ride.getStatus() == RideStatus.MATCHED && ride.getDriverId() != null;
+        if (recording()) {
+            report.requested(matched);
+        }
+        if (!matched) {
+            // The rider gives up rather than leave an active ride behind
+            timed("cancelUnmatched", () -> {
+                rideService.updateRideStatus(ride.getRideId(), RideStatus.CANCELLED);
+                return null;
+            });
+            return;
+        }
+        SimDriver driver = driversById.get(ride.getDriverId());
+        if (driver == null) {
+            report.error("match", "driver " + ride.getDriverId() + " is not a simulated driver");
+            return;
+        }
+        if (driver.state() != SimDriver.State.IDLE) {
+            report.error("match", "driver matched while " + driver.state());
+            return;
+        }
+        double[] position = driver.position(now, graph);
+        int from = graph.nearest(position[0], position[1]);
+        int pickupNode = graph.nearest(pickup[0], pickup[1]);
+        Route toPickup = graph.route(from, pickupNode, now);
+        if (toPickup == null) {
+            report.error("match", "pickup unreachable by road");
+            return;
+        }
+        if (recording()) {
+            report.pickup(RoadGraph.distance(position[0], position[1], pickup[0], pickup[1]), toPickup);
+        }
+        driver.ride = new SimRide(ride.getRideId(), now, pickup, destination, recording(), null, null);
+        driver.enter(SimDriver.State.DISPATCHED, Route.stationary(graph, from, now), now, warmup);
+        double delay = options.acceptDelay().toMillis() / 1000.0 * (0.5 + random.nextDouble());
+        queue.after(delay, () -> accept(driver));
+    }
+    
+    /**
+     * As POST /v1/drivers/{id}/accept does, but the trip starts at pickup rather than at once
+     */
+    private void accept(SimDriver driver) {
+        double now = queue.now();
+        SimRide ride = driver.ride;
+        Long rideDbId = timed("acceptRide", () -> {
+            Long id = rideService.getRideEntityByRideId(ride.rideId()).getId();
+            driverService.acceptRide(driver.driverId, id);
+            rideService.updateRideStatus(ride.rideId(), RideStatus.ACCEPTED);
+            return id;
+        });
+        int from = driver.route().lastNode();
+        if (rideDbId == null) {
+            abandon(driver, from, now);
+            return;
+        }
+        if (ride.recorded()) {
+            report.accepted();
+        }
+        driver.ride = ride.withRideDbId(rideDbId);
+        Route toPickup = graph.route(from, graph.nearest(ride.pickup()[0], ride.pickup()[1]), now);
+        driver.enter(SimDriver.State.EN_ROUTE, toPickup, now, warmup);
+        queue.at(toPickup.end(), () -> pickUp(driver));
+    }
+    
+    private void pickUp(SimDriver driver) {
+        double now = queue.now();
+        SimRide ride = driver.ride;
+        Trip trip = timed("startTrip", () -> tripService.startTrip(ride.rideDbId()));
+        int from = driver.route().lastNode();
+        if (trip == null) {
+            abandon(driver, from, now);
+            return;
+        }
+        Route toDestination = graph.route(from, graph.nearest(ride.destination()[0], ride.destination()[1]), now);
+        if (toDestination == null) {
+            report.error("startTrip", "destination unreachable by road");
+            toDestination = Route.stationary(graph, from, now);
+        }
+        if (ride.recorded()) {
+            report.pickedUp(now - ride.requestedAt(), toDestination);
+        }
+        driver.ride = ride.withTripId(trip.getId());
+        driver.enter(SimDriver.State.ON_TRIP, toDestination, now, warmup);
+        queue.at(toDestination.end(), () -> dropOff(driver));
+    }
+    
+    private void dropOff(SimDriver driver) {
+        double now = queue.now();
+        SimRide ride = driver.ride;
+        Trip trip = timed("endTrip", () -> tripService.endTrip(ride.tripId(), ride.destination()[0], ride.destination()[1]));
+        if (trip != null && ride.recorded()) {
+            report.completed();
+        }
+        driver.idle(driver.route().lastNode(), graph, now, warmup);
+    }
+    
+    /**
+     * A lifecycle call failed: free the driver in the service too, so it is matched again
+     */
+    private void abandon(SimDriver driver, int node, double now) {
+        timed("releaseDriver", () -> driverService.releaseDriver(driver.id));
+        driver.idle(node, graph, now, warmup);
+    }
+    
+    private double nextArrival(double now) {
+        double perSecond = options.demand() / 3600;
+        return now - Math.log(1 - random.nextDouble()) / perSecond;
+    }
+    
+    /**
+     * Wall-clock time of one service call; a failure is counted and comes back as null
+     */
+    private <T> T timed(String name, Supplier<T> call) {
+        long started = System.nanoTime();
+        try {
+            T result = call.get();
+            if (recording()) {
+                report.call(name, System.nanoTime() - started);
+            }
+            return result;
+        } catch (RuntimeException e) {
+            report.error(name, e);
+            return null;
+        }
+    }
+    
+    private void progress() {
+        int[] states = new int[SimDriver.State.values().length];
+        drivers.forEach(driver -> states[driver.state().ordinal()]++);
+        System.out.printf("  t=%5.0f min  riders %d  drivers idle %d, awaiting accept %d, to pickup %d, on trip %d%n",
+            queue.now() / 60, riders, states[0], states[1], states[2], states[3]);
+    }
+    
+    /**
+     * {count, total seconds} of every matching.duration and matching.stage timer
+     */
+    private Map<String, double[]> matchingTotals() {
+        Map<String, double[]> totals = new LinkedHashMap<>();
+        if (meterRegistry == null) {
+            return totals;
+        }
+        for (Timer timer : meterRegistry.find("matching.duration").timers()) {
+            totals.put("outcome." + timer.getId().getTag("outcome"),
+                new double[] {timer.count(), timer.totalTime(TimeUnit.SECONDS)});
+        }
+        for (Timer timer : meterRegistry.find("matching.stage").timers()) {
+            totals.put("stage." + timer.getId().getTag("stage"),
+                new double[] {timer.count(), timer.totalTime(TimeUnit.SECONDS)});
+        }
+        return totals;
+    }
+    
+    private Map<String, Object> matchingSince(Map<String, double[]> before) {
+        Map<String, Object> stages = new LinkedHashMap<>();
+        matchingTotals().forEach((name, totals) -> {
+            double[] start = before.getOrDefault(name, new double[2]);
+            long count = (long) (totals[0] - start[0]);
+            if (count > 0) {
+                Map<String, Object> values = new LinkedHashMap<>();
+                values.put("count", count);
+                values.put("meanMs", Math.round((totals[1] - start[1]) / count * 1e6) / 1000.0);
+                stages.put(name, values);
+            }
+        });
+        return stages;
+    }
+}
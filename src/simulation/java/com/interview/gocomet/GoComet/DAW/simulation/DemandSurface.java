@@ -0,0 +1,100 @@
+package com.interview.gocomet.GoComet.DAW.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Where riders ask to be picked up and where they go: a mixture of Gaussian hotspots plus a
+ * uniform share over the city square. Destinations are drawn from the same surface, at least
+ * a kilometre from the pickup.
+ */
+public class DemandSurface {
+    
+    private static final double METRES_PER_DEGREE = 111_320.0;
+    private static final double MIN_TRIP_METRES = 1000.0;
+    
+    private final List<Hotspot> hotspots = new ArrayList<>();
+    private final double totalWeight;
+    private final double background;
+    private final double minLatitude;
+    private final double minLongitude;
+    private final double latitudeSpan;
+    private final double longitudeSpan;
+    
+    private record Hotspot(double latitude, double longitude, double weight, double sigmaKm) {
+    }
+    
+    /**
+     * @param hotspots "lat:lng:weight:sigmaKm,..."; may be empty, leaving only the uniform share
+     */
+    public DemandSurface(String hotspots, double background, double centerLatitude, double centerLongitude,
+                         double radiusKm) {
+        double weight = 0;
+        for (String spec : hotspots.split(",")) {
+            if (spec.isBlank()) {
+                continue;
+            }
+            String[] fields = spec.strip().split(":");
+            if (fields.length != 4) {
+                throw new IllegalArgumentException("Expected a hotspot as lat:lng:weight:sigmaKm, got " + spec);
+            }
+            Hotspot hotspot = new Hotspot(Double.parseDouble(fields[0]), Double.parseDouble(fields[1]),
+                Double.parseDouble(fields[2]), Double.parseDouble(fields[3]));
+            if (hotspot.weight() <= 0 || hotspot.sigmaKm() <= 0) {
+                throw new IllegalArgumentException("Hotspot weight and sigma must be positive: " + spec);
+            }
+            this.hotspots.add(hotspot);
+            weight += hotspot.weight();
+        }
+        this.totalWeight = weight;
+        this.background = this.hotspots.isEmpty() ? 1.0 : background;
+        double latHalf = radiusKm * 1000 / METRES_PER_DEGREE;
+        double lngHalf = latHalf / Math.cos(Math.toRadians(centerLatitude));
+        this.minLatitude = centerLatitude - latHalf;
+        this.minLongitude = centerLongitude - lngHalf;
+        this.latitudeSpan = 2 * latHalf;
+        this.longitudeSpan = 2 * lngHalf;
+    }
+    
+    /**
+     * {latitude, longitude}, clamped to the city square
+     */
+    public double[] sample(Random random) {
+        if (random.nextDouble() < background) {
+            return new double[] {
+                minLatitude + random.nextDouble() * latitudeSpan,
+                minLongitude + random.nextDouble() * longitudeSpan};
+        }
+        double pick = random.nextDouble() * totalWeight;
+        Hotspot hotspot = hotspots.get(hotspots.size() - 1);
+        for (Hotspot candidate : hotspots) {
+            pick -= candidate.weight();
+            if (pick < 0) {
+                hotspot = candidate;
+                break;
+            }
+        }
+        double sigmaLat = hotspot.sigmaKm() * 1000 / METRES_PER_DEGREE;
+        double sigmaLng = sigmaLat / Math.cos(Math.toRadians(hotspot.latitude()));
+        return new double[] {
+            clamp(hotspot.latitude() + random.nextGaussian() * sigmaLat, minLatitude, latitudeSpan),
+            clamp(hotspot.longitude() + random.nextGaussian() * sigmaLng, minLongitude, longitudeSpan)};
+    }
+    
+    public double[] destination(double[] pickup, Random random) {
+        double[] destination = sample(random);
+        for (int tries = 0; tries < 20 && tooShort(pickup, destination); tries++) {
+            destination = sample(random);
+        }
+        return destination;
+    }
+    
+    private static boolean tooShort(double[] from, double[] to) {
+        return RoadGraph.distance(from[0], from[1], to[0], to[1]) < MIN_TRIP_METRES;
+    }
+    
+    private static double clamp(double value, double min, double span) {
+        return Math.max(min, Math.min(min + span, value));
+    }
+}
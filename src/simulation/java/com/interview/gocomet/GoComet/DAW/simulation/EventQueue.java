@@ -0,0 +1,66 @@
+package com.interview.gocomet.GoComet.DAW.simulation;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Simulated clock and its pending events. Events run one at a time on the calling thread, in
+ * time order and, at equal times, in the order they were scheduled, so a run is deterministic
+ * for a given seed. Accelerated, the clock jumps straight to the next event; in realtime it
+ * waits for the wall clock (scaled by speed) to catch up, and records how late events ran
+ * when the services could not keep up.
+ */
+public class EventQueue {
+    
+    private record Event(double time, long sequence, Runnable action) {
+    }
+    
+    private final PriorityQueue<Event> events = new PriorityQueue<>((a, b) -> a.time() != b.time()
+        ? Double.compare(a.time(), b.time()) : Long.compare(a.sequence(), b.sequence()));
+    private long sequence;
+    private double now;
+    private double maxLagSeconds;
+    
+    public double now() {
+        return now;
+    }
+    
+    public void at(double time, Runnable action) {
+        events.add(new Event(Math.max(time, now), sequence++, action));
+    }
+    
+    public void after(double delaySeconds, Runnable action) {
+        at(now + delaySeconds, action);
+    }
+    
+    /**
+     * Runs events up to and including the end time; later ones stay queued.
+     *
+     * @param speed simulated seconds per wall second in realtime; 0 runs accelerated
+     */
+    public void run(double end, double speed) {
+        long wallStart = System.nanoTime();
+        double simStart = now;
+        while (!events.isEmpty() && events.peek().time() <= end) {
+            Event event = events.poll();
+            if (speed > 0) {
+                long due = wallStart + (long) ((event.time() - simStart) / speed * 1e9);
+                long wait;
+                while ((wait = due - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                maxLagSeconds = Math.max(maxLagSeconds, (System.nanoTime() - due) / 1e9);
+            }
+            now = event.time();
+            event.action().run();
+        }
+        now = Math.max(now, end);
+    }
+    
+    /**
+     * Realtime only: the furthest behind schedule an event started, wall seconds
+     */
+    public double maxLagSeconds() {
+        return maxLagSeconds;
+    }
+}
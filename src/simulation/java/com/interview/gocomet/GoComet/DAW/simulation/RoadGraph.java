@@ -0,0 +1,312 @@
+package com.interview.gocomet.GoComet.DAW.simulation;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Directed road graph drivers move along. Either a synthetic grid (jittered so routes are not
+ * all Manhattan-exact, every fifth row and column an arterial), or segments read from a CSV
+ * file: from_lat,from_lng,to_lat,to_lng[,speed_kmh[,oneway]], '#' comments and a header line
+ * allowed. Segments are two-way unless oneway is 1; endpoints closer than about 10cm are the
+ * same node.
+ */
+public class RoadGraph {
+    
+    private static final double EARTH_RADIUS_M = 6_371_000.0;
+    private static final double LOCAL_KMH = 25.0;
+    private static final double ARTERIAL_KMH = 40.0;
+    private static final double CELL_DEGREES = 0.005;
+    
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final int[][] neighbours;
+    // Seconds to traverse the edge to the neighbour at the same position
+    private final double[][] seconds;
+    private final double[][] metres;
+    private final double maxMetresPerSecond;
+    private final Map<Long, List<Integer>> cells = new HashMap<>();
+    
+    private RoadGraph(List<double[]> nodes, List<List<double[]>> edges) {
+        int size = nodes.size();
+        latitudes = new double[size];
+        longitudes = new double[size];
+        neighbours = new int[size][];
+        seconds = new double[size][];
+        metres = new double[size][];
+        double fastest = 0;
+        for (int node = 0; node < size; node++) {
+            latitudes[node] = nodes.get(node)[0];
+            longitudes[node] = nodes.get(node)[1];
+            cells.computeIfAbsent(cell(latitudes[node], longitudes[node]), key -> new ArrayList<>()).add(node);
+        }
+        for (int node = 0; node < size; node++) {
+            List<double[]> out = edges.get(node);
+            neighbours[node] = new int[out.size()];
+            seconds[node] = new double[out.size()];
+            metres[node] = new double[out.size()];
+            for (int i = 0; i < out.size(); i++) {
+                int to = (int) out.get(i)[0];
+                double speed = out.get(i)[1] / 3.6;
+                neighbours[node][i] = to;
+                metres[node][i] = distance(latitudes[node], longitudes[node], latitudes[to], longitudes[to]);
+                seconds[node][i] = metres[node][i] / speed;
+                fastest = Math.max(fastest, speed);
+            }
+        }
+        maxMetresPerSecond = fastest;
+    }
+    
+    /**
+     * Square grid of side 2 × radius around the centre
+     */
+    public static RoadGraph synthetic(double centerLatitude, double centerLongitude, double radiusKm,
+                                      double spacingMetres, Random random) {
+        int side = Math.max(2, (int) Math.round(2 * radiusKm * 1000 / spacingMetres) + 1);
+        double latStep = Math.toDegrees(spacingMetres / EARTH_RADIUS_M);
+        double lngStep = latStep / Math.cos(Math.toRadians(centerLatitude));
+        double minLat = centerLatitude - latStep * (side - 1) / 2;
+        double minLng = centerLongitude - lngStep * (side - 1) / 2;
+        List<double[]> nodes = new ArrayList<>(side * side);
+        List<List<double[]>> edges = new ArrayList<>(side * side);
+        for (int row = 0; row < side; row++) {
+            for (int column = 0; column < side; column++) {
+                // Up to a fifth of the spacing off the grid point
+                nodes.add(new double[] {
+                    minLat + row * latStep + (random.nextDouble() - 0.5) * 0.4 * latStep,
+                    minLng + column * lngStep + (random.nextDouble() - 0.5) * 0.4 * lngStep});
+                edges.add(new ArrayList<>(4));
+            }
+        }
+        for (int row = 0; row < side; row++) {
+            for (int column = 0; column < side; column++) {
+                int node = row * side + column;
+                if (column + 1 < side) {
+                    link(edges, node, node + 1, row % 5 == 0 ? ARTERIAL_KMH : LOCAL_KMH, false);
+                }
+                if (row + 1 < side) {
+                    link(edges, node, node + side, column % 5 == 0 ? ARTERIAL_KMH : LOCAL_KMH, false);
+                }
+            }
+        }
+        return new RoadGraph(nodes, edges);
+    }
+    
+    public static RoadGraph load(Path file) throws IOException {
+        List<double[]> nodes = new ArrayList<>();
+        List<List<double[]>> edges = new ArrayList<>();
+        Map<String, Integer> ids = new HashMap<>();
+        int lineNumber = 0;
+        for (String line : Files.readAllLines(file)) {
+            lineNumber++;
+            String trimmed = line.strip();
+            if (trimmed.isEmpty() || trimmed.startsWith("#") || !isNumeric(trimmed.charAt(0))) {
+                continue;
+            }
+            String[] fields = trimmed.split(",");
+            if (fields.length < 4) {
+                throw new IllegalArgumentException(file + ":" + lineNumber + ": expected from_lat,from_lng,to_lat,to_lng[,speed_kmh[,oneway]]");
+            }
+            int from = node(nodes, edges, ids, Double.parseDouble(fields[0].strip()), Double.parseDouble(fields[1].strip()));
+            int to = node(nodes, edges, ids, Double.parseDouble(fields[2].strip()), Double.parseDouble(fields[3].strip()));
+            double speed = fields.length > 4 && !fields[4].isBlank() ? Double.parseDouble(fields[4].strip()) : LOCAL_KMH;
+            boolean oneWay = fields.length > 5 && "1".equals(fields[5].strip());
+            if (from != to && speed > 0) {
+                link(edges, from, to, speed, oneWay);
+            }
+        }
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException(file + " has no road segments");
+        }
+        return new RoadGraph(nodes, edges);
+    }
+    
+    private static boolean isNumeric(char first) {
+        return Character.isDigit(first) || first == '-' || first == '.';
+    }
+    
+    private static int node(List<double[]> nodes, List<List<double[]>> edges, Map<String, Integer> ids,
+                            double latitude, double longitude) {
+        return ids.computeIfAbsent(String.format("%.6f,%.6f", latitude, longitude), key -> {
+            nodes.add(new double[] {latitude, longitude});
+            edges.add(new ArrayList<>(4));
+            return nodes.size() - 1;
+        });
+    }
+    
+    private static void link(List<List<double[]>> edges, int from, int to, double speedKmh, boolean oneWay) {
+        edges.get(from).add(new double[] {to, speedKmh});
+        if (!oneWay) {
+            edges.get(to).add(new double[] {from, speedKmh});
+        }
+    }
+    
+    public int size() {
+        return latitudes.length;
+    }
+    
+    public double latitude(int node) {
+        return latitudes[node];
+    }
+    
+    public double longitude(int node) {
+        return longitudes[node];
+    }
+    
+    public int[] neighbours(int node) {
+        return neighbours[node];
+    }
+    
+    double seconds(int node, int edge) {
+        return seconds[node][edge];
+    }
+    
+    double metres(int node, int edge) {
+        return metres[node][edge];
+    }
+    
+    /**
+     * Node closest to the point, searching outward ring by ring of ~500m cells
+     */
+    public int nearest(double latitude, double longitude) {
+        long row = (long) Math.floor(latitude / CELL_DEGREES);
+        long column = (long) Math.floor(longitude / CELL_DEGREES);
+        int best = -1;
+        double bestDistance = Double.MAX_VALUE;
+        for (int ring = 0; ring < 400; ring++) {
+            for (long r = row - ring; r <= row + ring; r++) {
+                for (long c = column - ring; c <= column + ring; c++) {
+                    if (Math.abs(r - row) != ring && Math.abs(c - column) != ring) {
+                        continue;
+                    }
+                    for (int node : cells.getOrDefault(key(r, c), List.of())) {
+                        double distance = distance(latitude, longitude, latitudes[node], longitudes[node]);
+                        if (distance < bestDistance) {
+                            bestDistance = distance;
+                            best = node;
+                        }
+                    }
+                }
+            }
+            // One more ring can still hold something closer than a match found at the edge of this one
+            if (best >= 0 && bestDistance < ring * CELL_DEGREES * 111_000 * Math.cos(Math.toRadians(latitude))) {
+                return best;
+            }
+        }
+        if (best < 0) {
+            throw new IllegalStateException("No road node near " + latitude + ", " + longitude);
+        }
+        return best;
+    }
+    
+    /**
+     * Fastest route, by A* with straight-line distance at the top speed as the heuristic.
+     * Returns null when the destination cannot be reached (one-way dead ends in a loaded graph).
+     */
+    public Route route(int from, int to, double startSeconds) {
+        if (from == to) {
+            return Route.stationary(this, from, startSeconds);
+        }
+        double[] cost = new double[size()];
+        int[] previous = new int[size()];
+        Arrays.fill(cost, Double.MAX_VALUE);
+        Arrays.fill(previous, -1);
+        cost[from] = 0;
+        PriorityQueue<double[]> open = new PriorityQueue<>((a, b) -> Double.compare(a[0], b[0]));
+        // {estimated total, node, cost so far}; an entry whose cost has since been beaten is stale
+        open.add(new double[] {heuristic(from, to), from, 0});
+        while (!open.isEmpty()) {
+            double[] head = open.poll();
+            int node = (int) head[1];
+            if (node == to) {
+                break;
+            }
+            if (head[2] > cost[node]) {
+                continue;
+            }
+            for (int edge = 0; edge < neighbours[node].length; edge++) {
+                int next = neighbours[node][edge];
+                double candidate = cost[node] + seconds[node][edge];
+                if (candidate < cost[next]) {
+                    cost[next] = candidate;
+                    previous[next] = node;
+                    open.add(new double[] {candidate + heuristic(next, to), next, candidate});
+                }
+            }
+        }
+        if (previous[to] < 0) {
+            return null;
+        }
+        List<Integer> path = new ArrayList<>();
+        for (int node = to; node != -1; node = previous[node]) {
+            path.add(0, node);
+        }
+        return Route.of(this, path.stream().mapToInt(Integer::intValue).toArray(), startSeconds);
+    }
+    
+    /**
+     * Aimless cruising: a random walk of the given number of edges, not turning straight back
+     * unless at a dead end
+     */
+    public Route walk(int from, int cameFrom, int edges, double startSeconds, Random random) {
+        int[] path = new int[edges + 1];
+        path[0] = from;
+        int previous = cameFrom;
+        for (int i = 1; i <= edges; i++) {
+            int[] options = neighbours[path[i - 1]];
+            if (options.length == 0) {
+                return Route.of(this, Arrays.copyOf(path, i), startSeconds);
+            }
+            int next = options[random.nextInt(options.length)];
+            if (next == previous && options.length > 1) {
+                next = options[(indexOf(options, next) + 1 + random.nextInt(options.length - 1)) % options.length];
+            }
+            previous = path[i - 1];
+            path[i] = next;
+        }
+        return Route.of(this, path, startSeconds);
+    }
+    
+    int edgeIndex(int from, int to) {
+        return indexOf(neighbours[from], to);
+    }
+    
+    private static int indexOf(int[] values, int value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private double heuristic(int from, int to) {
+        return distance(latitudes[from], longitudes[from], latitudes[to], longitudes[to]) / maxMetresPerSecond;
+    }
+    
+    private static long cell(double latitude, double longitude) {
+        return key((long) Math.floor(latitude / CELL_DEGREES), (long) Math.floor(longitude / CELL_DEGREES));
+    }
+    
+    private static long key(long row, long column) {
+        return row * 1_000_003L + column;
+    }
+    
+    /**
+     * Haversine, metres
+     */
+    public static double distance(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+            + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return EARTH_RADIUS_M * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+}
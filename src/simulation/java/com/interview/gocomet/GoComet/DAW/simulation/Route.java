@@ -0,0 +1,89 @@
+package com.interview.gocomet.GoComet.DAW.simulation;
+
+import java.util.Arrays;
+
+/**
+ * A path through the road graph, driven from a fixed simulated start time at each edge's speed
+ */
+public final class Route {
+    
+    private final RoadGraph graph;
+    private final int[] nodes;
+    private final double start;
+    // Cumulative, from the start of the route to each node
+    private final double[] seconds;
+    private final double[] metres;
+    
+    private Route(RoadGraph graph, int[] nodes, double start) {
+        this.graph = graph;
+        this.nodes = nodes;
+        this.start = start;
+        this.seconds = new double[nodes.length];
+        this.metres = new double[nodes.length];
+        for (int i = 1; i < nodes.length; i++) {
+            int edge = graph.edgeIndex(nodes[i - 1], nodes[i]);
+            seconds[i] = seconds[i - 1] + graph.seconds(nodes[i - 1], edge);
+            metres[i] = metres[i - 1] + graph.metres(nodes[i - 1], edge);
+        }
+    }
+    
+    static Route of(RoadGraph graph, int[] nodes, double start) {
+        return new Route(graph, nodes, start);
+    }
+    
+    static Route stationary(RoadGraph graph, int node, double start) {
+        return new Route(graph, new int[] {node}, start);
+    }
+    
+    public double end() {
+        return start + seconds[seconds.length - 1];
+    }
+    
+    public double durationSeconds() {
+        return seconds[seconds.length - 1];
+    }
+    
+    public double lengthMetres() {
+        return metres[metres.length - 1];
+    }
+    
+    public int lastNode() {
+        return nodes[nodes.length - 1];
+    }
+    
+    /**
+     * The node before the last, or -1 for a single-node route
+     */
+    public int previousNode() {
+        return nodes.length > 1 ? nodes[nodes.length - 2] : -1;
+    }
+    
+    /**
+     * {latitude, longitude} at the given simulated time: the start before the route begins,
+     * the last node after it ends, interpolated along the edge in between
+     */
+    public double[] position(double time) {
+        double elapsed = time - start;
+        if (elapsed <= 0 || nodes.length == 1) {
+            return point(nodes[0]);
+        }
+        if (elapsed >= durationSeconds()) {
+            return point(lastNode());
+        }
+        int index = Arrays.binarySearch(seconds, elapsed);
+        if (index >= 0) {
+            return point(nodes[index]);
+        }
+        int next = -index - 1;
+        double fraction = (elapsed - seconds[next - 1]) / (seconds[next] - seconds[next - 1]);
+        int from = nodes[next - 1];
+        int to = nodes[next];
+        return new double[] {
+            graph.latitude(from) + fraction * (graph.latitude(to) - graph.latitude(from)),
+            graph.longitude(from) + fraction * (graph.longitude(to) - graph.longitude(from))};
+    }
+    
+    private double[] point(int node) {
+        return new double[] {graph.latitude(node), graph.longitude(node)};
+    }
+}
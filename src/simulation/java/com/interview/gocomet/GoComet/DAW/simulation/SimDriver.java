@@ -0,0 +1,80 @@
+package com.interview.gocomet.GoComet.DAW.simulation;
+
+import java.util.Random;
+
+/**
+ * The simulator's view of one driver: where it really is (which the service only learns from
+ * pings) and what it is doing. Idle drivers cruise on a random walk that is extended lazily,
+ * so a driver nobody asks about costs nothing between pings.
+ */
+final class SimDriver {
+    
+    enum State { IDLE, DISPATCHED, EN_ROUTE, ON_TRIP }
+    
+    private static final int WALK_EDGES = 20;
+    
+    final String driverId;
+    final long id;
+    private final Random random;
+    private State state = State.IDLE;
+    private double stateSince;
+    private Route route;
+    private final double[] stateSeconds = new double[State.values().length];
+    SimRide ride;
+    
+    SimDriver(String driverId, long id, Route route, Random random) {
+        this.driverId = driverId;
+        this.id = id;
+        this.route = route;
+        this.random = random;
+    }
+    
+    State state() {
+        return state;
+    }
+    
+    /**
+     * {latitude, longitude} at the given simulated time
+     */
+    double[] position(double now, RoadGraph graph) {
+        if (state == State.IDLE) {
+            while (route.end() < now) {
+                Route next = graph.walk(route.lastNode(), route.previousNode(), WALK_EDGES, route.end(), random);
+                if (next.durationSeconds() == 0) {
+                    // Dead end with nowhere to go: stay put
+                    break;
+                }
+                route = next;
+            }
+        }
+        return route.position(now);
+    }
+    
+    Route route() {
+        return route;
+    }
+    
+    /**
+     * Switch state and route; time in the old state counts only from recordFrom on
+     */
+    void enter(State next, Route nextRoute, double now, double recordFrom) {
+        stateSeconds[state.ordinal()] += Math.max(0, now - Math.max(stateSince, recordFrom));
+        state = next;
+        stateSince = now;
+        route = nextRoute;
+    }
+    
+    void idle(int node, RoadGraph graph, double now, double recordFrom) {
+        ride = null;
+        enter(State.IDLE, graph.walk(node, -1, WALK_EDGES, now, random), now, recordFrom);
+    }
+    
+    /**
+     * Seconds spent in each state between recordFrom and end
+     */
+    double[] stateSeconds(double end, double recordFrom) {
+        double[] seconds = stateSeconds.clone();
+        seconds[state.ordinal()] += Math.max(0, end - Math.max(stateSince, recordFrom));
+        return seconds;
+    }
+}
@@ -0,0 +1,18 @@
+package com.interview.gocomet.GoComet.DAW.simulation;
+
+/**
+ * A matched ride as the simulator follows it from acceptance to drop-off
+ *
+ * @param recorded requested after the warm-up, so its pickup and trip count in the report
+ */
+record SimRide(String rideId, double requestedAt, double[] pickup, double[] destination, boolean recorded,
+               Long rideDbId, Long tripId) {
+
+    SimRide withRideDbId(Long rideDbId) {
+        return new SimRide(rideId, requestedAt, pickup, destination, recorded, rideDbId, tripId);
+    }
+
+    SimRide withTripId(Long tripId) {
+        return new SimRide(rideId, requestedAt, pickup, destination, recorded, rideDbId, tripId);
+    }
+}
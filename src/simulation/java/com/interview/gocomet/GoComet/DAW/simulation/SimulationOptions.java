@@ -0,0 +1,131 @@
+package com.interview.gocomet.GoComet.DAW.simulation;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Command-line options, given as --name=value. Options with a dot in the name
+ * (--spring.datasource.url=..., --matching.x=...) are handed to the application context.
+ *
+ * @param duration      simulated time during which riders arrive
+ * @param warmup        simulated time at the start that is not recorded (every driver starts idle)
+ * @param mode          "accelerated" runs events back to back; "realtime" paces them to the wall clock
+ * @param speed         in realtime mode, simulated seconds per wall second
+ * @param demand        ride requests per simulated hour, arriving as a Poisson process
+ * @param hotspots      demand surface, "lat:lng:weight:sigmaKm,..."
+ * @param background    share of demand spread uniformly over the city instead of around a hotspot
+ * @param graph         "synthetic" for a jittered grid, or a CSV file of road segments
+ * @param gridSpacing   synthetic grid spacing, metres
+ * @param pingInterval  simulated time between two location pings of one driver
+ * @param pingBatch     pings per updateLocations call
+ * @param acceptDelay   mean time a matched driver takes to accept
+ */
+public record SimulationOptions(
+        int drivers,
+        Duration duration,
+        Duration warmup,
+        String mode,
+        double speed,
+        double demand,
+        String hotspots,
+        double background,
+        double centerLatitude,
+        double centerLongitude,
+        double radiusKm,
+        String graph,
+        double gridSpacing,
+        Duration pingInterval,
+        int pingBatch,
+        Duration acceptDelay,
+        long seed,
+        String label,
+        Path reportDir,
+        List<String> applicationArgs) {
+
+    static final String DEFAULT_HOTSPOTS = "28.7041:77.1025:3:1.5,28.6600:77.1500:2:2.0,28.7400:77.0600:1:1.5,28.7200:77.1600:1:1.0";
+
+    private static final Set<String> OPTIONS = Set.of("drivers", "duration", "warmup", "mode", "speed", "demand",
+        "hotspots", "background", "center", "radius-km", "graph", "grid-spacing", "ping-interval", "ping-batch",
+        "accept-delay", "seed", "label", "report-dir");
+
+    public static SimulationOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            if (name.contains(".")) {
+                applicationArgs.add(arg);
+            } else if (!OPTIONS.contains(name)) {
+                throw new IllegalArgumentException("Unknown option --" + name + ", expected one of " + OPTIONS);
+            } else {
+                values.put(name, arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        String[] center = values.getOrDefault("center", "28.7041:77.1025").split(":");
+        if (center.length != 2) {
+            throw new IllegalArgumentException("--center must be lat:lng");
+        }
+        SimulationOptions options = new SimulationOptions(
+            Integer.parseInt(values.getOrDefault("drivers", "20000")),
+            duration(values.getOrDefault("duration", "30m")),
+            duration(values.getOrDefault("warmup", "5m")),
+            values.getOrDefault("mode", "accelerated"),
+            Double.parseDouble(values.getOrDefault("speed", "1")),
+            Double.parseDouble(values.getOrDefault("demand", "3000")),
+            values.getOrDefault("hotspots", DEFAULT_HOTSPOTS),
+            Double.parseDouble(values.getOrDefault("background", "0.2")),
+            Double.parseDouble(center[0]),
+            Double.parseDouble(center[1]),
+            Double.parseDouble(values.getOrDefault("radius-km", "12")),
+            values.getOrDefault("graph", "synthetic"),
+            Double.parseDouble(values.getOrDefault("grid-spacing", "400")),
+            duration(values.getOrDefault("ping-interval", "15s")),
+            Integer.parseInt(values.getOrDefault("ping-batch", "500")),
+            duration(values.getOrDefault("accept-delay", "10s")),
+            Long.parseLong(values.getOrDefault("seed", "42")),
+            values.getOrDefault("label", "simulation"),
+            Path.of(values.getOrDefault("report-dir", "build/reports/simulation")),
+            List.copyOf(applicationArgs));
+        if (!"accelerated".equals(options.mode()) && !"realtime".equals(options.mode())) {
+            throw new IllegalArgumentException("--mode must be accelerated or realtime");
+        }
+        if (options.drivers() < 1 || options.pingBatch() < 1 || options.speed() <= 0 || options.demand() < 0) {
+            throw new IllegalArgumentException("--drivers, --ping-batch and --speed must be positive, --demand not negative");
+        }
+        if (options.background() < 0 || options.background() > 1) {
+            throw new IllegalArgumentException("--background must be between 0 and 1");
+        }
+        if (options.pingInterval().toSeconds() < 1) {
+            throw new IllegalArgumentException("--ping-interval must be at least 1s");
+        }
+        return options;
+    }
+
+    public boolean realtime() {
+        return "realtime".equals(mode);
+    }
+
+    /**
+     * 500ms, 30s, 2m, 1h
+     */
+    static Duration duration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            default -> throw new IllegalArgumentException("Expected a duration like 500ms, 30s or 2m, got " + value);
+        };
+    }
+}
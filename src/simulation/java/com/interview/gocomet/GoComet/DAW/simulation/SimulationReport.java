@@ -0,0 +1,242 @@
+package com.interview.gocomet.GoComet.DAW.simulation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What one simulation run measured after its warm-up: rides through each lifecycle step,
+ * wall-clock latency of every service call, pickup distance and wait as riders experience them,
+ * and how drivers spent their time. Two runs with the same seed and options differ only by the
+ * code under test, so their JSON reports can be compared side by side.
+ */
+public class SimulationReport {
+    
+    private static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(10);
+    private static final long MAX_METRES = 200_000;
+    private static final long MAX_SECONDS = TimeUnit.HOURS.toSeconds(12);
+    private static final double[] PERCENTILES = {50, 90, 99};
+    
+    private final Map<String, Histogram> calls = new TreeMap<>();
+    private final Map<String, Long> errors = new TreeMap<>();
+    private final Histogram pickupStraightMetres = new Histogram(MAX_METRES, 3);
+    private final Histogram pickupRouteMetres = new Histogram(MAX_METRES, 3);
+    private final Histogram pickupEtaSeconds = new Histogram(MAX_SECONDS, 3);
+    private final Histogram waitSeconds = new Histogram(MAX_SECONDS, 3);
+    private final Histogram tripMetres = new Histogram(MAX_METRES, 3);
+    private long requested;
+    private long matched;
+    private long unmatched;
+    private long accepted;
+    private long pickedUp;
+    private long completed;
+    private double[] utilisation = new double[SimDriver.State.values().length];
+    private Map<String, Object> matchingStages = Map.of();
+    
+    public void call(String name, long nanos) {
+        calls.computeIfAbsent(name, key -> new Histogram(MAX_MICROS, 3))
+            .recordValue(Math.min(MAX_MICROS, Math.max(0, nanos / 1000)));
+    }
+    
+    public void error(String stage, Throwable error) {
+        errors.merge(stage + ": " + error.getClass().getSimpleName() + " " + error.getMessage(), 1L, Long::sum);
+    }
+    
+    public void error(String stage, String reason) {
+        errors.merge(stage + ": " + reason, 1L, Long::sum);
+    }
+    
+    public void requested(boolean matched) {
+        requested++;
+        if (matched) {
+            this.matched++;
+        } else {
+            unmatched++;
+        }
+    }
+    
+    public void pickup(double straightMetres, Route route) {
+        pickupStraightMetres.recordValue(Math.min(MAX_METRES, Math.round(straightMetres)));
+        pickupRouteMetres.recordValue(Math.min(MAX_METRES, Math.round(route.lengthMetres())));
+        pickupEtaSeconds.recordValue(Math.min(MAX_SECONDS, Math.round(route.durationSeconds())));
+    }
+    
+    public void accepted() {
+        accepted++;
+    }
+    
+    public void pickedUp(double waitedSeconds, Route trip) {
+        pickedUp++;
+        waitSeconds.recordValue(Math.min(MAX_SECONDS, Math.round(waitedSeconds)));
+        tripMetres.recordValue(Math.min(MAX_METRES, Math.round(trip.lengthMetres())));
+    }
+    
+    public void completed() {
+        completed++;
+    }
+    
+    /**
+     * Seconds all drivers together spent in each state
+     */
+    public void utilisation(double[] stateSeconds) {
+        utilisation = stateSeconds.clone();
+    }
+    
+    /**
+     * Per-stage totals from the service's own matching meters
+     */
+    public void matchingStages(Map<String, Object> stages) {
+        matchingStages = stages;
+    }
+    
+    public void print(PrintStream out, SimulationOptions options, double simulatedSeconds, double wallSeconds) {
+        double hours = simulatedSeconds / 3600;
+        out.printf("%n%s: %d drivers, %.0f rides/h offered, %.1f simulated min in %.1f wall s (x%.1f)%n",
+            options.label(), options.drivers(), options.demand(), simulatedSeconds / 60, wallSeconds,
+            simulatedSeconds / Math.max(1e-9, wallSeconds));
+        out.printf("rides: %d requested (%.0f/h), %d matched, %d unmatched, %d accepted, %d picked up, %d completed (%.0f/h)%n",
+            requested, requested / hours, matched, unmatched, accepted, pickedUp, completed, completed / hours);
+        out.printf("match rate: %.1f%%%n", matchRate() * 100);
+        double total = total();
+        out.printf("driver time: %.1f%% idle, %.1f%% awaiting accept, %.1f%% to pickup, %.1f%% on trip -> utilisation %.1f%%%n",
+            share(SimDriver.State.IDLE, total), share(SimDriver.State.DISPATCHED, total),
+            share(SimDriver.State.EN_ROUTE, total), share(SimDriver.State.ON_TRIP, total),
+            100 - share(SimDriver.State.IDLE, total));
+        out.printf("%-20s %8s %8s %8s %8s %8s%n", "pickup", "p50", "p90", "p99", "max", "mean");
+        row(out, "straight-line km", pickupStraightMetres, 1000.0);
+        row(out, "route km", pickupRouteMetres, 1000.0);
+        row(out, "eta min", pickupEtaSeconds, 60.0);
+        row(out, "rider wait min", waitSeconds, 60.0);
+        row(out, "trip km", tripMetres, 1000.0);
+        out.printf("%n%-20s %8s %8s %8s %8s %8s %8s%n", "service call", "count", "calls/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        calls.forEach((name, histogram) -> out.printf("%-20s %8d %8.1f %8.2f %8.2f %8.2f %8.2f%n", name,
+            histogram.getTotalCount(), histogram.getTotalCount() / Math.max(1e-9, wallSeconds),
+            histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(90) / 1000.0,
+            histogram.getValueAtPercentile(99) / 1000.0, histogram.getMaxValue() / 1000.0));
+        if (!matchingStages.isEmpty()) {
+            out.println("\nmatchDriver (service meters): " + matchingStages);
+        }
+        errors.forEach((error, count) -> out.printf("%d x %s%n", count, error));
+    }
+    
+    /**
+     * <label>.json, plus a .hgrm distribution of the createRide call (which includes matching)
+     */
+    public void write(Path directory, SimulationOptions options, double simulatedSeconds, double wallSeconds,
+                      double maxLagSeconds) throws IOException {
+        Files.createDirectories(directory);
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", options.label());
+        report.put("options", options(options));
+        report.put("simulatedSeconds", simulatedSeconds);
+        report.put("wallSeconds", wallSeconds);
+        if (options.realtime()) {
+            report.put("maxLagSeconds", maxLagSeconds);
+        }
+        double hours = simulatedSeconds / 3600;
+        Map<String, Object> rides = new LinkedHashMap<>();
+        rides.put("requested", requested);
+        rides.put("matched", matched);
+        rides.put("unmatched", unmatched);
+        rides.put("accepted", accepted);
+        rides.put("pickedUp", pickedUp);
+        rides.put("completed", completed);
+        rides.put("requestedPerHour", requested / hours);
+        rides.put("completedPerHour", completed / hours);
+        rides.put("matchRate", matchRate());
+        report.put("rides", rides);
+        double total = total();
+        Map<String, Object> drivers = new LinkedHashMap<>();
+        for (SimDriver.State state : SimDriver.State.values()) {
+            drivers.put(state.name().toLowerCase(), share(state, total) / 100);
+        }
+        drivers.put("utilisation", 1 - share(SimDriver.State.IDLE, total) / 100);
+        report.put("driverTime", drivers);
+        Map<String, Object> pickup = new LinkedHashMap<>();
+        pickup.put("straightLineKm", distribution(pickupStraightMetres, 1000.0));
+        pickup.put("routeKm", distribution(pickupRouteMetres, 1000.0));
+        pickup.put("etaMinutes", distribution(pickupEtaSeconds, 60.0));
+        pickup.put("riderWaitMinutes", distribution(waitSeconds, 60.0));
+        report.put("pickup", pickup);
+        report.put("tripKm", distribution(tripMetres, 1000.0));
+        Map<String, Object> byCall = new LinkedHashMap<>();
+        calls.forEach((name, histogram) -> {
+            Map<String, Object> json = distribution(histogram, 1000.0);
+            json.put("count", histogram.getTotalCount());
+            json.put("callsPerSecond", histogram.getTotalCount() / Math.max(1e-9, wallSeconds));
+            byCall.put(name, json);
+        });
+        report.put("serviceCallsMs", byCall);
+        report.put("matchDriver", matchingStages);
+        report.put("errors", errors);
+        new ObjectMapper().writerWithDefaultPrettyPrinter()
+            .writeValue(directory.resolve(options.label() + ".json").toFile(), report);
+        Histogram createRide = calls.get("createRide");
+        if (createRide != null) {
+            try (PrintStream hgrm = new PrintStream(Files.newOutputStream(directory.resolve(options.label() + "-createRide.hgrm")))) {
+                createRide.outputPercentileDistribution(hgrm, 1000.0);
+            }
+        }
+    }
+    
+    private double matchRate() {
+        return requested == 0 ? 0 : (double) matched / requested;
+    }
+    
+    private double total() {
+        double total = 0;
+        for (double seconds : utilisation) {
+            total += seconds;
+        }
+        return total;
+    }
+    
+    private double share(SimDriver.State state, double total) {
+        return total == 0 ? 0 : utilisation[state.ordinal()] / total * 100;
+    }
+    
+    private static void row(PrintStream out, String name, Histogram histogram, double scale) {
+        out.printf("%-20s %8.2f %8.2f %8.2f %8.2f %8.2f%n", name, histogram.getValueAtPercentile(50) / scale,
+            histogram.getValueAtPercentile(90) / scale, histogram.getValueAtPercentile(99) / scale,
+            histogram.getMaxValue() / scale, histogram.getMean() / scale);
+    }
+    
+    private static Map<String, Object> distribution(Histogram histogram, double scale) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (double percentile : PERCENTILES) {
+            values.put("p" + (int) percentile, histogram.getValueAtPercentile(percentile) / scale);
+        }
+        values.put("max", histogram.getMaxValue() / scale);
+        values.put("mean", histogram.getMean() / scale);
+        return values;
+    }
+    
+    private static Map<String, Object> options(SimulationOptions options) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("drivers", options.drivers());
+        values.put("duration", options.duration().toString());
+        values.put("warmup", options.warmup().toString());
+        values.put("mode", options.mode());
+        values.put("speed", options.speed());
+        values.put("demandPerHour", options.demand());
+        values.put("hotspots", options.hotspots());
+        values.put("background", options.background());
+        values.put("center", options.centerLatitude() + ":" + options.centerLongitude());
+        values.put("radiusKm", options.radiusKm());
+        values.put("graph", options.graph());
+        values.put("pingInterval", options.pingInterval().toString());
+        values.put("pingBatch", options.pingBatch());
+        values.put("acceptDelay", options.acceptDelay().toString());
+        values.put("seed", options.seed());
+        values.put("applicationArgs", options.applicationArgs());
+        return values;
+    }
+}
@@ -0,0 +1,79 @@
+package com.interview.gocomet.GoComet.DAW.cache;
+
+import com.interview.gocomet.GoComet.DAW.config.RedisConfig;
+import com.interview.gocomet.GoComet.DAW.dto.PaymentResponse;
+import com.interview.gocomet.GoComet.DAW.model.PaymentStatus;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares the compact binary serializer with the JSON serializer on the hot cached types:
+ * payload size, serialize/deserialize throughput and bytes allocated per operation.
+ * Run with: gradle compareCacheSerializers
+ */
+public class CacheSerializerComparison {
+    
+    private static final int WARMUP_ITERATIONS = 200_000;
+    private static final int MEASURED_ITERATIONS = 1_000_000;
+    
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    
+    private static volatile Object sink;
+    
+    public static void main(String[] args) {
+        RedisSerializer<Object> json = RedisConfig.jsonValueSerializer();
+        RedisSerializer<Object> binary = new CompactRedisSerializer(CacheCodecs.defaults(), RedisConfig.jsonValueSerializer());
+        
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("Driver", CompactRedisSerializerTest.sampleDriver());
+        values.put("RideResponse", CompactRedisSerializerTest.sampleRide());
+        values.put("PaymentResponse", PaymentResponse.builder()
+            .paymentId("PAY-0b7d9c1e-5d0a-4a44-8a8e-0f6b8f1e2c3d").tripId(1234L).amount(245.75)
+            .status(PaymentStatus.SUCCESS).pspTransactionId("PSP-7c1d2e3f-4a5b-4c6d-8e9f-0a1b2c3d4e5f")
+            .createdAt(LocalDateTime.now()).build());
+        values.put("List<Driver>(20)", new ArrayList<>(Collections.nCopies(20, CompactRedisSerializerTest.sampleDriver())));
+        
+        System.out.printf("%-18s %-7s %8s %12s %12s %14s %14s%n",
+            "type", "format", "bytes", "ser ops/s", "de ops/s", "ser B/op", "de B/op");
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            report(entry.getKey(), "json", json, entry.getValue());
+            report(entry.getKey(), "binary", binary, entry.getValue());
+        }
+    }
+    
+    private static void report(String type, String format, RedisSerializer<Object> serializer, Object value) {
+        byte[] bytes = serializer.serialize(value);
+        int iterations = value instanceof List ? MEASURED_ITERATIONS / 10 : MEASURED_ITERATIONS;
+        
+        measure(() -> sink = serializer.serialize(value), WARMUP_ITERATIONS / 10);
+        long[] ser = measure(() -> sink = serializer.serialize(value), iterations);
+        measure(() -> sink = serializer.deserialize(bytes), WARMUP_ITERATIONS / 10);
+        long[] de = measure(() -> sink = serializer.deserialize(bytes), iterations);
+        
+        System.out.printf("%-18s %-7s %8d %12d %12d %14d %14d%n", type, format, bytes.length,
+            iterations * 1_000_000_000L / ser[0], iterations * 1_000_000_000L / de[0],
+            ser[1] / iterations, de[1] / iterations);
+    }
+    
+    /**
+     * Returns elapsed nanos and bytes allocated by the current thread
+     */
+    private static long[] measure(Runnable operation, int iterations) {
+        long threadId = Thread.currentThread().threadId();
+        long allocatedBefore = THREADS.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            operation.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        return new long[] {elapsed, THREADS.getThreadAllocatedBytes(threadId) - allocatedBefore};
+    }
+}
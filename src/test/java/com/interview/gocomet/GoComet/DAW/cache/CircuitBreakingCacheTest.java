@@ -0,0 +1,81 @@
+package com.interview.gocomet.GoComet.DAW.cache;
+
+import com.interview.gocomet.GoComet.DAW.resilience.CircuitBreaker;
+import com.interview.gocomet.GoComet.DAW.resilience.RedisGuard;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CircuitBreakingCacheTest {
+    
+    private ConcurrentMapCache redisCache;
+    private RedisConnectionFactory connectionFactory;
+    private RedisGuard redisGuard;
+    private Cache cache;
+    
+    @BeforeEach
+    void setUp() {
+        redisCache = spy(new ConcurrentMapCache("rides"));
+        connectionFactory = mock(RedisConnectionFactory.class);
+        redisGuard = new RedisGuard(connectionFactory, 2, 0);
+        SimpleCacheManager redisCacheManager = new SimpleCacheManager();
+        redisCacheManager.setCaches(List.of(redisCache));
+        redisCacheManager.initializeCaches();
+        cache = new CircuitBreakingCacheManager(redisCacheManager, redisGuard).getCache("rides");
+    }
+    
+    private void tripBreaker() {
+        doThrow(new RedisConnectionFailureException("down")).when(redisCache).get("RIDE-1");
+        for (int i = 0; i < 2; i++) {
+            assertThrows(RedisConnectionFailureException.class, () -> cache.get("RIDE-1"));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, redisGuard.getState());
+    }
+    
+    @Test
+    void testOpenBreaker_SkipsRedisWithoutCallingIt() {
+        tripBreaker();
+        clearInvocations(redisCache);
+        
+        assertNull(cache.get("RIDE-1"));
+        cache.put("RIDE-2", "ride");
+        
+        verifyNoInteractions(redisCache);
+    }
+    
+    @Test
+    void testProbe_ClearsCachesThatMissedWritesBeforeClosing() {
+        redisCache.put("RIDE-3", "stale");
+        tripBreaker();
+        cache.evict("RIDE-3");
+        assertNotNull(redisCache.get("RIDE-3"));
+        
+        RedisConnection connection = mock(RedisConnection.class);
+        when(connectionFactory.getConnection()).thenReturn(connection);
+        redisGuard.probe();
+        
+        assertEquals(CircuitBreaker.State.CLOSED, redisGuard.getState());
+        assertNull(redisCache.get("RIDE-3"));
+    }
+    
+    @Test
+    void testFailedProbe_KeepsBreakerOpen() {
+        tripBreaker();
+        when(connectionFactory.getConnection()).thenThrow(new RedisConnectionFailureException("still down"));
+        
+        redisGuard.probe();
+        
+        assertEquals(CircuitBreaker.State.OPEN, redisGuard.getState());
+        assertFalse(redisGuard.isAvailable());
+    }
+}
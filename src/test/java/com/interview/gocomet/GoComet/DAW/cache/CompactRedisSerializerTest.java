@@ -0,0 +1,106 @@
+package com.interview.gocomet.GoComet.DAW.cache;
+
+import com.interview.gocomet.GoComet.DAW.config.RedisConfig;
+import com.interview.gocomet.GoComet.DAW.dto.PaymentResponse;
+import com.interview.gocomet.GoComet.DAW.dto.RideResponse;
+import com.interview.gocomet.GoComet.DAW.model.Driver;
+import com.interview.gocomet.GoComet.DAW.model.DriverStatus;
+import com.interview.gocomet.GoComet.DAW.model.PaymentStatus;
+import com.interview.gocomet.GoComet.DAW.model.RideStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactRedisSerializerTest {
+    
+    private final GenericJackson2JsonRedisSerializer json = RedisConfig.jsonValueSerializer();
+    private final CompactRedisSerializer serializer = new CompactRedisSerializer(CacheCodecs.defaults(), json);
+    
+    static Driver sampleDriver() {
+        return Driver.builder()
+            .id(42L)
+            .driverId("DRIVER-42")
+            .name("Driver 42")
+            .phoneNumber("+919876543210")
+            .vehicleNumber("KA01AB1234")
+            .vehicleType("SEDAN")
+            .status(DriverStatus.AVAILABLE)
+            .latitude(12.9715987)
+            .longitude(77.5945627)
+            .lastLocationUpdate(LocalDateTime.of(2024, 5, 1, 10, 15, 30, 123_000_000))
+            .createdAt(LocalDateTime.of(2024, 1, 1, 0, 0))
+            .updatedAt(LocalDateTime.of(2024, 5, 1, 10, 15, 30))
+            .version(17L)
+            .build();
+    }
+    
+    static RideResponse sampleRide() {
+        return RideResponse.builder()
+            .rideId("RIDE-6f1c2a7e-2b0f-4a4e-9d1e-3f3c1b2a9d10")
+            .riderId("RIDER-7")
+            .status(RideStatus.MATCHED)
+            .driverId("DRIVER-42")
+            .createdAt(LocalDateTime.of(2024, 5, 1, 10, 0))
+            .matchedAt(LocalDateTime.of(2024, 5, 1, 10, 0, 2))
+            .version(3L)
+            .build();
+    }
+    
+    @Test
+    void testRoundTrip_HotTypesIncludingNullFields() {
+        PaymentResponse payment = PaymentResponse.builder()
+            .paymentId("PAY-1").tripId(9L).amount(245.75).status(PaymentStatus.PENDING)
+            .createdAt(LocalDateTime.of(2024, 5, 1, 10, 30)).build();
+        
+        assertEquals(sampleDriver(), serializer.deserialize(serializer.serialize(sampleDriver())));
+        assertEquals(sampleRide(), serializer.deserialize(serializer.serialize(sampleRide())));
+        assertEquals(payment, serializer.deserialize(serializer.serialize(payment)));
+        assertEquals(new RideResponse(), serializer.deserialize(serializer.serialize(new RideResponse())));
+    }
+    
+    @Test
+    void testListOfDrivers_IsWrittenAsTypedArrayAndIsSmallerThanJson() {
+        List<Driver> drivers = List.of(sampleDriver(), sampleDriver(), sampleDriver());
+        
+        byte[] bytes = serializer.serialize(drivers);
+        
+        assertEquals(CompactRedisSerializer.MAGIC, bytes[0] & 0xFF);
+        assertEquals(drivers, serializer.deserialize(bytes));
+        assertTrue(serializer.serialize(sampleDriver()).length * 3 < json.serialize(sampleDriver()).length);
+    }
+    
+    @Test
+    void testUnregisteredTypesAndJsonEntries_UseFallback() {
+        Map<String, Object> other = new HashMap<>(Map.of("message", "hello"));
+        
+        byte[] bytes = serializer.serialize(other);
+        
+        assertEquals('{', bytes[0]);
+        assertEquals(other, serializer.deserialize(bytes));
+        assertEquals(other, serializer.deserialize(json.serialize(other)));
+    }
+    
+    @Test
+    void testOlderLayoutVersion_IsReadAndUnknownVersionsOrFieldsAreRejected() {
+        Driver driver = sampleDriver();
+        driver.setVersion(null);
+        CacheCodecs.DriverCodec codec = new CacheCodecs.DriverCodec();
+        
+        assertEquals(driver, codec.read(input(codec, driver), 1));
+        assertThrows(IllegalStateException.class, () -> codec.read(input(codec, sampleDriver()), 1));
+        assertThrows(IllegalStateException.class, () -> codec.read(input(codec, driver), 0));
+        assertThrows(IllegalStateException.class, () -> codec.read(input(codec, driver), codec.version() + 1));
+    }
+    
+    private static BinaryInput input(CacheCodecs.DriverCodec codec, Driver driver) {
+        BinaryOutput out = new BinaryOutput(64);
+        codec.write(driver, out);
+        return new BinaryInput(out.toByteArray(), 0);
+    }
+}
@@ -0,0 +1,276 @@
+package com.interview.gocomet.GoComet.DAW.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.interview.gocomet.GoComet.DAW.config.TwoLevelCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TwoLevelCacheTest {
+    
+    private ConcurrentMapCache l2;
+    private CacheInvalidationPublisher publisher;
+    private TwoLevelCache cache;
+    
+    @BeforeEach
+    void setUp() {
+        l2 = new ConcurrentMapCache("rides");
+        publisher = mock(CacheInvalidationPublisher.class);
+        cache = new TwoLevelCache("rides", Caffeine.newBuilder().maximumSize(100).recordStats().build(), l2, publisher);
+    }
+    
+    @Test
+    void testGet_L2HitIsPromotedToL1() {
+        l2.put("RIDE-1", "ride");
+        
+        assertEquals("ride", cache.get("RIDE-1").get());
+        l2.evict("RIDE-1");
+        assertEquals("ride", cache.get("RIDE-1").get());
+        
+        assertEquals(1L, cache.getStats().get("l1Hits"));
+        assertEquals(1L, cache.getStats().get("l2Hits"));
+        assertNull(cache.get("RIDE-2"));
+        assertEquals(1L, cache.getStats().get("l2Misses"));
+    }
+    
+    @Test
+    void testEvict_ClearsBothLevelsAndBroadcasts() {
+        cache.put("RIDE-1", "ride");
+        
+        cache.evict("RIDE-1");
+        
+        assertNull(cache.get("RIDE-1"));
+        assertNull(l2.get("RIDE-1"));
+        verify(publisher, times(2)).publishEvict("rides", "RIDE-1");
+    }
+    
+    @Test
+    void testRemoteInvalidation_DropsL1AndIgnoresOwnMessages() {
+        ConcurrentMapCacheManager l2Manager = new ConcurrentMapCacheManager();
+        TwoLevelCacheManager manager = new TwoLevelCacheManager(l2Manager, new TwoLevelCacheProperties(), publisher);
+        when(publisher.getNodeId()).thenReturn("node-a");
+        Cache rides = manager.getCache("rides");
+        rides.put("RIDE-1", "stale");
+        
+        // Another node writes a new value to L2 and broadcasts the eviction
+        l2Manager.getCache("rides").put("RIDE-1", "fresh");
+        manager.onMessage(message("node-a|E|rides|RIDE-1"), null);
+        assertEquals("stale", rides.get("RIDE-1").get());
+        manager.onMessage(message("node-b|E|rides|RIDE-1"), null);
+        
+        assertEquals("fresh", rides.get("RIDE-1").get());
+        assertEquals(1L, ((TwoLevelCache) rides).getStats().get("remoteInvalidations"));
+    }
+    
+    @Test
+    void testMeters_BoundForExistingAndLaterCaches() {
+        TwoLevelCacheManager manager = new TwoLevelCacheManager(new ConcurrentMapCacheManager(), new TwoLevelCacheProperties(), publisher);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Cache rides = manager.getCache("rides");
+        manager.bindTo(registry);
+        Cache drivers = manager.getCache("availableDrivers");
+        
+        rides.put("RIDE-1", "ride");
+        rides.get("RIDE-1");
+        rides.get("RIDE-2");
+        drivers.get("28.7_77.1");
+        
+        assertEquals(1.0, registry.get("cache.gets").tags("cache", "rides", "level", "l1", "result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tags("cache", "rides", "level", "l2", "result", "miss").functionCounter().count());
+        assertEquals(0.5, registry.get("cache.hit.ratio").tags("cache", "rides", "level", "l1").gauge().value());
+        assertEquals(1.0, registry.get("cache.gets").tags("cache", "availableDrivers", "level", "l1", "result", "miss").functionCounter().count());
+    }
+    
+    @Test
+    void testConcurrentMisses_ShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Callable<String> loader = () -> {
+            loads.incrementAndGet();
+            release.await();
+            return "ride";
+        };
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(callers.submit(() -> cache.get("RIDE-1", loader)));
+            }
+            while ((long) cache.getStats().get("coalescedLoads") < 7) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+            
+            for (Future<String> result : results) {
+                assertEquals("ride", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+    
+    @Test
+    void testRefreshAhead_ReloadsEntryNearExpiry() {
+        AtomicLong ticker = new AtomicLong();
+        TwoLevelCache refreshing = new TwoLevelCache("rides",
+            Caffeine.newBuilder().expireAfterWrite(Duration.ofSeconds(10)).ticker(ticker::get).build(),
+            l2, publisher, Duration.ofSeconds(8), Runnable::run);
+        AtomicInteger version = new AtomicInteger();
+        Callable<String> loader = () -> "ride-v" + version.incrementAndGet();
+        
+        assertEquals("ride-v1", refreshing.get("RIDE-1", loader));
+        ticker.addAndGet(Duration.ofSeconds(5).toNanos());
+        assertEquals("ride-v1", refreshing.get("RIDE-1", loader));
+        ticker.addAndGet(Duration.ofSeconds(4).toNanos());
+        
+        assertEquals("ride-v1", refreshing.get("RIDE-1", loader));
+        assertEquals("ride-v2", refreshing.get("RIDE-1", loader));
+        assertEquals(1L, refreshing.getStats().get("refreshAheads"));
+    }
+    
+    @Test
+    void testRefreshAhead_ReloadRunsOnTheExecutorNotTheCaller() {
+        AtomicLong ticker = new AtomicLong();
+        List<Runnable> submitted = new ArrayList<>();
+        TwoLevelCache refreshing = new TwoLevelCache("rides",
+            Caffeine.newBuilder().expireAfterWrite(Duration.ofSeconds(10)).ticker(ticker::get).build(),
+            l2, publisher, Duration.ofSeconds(8), submitted::add);
+        AtomicInteger version = new AtomicInteger();
+        Callable<String> loader = () -> "ride-v" + version.incrementAndGet();
+        refreshing.get("RIDE-1", loader);
+        ticker.addAndGet(Duration.ofSeconds(9).toNanos());
+        
+        assertEquals("ride-v1", refreshing.get("RIDE-1", loader));
+        assertEquals("ride-v1", refreshing.get("RIDE-1", loader));
+        assertEquals(1, version.get());
+        assertEquals(1, submitted.size());
+        
+        submitted.get(0).run();
+        assertEquals("ride-v2", refreshing.get("RIDE-1", loader));
+    }
+    
+    @Test
+    void testRefreshAhead_RejectedRefreshIsRetriedOnALaterHit() {
+        AtomicLong ticker = new AtomicLong();
+        AtomicBoolean saturated = new AtomicBoolean(true);
+        TwoLevelCache refreshing = new TwoLevelCache("rides",
+            Caffeine.newBuilder().expireAfterWrite(Duration.ofSeconds(10)).ticker(ticker::get).build(),
+            l2, publisher, Duration.ofSeconds(8), task -> {
+                if (saturated.get()) {
+                    throw new RejectedExecutionException("full");
+                }
+                task.run();
+            });
+        AtomicInteger version = new AtomicInteger();
+        Callable<String> loader = () -> "ride-v" + version.incrementAndGet();
+        refreshing.get("RIDE-1", loader);
+        ticker.addAndGet(Duration.ofSeconds(9).toNanos());
+        
+        assertEquals("ride-v1", refreshing.get("RIDE-1", loader));
+        assertEquals(1, version.get());
+        saturated.set(false);
+        
+        assertEquals("ride-v1", refreshing.get("RIDE-1", loader));
+        assertEquals("ride-v2", refreshing.get("RIDE-1", loader));
+    }
+    
+    @Test
+    void testLoad_EvictedWhileLoadingIsNotWrittenBack() {
+        String loaded = cache.get("RIDE-1", () -> {
+            // A writer commits and evicts after the loader read the old row
+            cache.evict("RIDE-1");
+            return "stale";
+        });
+        
+        assertEquals("stale", loaded);
+        assertNull(cache.get("RIDE-1"));
+        assertNull(l2.get("RIDE-1"));
+        assertEquals(1L, cache.getStats().get("staleFills"));
+        assertEquals("fresh", cache.get("RIDE-1", () -> "fresh"));
+        assertEquals("fresh", l2.get("RIDE-1").get());
+    }
+    
+    @Test
+    void testRefreshAhead_EvictedWhileReloadingIsNotWrittenBack() {
+        AtomicLong ticker = new AtomicLong();
+        List<Runnable> submitted = new ArrayList<>();
+        TwoLevelCache refreshing = new TwoLevelCache("rides",
+            Caffeine.newBuilder().expireAfterWrite(Duration.ofSeconds(10)).ticker(ticker::get).build(),
+            l2, publisher, Duration.ofSeconds(8), submitted::add);
+        AtomicBoolean evictDuringLoad = new AtomicBoolean();
+        Callable<String> loader = () -> {
+            if (evictDuringLoad.get()) {
+                refreshing.evict("RIDE-1");
+            }
+            return "ride";
+        };
+        refreshing.get("RIDE-1", loader);
+        ticker.addAndGet(Duration.ofSeconds(9).toNanos());
+        refreshing.get("RIDE-1", loader);
+        evictDuringLoad.set(true);
+        
+        submitted.get(0).run();
+        
+        assertNull(refreshing.get("RIDE-1"));
+        assertEquals(0L, refreshing.getStats().get("refreshAheads"));
+        assertEquals(1L, refreshing.getStats().get("staleFills"));
+    }
+    
+    @Test
+    void testRemoteInvalidation_DropsALoadInFlight() {
+        String loaded = cache.get("RIDE-1", () -> {
+            cache.invalidateLocal("RIDE-1");
+            return "stale";
+        });
+        
+        assertEquals("stale", loaded);
+        assertNull(l2.get("RIDE-1"));
+    }
+    
+    @Test
+    void testEvict_InsideATransactionRunsAgainAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.evict("RIDE-1");
+            // Before the writer commits, a reader loads the old row
+            cache.get("RIDE-1", () -> "stale");
+            assertEquals("stale", l2.get("RIDE-1").get());
+            
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        
+        assertNull(cache.get("RIDE-1"));
+        assertNull(l2.get("RIDE-1"));
+    }
+    
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage("cache:invalidation".getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8));
+    }
+}
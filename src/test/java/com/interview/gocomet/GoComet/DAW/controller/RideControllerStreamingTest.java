@@ -0,0 +1,100 @@
+package com.interview.gocomet.GoComet.DAW.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interview.gocomet.GoComet.DAW.dto.RideResponse;
+import com.interview.gocomet.GoComet.DAW.event.ActiveRideStream;
+import com.interview.gocomet.GoComet.DAW.model.RideStatus;
+import com.interview.gocomet.GoComet.DAW.service.RideService;
+import com.interview.gocomet.GoComet.DAW.sharding.RegionDirectory;
+import com.interview.gocomet.GoComet.DAW.sharding.ScatterGather;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * The streamed list endpoints end to end through Spring MVC's async handling
+ */
+class RideControllerStreamingTest {
+    
+    private final RideService rideService = mock(RideService.class);
+    private MockMvc mockMvc;
+    
+    @BeforeEach
+    void setUp() {
+        RideController controller = new RideController(rideService, mock(ActiveRideStream.class),
+            mock(ConditionalRequests.class), new StreamingResponses(new ObjectMapper()),
+            new ScatterGather(RegionDirectory.unsharded()));
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void activeRides(String... rideIds) {
+        doAnswer(invocation -> {
+            Consumer<RideResponse> sink = invocation.getArgument(0);
+            for (String rideId : rideIds) {
+                sink.accept(RideResponse.builder().rideId(rideId).status(RideStatus.PENDING).build());
+            }
+            return null;
+        }).when(rideService).forEachActiveRide(any(Consumer.class));
+    }
+    
+    @Test
+    void activeRidesAreWrittenAfterTheHandlerReturns() throws Exception {
+        activeRides("RIDE-1", "RIDE-2");
+        
+        MvcResult started = mockMvc.perform(get("/v1/rides/active"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        
+        mockMvc.perform(asyncDispatch(started))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$[0].rideId").value("RIDE-1"))
+            .andExpect(jsonPath("$[1].rideId").value("RIDE-2"));
+    }
+    
+    @Test
+    void activeRidesAsNdjson() throws Exception {
+        activeRides("RIDE-1", "RIDE-2");
+        
+        MvcResult started = mockMvc.perform(get("/v1/rides/active").accept(MediaType.APPLICATION_NDJSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+            .andReturn().getResponse().getContentAsString();
+        
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"rideId\":\"RIDE-1\""));
+        assertTrue(lines[1].contains("\"rideId\":\"RIDE-2\""));
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void riderHistoryReadsTheRidersRides() throws Exception {
+        MvcResult started = mockMvc.perform(get("/v1/rides").param("riderId", "RIDER-7"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+            .andExpect(status().isOk())
+            .andExpect(content().string("[]"));
+        
+        verify(rideService).forEachRideOfRider(eq("RIDER-7"), any(Consumer.class));
+    }
+}
@@ -0,0 +1,56 @@
+package com.interview.gocomet.GoComet.DAW.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingResponsesTest {
+    
+    private final StreamingResponses streamingResponses = new StreamingResponses(new ObjectMapper());
+    
+    private static String render(ResponseEntity<StreamingResponseBody> response) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+    
+    private ResponseEntity<StreamingResponseBody> rides(String accept, List<Map<String, String>> rows) {
+        return streamingResponses.<Map<String, String>>stream(accept, sink -> rows.forEach(sink));
+    }
+    
+    @Test
+    void writesJsonArrayByDefault() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = rides("*/*",
+            List.of(Map.of("rideId", "RIDE-1"), Map.of("rideId", "RIDE-2")));
+        
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertEquals("[{\"rideId\":\"RIDE-1\"},{\"rideId\":\"RIDE-2\"}]", render(response));
+        assertEquals("[]", render(rides(null, List.of())));
+    }
+    
+    @Test
+    void writesOneLinePerRowForNdjson() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = rides("application/x-ndjson, application/json;q=0.5",
+            List.of(Map.of("rideId", "RIDE-1"), Map.of("rideId", "RIDE-2")));
+        
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        assertEquals("{\"rideId\":\"RIDE-1\"}\n{\"rideId\":\"RIDE-2\"}\n", render(response));
+        assertEquals("", render(rides("application/x-ndjson", List.of())));
+    }
+    
+    @Test
+    void negotiatesNdjsonOnlyWhenAskedFor() {
+        assertTrue(StreamingResponses.wantsNdjson("application/ndjson"));
+        assertFalse(StreamingResponses.wantsNdjson("application/json"));
+        assertFalse(StreamingResponses.wantsNdjson("not a media type;;"));
+    }
+}
@@ -0,0 +1,117 @@
+package com.interview.gocomet.GoComet.DAW.datasource;
+
+import com.interview.gocomet.GoComet.DAW.sharding.Region;
+import com.interview.gocomet.GoComet.DAW.sharding.ScatterGather;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Migration from identity ids: rows already in a table must not be handed their ids again
+ * by the sequence created next to it
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdSequencesTest {
+    
+    private static final String SEQUENCE = "ledger_entries_seq";
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private JdbcTemplate jdbcTemplate;
+    private IdSequences idSequences;
+    
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        idSequences = new IdSequences(dataSource, entityManagerFactory, mock(ScatterGather.class));
+        // As created by the schema update, next to a table filled through its identity column
+        jdbcTemplate.execute("ALTER SEQUENCE " + SEQUENCE + " RESTART WITH 1");
+    }
+    
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM ledger_entries");
+    }
+    
+    @Test
+    void findsTheSequenceOfEveryPooledEntity() {
+        assertTrue(idSequences.getSequences().contains(
+            new IdSequences.IdSequence("ledger_entries", "id", SEQUENCE)));
+    }
+    
+    @Test
+    void sequenceNextToIdentityRowsMovesPastMaxId() {
+        insertIdentityRows(120);
+        assertEquals(1, nextValue());
+        
+        idSequences.align(dataSource, 0, false);
+        
+        assertEquals(121, nextValue());
+    }
+    
+    @Test
+    void regionOffsetIsTheFloor() {
+        insertIdentityRows(120);
+        long offset = new Region("R1", 1, null, null, null, null).idOffset();
+        
+        idSequences.align(dataSource, offset, false);
+        
+        assertEquals(offset + 1, nextValue());
+    }
+    
+    @Test
+    void unforcedAlignOfAnAlignedSequenceBurnsOneBlock() {
+        long first = nextValue();
+        
+        idSequences.align(dataSource, 0, false);
+        
+        // The check draws a value, so the block of 50 ids after first is never used
+        assertEquals(first + 100, nextValue());
+    }
+    
+    @Test
+    void forcedAlignRestartsBelowTheCurrentValue() {
+        jdbcTemplate.execute("ALTER SEQUENCE " + SEQUENCE + " RESTART WITH 10001");
+        insertIdentityRows(120);
+        
+        idSequences.align(dataSource, 0, true);
+        
+        assertEquals(121, nextValue());
+    }
+    
+    private long nextValue() {
+        return jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR " + SEQUENCE, Long.class);
+    }
+    
+    private void insertIdentityRows(int count) {
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            rows.add(new Object[] {id, "TXN-" + id, Date.valueOf(LocalDate.now()), Timestamp.valueOf(LocalDateTime.now())});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO ledger_entries (id, transaction_id, entry_type, direction, account, "
+            + "amount_minor, trip_id, driver_id, rider_id, business_date, created_at) "
+            + "VALUES (?, ?, 'RIDER_CHARGE', 'DEBIT', 'rider:RIDER-1', 100, 1, 1, 'RIDER-1', ?, ?)", rows);
+    }
+}
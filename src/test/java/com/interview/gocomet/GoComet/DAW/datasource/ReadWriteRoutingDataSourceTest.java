@@ -0,0 +1,93 @@
+package com.interview.gocomet.GoComet.DAW.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static com.interview.gocomet.GoComet.DAW.datasource.ReadWriteRoutingDataSource.Route.PRIMARY;
+import static com.interview.gocomet.GoComet.DAW.datasource.ReadWriteRoutingDataSource.Route.REPLICA;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadWriteRoutingDataSourceTest {
+    
+    private final ReadWriteRoutingDataSource dataSource =
+        new ReadWriteRoutingDataSource(new HikariDataSource(), new HikariDataSource());
+    private final ReadYourWrites readYourWrites = new ReadYourWrites(true, Duration.ofMinutes(1), 100);
+    
+    @BeforeEach
+    void beginTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+    }
+    
+    @AfterEach
+    void endTransaction() {
+        TransactionSynchronizationManager.getSynchronizations()
+            .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.clear();
+    }
+    
+    @Test
+    void routesReadOnlyTransactionsToReplica() {
+        assertEquals(PRIMARY, dataSource.determineCurrentLookupKey());
+        
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertEquals(REPLICA, dataSource.determineCurrentLookupKey());
+        
+        @SuppressWarnings("unchecked")
+        Map<String, Object> replica = (Map<String, Object>) dataSource.getStats().get("replica");
+        assertEquals(1L, replica.get("connectionsRouted"));
+    }
+    
+    @Test
+    void pinsReadsOfRecentlyWrittenSubjectsToPrimary() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        readYourWrites.recordWrite(List.of(ReadYourWrites.riderKey("RIDER-1")));
+        
+        readYourWrites.pinIfRecent(ReadYourWrites.riderKey("RIDER-2"));
+        assertEquals(REPLICA, dataSource.determineCurrentLookupKey());
+        
+        readYourWrites.pinIfRecent(ReadYourWrites.riderKey("RIDER-1"));
+        assertEquals(PRIMARY, dataSource.determineCurrentLookupKey());
+        assertEquals(1, readYourWrites.getPinnedTransactionCount());
+    }
+    
+    @Test
+    void pinsCacheFillsToPrimaryWithoutARecentWrite() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        
+        readYourWrites.pinToPrimary();
+        readYourWrites.pinToPrimary();
+        
+        assertEquals(PRIMARY, dataSource.determineCurrentLookupKey());
+        assertEquals(1, readYourWrites.getPinnedTransactionCount());
+    }
+    
+    @Test
+    void pinEndsWithTheTransaction() {
+        readYourWrites.recordWrite(List.of(ReadYourWrites.driverKey(7L)));
+        readYourWrites.pinIfRecent(ReadYourWrites.driverKey(7L));
+        assertTrue(ReadYourWrites.isPinned());
+        
+        TransactionSynchronizationManager.getSynchronizations()
+            .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        assertFalse(ReadYourWrites.isPinned());
+    }
+    
+    @Test
+    void doesNothingWhenRoutingIsDisabled() {
+        ReadYourWrites disabled = new ReadYourWrites(false, Duration.ofMinutes(1), 100);
+        disabled.recordWrite(List.of(ReadYourWrites.rideKey("RIDE-1")));
+        disabled.pinIfRecent(ReadYourWrites.rideKey("RIDE-1"));
+        disabled.pinToPrimary();
+        
+        assertFalse(ReadYourWrites.isPinned());
+        assertEquals(0, disabled.getTrackedSubjectCount());
+    }
+}
@@ -0,0 +1,220 @@
+package com.interview.gocomet.GoComet.DAW.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interview.gocomet.GoComet.DAW.dto.RideResponse;
+import com.interview.gocomet.GoComet.DAW.model.OutboxEventType;
+import com.interview.gocomet.GoComet.DAW.model.RideStatus;
+import com.interview.gocomet.GoComet.DAW.resilience.RedisGuard;
+import com.interview.gocomet.GoComet.DAW.service.OutboxService;
+import com.interview.gocomet.GoComet.DAW.service.RideService;
+import com.interview.gocomet.GoComet.DAW.sharding.RegionDirectory;
+import com.interview.gocomet.GoComet.DAW.sharding.ScatterGather;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ActiveRideStreamTest {
+    
+    @Mock
+    private RideService rideService;
+    
+    @Mock
+    private StringRedisTemplate redisTemplate;
+    
+    @Mock
+    private RedisGuard redisGuard;
+    
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final List<RecordingEmitter> emitters = new ArrayList<>();
+    private ActiveRideStream stream;
+    
+    @BeforeEach
+    void setUp() {
+        stream = newStream(3, 100, Runnable::run);
+    }
+    
+    private ActiveRideStream newStream(int replayBufferSize, int subscriberQueueSize, Executor sender) {
+        ScatterGather scatterGather = new ScatterGather(RegionDirectory.unsharded());
+        return new ActiveRideStream(rideService, scatterGather, redisTemplate, redisGuard, objectMapper, "active-rides",
+                replayBufferSize, 100, 60_000, subscriberQueueSize, Runnable::run, sender) {
+            @Override
+            SseEmitter newEmitter(long timeoutMs) {
+                RecordingEmitter emitter = new RecordingEmitter();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+    }
+    
+    private void rideChanged(String rideId, RideStatus status, OutboxEventType type) {
+        when(rideService.getRide(rideId)).thenReturn(RideResponse.builder()
+            .rideId(rideId).riderId("RIDER-1").status(status).createdAt(LocalDateTime.now()).build());
+        stream.onDomainEvent(new DomainEvent(1L, OutboxService.AGGREGATE_RIDE, rideId, type, "{}", LocalDateTime.now()));
+    }
+    
+    @Test
+    void snapshotIsFollowedByDeltasWithIncreasingSequence() {
+        when(rideService.getActiveRides()).thenReturn(List.of());
+        stream.subscribe(null).orElseThrow();
+        RecordingEmitter emitter = emitters.get(0);
+        
+        rideChanged("RIDE-1", RideStatus.PENDING, OutboxEventType.RIDE_CREATED);
+        rideChanged("RIDE-1", RideStatus.MATCHED, OutboxEventType.RIDE_STATUS_CHANGED);
+        rideChanged("RIDE-1", RideStatus.COMPLETED, OutboxEventType.RIDE_STATUS_CHANGED);
+        
+        assertEquals(4, emitter.events.size());
+        assertTrue(emitter.events.get(0).contains("event:snapshot"));
+        assertTrue(emitter.events.get(1).contains("-1\nevent:delta") && emitter.events.get(1).contains("type=CREATED"));
+        assertTrue(emitter.events.get(2).contains("-2\nevent:delta") && emitter.events.get(2).contains("type=UPDATED"));
+        assertTrue(emitter.events.get(3).contains("-3\nevent:delta") && emitter.events.get(3).contains("type=REMOVED"));
+        assertEquals(1, stream.getSubscriberCount());
+    }
+    
+    @Test
+    void reconnectWithinBufferReplaysOnlyMissedDeltas() {
+        when(rideService.getActiveRides()).thenReturn(List.of());
+        stream.subscribe(null).orElseThrow();
+        rideChanged("RIDE-1", RideStatus.PENDING, OutboxEventType.RIDE_CREATED);
+        rideChanged("RIDE-2", RideStatus.PENDING, OutboxEventType.RIDE_CREATED);
+        rideChanged("RIDE-3", RideStatus.PENDING, OutboxEventType.RIDE_CREATED);
+        
+        String firstDeltaId = eventId(emitters.get(0).events.get(1));
+        stream.subscribe(firstDeltaId).orElseThrow();
+        
+        List<String> replayed = emitters.get(1).events;
+        assertEquals(2, replayed.size());
+        assertTrue(replayed.get(0).contains("rideId=RIDE-2"));
+        assertTrue(replayed.get(1).contains("rideId=RIDE-3"));
+        verify(rideService, times(1)).getActiveRides();
+    }
+    
+    @Test
+    void reconnectBehindBufferOrFromAnotherNodeGetsSnapshot() {
+        when(rideService.getActiveRides()).thenReturn(List.of());
+        stream.subscribe(null).orElseThrow();
+        for (int i = 1; i <= 5; i++) {
+            rideChanged("RIDE-" + i, RideStatus.PENDING, OutboxEventType.RIDE_CREATED);
+        }
+        
+        // Sequence 1 has been evicted from the three-entry buffer
+        stream.subscribe(eventId(emitters.get(0).events.get(1))).orElseThrow();
+        assertTrue(emitters.get(1).events.get(0).contains("event:snapshot"));
+        
+        stream.subscribe("otherepoch-4").orElseThrow();
+        assertTrue(emitters.get(2).events.get(0).contains("event:snapshot"));
+    }
+    
+    @Test
+    void slowSubscriberIsClosedWithoutHoldingUpTheOthers() {
+        // The first send, to the first subscriber, never finishes
+        AtomicBoolean stalled = new AtomicBoolean();
+        stream = newStream(10, 2, task -> {
+            if (stalled.compareAndSet(false, true)) {
+                return;
+            }
+            task.run();
+        });
+        when(rideService.getActiveRides()).thenReturn(List.of());
+        stream.subscribe(null).orElseThrow();
+        stream.subscribe(null).orElseThrow();
+        
+        rideChanged("RIDE-1", RideStatus.PENDING, OutboxEventType.RIDE_CREATED);
+        rideChanged("RIDE-2", RideStatus.PENDING, OutboxEventType.RIDE_CREATED);
+        
+        // Snapshot plus two deltas overflow the first subscriber's two-event queue
+        assertTrue(emitters.get(0).completed);
+        assertEquals(3, emitters.get(1).events.size());
+        assertEquals(1, stream.getSubscriberCount());
+    }
+    
+    @Test
+    void deltasArePublishedForTheOtherNodes() {
+        when(redisGuard.tryRun(any())).thenAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return true;
+        });
+        
+        rideChanged("RIDE-1", RideStatus.PENDING, OutboxEventType.RIDE_CREATED);
+        
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq("active-rides"), message.capture());
+        assertTrue(message.getValue().contains("|{") && message.getValue().contains("\"rideId\":\"RIDE-1\""));
+        
+        // This node's own message comes back on the channel and is not applied twice
+        when(rideService.getActiveRides()).thenReturn(List.of());
+        stream.subscribe(null).orElseThrow();
+        stream.onMessage(message(message.getValue()), null);
+        assertEquals(1, emitters.get(0).events.size());
+    }
+    
+    @Test
+    void deltaFromAnotherNodeReachesLocalSubscribers() {
+        when(rideService.getActiveRides()).thenReturn(List.of());
+        stream.subscribe(null).orElseThrow();
+        
+        stream.onMessage(message("other-node|{\"sequence\":7,\"type\":\"UPDATED\",\"rideId\":\"RIDE-9\","
+            + "\"ride\":{\"rideId\":\"RIDE-9\",\"status\":\"MATCHED\",\"createdAt\":\"2024-01-15T10:30:00\"}}"), null);
+        
+        List<String> events = emitters.get(0).events;
+        assertEquals(2, events.size());
+        // Renumbered in this node's sequence
+        assertTrue(events.get(1).contains("-1\nevent:delta") && events.get(1).contains("rideId=RIDE-9"));
+        verify(rideService, never()).getRide(anyString());
+    }
+    
+    @Test
+    void nonRideEventsAreIgnored() {
+        stream.onDomainEvent(new DomainEvent(1L, OutboxService.AGGREGATE_PAYMENT, "PAY-1",
+            OutboxEventType.PAYMENT_CREATED, "{}", LocalDateTime.now()));
+        
+        verify(rideService, never()).getRide(anyString());
+    }
+    
+    private static String eventId(String event) {
+        return event.substring("id:".length(), event.indexOf('\n'));
+    }
+    
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage("active-rides".getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Renders each sent event to its wire form, with objects shown via toString
+     */
+    private static class RecordingEmitter extends SseEmitter {
+        
+        final List<String> events = new ArrayList<>();
+        boolean completed;
+        
+        @Override
+        public void send(SseEventBuilder builder) {
+            events.add(builder.build().stream()
+                .map(part -> String.valueOf(part.getData()))
+                .collect(Collectors.joining()));
+        }
+        
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.interview.gocomet.GoComet.DAW.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interview.gocomet.GoComet.DAW.model.OutboxEventType;
+import com.interview.gocomet.GoComet.DAW.service.OutboxService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StompPushPublisherTest {
+    
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+    
+    private StompPushPublisher publisher;
+    
+    @BeforeEach
+    void setUp() {
+        publisher = new StompPushPublisher(messagingTemplate, new ObjectMapper().findAndRegisterModules());
+    }
+    
+    private DomainEvent event(String aggregateType, String aggregateId, OutboxEventType type, String payload) {
+        return new DomainEvent(42L, aggregateType, aggregateId, type, payload, LocalDateTime.now());
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void rideEventGoesToRideListAndAssignedDriverTopics() {
+        publisher.onDomainEvent(event(OutboxService.AGGREGATE_RIDE, "RIDE-1", OutboxEventType.RIDE_STATUS_CHANGED,
+            "{\"rideId\":\"RIDE-1\",\"status\":\"DRIVER_ASSIGNED\",\"driverId\":7}"));
+        
+        ArgumentCaptor<Object> message = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate).convertAndSend(eq("/topic/rides/RIDE-1"), message.capture());
+        verify(messagingTemplate).convertAndSend(eq("/topic/rides"), any(Object.class));
+        verify(messagingTemplate).convertAndSend(eq("/topic/drivers/7"), any(Object.class));
+        
+        Map<String, Object> body = (Map<String, Object>) message.getValue();
+        assertEquals(42L, body.get("eventId"));
+        assertEquals(OutboxEventType.RIDE_STATUS_CHANGED, body.get("eventType"));
+        assertEquals("DRIVER_ASSIGNED", ((Map<String, Object>) body.get("data")).get("status"));
+    }
+    
+    @Test
+    void unassignedRideSkipsDriverTopic() {
+        publisher.onDomainEvent(event(OutboxService.AGGREGATE_RIDE, "RIDE-2", OutboxEventType.RIDE_CREATED,
+            "{\"rideId\":\"RIDE-2\",\"status\":\"REQUESTED\",\"driverId\":null}"));
+        
+        verify(messagingTemplate, times(2)).convertAndSend(anyString(), any(Object.class));
+        verify(messagingTemplate, never()).convertAndSend(startsWith("/topic/drivers/"), any(Object.class));
+    }
+    
+    @Test
+    void tripAndPaymentEventsUseTheirOwnTopics() {
+        publisher.onDomainEvent(event(OutboxService.AGGREGATE_TRIP, "TRIP-9", OutboxEventType.TRIP_COMPLETED,
+            "{\"tripId\":\"TRIP-9\",\"id\":9}"));
+        publisher.onDomainEvent(event(OutboxService.AGGREGATE_PAYMENT, "PAY-3", OutboxEventType.PAYMENT_STATUS_CHANGED,
+            "{\"paymentId\":\"PAY-3\",\"status\":\"SUCCESS\"}"));
+        
+        verify(messagingTemplate).convertAndSend(eq("/topic/trips/9"), any(Object.class));
+        verify(messagingTemplate).convertAndSend(eq("/topic/payments/PAY-3"), any(Object.class));
+    }
+    
+    @Test
+    void pushFailuresDoNotPropagate() {
+        doThrow(new MessageDeliveryException("broker down"))
+            .when(messagingTemplate).convertAndSend(anyString(), any(Object.class));
+        
+        assertDoesNotThrow(() -> publisher.onDomainEvent(event(OutboxService.AGGREGATE_PAYMENT, "PAY-4",
+            OutboxEventType.PAYMENT_STATUS_CHANGED, "{\"paymentId\":\"PAY-4\"}")));
+    }
+}
@@ -0,0 +1,62 @@
+package com.interview.gocomet.GoComet.DAW.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotPathMetricsTest {
+    
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final HotPathMetrics metrics = new HotPathMetrics(registry);
+    private final LocalDateTime matchedAt = LocalDateTime.of(2024, 1, 1, 12, 0);
+    
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+    
+    private long accepted() {
+        return registry.get("ride.lifecycle").tag("transition", "matched_to_accepted").timer().count();
+    }
+    
+    @Test
+    void testLifecycleTimer_RecordedOnlyOnceTheTransactionCommits() {
+        TransactionSynchronizationManager.initSynchronization();
+        metrics.accepted(matchedAt, matchedAt.plusSeconds(8));
+        assertEquals(0, accepted());
+        
+        TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        
+        assertEquals(1, accepted());
+        assertEquals(8000, registry.get("ride.lifecycle").tag("transition", "matched_to_accepted").timer()
+            .totalTime(TimeUnit.MILLISECONDS));
+    }
+    
+    @Test
+    void testLifecycleTimer_SkippedWhenTheTransactionRollsBack() {
+        TransactionSynchronizationManager.initSynchronization();
+        metrics.accepted(matchedAt, matchedAt.plusSeconds(8));
+        
+        TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+            TransactionSynchronization.STATUS_ROLLED_BACK);
+        
+        assertEquals(0, accepted());
+    }
+    
+    @Test
+    void testLifecycleTimer_RecordedImmediatelyOutsideATransaction() {
+        metrics.accepted(matchedAt, matchedAt.plusSeconds(8));
+        
+        assertEquals(1, accepted());
+    }
+}
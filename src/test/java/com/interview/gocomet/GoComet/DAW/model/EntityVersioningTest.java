@@ -0,0 +1,178 @@
+package com.interview.gocomet.GoComet.DAW.model;
+
+import com.interview.gocomet.GoComet.DAW.datasource.ReadYourWrites;
+import com.interview.gocomet.GoComet.DAW.dto.DriverLocationUpdate;
+import com.interview.gocomet.GoComet.DAW.metrics.HotPathMetrics;
+import com.interview.gocomet.GoComet.DAW.repository.DriverRepository;
+import com.interview.gocomet.GoComet.DAW.repository.RideRepository;
+import com.interview.gocomet.GoComet.DAW.resilience.RedisGuard;
+import com.interview.gocomet.GoComet.DAW.service.DriverMatchingService;
+import com.interview.gocomet.GoComet.DAW.service.DriverService;
+import com.interview.gocomet.GoComet.DAW.service.ResourceVersionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Ride/Trip/Driver versions are JPA optimistic locks; driver location pings are left out of them
+ */
+@DataJpaTest
+@Import(DriverService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EntityVersioningTest {
+    
+    @Autowired
+    private DriverRepository driverRepository;
+    
+    @Autowired
+    private RideRepository rideRepository;
+    
+    @Autowired
+    private DriverService driverService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    // Needed by the entity listeners
+    @MockBean
+    private ResourceVersionService resourceVersions;
+    
+    @MockBean
+    private ReadYourWrites readYourWrites;
+    
+    // Needed by DriverService; Redis stays unavailable
+    @MockBean
+    private DriverMatchingService driverMatchingService;
+    
+    @MockBean
+    private RedisTemplate<String, Object> redisTemplate;
+    
+    @MockBean
+    private RedisGuard redisGuard;
+    
+    @MockBean
+    private HotPathMetrics metrics;
+    
+    private TransactionTemplate transaction;
+    private TransactionTemplate newTransaction;
+    private Long driverId;
+    
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        driverRepository.deleteAll();
+        driverId = driverRepository.save(Driver.builder()
+            .driverId("DRIVER-V")
+            .name("Driver")
+            .phoneNumber("+910000000000")
+            .vehicleNumber("DL01AB0001")
+            .vehicleType("SEDAN")
+            .status(DriverStatus.AVAILABLE)
+            .latitude(28.7)
+            .longitude(77.1)
+            .lastLocationUpdate(LocalDateTime.now())
+            .build()).getId();
+    }
+    
+    private Driver driver() {
+        return driverRepository.findById(driverId).orElseThrow();
+    }
+    
+    @Test
+    void statusChangeMovesTheVersionAndLocationDoesNot() {
+        assertEquals(0L, driver().getVersion());
+        clearInvocations(resourceVersions);
+        
+        driverService.updateLocation("DRIVER-V", 28.8, 77.2, null);
+        assertEquals(List.of("DRIVER-X"), driverService.updateLocations(List.of(
+            new DriverLocationUpdate("DRIVER-V", 28.85, 77.25, null),
+            new DriverLocationUpdate("DRIVER-X", 28.0, 77.0, null))));
+        assertEquals(0L, driver().getVersion());
+        assertEquals(28.85, driver().getLatitude());
+        verify(resourceVersions, never()).changed(anyString(), anyLong());
+        
+        transaction.executeWithoutResult(status -> driver().setStatus(DriverStatus.ASSIGNED));
+        assertEquals(1L, driver().getVersion());
+        verify(resourceVersions).changed(ResourceVersionService.driverKey("DRIVER-V"), 1L);
+    }
+    
+    @Test
+    void staleAssignmentFailsInsteadOfOverwriting() {
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> transaction.executeWithoutResult(status -> {
+            Driver stale = driver();
+            newTransaction.executeWithoutResult(inner -> driver().setStatus(DriverStatus.ASSIGNED));
+            stale.setStatus(DriverStatus.OFFLINE);
+        }));
+        
+        assertEquals(DriverStatus.ASSIGNED, driver().getStatus());
+        assertEquals(1L, driver().getVersion());
+    }
+    
+    @Test
+    void pingOnAStaleCopyNeitherConflictsNorRevertsTheAssignment() {
+        transaction.executeWithoutResult(status -> {
+            Driver stale = driver();
+            newTransaction.executeWithoutResult(inner -> driver().setStatus(DriverStatus.ASSIGNED));
+            driverService.updateLocation("DRIVER-V", 28.9, 77.3, null);
+        });
+        
+        Driver driver = driver();
+        assertEquals(DriverStatus.ASSIGNED, driver.getStatus());
+        assertEquals(28.9, driver.getLatitude());
+        assertEquals(1L, driver.getVersion());
+    }
+    
+    @Test
+    void assignmentOnACopyLoadedBeforeAPingKeepsTheNewLocation() {
+        transaction.executeWithoutResult(status -> {
+            Driver stale = driver();
+            newTransaction.executeWithoutResult(inner -> driverService.updateLocation("DRIVER-V", 28.9, 77.3, null));
+            stale.setStatus(DriverStatus.ASSIGNED);
+        });
+        
+        Driver driver = driver();
+        assertEquals(DriverStatus.ASSIGNED, driver.getStatus());
+        assertEquals(28.9, driver.getLatitude());
+        assertEquals(1L, driver.getVersion());
+    }
+    
+    @Test
+    void everyRideUpdateMovesTheVersion() {
+        Ride ride = rideRepository.save(Ride.builder()
+            .riderId("RIDER-V")
+            .pickupLatitude(28.7)
+            .pickupLongitude(77.1)
+            .destinationLatitude(28.6)
+            .destinationLongitude(77.2)
+            .tier(RideTier.ECONOMY)
+            .paymentMethod(PaymentMethod.CARD)
+            .status(RideStatus.PENDING)
+            .build());
+        assertEquals(0L, ride.getVersion());
+        
+        ride.setStatus(RideStatus.MATCHED);
+        assertEquals(1L, rideRepository.save(ride).getVersion());
+        
+        ride.setStatus(RideStatus.CANCELLED);
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> rideRepository.save(ride));
+    }
+}
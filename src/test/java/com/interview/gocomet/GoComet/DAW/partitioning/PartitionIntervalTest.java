@@ -0,0 +1,40 @@
+package com.interview.gocomet.GoComet.DAW.partitioning;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionIntervalTest {
+    
+    @Test
+    void dailyPartitionsStartOnTheDay() {
+        LocalDate day = LocalDate.of(2026, 2, 28);
+        
+        assertEquals(day, PartitionInterval.DAILY.start(day));
+        assertEquals(LocalDate.of(2026, 3, 1), PartitionInterval.DAILY.next(day));
+        assertEquals("rides_p20260228", PartitionInterval.DAILY.partitionName("rides", day));
+    }
+    
+    @Test
+    void monthlyPartitionsStartOnTheFirst() {
+        LocalDate start = PartitionInterval.MONTHLY.start(LocalDate.of(2026, 12, 17));
+        
+        assertEquals(LocalDate.of(2026, 12, 1), start);
+        assertEquals(LocalDate.of(2027, 1, 1), PartitionInterval.MONTHLY.next(start));
+        assertEquals("trips_p202612", PartitionInterval.MONTHLY.partitionName("trips", start));
+    }
+    
+    @Test
+    void readsTheStartBackFromItsOwnNamesOnly() {
+        assertEquals(LocalDate.of(2026, 2, 28), PartitionInterval.DAILY.startOf("rides", "rides_p20260228"));
+        assertEquals(LocalDate.of(2026, 12, 1), PartitionInterval.MONTHLY.startOf("rides", "rides_p202612"));
+        
+        assertNull(PartitionInterval.DAILY.startOf("rides", "rides_p202612"));
+        assertNull(PartitionInterval.MONTHLY.startOf("rides", "rides_p20260228"));
+        assertNull(PartitionInterval.DAILY.startOf("rides", "trips_p20260228"));
+        assertNull(PartitionInterval.DAILY.startOf("rides", "rides_p20261345"));
+        assertNull(PartitionInterval.DAILY.startOf("rides", "rides_unpartitioned"));
+    }
+}
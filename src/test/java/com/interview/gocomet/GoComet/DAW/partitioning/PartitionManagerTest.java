@@ -0,0 +1,151 @@
+package com.interview.gocomet.GoComet.DAW.partitioning;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the partition lifecycle against a real PostgreSQL; skipped without Docker
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class PartitionManagerTest {
+    
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16");
+    
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 19);
+    
+    private final PartitionManager manager = new PartitionManager(PartitionInterval.DAILY, "archive");
+    
+    @BeforeEach
+    void createPlainRides() throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP SCHEMA IF EXISTS archive CASCADE");
+            statement.execute("DROP TABLE IF EXISTS rides, rides_ride_id_claims, rides_idempotency_key_claims CASCADE");
+            // As Hibernate creates it (before the switch to sequences, id was an identity column)
+            statement.execute("CREATE TABLE rides (id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "ride_id varchar(255) NOT NULL UNIQUE, idempotency_key varchar(255) UNIQUE, "
+                + "status varchar(255) NOT NULL, created_at timestamp(6) NOT NULL)");
+            statement.execute("CREATE INDEX idx_ride_status ON rides (status)");
+            statement.execute("INSERT INTO rides (ride_id, idempotency_key, status, created_at) VALUES "
+                + "('RIDE-1', 'key-1', 'COMPLETED', '2026-10-10 08:00'), "
+                + "('RIDE-2', NULL, 'PENDING', '2026-10-18 23:59'), "
+                + "('RIDE-3', 'key-3', 'COMPLETED', '2026-10-19 00:00')");
+        }
+    }
+    
+    @Test
+    void convertsThePlainTableKeepingRowsAndIndexes() throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            List<String> created = manager.ensurePartitions(connection, PartitionedTable.RIDES, TODAY, TODAY.plusDays(3));
+            
+            assertTrue(created.contains("rides_p20261010"));
+            assertTrue(created.contains("rides_p20261022"));
+            assertEquals(List.of(), manager.missingDays(connection, PartitionedTable.RIDES, TODAY, TODAY.plusDays(3)));
+            assertEquals(3, count(statement, "SELECT COUNT(*) FROM rides"));
+            assertEquals(1, count(statement, "SELECT COUNT(*) FROM rides_p20261018"));
+            
+            statement.execute("INSERT INTO rides (id, ride_id, status, created_at) VALUES (4, 'RIDE-4', 'PENDING', '2026-10-20 10:00')");
+            assertEquals(1, count(statement, "SELECT COUNT(*) FROM rides_p20261020"));
+            // The status index cascades to every partition
+            assertEquals(1, count(statement, "SELECT COUNT(*) FROM pg_indexes WHERE tablename = 'rides_p20261020' "
+                + "AND indexdef LIKE '%(status)%'"));
+        }
+    }
+    
+    @Test
+    void duplicateIdempotencyKeysStillFail() throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            manager.ensurePartitions(connection, PartitionedTable.RIDES, TODAY, TODAY.plusDays(3));
+            
+            SQLException duplicate = assertThrows(SQLException.class, () -> statement.execute(
+                "INSERT INTO rides (id, ride_id, idempotency_key, status, created_at) "
+                    + "VALUES (5, 'RIDE-5', 'key-1', 'PENDING', '2026-10-21 10:00')"));
+            assertEquals("23505", duplicate.getSQLState());
+        }
+    }
+    
+    @Test
+    void duplicateRideIdsStillFail() throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            manager.ensurePartitions(connection, PartitionedTable.RIDES, TODAY, TODAY.plusDays(3));
+            
+            // In another partition than the first RIDE-3, which a per-partition index would not catch
+            SQLException duplicate = assertThrows(SQLException.class, () -> statement.execute(
+                "INSERT INTO rides (id, ride_id, status, created_at) VALUES (7, 'RIDE-3', 'PENDING', '2026-10-21 10:00')"));
+            assertEquals("23505", duplicate.getSQLState());
+        }
+    }
+    
+    @Test
+    void claimsKeysOfATablePartitionedWithoutThem() throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            manager.ensurePartitions(connection, PartitionedTable.RIDES, TODAY, TODAY.plusDays(3));
+            // As converted before ride ids were claimed
+            statement.execute("DROP TRIGGER rides_claim_ride_id ON rides");
+            statement.execute("DROP TABLE rides_ride_id_claims");
+            statement.execute("INSERT INTO rides (id, ride_id, status, created_at) VALUES (8, 'RIDE-8', 'PENDING', '2026-10-20 10:00')");
+            
+            manager.ensurePartitions(connection, PartitionedTable.RIDES, TODAY, TODAY.plusDays(3));
+            
+            assertEquals(4, count(statement, "SELECT COUNT(*) FROM rides_ride_id_claims"));
+            SQLException duplicate = assertThrows(SQLException.class, () -> statement.execute(
+                "INSERT INTO rides (id, ride_id, status, created_at) VALUES (9, 'RIDE-8', 'PENDING', '2026-10-21 10:00')"));
+            assertEquals("23505", duplicate.getSQLState());
+            // The idempotency key claims were already there and stay as they were
+            assertEquals(2, count(statement, "SELECT COUNT(*) FROM rides_idempotency_key_claims"));
+        }
+    }
+    
+    @Test
+    void archivesExpiredPartitionsWithoutOpenRides() throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            manager.ensurePartitions(connection, PartitionedTable.RIDES, TODAY, TODAY.plusDays(3));
+            
+            List<String> archived = manager.archiveBefore(connection, PartitionedTable.RIDES, TODAY);
+            
+            assertTrue(archived.contains("rides_p20261010"));
+            // RIDE-2 is still pending
+            assertFalse(archived.contains("rides_p20261018"));
+            assertEquals(2, count(statement, "SELECT COUNT(*) FROM rides"));
+            assertEquals(1, count(statement, "SELECT COUNT(*) FROM archive.rides_p20261010"));
+            // The archived ride's keys are released
+            statement.execute("INSERT INTO rides (id, ride_id, idempotency_key, status, created_at) "
+                + "VALUES (6, 'RIDE-1', 'key-1', 'PENDING', '2026-10-21 10:00')");
+        }
+    }
+    
+    @Test
+    void isIdempotentAndCreatesOnlyWhatIsMissing() throws SQLException {
+        try (Connection connection = connect()) {
+            manager.ensurePartitions(connection, PartitionedTable.RIDES, TODAY, TODAY.plusDays(3));
+            
+            assertEquals(List.of(), manager.ensurePartitions(connection, PartitionedTable.RIDES, TODAY, TODAY.plusDays(3)));
+            assertEquals(List.of("rides_p20261023"),
+                manager.ensurePartitions(connection, PartitionedTable.RIDES, TODAY, TODAY.plusDays(4)));
+        }
+    }
+    
+    private static long count(Statement statement, String query) throws SQLException {
+        try (ResultSet rs = statement.executeQuery(query)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+    
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+    }
+}
@@ -0,0 +1,40 @@
+package com.interview.gocomet.GoComet.DAW.partitioning;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedIdsTest {
+    
+    @Test
+    void businessIdCarriesItsCreationTime() {
+        LocalDateTime created = LocalDateTime.of(2026, 10, 19, 8, 30, 15, 123_000_000);
+        UUID uuid = TimeOrderedIds.newUuid(created.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        assertEquals(Optional.of(created), TimeOrderedIds.createdAt("RIDE-BLR-" + uuid));
+    }
+    
+    @Test
+    void idsSortByCreationTime() {
+        UUID earlier = TimeOrderedIds.newUuid(1_000_000L);
+        UUID later = TimeOrderedIds.newUuid(1_000_001L);
+        
+        assertTrue(earlier.toString().compareTo(later.toString()) < 0);
+        assertNotEquals(TimeOrderedIds.newUuid(1_000_000L), earlier);
+    }
+    
+    @Test
+    void idsWithoutATimeCarryNone() {
+        assertEquals(Optional.empty(), TimeOrderedIds.createdAt("RIDE-" + UUID.randomUUID()));
+        assertEquals(Optional.empty(), TimeOrderedIds.createdAt("RIDE-1"));
+        assertEquals(Optional.empty(), TimeOrderedIds.createdAt("RIDE-1700000000000-not-a-uuid-at-all-x"));
+        assertEquals(Optional.empty(), TimeOrderedIds.createdAt(null));
+    }
+}
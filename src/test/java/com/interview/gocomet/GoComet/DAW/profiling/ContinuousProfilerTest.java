@@ -0,0 +1,72 @@
+package com.interview.gocomet.GoComet.DAW.profiling;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContinuousProfilerTest {
+    
+    private ContinuousProfiler profiler;
+    
+    @BeforeEach
+    void setUp() {
+        profiler = new ContinuousProfiler(Duration.ofSeconds(60), Duration.ofSeconds(10), Duration.ofMillis(10),
+            "150/s", Duration.ofMillis(20), Duration.ofMinutes(1), DataSize.ofMegabytes(16), "com.interview.gocomet");
+        profiler.start();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        profiler.stop();
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSummary_AggregatesApplicationEventsByOutcome() throws Exception {
+        for (String outcome : List.of("MATCHED", "MATCHED", "NO_CANDIDATES")) {
+            MatchAttemptEvent event = new MatchAttemptEvent();
+            event.begin();
+            event.setOutcome(outcome);
+            event.commit();
+        }
+        
+        // The stream delivers events in chunks, about once a second
+        Map<String, Object> events = Map.of();
+        for (int i = 0; i < 100 && !events.containsKey("MatchAttempt[NO_CANDIDATES]"); i++) {
+            Thread.sleep(100);
+            events = (Map<String, Object>) profiler.summary(10).get("events");
+        }
+        
+        assertEquals(2L, ((Map<String, Object>) events.get("MatchAttempt[MATCHED]")).get("count"));
+        assertEquals(1L, ((Map<String, Object>) events.get("MatchAttempt[NO_CANDIDATES]")).get("count"));
+    }
+    
+    @Test
+    void testDump_WritesReadableRecording(@TempDir Path directory) throws Exception {
+        ReservationConflictEvent event = new ReservationConflictEvent();
+        event.begin();
+        event.setDriverId("DRIVER-7");
+        event.setReason("taken");
+        event.commit();
+        
+        Path file = directory.resolve("dump.jfr");
+        profiler.dump(file);
+        
+        List<RecordedEvent> conflicts = RecordingFile.readAllEvents(file).stream()
+            .filter(recorded -> recorded.getEventType().getName().equals("com.interview.gocomet.ReservationConflict"))
+            .toList();
+        assertEquals(1, conflicts.size());
+        assertEquals("DRIVER-7", conflicts.get(0).getString("driverId"));
+    }
+}
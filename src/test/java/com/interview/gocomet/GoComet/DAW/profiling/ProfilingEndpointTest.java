@@ -0,0 +1,60 @@
+package com.interview.gocomet.GoComet.DAW.profiling;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ProfilingEndpointTest {
+    
+    private final ContinuousProfiler profiler = mock(ContinuousProfiler.class);
+    private final ProfilingEndpoint endpoint = new ProfilingEndpoint(profiler);
+    private final AtomicReference<Path> dumped = new AtomicReference<>();
+    
+    @Test
+    void testRecording_TempFileIsDeletedOnceTheResponseIsRead() throws Exception {
+        doAnswer(invocation -> {
+            Path file = invocation.getArgument(0);
+            dumped.set(file);
+            Files.writeString(file, "jfr");
+            return null;
+        }).when(profiler).dump(any(Path.class));
+        
+        WebEndpointResponse<Resource> response = endpoint.recording("recording");
+        
+        assertEquals(200, response.getStatus());
+        try (InputStream in = response.getBody().getInputStream()) {
+            assertEquals("jfr", new String(in.readAllBytes()));
+        }
+        assertFalse(Files.exists(dumped.get()));
+    }
+    
+    @Test
+    void testRecording_TempFileIsDeletedWhenTheDumpFails() throws Exception {
+        doAnswer(invocation -> {
+            dumped.set(invocation.getArgument(0));
+            throw new IOException("disk full");
+        }).when(profiler).dump(any(Path.class));
+        
+        WebEndpointResponse<Resource> response = endpoint.recording("recording");
+        
+        assertEquals(500, response.getStatus());
+        assertNull(response.getBody());
+        assertFalse(Files.exists(dumped.get()));
+    }
+    
+    @Test
+    void testRecording_UnknownSelectorIsNotFound() throws Exception {
+        assertEquals(404, endpoint.recording("heap").getStatus());
+        verify(profiler, never()).dump(any(Path.class));
+    }
+}
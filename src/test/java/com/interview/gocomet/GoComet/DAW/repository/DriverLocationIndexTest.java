@@ -0,0 +1,97 @@
+package com.interview.gocomet.GoComet.DAW.repository;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the plan PostgreSQL picks for the production nearby-driver query.
+ * Needs Docker for the PostGIS container; skipped without it.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class DriverLocationIndexTest {
+    
+    @Container
+    private static final PostgreSQLContainer<?> POSTGIS = new PostgreSQLContainer<>(
+        DockerImageName.parse("postgis/postgis:16-3.4").asCompatibleSubstituteFor("postgres"));
+    
+    @BeforeAll
+    static void createDrivers() throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            // The columns the query and the index touch, as Hibernate maps them
+            statement.execute("CREATE TABLE drivers (id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "driver_id varchar(255) NOT NULL, status varchar(255) NOT NULL, "
+                + "latitude float(53) NOT NULL, longitude float(53) NOT NULL)");
+            DriverLocationIndex.apply(connection);
+            // 50k drivers around Delhi, a fifth of them available
+            statement.execute("INSERT INTO drivers (driver_id, status, latitude, longitude) "
+                + "SELECT 'DRIVER-' || i, CASE WHEN i % 5 = 0 THEN 'AVAILABLE' ELSE 'ON_TRIP' END, "
+                + "28.4 + random() * 0.6, 76.8 + random() * 0.6 FROM generate_series(1, 50000) i");
+            statement.execute("ANALYZE drivers");
+        }
+    }
+    
+    @Test
+    void nearestAvailableQueryScansTheGistIndex() throws SQLException {
+        String plan = explain(DriverRepository.NEAREST_AVAILABLE_KNN
+            .replace(":lat", "28.7041")
+            .replace(":lng", "77.1025")
+            .replace(":radiusMeters", "10000")
+            .replace(":limit", "50"));
+        
+        assertTrue(plan.contains("Index Scan using " + DriverLocationIndex.INDEX_NAME), plan);
+        assertFalse(plan.contains("Seq Scan"), plan);
+    }
+    
+    @Test
+    void locationFollowsCoordinateUpdates() throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("UPDATE drivers SET latitude = 12.9716, longitude = 77.5946, status = 'AVAILABLE' "
+                + "WHERE driver_id = 'DRIVER-1'");
+            try (ResultSet rs = statement.executeQuery(DriverRepository.NEAREST_AVAILABLE_KNN
+                    .replace(":lat", "12.9716")
+                    .replace(":lng", "77.5946")
+                    .replace(":radiusMeters", "1000")
+                    .replace(":limit", "5"))) {
+                assertTrue(rs.next());
+                assertEquals("DRIVER-1", rs.getString("driver_id"));
+                assertFalse(rs.next());
+            }
+        }
+    }
+    
+    @Test
+    void applyIsIdempotent() throws SQLException {
+        try (Connection connection = connect()) {
+            assertDoesNotThrow(() -> DriverLocationIndex.apply(connection));
+        }
+    }
+    
+    private static String explain(String sql) throws SQLException {
+        List<String> lines = new ArrayList<>();
+        try (Connection connection = connect(); Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("EXPLAIN " + sql)) {
+            while (rs.next()) {
+                lines.add(rs.getString(1));
+            }
+        }
+        return String.join("\n", lines);
+    }
+    
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(POSTGIS.getJdbcUrl(), POSTGIS.getUsername(), POSTGIS.getPassword());
+    }
+}
@@ -0,0 +1,155 @@
+package com.interview.gocomet.GoComet.DAW.repository;
+
+import com.interview.gocomet.GoComet.DAW.datasource.ReadYourWrites;
+import com.interview.gocomet.GoComet.DAW.model.PaymentMethod;
+import com.interview.gocomet.GoComet.DAW.model.Ride;
+import com.interview.gocomet.GoComet.DAW.model.RideStatus;
+import com.interview.gocomet.GoComet.DAW.model.RideTier;
+import com.interview.gocomet.GoComet.DAW.model.Trip;
+import com.interview.gocomet.GoComet.DAW.model.TripStatus;
+import com.interview.gocomet.GoComet.DAW.service.ResourceVersionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The keyset queries behind the streamed list endpoints, read in pages of two
+ */
+@DataJpaTest
+@Import(KeysetPager.class)
+@TestPropertySource(properties = "streaming.page-size=2")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class KeysetPagerTest {
+    
+    @Autowired
+    private KeysetPager keysetPager;
+    
+    @Autowired
+    private RideRepository rideRepository;
+    
+    @Autowired
+    private TripRepository tripRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    // Needed by the entity listeners
+    @MockBean
+    private ResourceVersionService resourceVersions;
+    
+    @MockBean
+    private ReadYourWrites readYourWrites;
+    
+    @AfterEach
+    void tearDown() {
+        tripRepository.deleteAll();
+        rideRepository.deleteAll();
+    }
+    
+    @Test
+    void activeRidesComeInIdOrderWithoutATransactionHeldBetweenPages() {
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            expected.add(ride("RIDER-A", RideStatus.PENDING).getId());
+        }
+        ride("RIDER-A", RideStatus.COMPLETED);
+        
+        List<Long> seen = new ArrayList<>();
+        keysetPager.forEach((after, limit) -> rideRepository.findByStatusNotInAndIdGreaterThanOrderByIdAsc(
+            List.of(RideStatus.COMPLETED), after == null ? 0L : after.getId(), limit), Ride::getId, id -> {
+                assertFalse(TransactionSynchronizationManager.isActualTransactionActive());
+                seen.add(id);
+            });
+        
+        assertEquals(expected, seen);
+    }
+    
+    @Test
+    void riderHistoryIsNewestFirstAndBreaksTimestampTiesById() {
+        List<Ride> rides = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            rides.add(ride("RIDER-B", RideStatus.COMPLETED));
+        }
+        ride("RIDER-C", RideStatus.COMPLETED);
+        // Three rides share a timestamp, so a page boundary falls inside the tie
+        LocalDateTime base = LocalDateTime.now().withNano(0);
+        for (int i = 0; i < rides.size(); i++) {
+            jdbcTemplate.update("UPDATE rides SET created_at = ? WHERE id = ?",
+                Timestamp.valueOf(base.plusMinutes(Math.min(i, 2))), rides.get(i).getId());
+        }
+        // Newest timestamp first, then the tie by id descending: the reverse of insertion
+        List<Long> expected = rides.stream().map(Ride::getId).toList().reversed();
+        
+        List<Long> seen = new ArrayList<>();
+        keysetPager.forEach((after, limit) -> after == null
+            ? rideRepository.findByRiderIdOrderByCreatedAtDescIdDesc("RIDER-B", limit)
+            : rideRepository.findByRiderIdBefore("RIDER-B", after.getCreatedAt(), after.getId(), limit),
+            Ride::getId, seen::add);
+        
+        assertEquals(expected, seen);
+    }
+    
+    @Test
+    void driverTripsAreNewestFirst() {
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            expected.add(0, tripRepository.save(Trip.builder()
+                .rideId(1L)
+                .driverId(7L)
+                .riderId("RIDER-A")
+                .status(TripStatus.COMPLETED)
+                .startLatitude(28.7)
+                .startLongitude(77.1)
+                .endLatitude(28.6)
+                .endLongitude(77.2)
+                .build()).getId());
+        }
+        
+        List<Long> seen = new ArrayList<>();
+        keysetPager.forEach((after, limit) -> tripRepository.findByDriverIdAndIdLessThanOrderByIdDesc(
+            7L, after == null ? Long.MAX_VALUE : after.getId(), limit), Trip::getId, seen::add);
+        
+        // An exact multiple of the page size ends on an empty page
+        assertEquals(expected, seen);
+    }
+    
+    @Test
+    void mapperRunsInsideThePageTransaction() {
+        ride("RIDER-D", RideStatus.PENDING);
+        
+        List<Boolean> mappedInTransaction = new ArrayList<>();
+        keysetPager.<Ride, Boolean>forEach((after, limit) -> after == null
+            ? rideRepository.findByRiderIdOrderByCreatedAtDescIdDesc("RIDER-D", limit) : List.of(),
+            ride -> TransactionSynchronizationManager.isCurrentTransactionReadOnly(), mappedInTransaction::add);
+        
+        assertEquals(List.of(true), mappedInTransaction);
+    }
+    
+    private Ride ride(String riderId, RideStatus status) {
+        return rideRepository.save(Ride.builder()
+            .riderId(riderId)
+            .pickupLatitude(28.7)
+            .pickupLongitude(77.1)
+            .destinationLatitude(28.6)
+            .destinationLongitude(77.2)
+            .tier(RideTier.ECONOMY)
+            .paymentMethod(PaymentMethod.CARD)
+            .status(status)
+            .build());
+    }
+}
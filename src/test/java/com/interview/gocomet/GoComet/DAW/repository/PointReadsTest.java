@@ -0,0 +1,132 @@
+package com.interview.gocomet.GoComet.DAW.repository;
+
+import com.interview.gocomet.GoComet.DAW.datasource.ReadYourWrites;
+import com.interview.gocomet.GoComet.DAW.model.PaymentMethod;
+import com.interview.gocomet.GoComet.DAW.model.Ride;
+import com.interview.gocomet.GoComet.DAW.model.RideStatus;
+import com.interview.gocomet.GoComet.DAW.model.RideTier;
+import com.interview.gocomet.GoComet.DAW.model.Trip;
+import com.interview.gocomet.GoComet.DAW.model.TripStatus;
+import com.interview.gocomet.GoComet.DAW.partitioning.TimeOrderedIds;
+import com.interview.gocomet.GoComet.DAW.service.ResourceVersionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Point reads by business id and by numeric id, with the created_at bounds that let a
+ * partitioned table skip the partitions the row cannot be in
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PointReadsTest {
+    
+    @Autowired
+    private RideRepository rideRepository;
+    
+    @Autowired
+    private TripRepository tripRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    // Needed by the entity listeners
+    @MockBean
+    private ResourceVersionService resourceVersions;
+    
+    @MockBean
+    private ReadYourWrites readYourWrites;
+    
+    @AfterEach
+    void tearDown() {
+        tripRepository.deleteAll();
+        rideRepository.deleteAll();
+    }
+    
+    @Test
+    void timeOrderedRideIdIsReadAroundItsCreationTime() {
+        Ride ride = ride("RIDE-" + TimeOrderedIds.newUuid());
+        
+        assertEquals(ride.getId(), rideRepository.findByRideId(ride.getRideId()).orElseThrow().getId());
+        
+        // Far from the time in the id: outside the bound, so the read does not reach it
+        moveCreatedAt("rides", ride.getId(), LocalDateTime.now().minusDays(3));
+        assertTrue(rideRepository.findByRideId(ride.getRideId()).isEmpty());
+    }
+    
+    @Test
+    void rideIdsWithoutATimeAreReadUnbounded() {
+        Ride ride = ride("RIDE-" + UUID.randomUUID());
+        moveCreatedAt("rides", ride.getId(), LocalDateTime.now().minusDays(30));
+        
+        assertEquals(ride.getId(), rideRepository.findByRideId(ride.getRideId()).orElseThrow().getId());
+    }
+    
+    @Test
+    void timeOrderedTripIdIsReadAroundItsCreationTime() {
+        Trip trip = trip("TRIP-" + TimeOrderedIds.newUuid());
+        
+        assertEquals(trip.getId(), tripRepository.findByTripId(trip.getTripId()).orElseThrow().getId());
+        
+        moveCreatedAt("trips", trip.getId(), LocalDateTime.now().plusDays(3));
+        assertTrue(tripRepository.findByTripId(trip.getTripId()).isEmpty());
+    }
+    
+    @Test
+    void recentReadsFallBackToOlderRows() {
+        Ride recent = ride("RIDE-" + TimeOrderedIds.newUuid());
+        Ride old = ride("RIDE-" + TimeOrderedIds.newUuid());
+        Trip oldTrip = trip("TRIP-" + TimeOrderedIds.newUuid());
+        moveCreatedAt("rides", old.getId(), LocalDateTime.now().minusDays(30));
+        moveCreatedAt("trips", oldTrip.getId(), LocalDateTime.now().minusDays(30));
+        
+        assertTrue(rideRepository.findByIdAndCreatedAtAfter(old.getId(), LocalDateTime.now().minusDays(2)).isEmpty());
+        assertEquals(recent.getId(), rideRepository.findRecentById(recent.getId()).orElseThrow().getId());
+        assertEquals(old.getId(), rideRepository.findRecentById(old.getId()).orElseThrow().getId());
+        assertEquals(oldTrip.getId(), tripRepository.findRecentById(oldTrip.getId()).orElseThrow().getId());
+        assertTrue(rideRepository.findRecentById(-1L).isEmpty());
+    }
+    
+    private void moveCreatedAt(String table, Long id, LocalDateTime createdAt) {
+        jdbcTemplate.update("UPDATE " + table + " SET created_at = ? WHERE id = ?", Timestamp.valueOf(createdAt), id);
+    }
+    
+    private Ride ride(String rideId) {
+        return rideRepository.save(Ride.builder()
+            .rideId(rideId)
+            .riderId("RIDER-A")
+            .pickupLatitude(28.7)
+            .pickupLongitude(77.1)
+            .destinationLatitude(28.6)
+            .destinationLongitude(77.2)
+            .tier(RideTier.ECONOMY)
+            .paymentMethod(PaymentMethod.CARD)
+            .status(RideStatus.PENDING)
+            .build());
+    }
+    
+    private Trip trip(String tripId) {
+        return tripRepository.save(Trip.builder()
+            .tripId(tripId)
+            .rideId(1L)
+            .driverId(7L)
+            .riderId("RIDER-A")
+            .status(TripStatus.STARTED)
+            .startLatitude(28.7)
+            .startLongitude(77.1)
+            .endLatitude(28.6)
+            .endLongitude(77.2)
+            .build());
+    }
+}
@@ -0,0 +1,114 @@
+package com.interview.gocomet.GoComet.DAW.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+    
+    private static final long MS = 1_000_000;
+    
+    private final AtomicLong clock = new AtomicLong();
+    
+    private AdaptiveConcurrencyLimiter limiter(int initialLimit) {
+        return new AdaptiveConcurrencyLimiter("test", initialLimit, 2, 100, 1.5, 100 * MS, 5, clock::get);
+    }
+    
+    /**
+     * Fill the limiter, let every request take rttMs, and close one window
+     */
+    private void saturatedWindow(AdaptiveConcurrencyLimiter limiter, long rttMs) {
+        int admitted = 0;
+        while (limiter.tryAcquire(1.0) >= 0) {
+            admitted++;
+        }
+        clock.addAndGet(Math.max(rttMs, 100) * MS);
+        for (int i = 0; i < admitted; i++) {
+            limiter.release(clock.get() - rttMs * MS);
+        }
+    }
+    
+    @Test
+    void rejectsOnceLimitIsInFlight() {
+        AdaptiveConcurrencyLimiter limiter = limiter(3);
+        
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire(1.0) >= 0);
+        }
+        assertEquals(-1, limiter.tryAcquire(1.0));
+        assertEquals(3, limiter.getAdmittedCount());
+        assertEquals(1, limiter.getRejectedCount());
+        
+        // A scaled-down limit sheds earlier
+        assertEquals(-1, limiter.tryAcquire(0.5));
+    }
+    
+    @Test
+    void growsWhileLatencyIsStableAndShrinksWhenItInflates() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10);
+        for (int i = 0; i < 20; i++) {
+            saturatedWindow(limiter, 20);
+        }
+        int grown = limiter.getLimit();
+        assertTrue(grown > 10, "limit should grow at stable latency, was " + grown);
+        assertEquals(1.0, limiter.getGradient());
+        
+        for (int i = 0; i < 10; i++) {
+            saturatedWindow(limiter, 200);
+        }
+        assertTrue(limiter.getLimit() < grown, "limit should shrink when latency inflates, was " + limiter.getLimit());
+        assertTrue(limiter.getGradient() < 1.0);
+    }
+    
+    @Test
+    void doesNotGrowWhenTrafficNeverApproachesTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(40);
+        for (int window = 0; window < 20; window++) {
+            for (int i = 0; i < 5; i++) {
+                long start = limiter.tryAcquire(1.0);
+                clock.addAndGet(25 * MS);
+                limiter.release(start);
+            }
+        }
+        
+        assertEquals(40, limiter.getLimit());
+    }
+    
+    @Test
+    void concurrentReleasesRetireEachWindowOnce() throws Exception {
+        // Real clock, windows of 1ms: many releases find a window due at the same time
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 50, 2, 100, 1.5, MS, 5);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                results.add(callers.submit(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        long start = limiter.tryAcquire(1.0);
+                        if (start >= 0) {
+                            limiter.release(start);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+        
+        assertEquals(160_000, limiter.getAdmittedCount() + limiter.getRejectedCount());
+        assertEquals(0, limiter.getInFlight());
+        assertTrue(limiter.getLimit() >= 2 && limiter.getLimit() <= 100);
+        assertTrue((double) limiter.getStats().get("shortRttMs") > 0);
+    }
+}
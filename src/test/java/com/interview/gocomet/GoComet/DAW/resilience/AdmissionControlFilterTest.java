@@ -0,0 +1,106 @@
+package com.interview.gocomet.GoComet.DAW.resilience;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interview.gocomet.GoComet.DAW.config.AdmissionProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlFilterTest {
+    
+    private AdmissionControlFilter filter;
+    
+    @BeforeEach
+    void setUp() {
+        AdmissionProperties properties = new AdmissionProperties();
+        properties.getClasses().put("driver", endpointClass(0, "POST /v1/drivers/*/location"));
+        properties.getClasses().put("rides", endpointClass(1, "POST /v1/rides"));
+        filter = new AdmissionControlFilter(properties, new ObjectMapper());
+    }
+    
+    private static AdmissionProperties.EndpointClass endpointClass(int priority, String endpoint) {
+        AdmissionProperties.EndpointClass endpointClass = new AdmissionProperties.EndpointClass();
+        endpointClass.setPriority(priority);
+        endpointClass.setEndpoints(List.of(endpoint));
+        endpointClass.setInitialLimit(1);
+        endpointClass.setMinLimit(1);
+        return endpointClass;
+    }
+    
+    private MockHttpServletResponse call(String method, String path, Runnable whileInFlight) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(method, path), response, (req, res) -> whileInFlight.run());
+        return response;
+    }
+    
+    @Test
+    void shedsOverLimitWithRetryAfterAndKeepsClassesSeparate() throws Exception {
+        AtomicReference<MockHttpServletResponse> nestedRide = new AtomicReference<>();
+        AtomicReference<MockHttpServletResponse> nestedLocation = new AtomicReference<>();
+        
+        MockHttpServletResponse outer = call("POST", "/v1/rides", () -> {
+            try {
+                nestedRide.set(call("POST", "/v1/rides", () -> { }));
+                nestedLocation.set(call("POST", "/v1/drivers/DRIVER-1/location", () -> { }));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        
+        assertEquals(200, outer.getStatus());
+        assertEquals(503, nestedRide.get().getStatus());
+        assertEquals("1", nestedRide.get().getHeader("Retry-After"));
+        assertTrue(nestedRide.get().getContentAsString().contains("\"endpointClass\":\"rides\""));
+        assertEquals(200, nestedLocation.get().getStatus());
+        
+        // Slot released after the outer request completed
+        assertEquals(200, call("POST", "/v1/rides", () -> { }).getStatus());
+    }
+    
+    @Test
+    void unclassifiedRequestsPassThrough() throws Exception {
+        MockHttpServletResponse[] nested = new MockHttpServletResponse[1];
+        call("GET", "/v1/rides/RIDE-1", () -> {
+            try {
+                nested[0] = call("GET", "/v1/rides/RIDE-1", () -> { });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        
+        assertEquals(200, nested[0].getStatus());
+    }
+    
+    @Test
+    void exposesLimitInFlightAndRejectionsAsMeters() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        filter.bindTo(registry);
+        double[] inFlightDuringRequest = new double[1];
+        
+        call("POST", "/v1/rides", () -> {
+            inFlightDuringRequest[0] = registry.get("admission.in.flight").tag("class", "rides").gauge().value();
+            try {
+                call("POST", "/v1/rides", () -> { });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        
+        assertEquals(1.0, inFlightDuringRequest[0]);
+        assertEquals(0.0, registry.get("admission.in.flight").tag("class", "rides").gauge().value());
+        assertEquals(1.0, registry.get("admission.limit").tag("class", "rides").gauge().value());
+        assertEquals(1.0, registry.get("admission.requests").tags("class", "rides", "result", "admitted")
+            .functionCounter().count());
+        assertEquals(1.0, registry.get("admission.requests").tags("class", "rides", "result", "rejected")
+            .functionCounter().count());
+        assertEquals(0.0, registry.get("admission.requests").tags("class", "driver", "result", "rejected")
+            .functionCounter().count());
+    }
+}
@@ -0,0 +1,86 @@
+package com.interview.gocomet.GoComet.DAW.resilience;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+    
+    private final AtomicLong clock = new AtomicLong();
+    private CircuitBreaker circuitBreaker;
+    
+    @BeforeEach
+    void setUp() {
+        circuitBreaker = new CircuitBreaker("test", 3, Duration.ofSeconds(10), clock::get);
+    }
+    
+    @Test
+    void testOpensAfterConsecutiveFailures() {
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        circuitBreaker.onSuccess();
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        
+        circuitBreaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquire());
+    }
+    
+    @Test
+    void testHalfOpenAllowsSingleProbe() {
+        tripBreaker();
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+        
+        assertTrue(circuitBreaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquire());
+        
+        circuitBreaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquire());
+    }
+    
+    @Test
+    void testFailedProbeReopens() {
+        tripBreaker();
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertTrue(circuitBreaker.tryAcquire());
+        
+        circuitBreaker.onFailure();
+        
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquire());
+    }
+    
+    private void tripBreaker() {
+        for (int i = 0; i < 3; i++) {
+            circuitBreaker.onFailure();
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+    
+    @Test
+    void testStateAndTransitionMeters() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        circuitBreaker.bindTo(registry);
+        assertEquals(1.0, registry.get("circuit.breaker.state").tags("name", "test", "state", "closed").gauge().value());
+        
+        tripBreaker();
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertTrue(circuitBreaker.tryAcquire());
+        circuitBreaker.onFailure();
+        
+        assertEquals(0.0, registry.get("circuit.breaker.state").tags("name", "test", "state", "closed").gauge().value());
+        assertEquals(1.0, registry.get("circuit.breaker.state").tags("name", "test", "state", "open").gauge().value());
+        assertEquals(2.0, registry.get("circuit.breaker.transitions").tags("name", "test", "to", "open").functionCounter().count());
+        assertEquals(1.0, registry.get("circuit.breaker.transitions").tags("name", "test", "to", "half_open").functionCounter().count());
+        assertEquals(0.0, registry.get("circuit.breaker.transitions").tags("name", "test", "to", "closed").functionCounter().count());
+    }
+}
@@ -0,0 +1,121 @@
+package com.interview.gocomet.GoComet.DAW.resilience;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interview.gocomet.GoComet.DAW.config.RateLimitProperties;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.DelegatingServletInputStream;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+    
+    private RateLimitFilter filter;
+    
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getPolicies().put("driver-location", policy("POST /v1/drivers/{driverId}/location", "path:driverId"));
+        properties.getPolicies().put("ride-create", policy("POST /v1/rides", "body:riderId"));
+        properties.setMaxBodySize(DataSize.ofBytes(128));
+        filter = new RateLimitFilter(properties, new ObjectMapper(), null, null);
+    }
+    
+    private static RateLimitProperties.Policy policy(String endpoint, String key) {
+        RateLimitProperties.Policy policy = new RateLimitProperties.Policy();
+        policy.setEndpoint(endpoint);
+        policy.setKey(key);
+        policy.setRatePerSecond(0.01);
+        policy.setBurst(1);
+        return policy;
+    }
+    
+    private MockHttpServletResponse call(MockHttpServletRequest request, AtomicReference<String> forwardedBody) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, (req, res) -> {
+            if (forwardedBody != null) {
+                forwardedBody.set(new String(req.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+            }
+        });
+        return response;
+    }
+    
+    private static MockHttpServletRequest ride(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/v1/rides");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+    
+    @Test
+    void limitsPerPathVariableWithRetryAfter() throws Exception {
+        assertEquals(200, call(new MockHttpServletRequest("POST", "/v1/drivers/D1/location"), null).getStatus());
+        
+        MockHttpServletResponse limited = call(new MockHttpServletRequest("POST", "/v1/drivers/D1/location"), null);
+        assertEquals(429, limited.getStatus());
+        assertEquals("100", limited.getHeader("Retry-After"));
+        assertTrue(limited.getContentAsString().contains("\"policy\":\"driver-location\""));
+        
+        assertEquals(200, call(new MockHttpServletRequest("POST", "/v1/drivers/D2/location"), null).getStatus());
+        assertEquals(200, call(new MockHttpServletRequest("GET", "/v1/drivers/D1"), null).getStatus());
+    }
+    
+    @Test
+    void keysOnBodyFieldAndForwardsTheBody() throws Exception {
+        String body = "{\"pickup\":{\"riderId\":\"nested\"},\"riderId\":\"R1\",\"tier\":\"ECONOMY\"}";
+        AtomicReference<String> forwarded = new AtomicReference<>();
+        
+        assertEquals(200, call(ride(body), forwarded).getStatus());
+        assertEquals(body, forwarded.get());
+        assertEquals(429, call(ride(body), null).getStatus());
+        assertEquals(200, call(ride("{\"riderId\":\"R2\"}"), null).getStatus());
+    }
+    
+    @Test
+    void passesRequestsWithoutKeyThrough() throws Exception {
+        assertEquals(200, call(ride("{\"tier\":\"ECONOMY\"}"), null).getStatus());
+        assertEquals(200, call(ride("{\"tier\":\"ECONOMY\"}"), null).getStatus());
+        assertEquals(200, call(ride("not json"), null).getStatus());
+    }
+    
+    @Test
+    void refusesBodiesOverTheCapWithoutBufferingThem() throws Exception {
+        String padding = "x".repeat(200);
+        AtomicBoolean reached = new AtomicBoolean();
+        
+        // Declared length over the cap: refused before the body is read
+        MockHttpServletRequest declared = ride("{\"riderId\":\"R1\",\"note\":\"" + padding + "\"}");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(declared, response, (req, res) -> reached.set(true));
+        assertEquals(413, response.getStatus());
+        assertFalse(reached.get());
+        
+        // Chunked (no length): read only up to one byte past the cap
+        byte[] chunked = ("{\"riderId\":\"R1\",\"note\":\"" + padding + "\"}").getBytes(StandardCharsets.UTF_8);
+        ByteArrayInputStream source = new ByteArrayInputStream(chunked);
+        MockHttpServletRequest streaming = new MockHttpServletRequest("POST", "/v1/rides") {
+            @Override
+            public ServletInputStream getInputStream() {
+                return new DelegatingServletInputStream(source);
+            }
+        };
+        response = new MockHttpServletResponse();
+        filter.doFilter(streaming, response, (req, res) -> reached.set(true));
+        assertEquals(413, response.getStatus());
+        assertEquals(chunked.length - 129, source.available());
+        
+        assertEquals(2L, filter.getStats().get("bodiesTooLarge"));
+        // The caller's bucket was never touched
+        assertEquals(200, call(ride("{\"riderId\":\"R1\"}"), null).getStatus());
+    }
+}
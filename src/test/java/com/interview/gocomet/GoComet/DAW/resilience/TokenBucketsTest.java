@@ -0,0 +1,52 @@
+package com.interview.gocomet.GoComet.DAW.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketsTest {
+    
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private final TokenBuckets buckets = new TokenBuckets(100, Duration.ofMinutes(1), clock::get);
+    
+    @Test
+    void allowsBurstThenRejectsWithWaitUntilNextToken() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, buckets.tryConsume("driver:D1", 2.0, 3));
+        }
+        
+        long wait = buckets.tryConsume("driver:D1", 2.0, 3);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), wait);
+        // Rejections don't consume tokens
+        assertEquals(wait, buckets.tryConsume("driver:D1", 2.0, 3));
+    }
+    
+    @Test
+    void refillsAtConfiguredRate() {
+        for (int i = 0; i < 3; i++) {
+            buckets.tryConsume("driver:D1", 2.0, 3);
+        }
+        
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(0, buckets.tryConsume("driver:D1", 2.0, 3));
+        assertTrue(buckets.tryConsume("driver:D1", 2.0, 3) > 0);
+        
+        // Long idle refills to the burst, never beyond it
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, buckets.tryConsume("driver:D1", 2.0, 3));
+        }
+        assertTrue(buckets.tryConsume("driver:D1", 2.0, 3) > 0);
+    }
+    
+    @Test
+    void keysHaveIndependentBuckets() {
+        assertEquals(0, buckets.tryConsume("driver:D1", 1.0, 1));
+        assertTrue(buckets.tryConsume("driver:D1", 1.0, 1) > 0);
+        assertEquals(0, buckets.tryConsume("driver:D2", 1.0, 1));
+    }
+}
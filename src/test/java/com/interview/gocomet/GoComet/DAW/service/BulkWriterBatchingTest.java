@@ -0,0 +1,94 @@
+package com.interview.gocomet.GoComet.DAW.service;
+
+import com.interview.gocomet.GoComet.DAW.model.LedgerDirection;
+import com.interview.gocomet.GoComet.DAW.model.LedgerEntry;
+import com.interview.gocomet.GoComet.DAW.model.LedgerEntryType;
+import com.interview.gocomet.GoComet.DAW.repository.LedgerEntryRepository;
+import org.hibernate.SessionEventListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * What BulkWriter actually sends over JDBC with the production id mapping and batch settings
+ */
+@DataJpaTest
+@Import(BulkWriter.class)
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.session.events.auto="
+    + "com.interview.gocomet.GoComet.DAW.service.BulkWriterBatchingTest$JdbcCounter")
+class BulkWriterBatchingTest {
+    
+    @Autowired
+    private BulkWriter bulkWriter;
+    
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+    
+    @BeforeEach
+    void setUp() {
+        JdbcCounter.reset();
+    }
+    
+    @Test
+    void insertsGoOutInBatchesOfFiftyWithOneSequenceCallPerBlock() {
+        bulkWriter.insertAll(entries(120));
+        
+        // Two full batches and the remainder
+        assertEquals(3, JdbcCounter.BATCHES.get());
+        // nextval only: at most one per block of 50 ids, none if a block is still open
+        assertTrue(JdbcCounter.STATEMENTS.get() <= 3, "statements: " + JdbcCounter.STATEMENTS.get());
+        assertEquals(120, ledgerEntryRepository.count());
+    }
+    
+    private static List<LedgerEntry> entries(int count) {
+        List<LedgerEntry> entries = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            entries.add(LedgerEntry.builder()
+                .transactionId("TXN-B" + i)
+                .entryType(LedgerEntryType.RIDER_CHARGE)
+                .direction(LedgerDirection.DEBIT)
+                .account("rider:RIDER-1")
+                .amountMinor(100L)
+                .tripId(1L)
+                .driverId(1L)
+                .riderId("RIDER-1")
+                .businessDate(LocalDate.now())
+                .build());
+        }
+        return entries;
+    }
+    
+    /**
+     * Counts the JDBC batches and single statements every session executes
+     */
+    public static class JdbcCounter implements SessionEventListener {
+        
+        static final AtomicInteger BATCHES = new AtomicInteger();
+        static final AtomicInteger STATEMENTS = new AtomicInteger();
+        
+        static void reset() {
+            BATCHES.set(0);
+            STATEMENTS.set(0);
+        }
+        
+        @Override
+        public void jdbcExecuteBatchStart() {
+            BATCHES.incrementAndGet();
+        }
+        
+        @Override
+        public void jdbcExecuteStatementStart() {
+            STATEMENTS.incrementAndGet();
+        }
+    }
+}
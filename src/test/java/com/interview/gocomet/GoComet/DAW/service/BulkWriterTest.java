@@ -0,0 +1,58 @@
+package com.interview.gocomet.GoComet.DAW.service;
+
+import com.interview.gocomet.GoComet.DAW.model.LedgerEntry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BulkWriterTest {
+    
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private final BulkWriter bulkWriter = new BulkWriter(entityManager, 50);
+    
+    @Test
+    void flushesOncePerBatchAndDetachesWhatWasWritten() {
+        List<LedgerEntry> entries = entries(120);
+        
+        assertEquals(120, bulkWriter.insertAll(entries));
+        
+        verify(entityManager, times(120)).persist(any());
+        // Two full batches and the remainder
+        verify(entityManager, times(3)).flush();
+        verify(entityManager, times(120)).detach(any());
+        InOrder order = inOrder(entityManager);
+        order.verify(entityManager).persist(entries.get(49));
+        order.verify(entityManager).flush();
+        order.verify(entityManager).detach(entries.get(0));
+        order.verify(entityManager).persist(entries.get(50));
+    }
+    
+    @Test
+    void exactMultipleOfTheBatchSizeNeedsNoExtraFlush() {
+        bulkWriter.insertAll(entries(100));
+        
+        verify(entityManager, times(2)).flush();
+    }
+    
+    @Test
+    void nothingToWriteTouchesNothing() {
+        assertEquals(0, bulkWriter.insertAll(List.of()));
+        
+        verifyNoInteractions(entityManager);
+    }
+    
+    private static List<LedgerEntry> entries(int count) {
+        List<LedgerEntry> entries = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            entries.add(LedgerEntry.builder().transactionId("TXN-" + i).build());
+        }
+        return entries;
+    }
+}
@@ -1,13 +1,20 @@
 package com.interview.gocomet.GoComet.DAW.service;
 
+import com.interview.gocomet.GoComet.DAW.datasource.ReadYourWritesListener;
+import com.interview.gocomet.GoComet.DAW.event.ResourceVersionListener;
+import com.interview.gocomet.GoComet.DAW.metrics.HotPathMetrics;
 import com.interview.gocomet.GoComet.DAW.model.Driver;
 import com.interview.gocomet.GoComet.DAW.model.DriverStatus;
+import com.interview.gocomet.GoComet.DAW.repository.DriverLocationIndex;
 import com.interview.gocomet.GoComet.DAW.repository.DriverRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.redis.core.RedisTemplate;
 
@@ -25,9 +32,26 @@ class DriverMatchingServiceTest {
     @Mock
     private DriverRepository driverRepository;
     
+    @Mock
+    private DriverLocationIndex driverLocationIndex;
+    
     @Mock
     private RedisTemplate<String, Object> redisTemplate;
     
+    @Mock
+    private EntityManager entityManager;
+    
+    @Mock
+    private ResourceVersionListener resourceVersionListener;
+    
+    @Mock
+    private ReadYourWritesListener readYourWritesListener;
+    
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    
+    @Spy
+    private HotPathMetrics metrics = new HotPathMetrics(meterRegistry);
+    
     @InjectMocks
     private DriverMatchingService driverMatchingService;
     
@@ -68,6 +92,20 @@ class DriverMatchingServiceTest {
         assertFalse(drivers.isEmpty());
     }
     
+    @Test
+    void testFindAvailableDrivers_UsesSpatialIndexWhenAvailable() {
+        when(driverLocationIndex.isAvailable()).thenReturn(true);
+        when(driverRepository.findNearestAvailableDrivers(28.7041, 77.1025, 10_000.0, 50))
+            .thenReturn(availableDrivers);
+        
+        List<Driver> drivers = driverMatchingService.findAvailableDrivers(28.7041, 77.1025);
+        
+        assertEquals(2, drivers.size());
+        verify(driverRepository, never()).findNearbyAvailableDrivers(
+            anyDouble(), anyDouble(), anyDouble(), anyDouble(),
+            anyDouble(), anyDouble(), anyInt());
+    }
+    
     @Test
     void testMatchDriver_Success() {
         when(driverRepository.findNearbyAvailableDrivers(
@@ -75,13 +113,43 @@ class DriverMatchingServiceTest {
             anyDouble(), anyDouble(), anyInt()
         )).thenReturn(availableDrivers);
         
-        when(driverRepository.findById(1L)).thenReturn(java.util.Optional.of(availableDrivers.get(0)));
-        when(driverRepository.save(any(Driver.class))).thenReturn(availableDrivers.get(0));
+        when(driverRepository.compareAndSetStatus(anyLong(), eq(DriverStatus.AVAILABLE), eq(DriverStatus.ASSIGNED),
+            any(LocalDateTime.class))).thenReturn(1);
+        when(driverRepository.findById(anyLong())).thenAnswer(invocation -> java.util.Optional.of(
+            availableDrivers.get(invocation.<Long>getArgument(0).intValue() - 1)));
+        doAnswer(invocation -> {
+            invocation.<Driver>getArgument(0).setStatus(DriverStatus.ASSIGNED);
+            return null;
+        }).when(entityManager).refresh(any(Driver.class));
         
         Driver matched = driverMatchingService.matchDriver(28.7041, 77.1025);
         
         assertNotNull(matched);
         assertEquals(DriverStatus.ASSIGNED, matched.getStatus());
+        verify(resourceVersionListener).onWrite(matched);
+        verify(readYourWritesListener).onWrite(matched);
+    }
+    
+    @Test
+    void testMatchDriver_RecordsStagesAndLostReservations() {
+        when(driverRepository.findNearbyAvailableDrivers(
+            anyDouble(), anyDouble(), anyDouble(), anyDouble(),
+            anyDouble(), anyDouble(), anyInt()
+        )).thenReturn(availableDrivers);
+        // Both drivers were assigned to other rides between the query and the reservation
+        when(driverRepository.compareAndSetStatus(anyLong(), any(), any(), any())).thenReturn(0);
+        
+        assertNull(driverMatchingService.matchDriver(28.7041, 77.1025));
+        
+        assertEquals(1, meterRegistry.get("matching.stage").tag("stage", "candidates").timer().count());
+        assertEquals(1, meterRegistry.get("matching.stage").tag("stage", "filter").timer().count());
+        // The round-robin pick, then every candidate in turn
+        assertEquals(3, meterRegistry.get("matching.stage").tag("stage", "reserve").timer().count());
+        assertEquals(3.0, meterRegistry.get("matching.reservations").tag("result", "taken").counter().count());
+        assertEquals(2.0, meterRegistry.get("matching.candidates").summary().totalAmount());
+        assertEquals(3.0, meterRegistry.get("matching.reservation.attempts").summary().totalAmount());
+        assertEquals(1, meterRegistry.get("matching.duration").tag("outcome", "all_taken").timer().count());
+        verify(resourceVersionListener, never()).onWrite(any());
     }
 }
 
@@ -0,0 +1,133 @@
+package com.interview.gocomet.GoComet.DAW.service;
+
+import com.interview.gocomet.GoComet.DAW.datasource.ReadYourWrites;
+import com.interview.gocomet.GoComet.DAW.datasource.ReadYourWritesListener;
+import com.interview.gocomet.GoComet.DAW.event.ResourceVersionListener;
+import com.interview.gocomet.GoComet.DAW.metrics.HotPathMetrics;
+import com.interview.gocomet.GoComet.DAW.model.Driver;
+import com.interview.gocomet.GoComet.DAW.model.DriverStatus;
+import com.interview.gocomet.GoComet.DAW.repository.DriverLocationIndex;
+import com.interview.gocomet.GoComet.DAW.repository.DriverRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Concurrent matches racing for the same driver against a real database
+ */
+@DataJpaTest
+@Import({DriverMatchingService.class, ResourceVersionListener.class, ReadYourWritesListener.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DriverReservationTest {
+    
+    @Autowired
+    private DriverMatchingService driverMatchingService;
+    
+    @Autowired
+    private DriverRepository driverRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    // Needed by the entity listeners
+    @MockBean
+    private ResourceVersionService resourceVersions;
+    
+    @MockBean
+    private ReadYourWrites readYourWrites;
+    
+    // Needed by DriverMatchingService; no PostGIS, so the bounding-box query is used
+    @MockBean
+    private DriverLocationIndex driverLocationIndex;
+    
+    @MockBean
+    private RedisTemplate<String, Object> redisTemplate;
+    
+    @MockBean
+    private HotPathMetrics metrics;
+    
+    private Driver driver;
+    
+    @BeforeEach
+    void setUp() {
+        driverRepository.deleteAll();
+        driver = driverRepository.save(Driver.builder()
+            .driverId("DRIVER-R")
+            .name("Driver")
+            .phoneNumber("+910000000000")
+            .vehicleNumber("DL01AB0001")
+            .vehicleType("SEDAN")
+            .status(DriverStatus.AVAILABLE)
+            .latitude(28.7041)
+            .longitude(77.1025)
+            .lastLocationUpdate(LocalDateTime.now())
+            .build());
+    }
+    
+    @Test
+    void twoMatchesForTheSameDriverHaveOneWinnerAndNoConflict() throws Exception {
+        CyclicBarrier start = new CyclicBarrier(2);
+        List<CompletableFuture<Driver>> matches = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            matches.add(CompletableFuture.supplyAsync(() -> new TransactionTemplate(transactionManager).execute(status -> {
+                try {
+                    start.await(5, TimeUnit.SECONDS);
+                    Driver matched = driverMatchingService.matchDriver(28.7041, 77.1025);
+                    // Hold the transaction open so the two overlap
+                    Thread.sleep(200);
+                    return matched;
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            })));
+        }
+        
+        // Both commit: the loser saw 0 rows and returned no driver instead of failing at commit
+        List<Driver> results = new ArrayList<>();
+        for (CompletableFuture<Driver> match : matches) {
+            results.add(match.get(10, TimeUnit.SECONDS));
+        }
+        
+        assertEquals(1, results.stream().filter(Objects::nonNull).count());
+        Driver winner = results.stream().filter(Objects::nonNull).findFirst().orElseThrow();
+        assertEquals(DriverStatus.ASSIGNED, winner.getStatus());
+        Driver stored = driverRepository.findById(driver.getId()).orElseThrow();
+        assertEquals(DriverStatus.ASSIGNED, stored.getStatus());
+        assertEquals(driver.getVersion() + 1, stored.getVersion());
+        assertEquals(stored.getVersion(), winner.getVersion());
+        verify(resourceVersions).changed(eq("driver:DRIVER-R"), eq(stored.getVersion()));
+    }
+    
+    @Test
+    void assignedDriverIsNotReservedAgain() {
+        driver.setStatus(DriverStatus.ASSIGNED);
+        driverRepository.save(driver);
+        clearInvocations(resourceVersions);
+        
+        int reserved = new TransactionTemplate(transactionManager).execute(status -> driverRepository.compareAndSetStatus(
+            driver.getId(), DriverStatus.AVAILABLE, DriverStatus.ASSIGNED, LocalDateTime.now()));
+        
+        assertEquals(0, reserved);
+        verify(resourceVersions, never()).changed(anyString(), anyLong());
+    }
+}
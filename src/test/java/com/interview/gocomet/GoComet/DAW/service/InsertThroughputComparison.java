@@ -0,0 +1,115 @@
+package com.interview.gocomet.GoComet.DAW.service;
+
+import com.interview.gocomet.GoComet.DAW.model.LedgerDirection;
+import com.interview.gocomet.GoComet.DAW.model.LedgerEntry;
+import com.interview.gocomet.GoComet.DAW.model.LedgerEntryType;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.stat.Statistics;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Insert throughput of BulkWriter.insertAll for LedgerEntry under its IDENTITY and its pooled-lo
+ * SEQUENCE id mapping. With IDENTITY Hibernate must run each INSERT on its own to read the
+ * generated key, so batching is impossible; with the sequence it takes one nextval per block of
+ * ids and sends the inserts in JDBC batches of hibernate.jdbc.batch_size. The IDENTITY mapping
+ * is an orm.xml override of the entity's id, everything else is the production mapping.
+ * Defaults to in-memory H2; the gap is far larger against a real server, where every
+ * statement is a network round trip:
+ * gradle compareInsertThroughput -Dbench.url=jdbc:postgresql://localhost:5432/ridehailing
+ *   -Dbench.user=postgres -Dbench.password=postgres
+ */
+public class InsertThroughputComparison {
+    
+    private static final int ROWS = Integer.getInteger("bench.rows", 20_000);
+    private static final int BATCH_SIZE = Integer.getInteger("bench.batch-size", 50);
+    private static final int ROUNDS = 3;
+    
+    private static final String IDENTITY_IDS = """
+        <entity-mappings xmlns="https://jakarta.ee/xml/ns/persistence/orm" version="3.1">
+            <entity class="com.interview.gocomet.GoComet.DAW.model.LedgerEntry" metadata-complete="false">
+                <attributes>
+                    <id name="id">
+                        <generated-value strategy="IDENTITY"/>
+                    </id>
+                </attributes>
+            </entity>
+        </entity-mappings>
+        """;
+    
+    public static void main(String[] args) {
+        System.out.printf("%d rows per round, batch size %d, %s%n", ROWS, BATCH_SIZE,
+            System.getProperty("bench.url", "H2 in memory"));
+        System.out.printf("%-26s %12s %12s%n", "mapping", "rows/s", "statements");
+        run("identity", true);
+        run("sequence pooled-lo", false);
+    }
+    
+    private static void run(String name, boolean identity) {
+        try (SessionFactory sessionFactory = sessionFactory(identity)) {
+            Statistics statistics = sessionFactory.getStatistics();
+            for (int round = 0; round <= ROUNDS; round++) {
+                // Round 0 warms up
+                statistics.clear();
+                long elapsed = insert(sessionFactory, round);
+                if (round > 0) {
+                    System.out.printf("%-26s %12d %12d%n", name, ROWS * 1_000_000_000L / elapsed,
+                        statistics.getPrepareStatementCount());
+                }
+            }
+        }
+    }
+    
+    /**
+     * Returns elapsed nanos
+     */
+    private static long insert(SessionFactory sessionFactory, int round) {
+        List<LedgerEntry> entries = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            entries.add(LedgerEntry.builder()
+                .transactionId("TXN-" + round + "-" + i)
+                .entryType(LedgerEntryType.RIDER_CHARGE)
+                .direction(LedgerDirection.DEBIT)
+                .account("rider:RIDER-" + i)
+                .amountMinor(100L + i)
+                .tripId((long) i)
+                .driverId((long) i)
+                .riderId("RIDER-" + i)
+                .businessDate(LocalDate.now())
+                .build());
+        }
+        try (EntityManager entityManager = sessionFactory.createEntityManager()) {
+            BulkWriter bulkWriter = new BulkWriter(entityManager, BATCH_SIZE);
+            long start = System.nanoTime();
+            entityManager.getTransaction().begin();
+            bulkWriter.insertAll(entries);
+            entityManager.getTransaction().commit();
+            return System.nanoTime() - start;
+        }
+    }
+    
+    private static SessionFactory sessionFactory(boolean identity) {
+        Configuration configuration = new Configuration()
+            .addAnnotatedClass(LedgerEntry.class)
+            .setProperty("hibernate.connection.url", System.getProperty("bench.url", "jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1"))
+            .setProperty("hibernate.connection.username", System.getProperty("bench.user", "sa"))
+            .setProperty("hibernate.connection.password", System.getProperty("bench.password", ""))
+            .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+            .setProperty("hibernate.generate_statistics", "true")
+            .setProperty("hibernate.session.events.log", "false")
+            // As in application.properties
+            .setProperty("hibernate.jdbc.batch_size", String.valueOf(BATCH_SIZE))
+            .setProperty("hibernate.order_inserts", "true")
+            .setProperty("hibernate.id.optimizer.pooled.preferred", "pooled-lo");
+        if (identity) {
+            configuration.addInputStream(new ByteArrayInputStream(IDENTITY_IDS.getBytes(StandardCharsets.UTF_8)));
+        }
+        return configuration.buildSessionFactory();
+    }
+}
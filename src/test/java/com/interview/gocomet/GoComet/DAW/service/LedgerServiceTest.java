@@ -0,0 +1,139 @@
+package com.interview.gocomet.GoComet.DAW.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interview.gocomet.GoComet.DAW.dto.DriverEarningsResponse;
+import com.interview.gocomet.GoComet.DAW.event.DomainEvent;
+import com.interview.gocomet.GoComet.DAW.model.DriverBalance;
+import com.interview.gocomet.GoComet.DAW.model.LedgerDirection;
+import com.interview.gocomet.GoComet.DAW.model.LedgerEntry;
+import com.interview.gocomet.GoComet.DAW.model.OutboxEventType;
+import com.interview.gocomet.GoComet.DAW.model.Payment;
+import com.interview.gocomet.GoComet.DAW.model.PaymentStatus;
+import com.interview.gocomet.GoComet.DAW.model.Trip;
+import com.interview.gocomet.GoComet.DAW.repository.DriverBalanceRepository;
+import com.interview.gocomet.GoComet.DAW.repository.DriverDailyBalanceRepository;
+import com.interview.gocomet.GoComet.DAW.repository.LedgerEntryRepository;
+import com.interview.gocomet.GoComet.DAW.repository.PaymentRepository;
+import com.interview.gocomet.GoComet.DAW.repository.TripRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerServiceTest {
+    
+    @Mock
+    private LedgerWriter ledgerWriter;
+    
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+    
+    @Mock
+    private DriverBalanceRepository driverBalanceRepository;
+    
+    @Mock
+    private DriverDailyBalanceRepository driverDailyBalanceRepository;
+    
+    @Mock
+    private TripRepository tripRepository;
+    
+    @Mock
+    private PaymentRepository paymentRepository;
+    
+    @Captor
+    private ArgumentCaptor<List<LedgerEntry>> entries;
+    
+    private LedgerService ledgerService;
+    
+    private Trip trip;
+    
+    @BeforeEach
+    void setUp() {
+        ledgerService = new LedgerService(ledgerWriter, ledgerEntryRepository, driverBalanceRepository,
+            driverDailyBalanceRepository, tripRepository, paymentRepository, new ObjectMapper(), 0.20, 1000);
+        trip = Trip.builder()
+            .id(10L)
+            .tripId("TRIP-10")
+            .driverId(1L)
+            .riderId("RIDER-1")
+            .build();
+    }
+    
+    @Test
+    void testBuildEntries_Balanced() {
+        List<LedgerEntry> entries = ledgerService.buildEntries("PAY-1", trip, 123.45, LocalDate.now());
+        
+        assertEquals(3, entries.size());
+        long debits = entries.stream().filter(e -> e.getDirection() == LedgerDirection.DEBIT)
+            .mapToLong(LedgerEntry::getAmountMinor).sum();
+        long credits = entries.stream().filter(e -> e.getDirection() == LedgerDirection.CREDIT)
+            .mapToLong(LedgerEntry::getAmountMinor).sum();
+        assertEquals(12345L, debits);
+        assertEquals(debits, credits);
+    }
+    
+    @Test
+    void testPostSettledPayments_OnlySuccessfulPayments() {
+        when(tripRepository.findAllById(anySet())).thenReturn(List.of(trip));
+        when(ledgerWriter.append(anyList())).thenReturn(CompletableFuture.completedFuture(null));
+        
+        ledgerService.postSettledPayments(List.of(
+            paymentEvent(1L, "PAY-1", "PROCESSING"),
+            paymentEvent(2L, "PAY-1", "SUCCESS"),
+            paymentEvent(3L, "PAY-2", "FAILED")));
+        
+        verify(ledgerWriter, times(1)).append(anyList());
+    }
+    
+    @Test
+    void testPostMissedPayments_PostsOnTheDayThePaymentCompleted() {
+        LocalDateTime completedAt = LocalDateTime.of(2024, 1, 1, 23, 59);
+        when(paymentRepository.findCompletedWithoutLedgerEntries(eq(PaymentStatus.SUCCESS), any(), any(), any()))
+            .thenReturn(List.of(Payment.builder().paymentId("PAY-9").tripId(10L).amount(150.0)
+                .status(PaymentStatus.SUCCESS).completedAt(completedAt).build()));
+        when(tripRepository.findAllById(anySet())).thenReturn(List.of(trip));
+        when(ledgerWriter.append(anyList())).thenReturn(CompletableFuture.completedFuture(null));
+        
+        int posted = ledgerService.postMissedPayments(completedAt.minusDays(1), completedAt.plusDays(1), 100);
+        
+        assertEquals(1, posted);
+        verify(ledgerWriter).append(entries.capture());
+        assertTrue(entries.getValue().stream().allMatch(e -> "PAY-9".equals(e.getTransactionId())
+            && completedAt.toLocalDate().equals(e.getBusinessDate())));
+    }
+    
+    @Test
+    void testGetDriverEarnings_FromAggregates() {
+        when(driverBalanceRepository.findById(1L)).thenReturn(Optional.of(
+            DriverBalance.builder().driverId(1L).earningsMinor(25050L).tripCount(3L).build()));
+        when(driverDailyBalanceRepository.findByDriverIdAndBusinessDate(eq(1L), any(LocalDate.class)))
+            .thenReturn(Optional.empty());
+        
+        DriverEarningsResponse earnings = ledgerService.getDriverEarnings(1L, "DRIVER-1", LocalDate.now());
+        
+        assertEquals(250.50, earnings.getTotalEarnings(), 0.001);
+        assertEquals(3L, earnings.getTotalTrips());
+        assertEquals(0.0, earnings.getDayEarnings(), 0.001);
+        verifyNoInteractions(ledgerEntryRepository);
+    }
+    
+    private DomainEvent paymentEvent(Long id, String paymentId, String status) {
+        String payload = "{\"paymentId\":\"" + paymentId + "\",\"tripId\":10,\"amount\":150.0,\"status\":\"" + status + "\"}";
+        return new DomainEvent(id, OutboxService.AGGREGATE_PAYMENT, paymentId,
+            OutboxEventType.PAYMENT_STATUS_CHANGED, payload, LocalDateTime.now());
+    }
+}
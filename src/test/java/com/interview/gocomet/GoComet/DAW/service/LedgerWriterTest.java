@@ -0,0 +1,180 @@
+package com.interview.gocomet.GoComet.DAW.service;
+
+import com.interview.gocomet.GoComet.DAW.model.DriverBalance;
+import com.interview.gocomet.GoComet.DAW.model.DriverDailyBalance;
+import com.interview.gocomet.GoComet.DAW.model.LedgerDirection;
+import com.interview.gocomet.GoComet.DAW.model.LedgerEntry;
+import com.interview.gocomet.GoComet.DAW.model.LedgerEntryType;
+import com.interview.gocomet.GoComet.DAW.repository.DriverBalanceRepository;
+import com.interview.gocomet.GoComet.DAW.repository.DriverDailyBalanceRepository;
+import com.interview.gocomet.GoComet.DAW.repository.LedgerEntryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerWriterTest {
+    
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+    
+    @Mock
+    private DriverBalanceRepository driverBalanceRepository;
+    
+    @Mock
+    private DriverDailyBalanceRepository driverDailyBalanceRepository;
+    
+    @Mock
+    private BulkWriter bulkWriter;
+    
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    
+    @Captor
+    private ArgumentCaptor<Collection<LedgerEntry>> inserted;
+    
+    @Captor
+    private ArgumentCaptor<List<DriverBalance>> lifetime;
+    
+    @Captor
+    private ArgumentCaptor<List<DriverDailyBalance>> daily;
+    
+    private LedgerWriter ledgerWriter;
+    
+    private final LocalDate today = LocalDate.of(2024, 1, 2);
+    private final LocalDate yesterday = today.minusDays(1);
+    
+    @BeforeEach
+    void setUp() {
+        ledgerWriter = new LedgerWriter(ledgerEntryRepository, driverBalanceRepository, driverDailyBalanceRepository,
+            bulkWriter, transactionManager, 600, 200, 100);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        ledgerWriter.stop();
+    }
+    
+    private static List<LedgerEntry> payment(String paymentId, long driverId, long driverMinor, LocalDate businessDate) {
+        return List.of(
+            entry(paymentId, LedgerEntryType.RIDER_CHARGE, LedgerDirection.DEBIT, driverMinor + 100, driverId, businessDate),
+            entry(paymentId, LedgerEntryType.PLATFORM_FEE, LedgerDirection.CREDIT, 100, driverId, businessDate),
+            entry(paymentId, LedgerEntryType.DRIVER_CREDIT, LedgerDirection.CREDIT, driverMinor, driverId, businessDate));
+    }
+    
+    private static LedgerEntry entry(String paymentId, LedgerEntryType type, LedgerDirection direction,
+                                     long amountMinor, long driverId, LocalDate businessDate) {
+        return LedgerEntry.builder()
+            .transactionId(paymentId)
+            .entryType(type)
+            .direction(direction)
+            .account(type.name())
+            .amountMinor(amountMinor)
+            .tripId(1L)
+            .driverId(driverId)
+            .riderId("RIDER-1")
+            .businessDate(businessDate)
+            .build();
+    }
+    
+    @Test
+    void testAppend_QueuedAppendsShareOneTransaction() throws Exception {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(ledgerEntryRepository.findExistingTransactionIds(anyCollection())).thenReturn(List.of());
+        
+        // Queued before the writer starts, so they are all waiting when it takes its first group
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(ledgerWriter.append(payment("PAY-" + i, 1L, 1000, today)));
+        }
+        ledgerWriter.start();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        
+        verify(transactionManager, times(1)).getTransaction(any());
+        verify(transactionManager, times(1)).commit(any());
+        verify(bulkWriter, times(1)).insertAll(inserted.capture());
+        assertEquals(9, inserted.getValue().size());
+    }
+    
+    @Test
+    void testWriteBatch_SkipsPostedAndDuplicateTransactions() {
+        when(ledgerEntryRepository.findExistingTransactionIds(anyCollection())).thenReturn(List.of("PAY-1"));
+        List<LedgerEntry> entries = new ArrayList<>();
+        entries.addAll(payment("PAY-1", 1L, 1000, today));
+        entries.addAll(payment("PAY-2", 1L, 2000, today));
+        entries.addAll(payment("PAY-2", 1L, 2000, today));
+        
+        int written = ledgerWriter.writeBatch(entries);
+        
+        assertEquals(3, written);
+        verify(bulkWriter).insertAll(inserted.capture());
+        assertTrue(inserted.getValue().stream().allMatch(e -> "PAY-2".equals(e.getTransactionId())));
+        verify(driverBalanceRepository).saveAll(lifetime.capture());
+        assertEquals(2000L, lifetime.getValue().get(0).getEarningsMinor());
+        assertEquals(1L, lifetime.getValue().get(0).getTripCount());
+    }
+    
+    @Test
+    void testWriteBatch_ReplayOfPostedTransactionsWritesNothing() {
+        when(ledgerEntryRepository.findExistingTransactionIds(anyCollection())).thenReturn(List.of("PAY-1"));
+        
+        assertEquals(0, ledgerWriter.writeBatch(payment("PAY-1", 1L, 1000, today)));
+        
+        verifyNoInteractions(bulkWriter, driverBalanceRepository, driverDailyBalanceRepository);
+    }
+    
+    @Test
+    void testWriteBatch_FoldsCreditsIntoBalancesWithOneDailyQuery() {
+        when(ledgerEntryRepository.findExistingTransactionIds(anyCollection())).thenReturn(List.of());
+        when(driverBalanceRepository.findAllById(anyCollection())).thenReturn(List.of(
+            DriverBalance.builder().driverId(1L).earningsMinor(5000L).tripCount(5L).build()));
+        when(driverDailyBalanceRepository.findByDriverIdInAndBusinessDateIn(anyCollection(), anyCollection()))
+            .thenReturn(List.of(DriverDailyBalance.builder().driverId(1L).businessDate(today)
+                .earningsMinor(500L).tripCount(1L).build()));
+        List<LedgerEntry> entries = new ArrayList<>();
+        entries.addAll(payment("PAY-1", 1L, 1000, today));
+        entries.addAll(payment("PAY-2", 1L, 2000, yesterday));
+        entries.addAll(payment("PAY-3", 2L, 3000, today));
+        
+        ledgerWriter.writeBatch(entries);
+        
+        verify(driverBalanceRepository).saveAll(lifetime.capture());
+        Map<Long, DriverBalance> byDriver = lifetime.getValue().stream()
+            .collect(Collectors.toMap(DriverBalance::getDriverId, Function.identity()));
+        assertEquals(8000L, byDriver.get(1L).getEarningsMinor());
+        assertEquals(7L, byDriver.get(1L).getTripCount());
+        assertEquals(3000L, byDriver.get(2L).getEarningsMinor());
+        assertEquals(1L, byDriver.get(2L).getTripCount());
+        
+        verify(driverDailyBalanceRepository).saveAll(daily.capture());
+        assertEquals(3, daily.getValue().size());
+        DriverDailyBalance driverOneToday = daily.getValue().stream()
+            .filter(b -> b.getDriverId() == 1L && today.equals(b.getBusinessDate()))
+            .findFirst().orElseThrow();
+        assertEquals(1500L, driverOneToday.getEarningsMinor());
+        assertEquals(2L, driverOneToday.getTripCount());
+        verify(driverDailyBalanceRepository, times(1)).findByDriverIdInAndBusinessDateIn(anyCollection(), anyCollection());
+        verify(driverDailyBalanceRepository, never()).findByDriverIdAndBusinessDate(anyLong(), any());
+    }
+}
@@ -0,0 +1,171 @@
+package com.interview.gocomet.GoComet.DAW.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.interview.gocomet.GoComet.DAW.event.FileOutboxSink;
+import com.interview.gocomet.GoComet.DAW.event.OutboxSink;
+import com.interview.gocomet.GoComet.DAW.model.OutboxEvent;
+import com.interview.gocomet.GoComet.DAW.model.OutboxEventType;
+import com.interview.gocomet.GoComet.DAW.config.ShardingProperties;
+import com.interview.gocomet.GoComet.DAW.repository.OutboxEventRepository;
+import com.interview.gocomet.GoComet.DAW.sharding.RegionDirectory;
+import com.interview.gocomet.GoComet.DAW.sharding.ScatterGather;
+import com.interview.gocomet.GoComet.DAW.sharding.ShardContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+    
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+    
+    @TempDir
+    Path tempDir;
+    
+    private ObjectMapper objectMapper;
+    private Path eventsFile;
+    
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        eventsFile = tempDir.resolve("events.ndjson");
+    }
+    
+    private List<OutboxEvent> events(long fromId, int count) {
+        List<OutboxEvent> events = new ArrayList<>();
+        for (long id = fromId; id < fromId + count; id++) {
+            events.add(OutboxEvent.builder()
+                .id(id)
+                .aggregateType(OutboxService.AGGREGATE_RIDE)
+                .aggregateId("RIDE-" + (id % 2))
+                .eventType(OutboxEventType.RIDE_STATUS_CHANGED)
+                .payload("{\"seq\":" + id + "}")
+                .createdAt(LocalDateTime.now())
+                .build());
+        }
+        return events;
+    }
+    
+    private static ScatterGather unsharded() {
+        return new ScatterGather(RegionDirectory.unsharded());
+    }
+    
+    @Test
+    void testRelay_DrainsFullBatchesInOrderToFileSink() throws Exception {
+        when(outboxEventRepository.findSettled(any(LocalDateTime.class), any(Pageable.class)))
+            .thenReturn(events(1, 3))
+            .thenReturn(events(4, 3))
+            .thenReturn(events(7, 1));
+        OutboxRelay relay = new OutboxRelay(outboxEventRepository,
+            List.of(new FileOutboxSink(eventsFile, objectMapper)), unsharded(), true, 3, 10, 24, 1000);
+        
+        relay.relay();
+        
+        List<String> lines = Files.readAllLines(eventsFile);
+        assertEquals(7, lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            JsonNode node = objectMapper.readTree(lines.get(i));
+            assertEquals(i + 1, node.get("eventId").asLong());
+        }
+        verify(outboxEventRepository, times(3)).markPublished(anyCollection(), any(LocalDateTime.class));
+    }
+    
+    @Test
+    void testRelay_SinkFailureLeavesBatchUnpublished() {
+        when(outboxEventRepository.findSettled(any(LocalDateTime.class), any(Pageable.class)))
+            .thenReturn(events(1, 3));
+        OutboxSink failing = mock(OutboxSink.class);
+        when(failing.getName()).thenReturn("failing");
+        doThrow(new IllegalStateException("down")).when(failing).publish(anyList());
+        OutboxRelay relay = new OutboxRelay(outboxEventRepository, List.of(failing), unsharded(), true, 3, 10, 24, 1000);
+        
+        relay.relay();
+        
+        verify(outboxEventRepository, times(1)).findSettled(any(LocalDateTime.class), any(Pageable.class));
+        verify(outboxEventRepository, never()).markPublished(anyCollection(), any(LocalDateTime.class));
+    }
+    
+    @Test
+    void testRelay_IsolatedSinkFailureDoesNotHoldUpTheOthers() {
+        when(outboxEventRepository.findSettled(any(LocalDateTime.class), any(Pageable.class)))
+            .thenReturn(events(1, 3))
+            .thenReturn(List.of());
+        OutboxSink isolated = mock(OutboxSink.class);
+        when(isolated.getName()).thenReturn("ledger");
+        when(isolated.isIsolated()).thenReturn(true);
+        doThrow(new IllegalStateException("down")).when(isolated).publish(anyList());
+        OutboxSink healthy = mock(OutboxSink.class);
+        OutboxRelay relay = new OutboxRelay(outboxEventRepository, List.of(isolated, healthy), unsharded(),
+            true, 3, 10, 24, 1000);
+        
+        relay.relay();
+        
+        verify(healthy, times(1)).publish(anyList());
+        verify(outboxEventRepository, times(1)).markPublished(anyCollection(), any(LocalDateTime.class));
+    }
+    
+    @Test
+    void testRelay_OnlyClaimsEventsOlderThanTheSettleWindow() {
+        when(outboxEventRepository.findSettled(any(LocalDateTime.class), any(Pageable.class)))
+            .thenReturn(List.of());
+        OutboxRelay relay = new OutboxRelay(outboxEventRepository, List.of(mock(OutboxSink.class)), unsharded(),
+            true, 3, 10, 24, 5000);
+        LocalDateTime before = LocalDateTime.now();
+        
+        relay.relay();
+        
+        ArgumentCaptor<LocalDateTime> settledBefore = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(outboxEventRepository).findSettled(settledBefore.capture(), any(Pageable.class));
+        assertFalse(settledBefore.getValue().isAfter(LocalDateTime.now().minusSeconds(5)));
+        assertFalse(settledBefore.getValue().isBefore(before.minusSeconds(5)));
+    }
+    
+    @Test
+    void testRelay_DrainsEachRegionsOutboxOnItsRegion() {
+        ShardingProperties properties = new ShardingProperties();
+        properties.setEnabled(true);
+        ShardingProperties.Region blr = new ShardingProperties.Region();
+        blr.setIndex(1);
+        properties.getRegions().put("BLR", blr);
+        ScatterGather scatterGather = new ScatterGather(new RegionDirectory(properties));
+        
+        List<String> regionsSeen = new ArrayList<>();
+        when(outboxEventRepository.findSettled(any(LocalDateTime.class), any(Pageable.class))).thenAnswer(invocation -> {
+            String region = ShardContext.current().code();
+            regionsSeen.add(region);
+            return region.equals("BLR") ? events((1L << 40) + 1, 2) : events(1, 1);
+        });
+        List<String> published = new ArrayList<>();
+        OutboxSink sink = mock(OutboxSink.class);
+        doAnswer(invocation -> {
+            published.add(ShardContext.current().code());
+            return null;
+        }).when(sink).publish(anyList());
+        OutboxRelay relay = new OutboxRelay(outboxEventRepository, List.of(sink), scatterGather, true, 3, 10, 24, 1000);
+        
+        relay.relay();
+        
+        assertEquals(List.of("DEFAULT", "BLR"), regionsSeen);
+        assertEquals(List.of("DEFAULT", "BLR"), published);
+        assertNull(ShardContext.current());
+        verify(outboxEventRepository, times(2)).markPublished(anyCollection(), any(LocalDateTime.class));
+        scatterGather.shutdown();
+    }
+}
@@ -0,0 +1,185 @@
+package com.interview.gocomet.GoComet.DAW.service;
+
+import com.interview.gocomet.GoComet.DAW.model.Payment;
+import com.interview.gocomet.GoComet.DAW.model.PaymentStatus;
+import com.interview.gocomet.GoComet.DAW.resilience.CircuitBreaker;
+import com.interview.gocomet.GoComet.DAW.sharding.RegionDirectory;
+import com.interview.gocomet.GoComet.DAW.sharding.ScatterGather;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentProcessorTest {
+    
+    @Mock
+    private PaymentService paymentService;
+    
+    private PaymentProcessor paymentProcessor;
+    
+    private Payment payment;
+    
+    @BeforeEach
+    void setUp() {
+        payment = Payment.builder()
+            .id(1L)
+            .paymentId("PAY-1")
+            .tripId(1L)
+            .amount(150.0)
+            .status(PaymentStatus.PROCESSING)
+            .build();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        if (paymentProcessor != null) {
+            paymentProcessor.shutdown();
+        }
+    }
+    
+    private PaymentProcessor processor(PaymentGateway gateway, long timeoutMs, int maxAttempts, int failureThreshold) {
+        return processor(gateway, 60_000, timeoutMs, maxAttempts, failureThreshold);
+    }
+    
+    private PaymentProcessor processor(PaymentGateway gateway, long queueTimeoutMs, long timeoutMs, int maxAttempts,
+                                       int failureThreshold) {
+        RegionDirectory regions = RegionDirectory.unsharded();
+        return new PaymentProcessor(paymentService, gateway, regions, new ScatterGather(regions),
+            2, 10, queueTimeoutMs, timeoutMs, maxAttempts, 1, 5, failureThreshold, 60_000, 60_000, false);
+    }
+    
+    private void pending(String... paymentIds) {
+        for (String paymentId : paymentIds) {
+            when(paymentService.markProcessing(paymentId)).thenReturn(Optional.of(payment));
+        }
+    }
+    
+    @Test
+    void testSubmit_SuccessWithSimulatedLatency() {
+        when(paymentService.markProcessing("PAY-1")).thenReturn(Optional.of(payment));
+        paymentProcessor = processor(new SimulatedPaymentGateway(50, 150, 0.0, 0.0), 1000, 3, 5);
+        
+        paymentProcessor.submit("PAY-1");
+        
+        verify(paymentService, timeout(2000)).completePayment(eq("PAY-1"), startsWith("PSP-"));
+        verify(paymentService, never()).failPayment(anyString(), anyString());
+    }
+    
+    @Test
+    void testSubmit_RetriesAfterTimeout() {
+        when(paymentService.markProcessing("PAY-1")).thenReturn(Optional.of(payment));
+        PaymentGateway slowThenFast = mock(PaymentGateway.class);
+        when(slowThenFast.charge(any(Payment.class)))
+            .thenAnswer(invocation -> {
+                Thread.sleep(500);
+                return "PSP-SLOW";
+            })
+            .thenReturn("PSP-FAST");
+        paymentProcessor = processor(slowThenFast, 100, 3, 5);
+        
+        paymentProcessor.submit("PAY-1");
+        
+        verify(paymentService, timeout(2000)).completePayment("PAY-1", "PSP-FAST");
+        verify(paymentService, times(2)).markProcessing("PAY-1");
+    }
+    
+    @Test
+    void testSubmit_TimedOutCallIsInterrupted() throws Exception {
+        when(paymentService.markProcessing("PAY-1")).thenReturn(Optional.of(payment));
+        CountDownLatch interrupted = new CountDownLatch(1);
+        PaymentGateway hanging = mock(PaymentGateway.class);
+        when(hanging.charge(any(Payment.class)))
+            .thenAnswer(invocation -> {
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    throw e;
+                }
+                return "PSP-HUNG";
+            })
+            .thenReturn("PSP-FAST");
+        paymentProcessor = processor(hanging, 100, 3, 5);
+        
+        paymentProcessor.submit("PAY-1");
+        
+        assertTrue(interrupted.await(2, TimeUnit.SECONDS));
+        verify(paymentService, timeout(2000)).completePayment("PAY-1", "PSP-FAST");
+        verify(paymentService, never()).completePayment("PAY-1", "PSP-HUNG");
+    }
+    
+    @Test
+    void testSubmit_TimeoutStartsWhenTheWorkerDoes() {
+        pending("PAY-1", "PAY-2", "PAY-3", "PAY-4");
+        // Two workers: PAY-3 and PAY-4 queue behind calls that take most of the timeout
+        paymentProcessor = processor(new SimulatedPaymentGateway(150, 150, 0.0, 0.0), 250, 1, 1);
+        
+        for (String paymentId : new String[] {"PAY-1", "PAY-2", "PAY-3", "PAY-4"}) {
+            paymentProcessor.submit(paymentId);
+        }
+        
+        verify(paymentService, timeout(2000).times(4)).completePayment(anyString(), startsWith("PSP-"));
+        verify(paymentService, never()).failPayment(anyString(), anyString());
+        assertEquals(CircuitBreaker.State.CLOSED, paymentProcessor.getCircuitBreaker().getState());
+    }
+    
+    @Test
+    void testSubmit_QueueExpiryLeavesThePaymentPendingWithoutTrippingTheBreaker() {
+        pending("PAY-1", "PAY-2");
+        paymentProcessor = processor(new SimulatedPaymentGateway(300, 300, 0.0, 0.0), 50, 1000, 3, 1);
+        
+        paymentProcessor.submit("PAY-1");
+        paymentProcessor.submit("PAY-2");
+        paymentProcessor.submit("PAY-3");
+        
+        verify(paymentService, timeout(2000).times(2)).completePayment(anyString(), startsWith("PSP-"));
+        // PAY-3 never reached the PSP, is not retried and is back to the sweep
+        verify(paymentService, never()).markProcessing("PAY-3");
+        verify(paymentService, never()).failPayment(anyString(), anyString());
+        assertEquals(CircuitBreaker.State.CLOSED, paymentProcessor.getCircuitBreaker().getState());
+    }
+    
+    @Test
+    void testSubmit_DeclineIsNotRetried() {
+        when(paymentService.markProcessing("PAY-1")).thenReturn(Optional.of(payment));
+        paymentProcessor = processor(new SimulatedPaymentGateway(0, 0, 0.0, 1.0), 1000, 3, 5);
+        
+        paymentProcessor.submit("PAY-1");
+        
+        verify(paymentService, timeout(2000)).failPayment(eq("PAY-1"), contains("declined"));
+        verify(paymentService, times(1)).markProcessing("PAY-1");
+        assertEquals(CircuitBreaker.State.CLOSED, paymentProcessor.getCircuitBreaker().getState());
+    }
+    
+    @Test
+    void testSubmit_GatewayErrorsOpenCircuitAndFailPayment() {
+        when(paymentService.markProcessing("PAY-1")).thenReturn(Optional.of(payment));
+        paymentProcessor = processor(new SimulatedPaymentGateway(0, 0, 1.0, 0.0), 1000, 2, 2);
+        
+        paymentProcessor.submit("PAY-1");
+        
+        verify(paymentService, timeout(2000)).failPayment(eq("PAY-1"), contains("after 2 attempts"));
+        assertEquals(CircuitBreaker.State.OPEN, paymentProcessor.getCircuitBreaker().getState());
+    }
+    
+    @Test
+    void testBackoffDelay_BoundedByMax() {
+        paymentProcessor = processor(new SimulatedPaymentGateway(0, 0, 0.0, 0.0), 1000, 3, 5);
+        
+        for (int attempt = 1; attempt < 40; attempt++) {
+            long delay = paymentProcessor.backoffDelayMs(attempt);
+            assertTrue(delay >= 0 && delay <= 5, "delay out of range: " + delay);
+        }
+    }
+}
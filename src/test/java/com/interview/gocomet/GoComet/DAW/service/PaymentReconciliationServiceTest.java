@@ -0,0 +1,107 @@
+package com.interview.gocomet.GoComet.DAW.service;
+
+import com.interview.gocomet.GoComet.DAW.dto.ReconciliationReport;
+import com.interview.gocomet.GoComet.DAW.model.ReconciliationMismatchType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentReconciliationServiceTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    private JdbcTemplate jdbcTemplate;
+    private Path settlementFile;
+    private Path mismatchFile;
+    private Path checkpointFile;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:reconciliation;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate.execute("CREATE TABLE payments (payment_id VARCHAR(255) PRIMARY KEY, status VARCHAR(20), " +
+            "amount DOUBLE PRECISION, psp_transaction_id VARCHAR(255))");
+        insert("PAY-01", "SUCCESS", 100.0, "PSP-01");
+        insert("PAY-02", "SUCCESS", 250.5, "PSP-02");
+        insert("PAY-03", "SUCCESS", 80.0, "PSP-03");
+        insert("PAY-04", "FAILED", 60.0, null);
+        insert("PAY-05", "SUCCESS", 40.0, "PSP-05");
+        insert("PAY-07", "SUCCESS", 75.0, "PSP-07");
+        
+        settlementFile = tempDir.resolve("settlement.csv");
+        Files.write(settlementFile, List.of(
+            "paymentId,pspTransactionId,amount,status",
+            "PAY-01,PSP-01,100.00,SETTLED",
+            "PAY-02,PSP-02,250.00,SETTLED",
+            "PAY-04,PSP-04,60.00,SETTLED",
+            "PAY-05,PSP-XX,40.00,SETTLED",
+            "PAY-06,PSP-06,10.00,SETTLED",
+            "PAY-07,PSP-07,75.00,SETTLED"));
+        mismatchFile = tempDir.resolve("mismatches.csv");
+        checkpointFile = tempDir.resolve("reconciliation.checkpoint");
+    }
+    
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE payments");
+    }
+    
+    private void insert(String paymentId, String status, double amount, String pspTransactionId) {
+        jdbcTemplate.update("INSERT INTO payments VALUES (?, ?, ?, ?)", paymentId, status, amount, pspTransactionId);
+    }
+    
+    @Test
+    void testReconcile_ReportsEveryMismatchType() throws Exception {
+        PaymentReconciliationService service = new PaymentReconciliationService(jdbcTemplate, 2, 2);
+        
+        ReconciliationReport report = service.reconcile(settlementFile, mismatchFile, checkpointFile);
+        
+        assertEquals(6, report.getPaymentsScanned());
+        assertEquals(6, report.getSettlementRowsScanned());
+        assertEquals(2, report.getMatched());
+        assertEquals(1L, report.getMismatches().get(ReconciliationMismatchType.AMOUNT_MISMATCH));
+        assertEquals(1L, report.getMismatches().get(ReconciliationMismatchType.MISSING_IN_SETTLEMENT));
+        assertEquals(1L, report.getMismatches().get(ReconciliationMismatchType.STATUS_MISMATCH));
+        assertEquals(1L, report.getMismatches().get(ReconciliationMismatchType.TRANSACTION_ID_MISMATCH));
+        assertEquals(1L, report.getMismatches().get(ReconciliationMismatchType.UNKNOWN_PAYMENT));
+        assertEquals(6, Files.readAllLines(mismatchFile).size());
+        assertFalse(Files.exists(checkpointFile));
+    }
+    
+    @Test
+    void testReconcile_ResumesFromCheckpoint() throws Exception {
+        Files.write(mismatchFile, List.of(
+            "paymentId,type,dbStatus,dbAmount,dbPspTransactionId,settlementStatus,settlementAmount,settlementPspTransactionId",
+            "PAY-02,AMOUNT_MISMATCH,SUCCESS,250.50,PSP-02,SETTLED,250.00,PSP-02"));
+        long checkpointedBytes = Files.size(mismatchFile);
+        Files.writeString(mismatchFile, "PAY-03,MISSING_IN_SETTLEMENT,SUCCESS,80.00,PSP-03,,,\n",
+            java.nio.file.StandardOpenOption.APPEND);
+        Files.write(checkpointFile, List.of(
+            "lastKey=PAY-02",
+            "paymentsScanned=2",
+            "settlementRowsScanned=2",
+            "matched=1",
+            "outputBytes=" + checkpointedBytes,
+            "mismatch.AMOUNT_MISMATCH=1"));
+        PaymentReconciliationService service = new PaymentReconciliationService(jdbcTemplate, 2, 100);
+        
+        ReconciliationReport report = service.reconcile(settlementFile, mismatchFile, checkpointFile);
+        
+        assertTrue(report.isResumed());
+        assertEquals(6, report.getPaymentsScanned());
+        assertEquals(2, report.getMatched());
+        assertEquals(5, report.getTotalMismatches());
+        List<String> lines = Files.readAllLines(mismatchFile);
+        assertEquals(6, lines.size());
+        assertEquals(1, lines.stream().filter(line -> line.startsWith("PAY-03")).count());
+    }
+}
@@ -0,0 +1,171 @@
+package com.interview.gocomet.GoComet.DAW.service;
+
+import com.interview.gocomet.GoComet.DAW.resilience.RedisGuard;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.listener.Topic;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ResourceVersionServiceTest {
+    
+    // What Redis holds, with the max-set script applied the way Redis would run it
+    private final Map<String, String> shared = new ConcurrentHashMap<>();
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    private final RedisGuard redisGuard = mock(RedisGuard.class);
+    private ResourceVersionService versions;
+    
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(redisGuard.isAvailable()).thenReturn(true);
+        when(redisGuard.execute(any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get());
+        when(redisGuard.tryRun(any())).thenAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(0)).run();
+            return true;
+        });
+        ValueOperations<String, String> values = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(values);
+        when(values.get(anyString())).thenAnswer(invocation -> shared.get(invocation.<String>getArgument(0)));
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any())).thenAnswer(invocation -> {
+            String key = invocation.<List<String>>getArgument(1).get(0);
+            long proposed = Long.parseLong(invocation.getArgument(2));
+            return Long.parseLong(shared.merge(key, String.valueOf(proposed),
+                (current, next) -> String.valueOf(Math.max(Long.parseLong(current), Long.parseLong(next)))));
+        });
+        versions = newNode();
+    }
+    
+    @SuppressWarnings("unchecked")
+    private ResourceVersionService newNode() {
+        return new ResourceVersionService(redisTemplate, redisGuard, mock(ObjectProvider.class),
+            "resource-versions", 1000, 60_000, 600_000);
+    }
+    
+    @Test
+    void readsNeverOverwriteACommittedVersion() {
+        String key = ResourceVersionService.rideKey("RIDE-1");
+        versions.changed(key, 5);
+        
+        // A read that started before the commit reports the older version
+        versions.observed(key, 4L);
+        assertEquals(Optional.of(5L), versions.current(key));
+        
+        // Out-of-order commit notifications do not move the version back either
+        versions.changed(key, 3);
+        assertEquals(Optional.of(5L), versions.current(key));
+        assertEquals("5", shared.get("version:" + key));
+    }
+    
+    @Test
+    void olderChangeLosesToAHigherVersionAnotherNodeStored() {
+        String key = ResourceVersionService.rideKey("RIDE-3");
+        ResourceVersionService otherNode = newNode();
+        otherNode.changed(key, 7);
+        
+        versions.changed(key, 6);
+        
+        assertEquals(Optional.of(7L), versions.current(key));
+        // Only the node that raised the version broadcasts it
+        verify(redisTemplate, times(1)).convertAndSend(eq("resource-versions"), endsWith("|7|" + key));
+    }
+    
+    @Test
+    void waiterCompletesOnLocalChangeOnly() {
+        String key = ResourceVersionService.tripKey(7L);
+        versions.observed(key, 2L);
+        CompletableFuture<Long> change = versions.awaitChange(key, 2);
+        
+        versions.changed(ResourceVersionService.tripKey(8L), 9);
+        assertFalse(change.isDone());
+        
+        versions.changed(key, 3);
+        assertEquals(3L, change.join());
+        assertEquals(0, versions.getWaiterCount());
+    }
+    
+    @Test
+    void broadcastFromAnotherNodeWakesWaitersAndRaisesTheLocalCopy() {
+        String key = ResourceVersionService.driverKey("DRIVER-2");
+        versions.observed(key, 1L);
+        CompletableFuture<Long> change = versions.awaitChange(key, 1);
+        
+        versions.onMessage(new DefaultMessage("resource-versions".getBytes(StandardCharsets.UTF_8),
+            ("other-node|2|" + key).getBytes(StandardCharsets.UTF_8)), null);
+        
+        assertEquals(2L, change.join());
+        assertEquals(Optional.of(2L), versions.current(key));
+    }
+    
+    @Test
+    void recheckPicksUpChangesWhoseBroadcastWasMissed() {
+        String key = ResourceVersionService.driverKey("DRIVER-1");
+        versions.observed(key, 1L);
+        CompletableFuture<Long> change = versions.awaitChange(key, 1);
+        
+        // Another node raised the shared version; its broadcast never arrived
+        shared.put("version:" + key, "2");
+        assertFalse(change.isDone());
+        
+        versions.recheckWaiters();
+        assertEquals(2L, change.join());
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void withoutRedisVersionsAreKeptPerNode() {
+        when(redisGuard.isAvailable()).thenReturn(false);
+        doReturn(false).when(redisGuard).tryRun(any());
+        String key = ResourceVersionService.rideKey("RIDE-4");
+        
+        versions.changed(key, 4);
+        versions.changed(key, 2);
+        
+        assertEquals(Optional.of(4L), versions.current(key));
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(), any());
+    }
+    
+    @Test
+    void subscribesToTheBroadcastChannel() {
+        RedisMessageListenerContainer container = mock(RedisMessageListenerContainer.class);
+        @SuppressWarnings("unchecked")
+        ObjectProvider<RedisMessageListenerContainer> provider = mock(ObjectProvider.class);
+        doAnswer(invocation -> {
+            invocation.<Consumer<RedisMessageListenerContainer>>getArgument(0).accept(container);
+            return null;
+        }).when(provider).ifAvailable(any());
+        
+        ResourceVersionService node = new ResourceVersionService(redisTemplate, redisGuard, provider,
+            "resource-versions", 1000, 60_000, 600_000);
+        
+        verify(container).addMessageListener(eq(node), any(Topic.class));
+    }
+    
+    @Test
+    void cancelledWaiterIsDropped() {
+        String key = ResourceVersionService.rideKey("RIDE-2");
+        versions.observed(key, 0L);
+        CompletableFuture<Long> change = versions.awaitChange(key, 0);
+        
+        change.cancel(false);
+        
+        assertEquals(0, versions.getWaiterCount());
+    }
+}
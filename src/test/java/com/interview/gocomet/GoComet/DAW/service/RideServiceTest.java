@@ -1,6 +1,8 @@
 package com.interview.gocomet.GoComet.DAW.service;
 
+import com.interview.gocomet.GoComet.DAW.datasource.ReadYourWrites;
 import com.interview.gocomet.GoComet.DAW.dto.RideRequest;
+import com.interview.gocomet.GoComet.DAW.metrics.HotPathMetrics;
 import com.interview.gocomet.GoComet.DAW.model.Driver;
 import com.interview.gocomet.GoComet.DAW.model.DriverStatus;
 import com.interview.gocomet.GoComet.DAW.model.Ride;
@@ -8,11 +10,13 @@ import com.interview.gocomet.GoComet.DAW.model.RideStatus;
 import com.interview.gocomet.GoComet.DAW.model.RideTier;
 import com.interview.gocomet.GoComet.DAW.model.PaymentMethod;
 import com.interview.gocomet.GoComet.DAW.repository.RideRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
@@ -34,6 +38,15 @@ class RideServiceTest {
     @Mock
     private DriverService driverService;
     
+    @Mock
+    private OutboxService outboxService;
+    
+    @Mock
+    private ReadYourWrites readYourWrites;
+    
+    @Spy
+    private HotPathMetrics metrics = new HotPathMetrics(new SimpleMeterRegistry());
+    
     @InjectMocks
     private RideService rideService;
     
@@ -110,6 +123,8 @@ class RideServiceTest {
         assertNotNull(response);
         assertEquals("RIDE-1", response.getRideId());
         assertEquals(RideStatus.MATCHED, response.getStatus());
+        // The result fills the shared cache, so it is never read from a replica
+        verify(readYourWrites).pinToPrimary();
     }
     
     @Test
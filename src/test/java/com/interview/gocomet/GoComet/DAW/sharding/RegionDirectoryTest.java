@@ -0,0 +1,81 @@
+package com.interview.gocomet.GoComet.DAW.sharding;
+
+import com.interview.gocomet.GoComet.DAW.config.ShardingProperties;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegionDirectoryTest {
+    
+    static ShardingProperties twoRegions() {
+        ShardingProperties properties = new ShardingProperties();
+        properties.setEnabled(true);
+        properties.getRegions().put("DEL", region(0, 28.4, 28.9, 76.8, 77.4));
+        properties.getRegions().put("blr", region(1, 12.8, 13.2, 77.4, 77.8));
+        properties.setDefaultRegion("del");
+        return properties;
+    }
+    
+    private static ShardingProperties.Region region(int index, double minLat, double maxLat, double minLon, double maxLon) {
+        ShardingProperties.Region region = new ShardingProperties.Region();
+        region.setIndex(index);
+        region.setMinLatitude(minLat);
+        region.setMaxLatitude(maxLat);
+        region.setMinLongitude(minLon);
+        region.setMaxLongitude(maxLon);
+        return region;
+    }
+    
+    @Test
+    void locatesPickupsByBoundingBoxAndFallsBackToTheDefault() {
+        RegionDirectory directory = new RegionDirectory(twoRegions());
+        
+        assertEquals("BLR", directory.locate(12.97, 77.59).code());
+        assertEquals("DEL", directory.locate(28.70, 77.10).code());
+        assertEquals("DEL", directory.locate(19.07, 72.87).code());
+    }
+    
+    @Test
+    void readsTheRegionFromBusinessIds() {
+        RegionDirectory directory = new RegionDirectory(twoRegions());
+        
+        assertEquals("BLR", directory.ofBusinessId("RIDE-BLR-3f1c2a9e-0000-4000-8000-000000000000").code());
+        assertEquals("BLR", directory.ofBusinessId("DRIVER-BLR-7").code());
+        assertEquals("DEL", directory.ofBusinessId("DRIVER-1").code());
+        assertEquals("DEL", directory.ofBusinessId("RIDE-3f1c2a9e-0000-4000-8000-000000000000").code());
+        assertEquals("DEL", directory.ofBusinessId("PAY-XYZ-1").code());
+        assertEquals("DEL", directory.ofBusinessId(null).code());
+    }
+    
+    @Test
+    void readsTheRegionFromNumericIdHighBits() {
+        RegionDirectory directory = new RegionDirectory(twoRegions());
+        Region blr = directory.byCode("BLR");
+        
+        assertEquals("DEL", directory.ofNumericId(42).code());
+        assertEquals(blr, directory.ofNumericId(blr.idOffset() + 1));
+        assertThrows(IllegalArgumentException.class, () -> directory.ofNumericId(5L << Region.ID_SHIFT));
+    }
+    
+    @Test
+    void unshardedAnswersTheDefaultRegionForEverything() {
+        RegionDirectory directory = RegionDirectory.unsharded();
+        
+        assertFalse(directory.isSharded());
+        assertEquals(1, directory.getRegions().size());
+        assertSame(directory.getDefaultRegion(), directory.ofBusinessId("RIDE-BLR-1"));
+        assertSame(directory.getDefaultRegion(), directory.locate(12.97, 77.59));
+        assertEquals(0, directory.getDefaultRegion().index());
+    }
+    
+    @Test
+    void rejectsDuplicateIndexesAndNonLetterCodes() {
+        ShardingProperties duplicate = twoRegions();
+        duplicate.getRegions().put("BOM", region(1, 18.9, 19.3, 72.7, 73.1));
+        assertThrows(IllegalStateException.class, () -> new RegionDirectory(duplicate));
+        
+        ShardingProperties badCode = twoRegions();
+        badCode.getRegions().put("B2", region(2, 18.9, 19.3, 72.7, 73.1));
+        assertThrows(IllegalStateException.class, () -> new RegionDirectory(badCode));
+    }
+}
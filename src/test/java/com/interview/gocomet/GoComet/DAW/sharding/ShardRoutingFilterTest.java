@@ -0,0 +1,74 @@
+package com.interview.gocomet.GoComet.DAW.sharding;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardRoutingFilterTest {
+    
+    private RegionDirectory directory;
+    private ShardRoutingFilter filter;
+    
+    @BeforeEach
+    void setUp() {
+        directory = new RegionDirectory(RegionDirectoryTest.twoRegions());
+        filter = new ShardRoutingFilter(directory, new ObjectMapper());
+    }
+    
+    private String regionFor(MockHttpServletRequest request, AtomicReference<String> forwardedBody) throws Exception {
+        AtomicReference<Region> seen = new AtomicReference<>();
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            seen.set(ShardContext.current());
+            if (forwardedBody != null) {
+                forwardedBody.set(new String(req.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+            }
+        });
+        assertNull(ShardContext.current());
+        return seen.get() != null ? seen.get().code() : null;
+    }
+    
+    private static MockHttpServletRequest post(String path, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+    
+    @Test
+    void routesNewRidesByPickupAndForwardsTheBody() throws Exception {
+        String body = "{\"riderId\":\"R1\",\"pickupLatitude\":12.97,\"pickupLongitude\":77.59}";
+        AtomicReference<String> forwarded = new AtomicReference<>();
+        
+        assertEquals("BLR", regionFor(post("/v1/rides", body), forwarded));
+        assertEquals(body, forwarded.get());
+        assertEquals("DEL", regionFor(post("/v1/rides", "{\"pickupLatitude\":28.7,\"pickupLongitude\":77.1}"), null));
+    }
+    
+    @Test
+    void routesByTheIdInThePath() throws Exception {
+        long blrTrip = directory.byCode("BLR").idOffset() + 9;
+        
+        assertEquals("BLR", regionFor(new MockHttpServletRequest("GET", "/v1/rides/RIDE-BLR-abc"), null));
+        assertEquals("BLR", regionFor(new MockHttpServletRequest("POST", "/v1/drivers/DRIVER-BLR-2/location"), null));
+        assertEquals("BLR", regionFor(new MockHttpServletRequest("POST", "/v1/trips/" + blrTrip + "/end"), null));
+        assertEquals("DEL", regionFor(new MockHttpServletRequest("GET", "/v1/trips/9"), null));
+        assertEquals("BLR", regionFor(new MockHttpServletRequest("GET", "/v1/payments/PAY-BLR-abc"), null));
+        assertEquals("BLR", regionFor(post("/v1/payments", "{\"tripId\":" + blrTrip + "}"), null));
+    }
+    
+    @Test
+    void leavesCrossRegionAndMalformedRequestsUnrouted() throws Exception {
+        assertNull(regionFor(new MockHttpServletRequest("GET", "/v1/rides/active"), null));
+        assertNull(regionFor(post("/v1/drivers/locations", "[]"), null));
+        assertNull(regionFor(new MockHttpServletRequest("GET", "/v1/rides"), null));
+        assertNull(regionFor(new MockHttpServletRequest("GET", "/v1/trips/not-a-number"), null));
+        assertNull(regionFor(new MockHttpServletRequest("GET", "/v1/trips/" + (7L << Region.ID_SHIFT)), null));
+    }
+}